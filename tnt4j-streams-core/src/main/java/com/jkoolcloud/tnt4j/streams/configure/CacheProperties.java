@@ -42,5 +42,13 @@ public interface CacheProperties {
 	 * Constant for name of built-in {@value} property.
 	 */
 	String PROP_PERSISTING_PERIOD = "PersistingPeriod"; // NON-NLS
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_PERSISTING_FORMAT = "PersistingFormat"; // NON-NLS
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_STREAM_NAMESPACES = "StreamNamespaces"; // NON-NLS
 
 }
@@ -85,4 +85,59 @@ public interface OutputProperties {
 	 * Constant for name of built-in {@value} property.
 	 */
 	String PROP_SEND_STREAM_STATES = "SendStreamStates"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_ASYNC_SEND = "AsyncSend"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_ASYNC_QUEUE_SIZE = "AsyncQueueSize"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_ASYNC_BATCH_SIZE = "AsyncBatchSize"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_ASYNC_SENDER_THREADS = "AsyncSenderThreads"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_SPILL_DIR = "SpillDir"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_SPILL_SEGMENT_SIZE = "SpillSegmentSize"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_ACTIVITIES_BATCH_SIZE = "ActivitiesBatchSize"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_ACTIVITIES_BATCH_BYTES = "ActivitiesBatchBytes"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_ACTIVITIES_BATCH_LINGER = "ActivitiesBatchLinger"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_TRACKERS_POOL_SIZE = "TrackersPoolSize"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_TRACKER_IDLE_TIMEOUT = "TrackerIdleTimeout"; // NON-NLS
 }
@@ -114,4 +114,9 @@ public interface ParserProperties {
 	 * Constant for name of built-in {@value} property.
 	 */
 	String PROP_PARSER_NAME = "ParserName"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_STREAMING_MODE = "StreamingMode"; // NON-NLS
 }
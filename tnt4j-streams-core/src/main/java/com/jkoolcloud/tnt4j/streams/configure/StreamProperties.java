@@ -108,6 +108,11 @@ public interface StreamProperties extends OutputProperties {
 	 */
 	String PROP_EXECUTORS_IMMEDIATE_SHUTDOWN = "ExecutorsImmediateShutdown"; // NON-NLS
 
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_EXECUTORS_ORDERED = "ExecutorsOrderedModel"; // NON-NLS
+
 	/**
 	 * Constant for name of built-in {@value} property.
 	 */
@@ -168,6 +173,21 @@ public interface StreamProperties extends OutputProperties {
 	 */
 	String PROP_FULL_BUFFER_ADD_POLICY = "FullBufferAddPolicy"; // NON-NLS
 
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_BUFFER_TYPE = "BufferType"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_BUFFER_WAIT_STRATEGY = "BufferWaitStrategy"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_BUFFER_DRAIN_BATCH_SIZE = "BufferDrainBatchSize"; // NON-NLS
+
 	/**
 	 * Constant for name of built-in {@value} property.
 	 */
@@ -232,4 +252,19 @@ public interface StreamProperties extends OutputProperties {
 	 * Constant for name of built-in {@value} property.
 	 */
 	String PROP_CHARSET = "Charset"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_LINES_BATCH_SIZE = "LinesBatchSize"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_MEMORY_MAPPED_READ = "MemoryMappedRead"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_ADAPTIVE_PARSERS_ORDER = "AdaptiveParsersOrder"; // NON-NLS
 }
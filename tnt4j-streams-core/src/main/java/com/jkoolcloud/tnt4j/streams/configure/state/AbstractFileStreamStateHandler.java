@@ -20,6 +20,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Reader;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.zip.CRC32;
 import java.util.zip.Checksum;
@@ -35,12 +36,18 @@ import org.apache.commons.lang3.StringUtils;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.streams.inputs.AbstractFileLineStream;
+import com.jkoolcloud.tnt4j.streams.utils.PositionedLineReader;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
 import com.jkoolcloud.tnt4j.streams.utils.Utils;
 
 /**
  * The class manages stream resuming from last file read line. It manages streamed files access state persisting, and
  * loading of persisted state.
+ * <p>
+ * When persisted state has last read line byte offset, file is checked by reading line directly at that offset and
+ * matching its CRC. If line matches, stream can continue reading file from byte offset following that line. Otherwise
+ * (file got truncated, rotated or can't be accessed by byte offset) line is searched by line number in range of
+ * persisted line number.
  *
  * @param <T>
  *            the type of streamed file descriptor
@@ -79,6 +86,9 @@ public abstract class AbstractFileStreamStateHandler<T> {
 
 	private FileAccessState fileAccessState;
 
+	private Charset charset;
+	private long lineOffset = -1;
+
 	/**
 	 * Constructs a new AbstractFileStreamStateHandler.
 	 */
@@ -129,7 +139,11 @@ public abstract class AbstractFileStreamStateHandler<T> {
 			if (fileAccessState != null) {
 				file = findStreamingFile(fileAccessState, activityFiles);
 				if (file != null) {
-					fileAccessState.currentLineNumber = checkLine(file, fileAccessState);
+					lineOffset = checkLineOffset(file, fileAccessState);
+					if (lineOffset < 0) {
+						fileAccessState.currentLineOffset = null;
+						fileAccessState.currentLineNumber = checkLine(file, fileAccessState);
+					}
 					if (linePolicy == LinePolicy.HALT_IF_CRC_MISMATCH
 							&& Utils.isZero(fileAccessState.currentLineNumber)) {
 						throw new IllegalStateException(StreamsResources.getString(
@@ -218,6 +232,63 @@ public abstract class AbstractFileStreamStateHandler<T> {
 		return 0;
 	}
 
+	/**
+	 * Check if file has persisted state defined line at persisted line byte offset and returns byte offset of next
+	 * line in file.
+	 *
+	 * @param file
+	 *            file to check line matching CRC
+	 * @param fileAccessState
+	 *            persisted streamed files access state
+	 *
+	 * @return next line byte offset, or {@code -1} if line at persisted byte offset does not match CRC
+	 *
+	 * @throws IOException
+	 *             if I/O exception occurs
+	 */
+	long checkLineOffset(T file, FileAccessState fileAccessState) throws IOException {
+		if (fileAccessState.currentLineOffset == null || fileAccessState.currentLineCrc == null
+				|| StringUtils.isEmpty(fileAccessState.charsetName)) {
+			return -1;
+		}
+
+		Charset stateCharset;
+		try {
+			stateCharset = Charset.forName(fileAccessState.charsetName);
+		} catch (IllegalArgumentException exc) {
+			return -1;
+		}
+
+		PositionedLineReader reader = null;
+		try {
+			reader = openFile(file, fileAccessState.currentLineOffset, stateCharset);
+			if (reader != null) {
+				String line = reader.readLine();
+				if (line != null && getLineCrc(line) == fileAccessState.currentLineCrc) {
+					return reader.getPosition();
+				}
+			}
+		} finally {
+			Utils.close(reader);
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Calculates CRC value of provided file line.
+	 *
+	 * @param line
+	 *            file line string
+	 * @return line CRC value
+	 */
+	public static long getLineCrc(String line) {
+		CRC32 crc = new CRC32();
+		byte[] bytes4Line = line.getBytes(StandardCharsets.UTF_8);
+		crc.update(bytes4Line, 0, bytes4Line.length);
+		return crc.getValue();
+	}
+
 	/**
 	 * Check the line CRC.
 	 *
@@ -356,6 +427,28 @@ public abstract class AbstractFileStreamStateHandler<T> {
 	 */
 	abstract Reader openFile(T file) throws IOException;
 
+	/**
+	 * Creates a new {@link PositionedLineReader} object for given file to read lines starting from provided byte
+	 * offset.
+	 * <p>
+	 * Default implementation does not support file reading from byte offset and returns {@code null}.
+	 *
+	 * @param file
+	 *            file to open for reading
+	 * @param offset
+	 *            file byte offset to start reading from
+	 * @param charset
+	 *            file charset
+	 *
+	 * @return reader to read file lines, or {@code null} if file can't be read from provided byte offset
+	 *
+	 * @throws IOException
+	 *             if file fails to open
+	 */
+	PositionedLineReader openFile(T file, long offset, Charset charset) throws IOException {
+		return null;
+	}
+
 	/**
 	 * Calculates CRC value for bytes read from provided input stream.
 	 *
@@ -406,6 +499,30 @@ public abstract class AbstractFileStreamStateHandler<T> {
 		return isStreamedFileAvailable() ? getLastReadLineNumber() : 0;
 	}
 
+	/**
+	 * Gets the byte offset of file line to be streamed.
+	 *
+	 * @return byte offset of line to be streamed, or {@code -1} if byte offset is unknown
+	 */
+	public long getLineOffset() {
+		return isStreamedFileAvailable() ? lineOffset : -1;
+	}
+
+	/**
+	 * Sets charset of streamed file. Line byte offsets are persisted only when charset is set and supported by
+	 * {@link PositionedLineReader}. If persisted state was made for different charset, byte offset of line to be
+	 * streamed gets discarded.
+	 *
+	 * @param charset
+	 *            streamed file charset
+	 */
+	public void setStreamedFileCharset(Charset charset) {
+		this.charset = PositionedLineReader.isSupported(charset) ? charset : null;
+		if (this.charset == null || !this.charset.name().equals(fileAccessState.charsetName)) {
+			lineOffset = -1;
+		}
+	}
+
 	private int getLastReadLineNumber() {
 		return fileAccessState == null || fileAccessState.currentLineNumber == null ? 0
 				: fileAccessState.currentLineNumber;
@@ -515,10 +632,16 @@ public abstract class AbstractFileStreamStateHandler<T> {
 			fileAccessState.currentLineNumber = lineNr;
 			fileAccessState.lastReadTime = System.currentTimeMillis();
 
-			CRC32 crc = new CRC32();
-			byte[] bytes4Line = lineStr.getBytes(StandardCharsets.UTF_8);
-			crc.update(bytes4Line, 0, bytes4Line.length);
-			fileAccessState.currentLineCrc = crc.getValue();
+			if (charset == null || procLine.getOffset() < 0) {
+				fileAccessState.currentLineCrc = getLineCrc(lineStr);
+				fileAccessState.currentLineOffset = null;
+				fileAccessState.charsetName = null;
+			} else {
+				// offset and CRC of same file line, since multi-line activity data spans several lines
+				fileAccessState.currentLineCrc = procLine.getOffsetLineCrc();
+				fileAccessState.currentLineOffset = procLine.getOffset();
+				fileAccessState.charsetName = charset.name();
+			}
 		} catch (Exception exc) {
 			Utils.logThrowable(logger(), OpLevel.ERROR,
 					StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
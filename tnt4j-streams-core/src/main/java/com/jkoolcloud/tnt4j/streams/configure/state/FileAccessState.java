@@ -23,7 +23,8 @@ import javax.xml.bind.annotation.*;
  * stops/fails.
  * <p>
  * Uses file header CRC to point the file, instead of commonly used name, because name of streamed rolling log file is
- * changing. Last read line pointer has two attributes: line number and line CRC.
+ * changing. Last read line pointer has two attributes: line number and line CRC. Optionally it also has line byte offset
+ * and file charset name, allowing to continue file reading without re-reading preceding file lines.
  *
  * @version $Revision: 1 $
  */
@@ -51,6 +52,16 @@ public class FileAccessState {
 	 */
 	@XmlElement
 	public Long lastReadTime;
+	/**
+	 * Byte offset of line last read.
+	 */
+	@XmlElement
+	public Long currentLineOffset;
+	/**
+	 * Charset name of file last read.
+	 */
+	@XmlElement
+	public String charsetName;
 
 	/**
 	 * Constructs a new ActivityJsonParser.
@@ -18,15 +18,19 @@ package com.jkoolcloud.tnt4j.streams.configure.state;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import javax.xml.bind.JAXBException;
 
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.streams.utils.LoggerUtils;
+import com.jkoolcloud.tnt4j.streams.utils.PositionedLineReader;
+import com.jkoolcloud.tnt4j.streams.utils.Utils;
 
 /**
  * Implements streamed files access state handler.
@@ -71,6 +75,21 @@ public class FileStreamStateHandler extends AbstractFileStreamStateHandler<Path>
 		return Files.newBufferedReader(file, Charset.defaultCharset());
 	}
 
+	@Override
+	PositionedLineReader openFile(Path file, long offset, Charset charset) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			if (channel.size() < offset) {
+				Utils.close(channel);
+				return null;
+			}
+			return new PositionedLineReader(channel, charset, offset, 0);
+		} catch (IOException exc) {
+			Utils.close(channel);
+			throw exc;
+		}
+	}
+
 	@Override
 	public boolean isStreamedFileAvailable() {
 		return file != null && Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS);
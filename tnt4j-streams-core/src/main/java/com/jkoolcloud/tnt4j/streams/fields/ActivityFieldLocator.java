@@ -62,6 +62,8 @@ public class ActivityFieldLocator extends AbstractFieldEntity implements Cloneab
 	private NumericFormatter numberParser = null;
 	private TimestampFormatter timeParser = null;
 
+	private Object preparedResolver = null;
+
 	/**
 	 * Constructs a new activity field locator for either a built-in type or a custom type.
 	 *
@@ -489,6 +491,26 @@ public class ActivityFieldLocator extends AbstractFieldEntity implements Cloneab
 		return id;
 	}
 
+	/**
+	 * Returns locator value resolver prepared by parser using this locator.
+	 *
+	 * @return prepared locator value resolver, or {@code null} if resolver is not prepared yet
+	 */
+	public Object getPreparedResolver() {
+		return preparedResolver;
+	}
+
+	/**
+	 * Sets locator value resolver prepared by parser using this locator. Resolver is prepared once, so parser does not
+	 * need to evaluate locator type and locator string for every parsed activity.
+	 *
+	 * @param preparedResolver
+	 *            prepared locator value resolver
+	 */
+	public void setPreparedResolver(Object preparedResolver) {
+		this.preparedResolver = preparedResolver;
+	}
+
 	/**
 	 * Adds a mapping to translate a raw data value to the corresponding converted data value.
 	 *
@@ -20,7 +20,6 @@ import java.lang.reflect.Field;
 import java.text.MessageFormat;
 import java.text.ParseException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -47,7 +46,7 @@ import com.jkoolcloud.tnt4j.uuid.DefaultUUIDFactory;
  * This class represents an {@link com.jkoolcloud.tnt4j.core.Trackable} entity (e.g. activity/event/snapshot/dataset) to
  * record to jKoolCloud.
  *
- * @version $Revision: 3 $
+ * @version $Revision: 4 $
  */
 public class ActivityInfo {
 	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(ActivityInfo.class);
@@ -58,9 +57,8 @@ public class ActivityInfo {
 	private static final String KV_DELIM = "\\="; // NON-NLS
 	private static final String PATH_DELIM = "\\."; // NON-NLS
 
-	private static final Map<String, String> HOST_CACHE = new ConcurrentHashMap<>();
-	private static final String LOCAL_SERVER_NAME_KEY = "LOCAL_SERVER_NAME_KEY"; // NON-NLS
-	private static final String LOCAL_SERVER_IP_KEY = "LOCAL_SERVER_IP_KEY"; // NON-NLS
+	private static volatile String localServerName = null;
+	private static volatile String localServerIp = null;
 
 	private String serverName = null;
 	private String serverIp = null;
@@ -1339,56 +1337,33 @@ public class ActivityInfo {
 
 	/**
 	 * Resolves server name and/or IP Address based on values specified.
+	 * <p>
+	 * DNS resolution is performed asynchronously by {@link com.jkoolcloud.tnt4j.streams.utils.HostNameResolver}, so
+	 * until server name or IP address gets resolved, unresolved value is used.
 	 *
 	 * @param resolveOverDNS
 	 *            flag indicating whether to use DNS to resolve server names and IP addresses
 	 */
 	public void resolveServer(boolean resolveOverDNS) {
 		if (StringUtils.isEmpty(serverName) && StringUtils.isEmpty(serverIp)) {
-			serverName = HOST_CACHE.get(LOCAL_SERVER_NAME_KEY);
-			serverIp = HOST_CACHE.get(LOCAL_SERVER_IP_KEY);
-
-			if (serverName == null) {
-				serverName = Utils.getLocalHostName();
-				HOST_CACHE.put(LOCAL_SERVER_NAME_KEY, serverName);
+			if (localServerName == null) {
+				localServerName = Utils.getLocalHostName();
 			}
-			if (serverIp == null) {
-				serverIp = Utils.getLocalHostAddress();
-				HOST_CACHE.put(LOCAL_SERVER_IP_KEY, serverIp);
+			if (localServerIp == null) {
+				localServerIp = Utils.getLocalHostAddress();
 			}
+			serverName = localServerName;
+			serverIp = localServerIp;
 		} else if (StringUtils.isEmpty(serverName)) {
 			if (resolveOverDNS) {
-				try {
-					serverName = HOST_CACHE.get(serverIp);
-					if (StringUtils.isEmpty(serverName)) {
-						serverName = Utils.resolveAddressToHostName(serverIp);
-						if (StringUtils.isEmpty(serverName)) {
-							// Add entry so we don't repeatedly attempt to look up unresolvable IP Address
-							HOST_CACHE.put(serverIp, "");
-						} else {
-							HOST_CACHE.put(serverIp, serverName);
-							HOST_CACHE.put(serverName, serverIp);
-						}
-					}
-				} catch (Exception e) {
-					serverName = serverIp;
-				}
-			} else {
+				serverName = HostNameResolver.resolveAddressToHostName(serverIp);
+			}
+			if (StringUtils.isEmpty(serverName)) {
 				serverName = serverIp;
 			}
 		} else if (StringUtils.isEmpty(serverIp)) {
 			if (resolveOverDNS) {
-				serverIp = HOST_CACHE.get(serverName);
-				if (StringUtils.isEmpty(serverIp)) {
-					serverIp = Utils.resolveHostNameToAddress(serverName);
-					if (StringUtils.isEmpty(serverIp)) {
-						// Add entry so we don't repeatedly attempt to look up unresolvable host name
-						HOST_CACHE.put(serverName, "");
-					} else {
-						HOST_CACHE.put(serverIp, serverName);
-						HOST_CACHE.put(serverName, serverIp);
-					}
-				}
+				serverIp = HostNameResolver.resolveHostNameToAddress(serverName);
 			}
 		}
 
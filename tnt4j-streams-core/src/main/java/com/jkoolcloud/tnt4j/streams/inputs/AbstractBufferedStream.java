@@ -16,8 +16,11 @@
 
 package com.jkoolcloud.tnt4j.streams.inputs;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -28,6 +31,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.streams.configure.StreamProperties;
+import com.jkoolcloud.tnt4j.streams.utils.RingBufferQueue;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsThread;
 import com.jkoolcloud.tnt4j.streams.utils.Utils;
@@ -38,18 +42,32 @@ import com.jkoolcloud.tnt4j.streams.utils.Utils;
  * <p>
  * This activity stream supports the following configuration properties (in addition to those supported by
  * {@link TNTParseableInputStream}):
+ * <p>
+ * Input processors may put RAW activity data items into buffer queue one by one, or in batches taking single buffer
+ * queue slot for whole batch - see {@link #addInputBatchToBuffer(java.util.List)}. Batched items are handed to
+ * consumer thread one by one, keeping batch items order.
  * <ul>
  * <li>BufferSize - maximal buffer queue capacity. Default value - {@code 1024}. (Optional)</li>
  * <li>FullBufferAddPolicy - defines policy how to perform adding new RAW activity data entry, when buffer queue is
  * full: {@code 'WAIT'} or {@code 'DROP'}. Default value - {@code 'WAIT'}. (Optional)</li>
+ * <li>BufferType - defines buffer queue implementation: {@code 'BLOCKING'} - fair {@link ArrayBlockingQueue},
+ * {@code 'RING_MPSC'} - lock-free ring buffer filled by multiple producer threads, {@code 'RING_SPSC'} - lock-free ring
+ * buffer filled by single producer thread (falls back to {@code 'RING_MPSC'} if stream buffer is filled by multiple
+ * threads, see {@link #isSingleProducer()}). Default value - {@code 'BLOCKING'}. (Optional)</li>
+ * <li>BufferWaitStrategy - defines how ring buffer producer/consumer threads wait for buffer to get available:
+ * {@code 'PARK'}, {@code 'YIELD'} or {@code 'SPIN'}. Default value - {@code 'PARK'}. (Optional, actual only for ring
+ * buffer types)</li>
+ * <li>BufferDrainBatchSize - maximal number of items taken from buffer queue at once by stream consumer thread. Default
+ * value - {@code 1}. (Optional)</li>
  * </ul>
  *
  * @param <T>
  *            the type of handled RAW activity data
  *
- * @version $Revision: 3 $
+ * @version $Revision: 5 $
  *
  * @see ArrayBlockingQueue
+ * @see RingBufferQueue
  */
 public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<T> {
 	private static final int DEFAULT_INPUT_BUFFER_SIZE = 1024;
@@ -57,11 +75,15 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 
 	private int bufferSize;
 	private FullBufferAddPolicy fullBufferAddPolicy = FullBufferAddPolicy.WAIT;
+	private BufferType bufferType = BufferType.BLOCKING;
+	private RingBufferQueue.WaitStrategy bufferWaitStrategy = RingBufferQueue.WaitStrategy.PARK;
+	private int drainBatchSize = 1;
 
 	/**
 	 * RAW activity data items buffer queue. Items in this queue are processed asynchronously by consumer thread(s).
 	 */
 	protected BlockingQueue<Object> inputBuffer;
+	private final Deque<Object> drainedItems = new ArrayDeque<>();
 	private ThreadLocal<T> currentItem = new ThreadLocal<>();
 
 	private Gauge<String> loadGauge;
@@ -100,6 +122,12 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 			bufferSize = Integer.parseInt(value);
 		} else if (StreamProperties.PROP_FULL_BUFFER_ADD_POLICY.equalsIgnoreCase(name)) {
 			fullBufferAddPolicy = FullBufferAddPolicy.valueOf(value.toUpperCase());
+		} else if (StreamProperties.PROP_BUFFER_TYPE.equalsIgnoreCase(name)) {
+			bufferType = BufferType.valueOf(value.toUpperCase());
+		} else if (StreamProperties.PROP_BUFFER_WAIT_STRATEGY.equalsIgnoreCase(name)) {
+			bufferWaitStrategy = RingBufferQueue.WaitStrategy.valueOf(value.toUpperCase());
+		} else if (StreamProperties.PROP_BUFFER_DRAIN_BATCH_SIZE.equalsIgnoreCase(name)) {
+			drainBatchSize = Integer.parseInt(value);
 		}
 	}
 
@@ -111,12 +139,21 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 		if (StreamProperties.PROP_FULL_BUFFER_ADD_POLICY.equalsIgnoreCase(name)) {
 			return fullBufferAddPolicy;
 		}
+		if (StreamProperties.PROP_BUFFER_TYPE.equalsIgnoreCase(name)) {
+			return bufferType;
+		}
+		if (StreamProperties.PROP_BUFFER_WAIT_STRATEGY.equalsIgnoreCase(name)) {
+			return bufferWaitStrategy;
+		}
+		if (StreamProperties.PROP_BUFFER_DRAIN_BATCH_SIZE.equalsIgnoreCase(name)) {
+			return drainBatchSize;
+		}
 		return super.getProperty(name);
 	}
 
 	@Override
 	protected void initialize() throws Exception {
-		inputBuffer = new ArrayBlockingQueue<>(bufferSize, true);
+		inputBuffer = createInputBuffer();
 
 		MetricRegistry streamMetrics = TNTInputStreamStatistics.getMetrics(this);
 
@@ -132,6 +169,42 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 		super.initialize();
 	}
 
+	/**
+	 * Creates RAW activity data items buffer queue instance, based on stream configuration defined buffer type.
+	 *
+	 * @return buffer queue instance
+	 */
+	protected BlockingQueue<Object> createInputBuffer() {
+		switch (bufferType) {
+		case RING_MPSC:
+			return new RingBufferQueue<>(bufferSize, false, bufferWaitStrategy);
+		case RING_SPSC:
+			if (isSingleProducer()) {
+				return new RingBufferQueue<>(bufferSize, true, bufferWaitStrategy);
+			}
+			logger().log(OpLevel.WARNING, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"AbstractBufferedStream.single.producer.fallback", getName(), BufferType.RING_SPSC,
+					BufferType.RING_MPSC);
+			return new RingBufferQueue<>(bufferSize, false, bufferWaitStrategy);
+		case BLOCKING:
+		default:
+			return new ArrayBlockingQueue<>(bufferSize, true);
+		}
+	}
+
+	/**
+	 * Checks whether stream input buffer is filled by single producer thread, so single producer ring buffer can be
+	 * used.
+	 * <p>
+	 * Default implementation returns {@code false}, since stream input processors may put items into buffer from
+	 * multiple threads. Subclasses running single input thread should override this method.
+	 *
+	 * @return {@code true} if input buffer is filled by single thread, {@code false} - otherwise
+	 */
+	protected boolean isSingleProducer() {
+		return false;
+	}
+
 	/**
 	 * Adds terminator object to input buffer.
 	 */
@@ -194,10 +267,10 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 
 		while (true) {
 			// Buffer is empty and producer input is ended. No more items going to be available.
-			if (inputBuffer.isEmpty()) {
+			if (isBufferEmpty()) {
 				boolean end = canStop();
 				// in case something appeared in buffer while checking.
-				if (end && inputBuffer.isEmpty()) {
+				if (end && isBufferEmpty()) {
 					return null;
 				}
 			}
@@ -267,9 +340,33 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 	 *             if interrupted while waiting for activity item data to get available in the buffer
 	 */
 	protected Object getItemFromBuffer() throws InterruptedException {
-		try (Timer.Context ctx = readWaitTimer.time()) {
-			return inputBuffer.poll(20, TimeUnit.SECONDS);
+		Object qe = drainedItems.poll();
+		if (qe == null && drainBatchSize > 1 && inputBuffer.drainTo(drainedItems, drainBatchSize) > 0) {
+			qe = drainedItems.poll();
+		}
+		if (qe == null) {
+			try (Timer.Context ctx = readWaitTimer.time()) {
+				qe = inputBuffer.poll(20, TimeUnit.SECONDS);
+			}
+		}
+
+		return unpackBatch(qe);
+	}
+
+	private Object unpackBatch(Object qe) {
+		if (qe instanceof InputBatch) {
+			List<?> items = ((InputBatch) qe).items;
+			for (int i = items.size() - 1; i > 0; i--) {
+				drainedItems.addFirst(items.get(i));
+			}
+			return items.get(0);
 		}
+
+		return qe;
+	}
+
+	private boolean isBufferEmpty() {
+		return drainedItems.isEmpty() && inputBuffer.isEmpty();
 	}
 
 	/**
@@ -311,7 +408,8 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 	@SuppressWarnings("unchecked")
 	protected void cleanup() {
 		if (inputBuffer != null) {
-			Collection<Object> itemList = new ArrayList<>();
+			Collection<Object> itemList = new ArrayList<>(drainedItems);
+			drainedItems.clear();
 			inputBuffer.drainTo(itemList);
 
 			if (!itemList.isEmpty()) {
@@ -319,7 +417,13 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 					if (DIE_MARKER.equals(item)) {
 						continue;
 					}
-					cleanupItem((T) item);
+					if (item instanceof InputBatch) {
+						for (Object bItem : ((InputBatch) item).items) {
+							cleanupItem((T) bItem);
+						}
+					} else {
+						cleanupItem((T) item);
+					}
 				}
 			}
 		}
@@ -355,40 +459,92 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 	 * @see BlockingQueue#put(Object)
 	 */
 	protected boolean addInputToBuffer(T inputData) throws IllegalStateException {
+		return addEntryToBuffer(inputData, 1);
+	}
+
+	/**
+	 * Adds batch of input data items to buffer for asynchronous processing. Whole batch takes single buffer queue
+	 * slot, thus reducing producer and consumer threads contention on buffer queue. Batch may not be added, if buffer
+	 * size limit is exceeded and stream configuration parameter {@code 'FullBufferAddPolicy'} value is
+	 * {@code 'DROP'}.
+	 *
+	 * @param inputBatch
+	 *            input data items batch to add to buffer
+	 * @return {@code true} if input data batch is added to buffer, {@code false} - otherwise
+	 *
+	 * @throws IllegalStateException
+	 *             if buffer queue is not initialized
+	 *
+	 * @see #addInputToBuffer(Object)
+	 */
+	protected boolean addInputBatchToBuffer(List<T> inputBatch) throws IllegalStateException {
+		if (inputBatch == null || inputBatch.isEmpty()) {
+			return false;
+		}
+		if (inputBatch.size() == 1) {
+			return addInputToBuffer(inputBatch.get(0));
+		}
+
+		return addEntryToBuffer(new InputBatch(inputBatch), inputBatch.size());
+	}
+
+	private boolean addEntryToBuffer(Object entry, int itemsCount) throws IllegalStateException {
 		if (inputBuffer == null) {
 			throw new IllegalStateException(StreamsResources.getString(StreamsResources.RESOURCE_BUNDLE_NAME,
 					"AbstractBufferedStream.changes.buffer.uninitialized"));
 		}
-		if (inputData != null && !isHalted()) {
+		if (entry != null && !isHalted()) {
 			switch (fullBufferAddPolicy) {
 			case DROP:
-				boolean added = inputBuffer.offer(inputData);
+				boolean added = inputBuffer.offer(entry);
 				if (added) {
-					writeMeter.mark();
+					writeMeter.mark(itemsCount);
 					lastWriteTime = System.currentTimeMillis();
 				} else {
 					logger().log(OpLevel.WARNING, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
-							"AbstractBufferedStream.changes.buffer.limit", inputData);
-					incrementLostActivitiesCount();
+							"AbstractBufferedStream.changes.buffer.limit", entry);
+					incrementLostActivitiesCount(itemsCount);
 				}
 				return added;
 			case WAIT:
 			default:
 				try (Timer.Context ctx = writeWaitTimer.time()) {
-					inputBuffer.put(inputData);
-					writeMeter.mark();
+					inputBuffer.put(entry);
+					writeMeter.mark(itemsCount);
 					lastWriteTime = System.currentTimeMillis();
 					return true;
 				} catch (InterruptedException exc) {
 					logger().log(OpLevel.WARNING, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
-							"AbstractBufferedStream.put.interrupted", inputData);
-					incrementLostActivitiesCount();
+							"AbstractBufferedStream.put.interrupted", entry);
+					incrementLostActivitiesCount(itemsCount);
 				}
 			}
 		}
 		return false;
 	}
 
+	private void incrementLostActivitiesCount(int count) {
+		for (int i = 0; i < count; i++) {
+			incrementLostActivitiesCount();
+		}
+	}
+
+	/**
+	 * Buffer queue entry wrapping batch of input data items.
+	 */
+	private static class InputBatch {
+		private final List<?> items;
+
+		private InputBatch(List<?> items) {
+			this.items = items;
+		}
+
+		@Override
+		public String toString() {
+			return "InputBatch{size=" + items.size() + "}"; // NON-NLS
+		}
+	}
+
 	/**
 	 * Checks if stream data input has ended.
 	 *
@@ -518,6 +674,24 @@ public abstract class AbstractBufferedStream<T> extends TNTParseableInputStream<
 		}
 	}
 
+	/**
+	 * This enumeration defines input buffer queue implementation types.
+	 */
+	enum BufferType {
+		/**
+		 * Fair {@link ArrayBlockingQueue}.
+		 */
+		BLOCKING,
+		/**
+		 * Lock-free ring buffer filled by multiple producer threads.
+		 */
+		RING_MPSC,
+		/**
+		 * Lock-free ring buffer filled by single producer thread.
+		 */
+		RING_SPSC
+	}
+
 	/**
 	 * This enumeration defines full buffer handling policies.
 	 */
@@ -18,8 +18,9 @@ package com.jkoolcloud.tnt4j.streams.inputs;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.LineNumberReader;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -32,6 +33,7 @@ import com.jkoolcloud.tnt4j.streams.parsers.ActivityParser;
 import com.jkoolcloud.tnt4j.streams.parsers.data.CommonActivityData;
 import com.jkoolcloud.tnt4j.streams.utils.Duration;
 import com.jkoolcloud.tnt4j.streams.utils.IntRange;
+import com.jkoolcloud.tnt4j.streams.utils.LineSource;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
 import com.jkoolcloud.tnt4j.streams.utils.Utils;
 
@@ -73,9 +75,11 @@ import com.jkoolcloud.tnt4j.streams.utils.Utils;
  * resolvable by {@link java.nio.charset.Charset#forName(String)} to be handled properly. {@code "guess"} value
  * indicates that stream (except HDFS) shall guess charset using some set of first bytes from file. Default value - one
  * returned by {@link java.nio.charset.Charset#defaultCharset()}. (Optional)</li>
+ * <li>LinesBatchSize - maximal number of read activity data lines put into stream input buffer as single batch.
+ * Default value - {@code 1}. (Optional)</li>
  * </ul>
  *
- * @version $Revision: 3 $
+ * @version $Revision: 4 $
  *
  * @see ActivityParser#isDataClassSupported(Object)
  */
@@ -130,6 +134,10 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 	 * Flag indicating to keep line separators within streamed data.
 	 */
 	protected boolean keepLineSeparators = false;
+	/**
+	 * Maximal number of activity data lines put into input buffer as single batch.
+	 */
+	protected int linesBatchSize = 1;
 
 	/**
 	 * Constructs a new AbstractFileLineStream.
@@ -162,6 +170,8 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 			truncatedFilePolicy = value;
 		} else if (StreamProperties.PROP_CHARSET.equalsIgnoreCase(name)) {
 			charsetName = value;
+		} else if (StreamProperties.PROP_LINES_BATCH_SIZE.equalsIgnoreCase(name)) {
+			linesBatchSize = Integer.parseInt(value);
 		}
 	}
 
@@ -197,6 +207,9 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 		if (StreamProperties.PROP_CHARSET.equalsIgnoreCase(name)) {
 			return charsetName;
 		}
+		if (StreamProperties.PROP_LINES_BATCH_SIZE.equalsIgnoreCase(name)) {
+			return linesBatchSize;
+		}
 		return super.getProperty(name);
 	}
 
@@ -325,6 +338,15 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 		return fileWatcher == null ? 0 : fileWatcher.lineNumber;
 	}
 
+	/**
+	 * Checks whether files shall be polled for changes.
+	 *
+	 * @return {@code true} if files are polled for changes, {@code false} - otherwise
+	 */
+	protected boolean isPollingOn() {
+		return pollingOn;
+	}
+
 	/**
 	 * Base class containing common file watcher features.
 	 */
@@ -340,6 +362,20 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 		 */
 		protected int lineNumber = -1;
 
+		/**
+		 * File monitor attribute storing byte offset marker of streamed file, or {@code -1} if byte offset is unknown.
+		 */
+		protected long lineOffset = -1;
+		/**
+		 * File monitor attribute storing byte offset of streamed file line preceding {@link #lineOffset}, or {@code -1}
+		 * if it is unknown.
+		 */
+		protected long lastLineStart = -1;
+		/**
+		 * File monitor attribute storing CRC of streamed file line starting at {@link #lastLineStart}.
+		 */
+		protected long lastLineCrc;
+
 		/**
 		 * File monitor attribute storing modification time of streamed file.
 		 */
@@ -423,38 +459,67 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 
 		/**
 		 * Reads new file lines and adds them to changed lines buffer.
+		 * <p>
+		 * If provided line source tracks line offsets, read lines file byte offsets are tracked too, along with last
+		 * read line CRC to check file has not been replaced before next read. Activity data lines are put into buffer
+		 * in batches of up to {@link #linesBatchSize} lines.
 		 *
 		 * @param lnr
-		 *            line number reader
+		 *            file lines source
 		 * @throws IOException
 		 *             if exception occurs when reading file line
 		 */
-		protected void readNewFileLines(LineNumberReader lnr) throws IOException {
+		protected void readNewFileLines(LineSource lnr) throws IOException {
 			String line;
+			String lastLine = null;
+			long lineStart = -1;
 			StringBuilder sb = new StringBuilder(256);
-			while ((line = lnr.readLine()) != null && !isInputEnded()) {
-				lastReadTime = System.currentTimeMillis();
-				lineNumber = lnr.getLineNumber();
-				if (StringUtils.isNotEmpty(line) && IntRange.inRange(lineRange, lineNumber)) {
-					addActivityDataLine(line, sb, lineNumber);
-				} else {
-					skipFilteredActivities();
+			List<Line> batch = new ArrayList<>(Math.max(linesBatchSize, 1));
+			try {
+				while ((line = lnr.readLine()) != null && !isInputEnded()) {
+					lastReadTime = System.currentTimeMillis();
+					lineNumber = lnr.getLineNumber();
+					lastLine = line;
+					lineStart = lnr.getLineOffset();
+					if (lineStart >= 0) {
+						lineOffset = lnr.getPosition();
+					}
+					if (StringUtils.isNotEmpty(line) && IntRange.inRange(lineRange, lineNumber)) {
+						addActivityDataLine(line, sb, lineNumber, lineStart, batch);
+					} else {
+						skipFilteredActivities();
+					}
 				}
-			}
 
-			if (sb.length() > 0) {
-				addLineToBuffer(sb, lineNumber);
+				if (sb.length() > 0) {
+					addLineToBuffer(sb.toString(), lineNumber, lineStart, lastLine, batch);
+				}
+			} finally {
+				addInputBatchToBuffer(batch);
+
+				if (lineStart >= 0 && lastLine != null) {
+					lastLineStart = lineStart;
+					lastLineCrc = AbstractFileStreamStateHandler.getLineCrc(lastLine);
+				}
 			}
 		}
 
-		private void addActivityDataLine(String line, StringBuilder sb, int lineNumber) {
+		private void addActivityDataLine(String line, StringBuilder sb, int lineNumber, long lineStart,
+				List<Line> batch) {
+			boolean activityEnd = lineHasActivityDelim(line);
+			if (activityEnd && sb.length() == 0 && !keepLineSeparators) {
+				addLineToBuffer(line, lineNumber, lineStart, line, batch);
+				return;
+			}
+
 			sb.append(line);
 			if (keepLineSeparators) {
 				sb.append('\n');
 			}
 
-			if (lineHasActivityDelim(line)) {
-				addLineToBuffer(sb, lineNumber);
+			if (activityEnd) {
+				addLineToBuffer(sb.toString(), lineNumber, lineStart, line, batch);
+				sb.setLength(0);
 			}
 		}
 
@@ -468,9 +533,19 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 			}
 		}
 
-		private void addLineToBuffer(StringBuilder sb, int lineNumber) {
-			addInputToBuffer(new Line(sb.toString(), lineNumber));
-			sb.setLength(0);
+		private void addLineToBuffer(String text, int lineNumber, long lineStart, String lastLine, List<Line> batch) {
+			Line activityLine = lineStart < 0 || !storeState ? new Line(text, lineNumber)
+					: new Line(text, lineNumber, lineStart, AbstractFileStreamStateHandler.getLineCrc(lastLine));
+			if (linesBatchSize <= 1) {
+				addInputToBuffer(activityLine);
+				return;
+			}
+
+			batch.add(activityLine);
+			if (batch.size() >= linesBatchSize) {
+				addInputBatchToBuffer(new ArrayList<>(batch));
+				batch.clear();
+			}
 		}
 
 		/**
@@ -521,6 +596,8 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 	 */
 	public static class Line extends CommonActivityData<String> {
 		private int lineNr;
+		private long offset;
+		private long offsetLineCrc;
 
 		/**
 		 * Creates a new Line.
@@ -531,8 +608,26 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 		 *            line number in file
 		 */
 		public Line(String text, int lineNumber) {
+			this(text, lineNumber, -1, 0);
+		}
+
+		/**
+		 * Creates a new Line.
+		 *
+		 * @param text
+		 *            line text string
+		 * @param lineNumber
+		 *            line number in file
+		 * @param offset
+		 *            byte offset of file line having provided line number, or {@code -1} if unknown
+		 * @param offsetLineCrc
+		 *            CRC of file line starting at provided byte offset
+		 */
+		public Line(String text, int lineNumber, long offset, long offsetLineCrc) {
 			super(text);
 			this.lineNr = lineNumber;
+			this.offset = offset;
+			this.offsetLineCrc = offsetLineCrc;
 		}
 
 		/**
@@ -544,6 +639,26 @@ public abstract class AbstractFileLineStream<T> extends AbstractBufferedStream<A
 			return lineNr;
 		}
 
+		/**
+		 * Returns byte offset of file line having this line number. When text spans several file lines, it is offset
+		 * of last spanned file line.
+		 *
+		 * @return byte offset of file line, or {@code -1} if unknown
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Returns CRC of file line starting at {@link #getOffset()} byte offset. It differs from text CRC when text
+		 * spans several file lines.
+		 *
+		 * @return CRC of file line at byte offset
+		 */
+		public long getOffsetLineCrc() {
+			return offsetLineCrc;
+		}
+
 		@Override
 		public String toString() {
 			return getData();
@@ -23,6 +23,7 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.util.Collections;
 
@@ -30,8 +31,12 @@ import org.apache.commons.lang3.ArrayUtils;
 
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.streams.configure.StreamProperties;
+import com.jkoolcloud.tnt4j.streams.configure.state.AbstractFileStreamStateHandler;
 import com.jkoolcloud.tnt4j.streams.configure.state.FileStreamStateHandler;
 import com.jkoolcloud.tnt4j.streams.utils.LoggerUtils;
+import com.jkoolcloud.tnt4j.streams.utils.LineSource;
+import com.jkoolcloud.tnt4j.streams.utils.PositionedLineReader;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
 import com.jkoolcloud.tnt4j.streams.utils.Utils;
 
@@ -42,16 +47,24 @@ import com.jkoolcloud.tnt4j.streams.utils.Utils;
  * <p>
  * This activity stream requires parsers that can support {@link String} data.
  * <p>
- * This activity stream supports configuration properties from {@link AbstractFileLineStream} (and higher hierarchy
- * streams).
+ * This activity stream supports the following configuration properties (in addition to those supported by
+ * {@link AbstractFileLineStream}):
+ * <ul>
+ * <li>MemoryMappedRead - flag {@code true}/{@code false} indicating whether to read files by mapping file regions into
+ * memory. When files are polled, only complete (line terminator ended) lines are read, leaving last incomplete file
+ * line to be read on next poll. Actual only if 'Charset' property defines charset having single byte line
+ * terminators, e.g. {@code UTF-8} or {@code ISO-8859-1}. Default value - {@code false}. (Optional)</li>
+ * </ul>
  *
- * @version $Revision: 2 $
+ * @version $Revision: 3 $
  *
  * @see com.jkoolcloud.tnt4j.streams.parsers.ActivityParser#isDataClassSupported(Object)
  */
 public class FileLineStream extends AbstractFileLineStream<Path> {
 	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(FileLineStream.class);
 
+	private boolean memoryMappedRead = false;
+
 	/**
 	 * Constructs a new FileLineStream.
 	 */
@@ -90,8 +103,20 @@ public class FileLineStream extends AbstractFileLineStream<Path> {
 		return new int[] { tbc, tlc };
 	}
 
+	@Override
+	public void setProperty(String name, String value) {
+		super.setProperty(name, value);
+
+		if (StreamProperties.PROP_MEMORY_MAPPED_READ.equalsIgnoreCase(name)) {
+			memoryMappedRead = Utils.toBoolean(value);
+		}
+	}
+
 	@Override
 	public Object getProperty(String name) {
+		if (StreamProperties.PROP_MEMORY_MAPPED_READ.equalsIgnoreCase(name)) {
+			return memoryMappedRead;
+		}
 		return super.getProperty(name);
 	}
 
@@ -168,20 +193,29 @@ public class FileLineStream extends AbstractFileLineStream<Path> {
 			Path file;
 			stateHandler = storeState ? new FileStreamStateHandler(availableFiles, FileLineStream.this.getName())
 					: null;
+			if (stateHandler != null) {
+				stateHandler.setStreamedFileCharset(fileCharset);
+			}
 			if (isStoredStateAvailable()) {
 				file = stateHandler.getFile();
 				lineNumber = stateHandler.getLineNumber();
+				lineOffset = stateHandler.getLineOffset();
+				lastLineStart = -1;
 				lastReadTime = stateHandler.getReadTime();
 			} else {
 				file = ArrayUtils.isEmpty(availableFiles) ? null
 						: startFromLatestActivity ? Utils.lastOf(availableFiles) : availableFiles[0];
 				lineNumber = 0;
+				lineOffset = 0;
+				lastLineStart = -1;
 			}
 
 			setFileToRead(file);
 
 			if (startFromLatestActivity && fileToRead != null) {
 				lineNumber = Utils.countLines(Files.newInputStream(fileToRead));
+				lineOffset = -1;
+				lastLineStart = -1;
 			}
 
 			logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
@@ -216,7 +250,11 @@ public class FileLineStream extends AbstractFileLineStream<Path> {
 		 * <p>
 		 * When file gets opened for reading reader is rolled to file marked by {@link #lineNumber} attribute. If turns
 		 * out that file got smaller in lines count, then monitor tries to swap to previous file. If no previous
-		 * readable file is available, then reader is reset to first file line.
+		 * readable file is available, then reader is reset to first file line. When file charset allows to read file
+		 * lines by byte offset and {@link #lineOffset} is known, reader is positioned directly to that byte offset
+		 * instead of skipping already read file lines, if last read file line is still found unchanged at
+		 * {@link #lastLineStart} byte offset. Otherwise file is considered replaced (e.g. rotated) and file lines are
+		 * skipped as described above.
 		 * <p>
 		 * Reader reads all file lines until end of file and puts them to changed lines buffer.
 		 */
@@ -272,7 +310,7 @@ public class FileLineStream extends AbstractFileLineStream<Path> {
 				}
 			}
 
-			LineNumberReader lnr = null;
+			LineSource lnr = null;
 
 			try {
 				lnr = rollToCurrentLine();
@@ -301,13 +339,28 @@ public class FileLineStream extends AbstractFileLineStream<Path> {
 					lineNumber - prevLineNumber);
 		}
 
-		private LineNumberReader rollToCurrentLine() throws IOException {
-			LineNumberReader lnr;
+		private LineSource rollToCurrentLine() throws IOException {
+			LineSource lnr;
 			try {
 				if (fileCharset == null) {
-					lnr = Utils.getFileReader(fileToRead.toFile());
+					lnr = LineSource.of(Utils.getFileReader(fileToRead.toFile()));
+				} else if (PositionedLineReader.isSupported(fileCharset)) {
+					FileChannel channel = FileChannel.open(fileToRead, StandardOpenOption.READ);
+					PositionedLineReader plr;
+					boolean positioned = lineOffset >= 0 && lineOffset <= channel.size()
+							&& isLastLineUnchanged(channel);
+					if (positioned) {
+						plr = new PositionedLineReader(channel, fileCharset, lineOffset, lineNumber, memoryMappedRead);
+					} else {
+						plr = new PositionedLineReader(channel, fileCharset, 0, 0, memoryMappedRead);
+					}
+					plr.setCompleteLinesOnly(memoryMappedRead && isPollingOn());
+					if (positioned) {
+						return plr;
+					}
+					lnr = plr;
 				} else {
-					lnr = new LineNumberReader(Files.newBufferedReader(fileToRead, fileCharset));
+					lnr = LineSource.of(new LineNumberReader(Files.newBufferedReader(fileToRead, fileCharset)));
 				}
 			} catch (Exception exc) {
 				logger().log(OpLevel.ERROR, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
@@ -320,10 +373,23 @@ public class FileLineStream extends AbstractFileLineStream<Path> {
 			return skipOldLines(lnr);
 		}
 
-		LineNumberReader skipOldLines(LineNumberReader lnr) throws IOException {
+		private boolean isLastLineUnchanged(FileChannel channel) throws IOException {
+			if (lastLineStart < 0) {
+				return true;
+			}
+
+			// reader is not closed, since it would close channel
+			PositionedLineReader plr = new PositionedLineReader(channel, fileCharset, lastLineStart, 0);
+			String line = plr.readLine();
+			return line != null && plr.getPosition() == lineOffset
+					&& AbstractFileStreamStateHandler.getLineCrc(line) == lastLineCrc;
+		}
+
+		LineSource skipOldLines(LineSource lnr) throws IOException {
 			boolean skipFail = false;
+			String line = null;
 			for (int i = 0; i < lineNumber; i++) {
-				if (lnr.readLine() == null) {
+				if ((line = lnr.readLine()) == null) {
 					logger().log(OpLevel.INFO, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 							"FileLineStream.file.shorter", lnr.getLineNumber(), lineNumber);
 
@@ -350,6 +416,14 @@ public class FileLineStream extends AbstractFileLineStream<Path> {
 				}
 			}
 
+			if (lnr.getPosition() >= 0) {
+				lineOffset = lineNumber == 0 ? 0 : lnr.getPosition();
+				lastLineStart = lineNumber == 0 || line == null ? -1 : lnr.getLineOffset();
+				if (lastLineStart >= 0) {
+					lastLineCrc = AbstractFileStreamStateHandler.getLineCrc(line);
+				}
+			}
+
 			return lnr;
 		}
 
@@ -369,6 +443,8 @@ public class FileLineStream extends AbstractFileLineStream<Path> {
 
 					if (prevFile != null) {
 						setFileToRead(prevFile);
+						lineOffset = -1;
+						lastLineStart = -1;
 
 						logger().log(OpLevel.INFO, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 								"FileLineStream.swapping.to.previous", lineNumber, prevFile.toAbsolutePath());
@@ -408,6 +484,8 @@ public class FileLineStream extends AbstractFileLineStream<Path> {
 					} else {
 						setFileToRead(nextFile);
 						lineNumber = 0;
+						lineOffset = 0;
+						lastLineStart = -1;
 
 						logger().log(OpLevel.INFO, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 								"FileLineStream.swapping.to.next", nextFile.toAbsolutePath());
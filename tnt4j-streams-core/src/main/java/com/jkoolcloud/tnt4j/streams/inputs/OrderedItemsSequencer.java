@@ -0,0 +1,229 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.inputs;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps output of activity items processed in parallel in the same order as items were read from stream input. Order is
+ * preserved within partition: items having different partition keys are output independently of each other.
+ * <p>
+ * Stream reader thread takes a {@link Ticket} for every read item using {@link #nextTicket(Object)}. When processing
+ * (parsing) of item is completed by any executor thread, that thread calls {@link Ticket#complete(ItemOutput)} providing
+ * item output step to run. Completed items are buffered until all preceding items of same partition are completed, and
+ * then all consecutive ready items get output in a batch by completing thread.
+ *
+ * @version $Revision: 1 $
+ *
+ * @see TNTInputStream#getItemPartitionKey(Object)
+ */
+public class OrderedItemsSequencer {
+	private static final Object DEFAULT_PARTITION = new Object();
+	private static final ItemOutput NOOP = () -> {
+	};
+
+	private final ConcurrentMap<Object, Partition> partitions = new ConcurrentHashMap<>();
+	private final BiConsumer<Ticket, Exception> failureHandler;
+
+	/**
+	 * Constructs a new OrderedItemsSequencer.
+	 *
+	 * @param failureHandler
+	 *            handler to be notified on item output failure
+	 */
+	public OrderedItemsSequencer(BiConsumer<Ticket, Exception> failureHandler) {
+		this.failureHandler = failureHandler;
+	}
+
+	/**
+	 * Issues next sequence ticket for item of defined partition.
+	 *
+	 * @param partitionKey
+	 *            item partition key, {@code null} means default partition
+	 * @return sequence ticket for item
+	 */
+	public Ticket nextTicket(Object partitionKey) {
+		Object key = partitionKey == null ? DEFAULT_PARTITION : partitionKey;
+		Ticket[] ticket = new Ticket[1];
+		partitions.compute(key, (k, p) -> {
+			Partition partition = p == null ? new Partition(k) : p;
+			ticket[0] = partition.issue();
+			return partition;
+		});
+
+		return ticket[0];
+	}
+
+	/**
+	 * Returns number of items having tickets issued, but not output yet.
+	 *
+	 * @return number of pending items
+	 */
+	public long getPendingCount() {
+		long count = 0;
+		for (Partition p : partitions.values()) {
+			count += p.pendingCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Returns number of currently active partitions.
+	 *
+	 * @return number of active partitions
+	 */
+	public int getPartitionsCount() {
+		return partitions.size();
+	}
+
+	private void releaseIfIdle(Partition partition) {
+		partitions.computeIfPresent(partition.key, (k, p) -> p == partition && p.isIdle() ? null : p);
+	}
+
+	/**
+	 * Item output step to be run in order of items sequence.
+	 */
+	@FunctionalInterface
+	public interface ItemOutput {
+		/**
+		 * Outputs processed item.
+		 *
+		 * @throws Exception
+		 *             if any errors occurred while sending item to output
+		 */
+		void output() throws Exception;
+	}
+
+	/**
+	 * Item sequence ticket, binding item position within partition.
+	 */
+	public final class Ticket {
+		private final Partition partition;
+		private final long seq;
+
+		private Ticket(Partition partition, long seq) {
+			this.partition = partition;
+			this.seq = seq;
+		}
+
+		/**
+		 * Returns item partition key.
+		 *
+		 * @return item partition key
+		 */
+		public Object getPartitionKey() {
+			return partition.key == DEFAULT_PARTITION ? null : partition.key;
+		}
+
+		/**
+		 * Returns item sequence number within partition.
+		 *
+		 * @return item sequence number
+		 */
+		public long getSequence() {
+			return seq;
+		}
+
+		/**
+		 * Marks item processing as completed and outputs all ready items of partition preserving their order.
+		 *
+		 * @param output
+		 *            item output step, {@code null} if item has nothing to output (e.g., was filtered out or failed to
+		 *            process)
+		 */
+		public void complete(ItemOutput output) {
+			partition.complete(this, output);
+		}
+
+		/**
+		 * Marks item as skipped, so items following it within partition will not wait for it.
+		 */
+		public void skip() {
+			partition.complete(this, null);
+		}
+
+		@Override
+		public String toString() {
+			return "Ticket{partition=" + getPartitionKey() + ", seq=" + seq + '}'; // NON-NLS
+		}
+	}
+
+	private class Partition {
+		private final Object key;
+		private final Map<Long, ItemOutput> ready = new HashMap<>();
+
+		private long nextSeq = 0;
+		private long nextToOutput = 0;
+		private boolean draining = false;
+
+		Partition(Object key) {
+			this.key = key;
+		}
+
+		synchronized Ticket issue() {
+			return new Ticket(this, nextSeq++);
+		}
+
+		synchronized long pendingCount() {
+			return nextSeq - nextToOutput;
+		}
+
+		synchronized boolean isIdle() {
+			return nextSeq == nextToOutput && !draining;
+		}
+
+		void complete(Ticket ticket, ItemOutput output) {
+			synchronized (this) {
+				ready.put(ticket.seq, output == null ? NOOP : output);
+				if (draining || ticket.seq != nextToOutput) {
+					// preceding items are still in progress, or other thread is already draining this partition
+					return;
+				}
+				draining = true;
+			}
+
+			drain();
+			releaseIfIdle(this);
+		}
+
+		private void drain() {
+			while (true) {
+				ItemOutput next;
+				long seq;
+				synchronized (this) {
+					seq = nextToOutput;
+					next = ready.remove(seq);
+					if (next == null) {
+						draining = false;
+						return;
+					}
+					nextToOutput++;
+				}
+
+				try {
+					next.output();
+				} catch (Exception exc) {
+					failureHandler.accept(new Ticket(this, seq), exc);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.inputs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import com.jkoolcloud.tnt4j.streams.reference.ParserReference;
+
+/**
+ * Stream parsers routing index, used to pick candidate parsers for RAW activity data item without evaluating every
+ * stream bound parser.
+ * <p>
+ * Parsers are indexed by bound tags when router is built, and by supported data classes as data items of new class
+ * get routed. Data class index assumes that parser data support depends only on data item class, what is true for all
+ * built-in parsers. Candidate parsers are returned in order parsers were added to stream, or, when adaptive order is
+ * enabled, in descending order of parsers matched items count. Adaptive order changes which parser gets applied first,
+ * so it shall be used only when stream parsers match expressions are mutually exclusive.
+ * <p>
+ * Router also maintains every parser matched and missed items counters.
+ *
+ * @version $Revision: 1 $
+ */
+public class ParsersRouter {
+	private static final int REORDER_INTERVAL = 1000;
+
+	private final ParserReference[] parsers;
+	private final ParserStatistics[] statistics;
+	private final BitSet untagged;
+	private final BitSet all;
+	private final Map<String, BitSet> tagsIndex = new HashMap<>();
+	private final Map<Class<?>, BitSet> classIndex = new ConcurrentHashMap<>();
+
+	private final boolean adaptiveOrder;
+	private final AtomicLong routedCount = new AtomicLong();
+	private volatile int[] order;
+
+	/**
+	 * Constructs a new ParsersRouter.
+	 *
+	 * @param parserRefs
+	 *            stream bound parser references
+	 * @param adaptiveOrder
+	 *            flag indicating whether to reorder candidate parsers by observed matches count
+	 */
+	public ParsersRouter(Collection<ParserReference> parserRefs, boolean adaptiveOrder) {
+		this.parsers = parserRefs.toArray(new ParserReference[0]);
+		this.statistics = new ParserStatistics[parsers.length];
+		this.adaptiveOrder = adaptiveOrder;
+		this.untagged = new BitSet(parsers.length);
+		this.all = new BitSet(parsers.length);
+		this.order = new int[parsers.length];
+
+		for (int i = 0; i < parsers.length; i++) {
+			order[i] = i;
+			all.set(i);
+			statistics[i] = new ParserStatistics(parsers[i].getParser().getName());
+
+			String[] tags = parsers[i].getTags();
+			if (ArrayUtils.isEmpty(tags)) {
+				untagged.set(i);
+			} else {
+				for (String tag : tags) {
+					tagsIndex.computeIfAbsent(tag, t -> new BitSet(parsers.length)).set(i);
+				}
+			}
+		}
+		for (BitSet tagged : tagsIndex.values()) {
+			tagged.or(untagged);
+		}
+	}
+
+	/**
+	 * Returns parser reference indexed by router.
+	 *
+	 * @param idx
+	 *            parser index
+	 * @return parser reference
+	 */
+	public ParserReference getParser(int idx) {
+		return parsers[idx];
+	}
+
+	/**
+	 * Returns indices of parsers to be evaluated for provided activity data item and data tags, in evaluation order.
+	 * Returned parsers support data item class, and either have no bound tags, or have any of data tags bound.
+	 *
+	 * @param data
+	 *            activity data item
+	 * @param tags
+	 *            array of data tag strings, can be {@code null}
+	 * @return array of candidate parser indices
+	 */
+	public int[] route(Object data, String... tags) {
+		BitSet classCandidates = getClassCandidates(data);
+		BitSet tagCandidates = getTagCandidates(tags);
+
+		int[] ord = order;
+		int[] candidates = new int[ord.length];
+		int count = 0;
+		for (int idx : ord) {
+			if (classCandidates.get(idx) && tagCandidates.get(idx)) {
+				candidates[count++] = idx;
+			}
+		}
+
+		if (adaptiveOrder && routedCount.incrementAndGet() % REORDER_INTERVAL == 0) {
+			reorder();
+		}
+
+		return count == candidates.length ? candidates : Arrays.copyOf(candidates, count);
+	}
+
+	private BitSet getClassCandidates(Object data) {
+		if (data == null) {
+			return all;
+		}
+
+		return classIndex.computeIfAbsent(data.getClass(), c -> {
+			BitSet supported = new BitSet(parsers.length);
+			for (int i = 0; i < parsers.length; i++) {
+				if (parsers[i].getParser().isDataClassSupported(data)) {
+					supported.set(i);
+				}
+			}
+			return supported;
+		});
+	}
+
+	private BitSet getTagCandidates(String... tags) {
+		if (ArrayUtils.isEmpty(tags)) {
+			return all;
+		}
+		if (tags.length == 1) {
+			return tagsIndex.getOrDefault(tags[0], untagged);
+		}
+
+		BitSet candidates = (BitSet) untagged.clone();
+		for (String tag : tags) {
+			BitSet tagged = tagsIndex.get(tag);
+			if (tagged != null) {
+				candidates.or(tagged);
+			}
+		}
+		return candidates;
+	}
+
+	private void reorder() {
+		Integer[] ord = new Integer[parsers.length];
+		long[] hits = new long[parsers.length];
+		for (int i = 0; i < parsers.length; i++) {
+			ord[i] = i;
+			hits[i] = statistics[i].getMatchCount();
+		}
+		Arrays.sort(ord, (i1, i2) -> Long.compare(hits[i2], hits[i1]));
+
+		int[] newOrder = new int[ord.length];
+		for (int i = 0; i < ord.length; i++) {
+			newOrder[i] = ord[i];
+		}
+		order = newOrder;
+	}
+
+	/**
+	 * Marks parser has matched and parsed activity data item.
+	 *
+	 * @param idx
+	 *            parser index
+	 */
+	public void matched(int idx) {
+		statistics[idx].matches.increment();
+	}
+
+	/**
+	 * Marks parser has not matched or has not produced activity entity for activity data item.
+	 *
+	 * @param idx
+	 *            parser index
+	 */
+	public void missed(int idx) {
+		statistics[idx].misses.increment();
+	}
+
+	/**
+	 * Returns parsers statistics, in order parsers were added to stream.
+	 *
+	 * @return list of parsers statistics
+	 */
+	public List<ParserStatistics> getStatistics() {
+		return Collections.unmodifiableList(Arrays.asList(statistics));
+	}
+
+	/**
+	 * Parser routing statistics.
+	 */
+	public static final class ParserStatistics {
+		private final String parserName;
+		private final LongAdder matches = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+
+		private ParserStatistics(String parserName) {
+			this.parserName = parserName;
+		}
+
+		/**
+		 * Returns parser name.
+		 *
+		 * @return parser name
+		 */
+		public String getParserName() {
+			return parserName;
+		}
+
+		/**
+		 * Returns number of activity data items parser has matched and parsed.
+		 *
+		 * @return parser matched items count
+		 */
+		public long getMatchCount() {
+			return matches.sum();
+		}
+
+		/**
+		 * Returns number of activity data items routed to parser, but not matched by parser match expressions or
+		 * not producing activity entity.
+		 *
+		 * @return parser missed items count
+		 */
+		public long getMissCount() {
+			return misses.sum();
+		}
+
+		@Override
+		public String toString() {
+			return parserName + "{matches=" + getMatchCount() + ", misses=" + getMissCount() + "}"; // NON-NLS
+		}
+	}
+}
@@ -53,6 +53,10 @@ import com.jkoolcloud.tnt4j.utils.SecurityUtils;
  * <li>ExecutorsImmediateShutdown - flag indicating whether executor service shutdown shall be immediate (dropping all
  * pending tasks) or graceful (trying to complete processing of pending tasks). Default value - {@code false}, meaning
  * executors shall shutdown gracefully. (Optional)</li>
+ * <li>ExecutorsOrderedModel - identifies whether executor service should run activity items processing as ordered
+ * pipeline: items are read by stream thread, processed (parsed) in parallel by executor threads and sent to output in
+ * the same order as read within item partition (see {@link #getItemPartitionKey(Object)}). Default value -
+ * {@code false}. (Optional)</li>
  * <li>PingLogActivityCount - defines repetitive number of streamed activity entities to put "ping" log entry with
  * stream statistics. Default value - {@code -1} meaning "NEVER". (Optional, can be OR'ed with
  * {@code PingLogActivityDelay})</li>
@@ -114,6 +118,8 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 	private int executorsTerminationTimeout = DEFAULT_EXECUTORS_TERMINATION_TIMEOUT;
 	private int executorRejectedTaskOfferTimeout = DEFAULT_EXECUTOR_REJECTED_TASK_TIMEOUT;
 	private boolean executorImmediateShutdown = false;
+	private boolean orderedExecutorModel = false;
+	private OrderedItemsSequencer itemsSequencer = null;
 
 	private int pingLogActivitiesCount = -1;
 	private int pingLogActivitiesDelay = -1;
@@ -245,6 +251,8 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 			boundedExecutorModel = Utils.toBoolean(value);
 		} else if (StreamProperties.PROP_EXECUTORS_IMMEDIATE_SHUTDOWN.equalsIgnoreCase(name)) {
 			executorImmediateShutdown = Utils.toBoolean(value);
+		} else if (StreamProperties.PROP_EXECUTORS_ORDERED.equalsIgnoreCase(name)) {
+			orderedExecutorModel = Utils.toBoolean(value);
 		} else if (StreamProperties.PROP_PING_LOG_ACTIVITY_COUNT.equalsIgnoreCase(name)) {
 			pingLogActivitiesCount = Integer.parseInt(value);
 		} else if (StreamProperties.PROP_PING_LOG_ACTIVITY_DELAY.equalsIgnoreCase(name)) {
@@ -300,6 +308,9 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 		if (StreamProperties.PROP_EXECUTORS_IMMEDIATE_SHUTDOWN.equalsIgnoreCase(name)) {
 			return executorImmediateShutdown;
 		}
+		if (StreamProperties.PROP_EXECUTORS_ORDERED.equalsIgnoreCase(name)) {
+			return orderedExecutorModel;
+		}
 		if (StreamProperties.PROP_STREAM_NAME.equalsIgnoreCase(name)) {
 			return this.name;
 		}
@@ -347,6 +358,9 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 			streamExecutorService = boundedExecutorModel
 					? getBoundedExecutorService(executorThreadsQty, executorRejectedTaskOfferTimeout)
 					: getDefaultExecutorService(executorThreadsQty);
+			if (orderedExecutorModel) {
+				itemsSequencer = new OrderedItemsSequencer(this::handleOrderedOutputFailure);
+			}
 		} else {
 			out.handleConsumerThread(isOwned() ? ownerThread : Thread.currentThread());
 		}
@@ -459,9 +473,11 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 					if (!added) {
 						logger().log(OpLevel.WARNING, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 								"TNTInputStream.tasks.buffer.limit", offerTimeout);
+						releaseOrderedTask(r);
 						notifyStreamTaskRejected(r);
 					}
 				} catch (InterruptedException exc) {
+					releaseOrderedTask(r);
 					halt(true);
 				}
 			}
@@ -764,6 +780,9 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 			List<Runnable> droppedTasks = streamExecutorService.shutdownNow();
 
 			if (CollectionUtils.isNotEmpty(droppedTasks)) {
+				for (Runnable task : droppedTasks) {
+					releaseOrderedTask(task);
+				}
 				notifyStreamTasksDropOff(droppedTasks);
 			}
 		}
@@ -809,8 +828,12 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 							processActivityItem_(item, failureFlag);
 						} else {
 							if (!isExecutorServiceDown()) {
-								streamExecutorService.submit(
-										new ActivityItemProcessingTask(item, failureFlag, getActivityPosition()));
+								if (itemsSequencer == null) {
+									streamExecutorService.submit(
+											new ActivityItemProcessingTask(item, failureFlag, getActivityPosition()));
+								} else {
+									executeOrdered(item);
+								}
 							} else {
 								logger().log(OpLevel.DEBUG,
 										StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
@@ -922,6 +945,80 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 	 */
 	protected abstract void processActivityItem(T item, AtomicBoolean failureFlag) throws Exception;
 
+	/**
+	 * Performs processing of raw activity data item, deferring sending of processing results to output. Used by ordered
+	 * executors model, where items are processed in parallel, while produced output must be sent in same order as items
+	 * were read.
+	 * <p>
+	 * Default implementation calls {@link #processActivityItem(Object, java.util.concurrent.atomic.AtomicBoolean)} and
+	 * returns {@code null}, meaning item output order is not preserved. Subclasses separating item processing and output
+	 * steps should override this method.
+	 *
+	 * @param item
+	 *            raw activity data item
+	 * @param failureFlag
+	 *            item processing failure flag instance
+	 * @return item output step to be run in order, or {@code null} if there is nothing to output
+	 * @throws Exception
+	 *             if any errors occurred while processing item
+	 */
+	protected OrderedItemsSequencer.ItemOutput processActivityItemDeferred(T item, AtomicBoolean failureFlag)
+			throws Exception {
+		processActivityItem(item, failureFlag);
+		return null;
+	}
+
+	/**
+	 * Resolves raw activity data item partition key used by ordered executors model. Items having same partition key are
+	 * sent to output in the same order as were read, while items of different partitions are output independently.
+	 * <p>
+	 * Default implementation returns {@code null}, meaning all stream items fall into a single partition and stream
+	 * output order matches input order.
+	 *
+	 * @param item
+	 *            raw activity data item
+	 * @return item partition key, or {@code null} for default partition
+	 */
+	protected Object getItemPartitionKey(T item) {
+		return null;
+	}
+
+	private void handleOrderedOutputFailure(OrderedItemsSequencer.Ticket ticket, Exception exc) {
+		Utils.logThrowable(logger(), OpLevel.ERROR, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+				"TNTInputStream.failed.ordered.output", ticket, exc);
+		notifyStreamEvent(OpLevel.ERROR, StreamsResources.getStringFormatted(StreamsResources.RESOURCE_BUNDLE_NAME,
+				"TNTInputStream.failed.ordered.output", ticket, Utils.getExceptionMessages(exc)), ticket);
+		incrementSkippedActivitiesCount();
+	}
+
+	/**
+	 * Takes sequence ticket for provided item and submits item ordered processing task to executor service. If
+	 * executor service rejects task by throwing exception, ticket gets skipped, so items following it do not wait for
+	 * it.
+	 *
+	 * @param item
+	 *            raw activity data item
+	 * @throws RejectedExecutionException
+	 *             if executor service rejects task
+	 */
+	private void executeOrdered(T item) throws RejectedExecutionException {
+		OrderedActivityItemProcessingTask task = new OrderedActivityItemProcessingTask(item, failureFlag,
+				getActivityPosition(), itemsSequencer.nextTicket(getItemPartitionKey(item)));
+		try {
+			// execute, not submit: rejection handler and shutdownNow() must see the task to release its ticket
+			streamExecutorService.execute(task);
+		} catch (RejectedExecutionException exc) {
+			task.ticket.skip();
+			throw exc;
+		}
+	}
+
+	private void releaseOrderedTask(Runnable r) {
+		if (r instanceof TNTInputStream.OrderedActivityItemProcessingTask) {
+			((OrderedActivityItemProcessingTask) r).ticket.skip();
+		}
+	}
+
 	private AtomicInteger cai = new AtomicInteger(0);
 	private long lastLogTime = System.currentTimeMillis();
 	private AtomicInteger processingCount = new AtomicInteger();
@@ -947,6 +1044,22 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 		 */
 	}
 
+	private OrderedItemsSequencer.ItemOutput processActivityItemDeferred_(T item, AtomicBoolean failureFlag)
+			throws Exception {
+		beforeProcessItem();
+		startProcessingTask();
+		OrderedItemsSequencer.ItemOutput output;
+		try {
+			output = processActivityItemDeferred(item, failureFlag);
+		} finally {
+			endProcessingTask();
+		}
+		afterProcessItem();
+		lastActivityTime = System.currentTimeMillis();
+
+		return output;
+	}
+
 	/**
 	 * Marks start of some stream processing task, e.g. parsing, data polling, etc.
 	 *
@@ -972,7 +1085,8 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 	 *         otherwise
 	 */
 	protected boolean hasPendingExecutions() {
-		return !isExecutorServiceOff() && !((ThreadPoolExecutor) streamExecutorService).getQueue().isEmpty();
+		return !isExecutorServiceOff() && (!((ThreadPoolExecutor) streamExecutorService).getQueue().isEmpty()
+				|| (itemsSequencer != null && itemsSequencer.getPendingCount() > 0));
 	}
 
 	/**
@@ -1388,9 +1502,9 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 	}
 
 	private class ActivityItemProcessingTask implements Runnable {
-		private T item;
-		private AtomicBoolean failureFlag;
-		private int activityPosition;
+		protected final T item;
+		protected final AtomicBoolean failureFlag;
+		private final int activityPosition;
 
 		/**
 		 * Constructs a new ActivityItemProcessingTask.
@@ -1412,19 +1526,29 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 		public void run() {
 			try {
 				processActivityItem_(item, failureFlag);
-			} catch (Exception e) { // TODO: better handling
-				Utils.logThrowable(logger(), OpLevel.ERROR,
-						StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
-						"TNTInputStream.failed.record.activity.at", activityPosition, e);
-				notifyStreamEvent(OpLevel.ERROR,
-						StreamsResources.getStringFormatted(StreamsResources.RESOURCE_BUNDLE_NAME,
-								"TNTInputStream.failed.record.activity.at", activityPosition,
-								Utils.getExceptionMessages(e)),
-						item);
-				incrementSkippedActivitiesCount();
+			} catch (Exception e) {
+				handleFailure(e);
 			}
 		}
 
+		/**
+		 * Handles activity item processing failure.
+		 *
+		 * @param e
+		 *            processing failure exception
+		 */
+		protected void handleFailure(Exception e) { // TODO: better handling
+			Utils.logThrowable(logger(), OpLevel.ERROR,
+					StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"TNTInputStream.failed.record.activity.at", activityPosition, e);
+			notifyStreamEvent(OpLevel.ERROR,
+					StreamsResources.getStringFormatted(StreamsResources.RESOURCE_BUNDLE_NAME,
+							"TNTInputStream.failed.record.activity.at", activityPosition,
+							Utils.getExceptionMessages(e)),
+					item);
+			incrementSkippedActivitiesCount();
+		}
+
 		/**
 		 * Return string representing class name of task object and wrapped activity item data.
 		 *
@@ -1436,6 +1560,46 @@ public abstract class TNTInputStream<T, O> implements Runnable, NamedObject {
 		}
 	}
 
+	private class OrderedActivityItemProcessingTask extends ActivityItemProcessingTask {
+		private final OrderedItemsSequencer.Ticket ticket;
+
+		/**
+		 * Constructs a new OrderedActivityItemProcessingTask.
+		 *
+		 * @param activityItem
+		 *            raw activity data item to process asynchronously
+		 * @param failureFlag
+		 *            failure flag to set value if task processing fails
+		 * @param activityPosition
+		 *            streamed activity position index
+		 * @param ticket
+		 *            item sequence ticket
+		 */
+		OrderedActivityItemProcessingTask(T activityItem, AtomicBoolean failureFlag, int activityPosition,
+				OrderedItemsSequencer.Ticket ticket) {
+			super(activityItem, failureFlag, activityPosition);
+			this.ticket = ticket;
+		}
+
+		@Override
+		public void run() {
+			OrderedItemsSequencer.ItemOutput output = null;
+			try {
+				output = processActivityItemDeferred_(item, failureFlag);
+			} catch (Exception e) {
+				handleFailure(e);
+			} finally {
+				ticket.complete(output);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return OrderedActivityItemProcessingTask.class.getSimpleName() + " {item=" + item + ", ticket=" + ticket // NON-NLS
+					+ '}'; // NON-NLS
+		}
+	}
+
 	/**
 	 * TNT4J-Streams thread factory.
 	 *
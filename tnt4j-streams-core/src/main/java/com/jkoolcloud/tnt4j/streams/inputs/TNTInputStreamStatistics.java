@@ -38,6 +38,7 @@ import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.streams.fields.ActivityInfo;
 import com.jkoolcloud.tnt4j.streams.outputs.OutputStreamListener;
 import com.jkoolcloud.tnt4j.streams.utils.Duration;
+import com.jkoolcloud.tnt4j.streams.utils.HostNameResolver;
 import com.jkoolcloud.tnt4j.streams.utils.LoggerUtils;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsCache;
 import com.jkoolcloud.tnt4j.streams.utils.Utils;
@@ -122,6 +123,8 @@ public class TNTInputStreamStatistics
 						return StreamsCache.cacheSize() + "/" + StreamsCache.cacheMaxSize(); // NON-NLS
 					}
 				});
+				registerCacheGauges(streamName, StreamsCache.getStatistics());
+				registerResolverGauges(streamName, HostNameResolver.getStatistics());
 			} catch (Exception e) {
 			}
 		} else {
@@ -133,6 +136,9 @@ public class TNTInputStreamStatistics
 					return Duration.durationHMS(startTime.getCount());
 				}
 			});
+			if (StreamsCache.isStreamNamespaces()) {
+				registerCacheGauges(streamName, StreamsCache.getStatistics(streamName));
+			}
 		}
 
 		jmxReporter.start();
@@ -167,6 +173,25 @@ public class TNTInputStreamStatistics
 		bytesStreamed = metrics.counter(streamName + ":bytes streamed"); // NON-NLS
 	}
 
+	private void registerCacheGauges(String streamName, StreamsCache.CacheStatistics cacheStats) {
+		metrics.register(streamName + ":cache hits", (Gauge<Long>) cacheStats::getHitCount); // NON-NLS
+		metrics.register(streamName + ":cache misses", (Gauge<Long>) cacheStats::getMissCount); // NON-NLS
+		metrics.register(streamName + ":cache hit rate", (Gauge<Double>) cacheStats::getHitRate); // NON-NLS
+		metrics.register(streamName + ":cache evictions", (Gauge<Long>) cacheStats::getEvictionCount); // NON-NLS
+	}
+
+	private void registerResolverGauges(String streamName, HostNameResolver.ResolverStatistics resolverStats) {
+		metrics.register(streamName + ":dns cache load", (Gauge<Integer>) HostNameResolver::cacheSize); // NON-NLS
+		metrics.register(streamName + ":dns cache hits", (Gauge<Long>) resolverStats::getHitCount); // NON-NLS
+		metrics.register(streamName + ":dns cache misses", (Gauge<Long>) resolverStats::getMissCount); // NON-NLS
+		metrics.register(streamName + ":dns cache evictions", (Gauge<Long>) resolverStats::getEvictionCount); // NON-NLS
+		metrics.register(streamName + ":dns lookups", (Gauge<Long>) resolverStats::getLookupCount); // NON-NLS
+		metrics.register(streamName + ":dns dropped lookups", // NON-NLS
+				(Gauge<Long>) resolverStats::getDroppedLookupCount);
+		metrics.register(streamName + ":dns lookup latency", // NON-NLS
+				(Gauge<Double>) resolverStats::getMeanLookupLatency);
+	}
+
 	/**
 	 * Returns aggregated statistics accounting module for all running streams.
 	 *
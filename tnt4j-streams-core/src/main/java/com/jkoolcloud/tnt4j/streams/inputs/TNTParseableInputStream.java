@@ -18,13 +18,17 @@ package com.jkoolcloud.tnt4j.streams.inputs;
 
 import java.text.ParseException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.OpType;
 import com.jkoolcloud.tnt4j.streams.configure.StreamProperties;
@@ -52,12 +56,18 @@ import com.jkoolcloud.tnt4j.streams.utils.Utils;
  * <li>HaltIfNoParser - if set to {@code true}, stream will halt if none of the parsers can parse activity object RAW
  * data. If set to {@code false} - puts log entry and continues. Default value - {@code false}. (Optional)</li>
  * <li>GroupingActivityName - name of ACTIVITY entity used to group excel workbook streamed events. (Optional)</li>
+ * <li>AdaptiveParsersOrder - if set to {@code true}, stream parsers are applied in descending order of parser matched
+ * activity data items count. Use it only when stream parsers match expressions are mutually exclusive, since parsers
+ * order defines which parser gets applied first. Default value - {@code false}. (Optional)</li>
  * </ul>
+ * <p>
+ * On stream initialization, stream parsers are indexed by {@link ParsersRouter}, so only parsers supporting activity
+ * data class and having matching tags are evaluated for activity data item.
  *
  * @param <T>
  *            the type of handled RAW activity data
  *
- * @version $Revision: 1 $
+ * @version $Revision: 2 $
  */
 public abstract class TNTParseableInputStream<T> extends TNTInputStream<T, ActivityInfo> {
 
@@ -68,6 +78,9 @@ public abstract class TNTParseableInputStream<T> extends TNTInputStream<T, Activ
 
 	private boolean haltIfNoParser = false;
 	private String groupingActivityName = null;
+	private boolean adaptiveParsersOrder = false;
+
+	private volatile ParsersRouter parsersRouter;
 
 	@Override
 	protected void setDefaultStreamOutput() {
@@ -82,6 +95,8 @@ public abstract class TNTParseableInputStream<T> extends TNTInputStream<T, Activ
 			haltIfNoParser = Utils.toBoolean(value);
 		} else if (StreamProperties.PROP_GROUPING_ACTIVITY_NAME.equalsIgnoreCase(name)) {
 			groupingActivityName = value;
+		} else if (StreamProperties.PROP_ADAPTIVE_PARSERS_ORDER.equalsIgnoreCase(name)) {
+			adaptiveParsersOrder = Utils.toBoolean(value);
 		}
 	}
 
@@ -93,6 +108,9 @@ public abstract class TNTParseableInputStream<T> extends TNTInputStream<T, Activ
 		if (StreamProperties.PROP_GROUPING_ACTIVITY_NAME.equalsIgnoreCase(name)) {
 			return groupingActivityName;
 		}
+		if (StreamProperties.PROP_ADAPTIVE_PARSERS_ORDER.equalsIgnoreCase(name)) {
+			return adaptiveParsersOrder;
+		}
 
 		return super.getProperty(name);
 	}
@@ -106,6 +124,8 @@ public abstract class TNTParseableInputStream<T> extends TNTInputStream<T, Activ
 					"TNTInputStream.has.no.parsers.bound", getName()));
 		}
 
+		buildParsersRouter();
+
 		if (StringUtils.isNotEmpty(groupingActivityName)) {
 			ActivityInfo gai = new ActivityInfo(true);
 			gai.setFieldValue(new ActivityField(StreamFieldType.EventType.name()), OpType.ACTIVITY.name());
@@ -163,6 +183,38 @@ public abstract class TNTParseableInputStream<T> extends TNTInputStream<T, Activ
 		}
 
 		parsersSet.add(parserRef);
+
+		if (parsersRouter != null) {
+			buildParsersRouter();
+		}
+	}
+
+	/**
+	 * Builds stream parsers routing index and registers parsers matched/missed items count gauges.
+	 */
+	protected synchronized void buildParsersRouter() {
+		parsersRouter = new ParsersRouter(parsersSet, adaptiveParsersOrder);
+
+		MetricRegistry streamMetrics = TNTInputStreamStatistics.getMetrics(this);
+		List<ParsersRouter.ParserStatistics> pStats = parsersRouter.getStatistics();
+		for (int i = 0; i < pStats.size(); i++) {
+			int idx = i;
+			String prefix = getName() + ":parser:" + pStats.get(i).getParserName(); // NON-NLS
+			streamMetrics.gauge(prefix + ":matches", // NON-NLS
+					() -> (Gauge<Long>) () -> parsersRouter.getStatistics().get(idx).getMatchCount());
+			streamMetrics.gauge(prefix + ":misses", // NON-NLS
+					() -> (Gauge<Long>) () -> parsersRouter.getStatistics().get(idx).getMissCount());
+		}
+	}
+
+	/**
+	 * Returns stream parsers routing statistics, in order parsers were added to stream.
+	 *
+	 * @return list of stream parsers statistics, or empty list if stream parsers routing index is not built yet
+	 */
+	public List<ParsersRouter.ParserStatistics> getParsersStatistics() {
+		ParsersRouter router = parsersRouter;
+		return router == null ? Collections.emptyList() : router.getStatistics();
 	}
 
 	/**
@@ -244,37 +296,56 @@ public abstract class TNTParseableInputStream<T> extends TNTInputStream<T, Activ
 			pData = new CommonActivityData<>(data);
 		}
 
-		for (ParserReference pRef : parsersSet) {
-			boolean dataMatch = pRef.getParser().isDataClassSupported(pData.getData());
-			Boolean tagsMatch = null;
-			Boolean expMatch = null;
-
-			boolean parserMatch = dataMatch;
-
-			if (parserMatch) {
-				tagsMatch = pRef.matchTags(tags);
-				parserMatch = BooleanUtils.toBooleanDefaultIfNull(tagsMatch, true);
-
-				if (parserMatch && pRef instanceof MatchingParserReference) {
-					expMatch = ((MatchingParserReference) pRef).matchExp(this, pData.getData());
-					parserMatch = BooleanUtils.toBooleanDefaultIfNull(expMatch, true);
+		ParsersRouter router = parsersRouter;
+		if (router == null) {
+			for (ParserReference pRef : parsersSet) {
+				ActivityInfo ai = applyParser(pRef, data, pData, tags);
+				if (ai != null) {
+					return ai;
 				}
 			}
-
-			logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
-					"TNTInputStream.parser.match", getName(), pRef, dataMatch, tagsMatch == null ? "----" : tagsMatch, // NON-NLS
-					expMatch == null ? "----" : expMatch); // NON-NLS
-			if (parserMatch) {
-				ActivityInfo ai = pRef.getParser().parse(this, data);
+		} else {
+			for (int idx : router.route(pData.getData(), tags)) {
+				ActivityInfo ai = applyParser(router.getParser(idx), data, pData, tags);
 				if (ai != null) {
+					router.matched(idx);
 					return ai;
 				}
+				router.missed(idx);
 			}
 		}
 
 		return null;
 	}
 
+	private ActivityInfo applyParser(ParserReference pRef, Object data, ActivityData<?> pData, String... tags)
+			throws IllegalStateException, ParseException {
+		boolean dataMatch = pRef.getParser().isDataClassSupported(pData.getData());
+		Boolean tagsMatch = null;
+		Boolean expMatch = null;
+
+		boolean parserMatch = dataMatch;
+
+		if (parserMatch) {
+			tagsMatch = pRef.matchTags(tags);
+			parserMatch = BooleanUtils.toBooleanDefaultIfNull(tagsMatch, true);
+
+			if (parserMatch && pRef instanceof MatchingParserReference) {
+				expMatch = ((MatchingParserReference) pRef).matchExp(this, pData.getData());
+				parserMatch = BooleanUtils.toBooleanDefaultIfNull(expMatch, true);
+			}
+		}
+
+		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+				"TNTInputStream.parser.match", getName(), pRef, dataMatch, tagsMatch == null ? "----" : tagsMatch, // NON-NLS
+				expMatch == null ? "----" : expMatch); // NON-NLS
+		if (parserMatch) {
+			return pRef.getParser().parse(this, data);
+		}
+
+		return null;
+	}
+
 	/**
 	 * Resolves RAW activity data tag strings array to be used for activity data and parsers mapping.
 	 *
@@ -323,6 +394,26 @@ public abstract class TNTParseableInputStream<T> extends TNTInputStream<T, Activ
 	 */
 	@Override
 	protected void processActivityItem(T item, AtomicBoolean failureFlag) throws Exception {
+		ActivityInfo ai = parseActivityItem(item, failureFlag);
+		if (ai != null) {
+			outputActivity(ai);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Performs parsing of raw activity data to {@link ActivityInfo} data package and returns step sending it to stream
+	 * output.
+	 */
+	@Override
+	protected OrderedItemsSequencer.ItemOutput processActivityItemDeferred(T item, AtomicBoolean failureFlag)
+			throws Exception {
+		ActivityInfo ai = parseActivityItem(item, failureFlag);
+		return ai == null ? null : () -> outputActivity(ai);
+	}
+
+	private ActivityInfo parseActivityItem(T item, AtomicBoolean failureFlag) throws Exception {
 		notifyProgressUpdate(incrementCurrentActivitiesCount(), getTotalActivities());
 
 		ActivityInfo ai = makeActivityInfo(item);
@@ -339,14 +430,18 @@ public abstract class TNTParseableInputStream<T> extends TNTInputStream<T, Activ
 				notifyStreamEvent(OpLevel.WARNING, StreamsResources.getStringFormatted(
 						StreamsResources.RESOURCE_BUNDLE_NAME, "TNTInputStream.could.not.parse.activity", item), item);
 			}
+		}
+
+		return ai;
+	}
+
+	private void outputActivity(ActivityInfo ai) throws Exception {
+		if (ai.isDeliverable()) {
+			getOutput().logItem(ai);
 		} else {
-			if (ai.isDeliverable()) {
-				getOutput().logItem(ai);
-			} else {
-				incrementFilteredActivitiesCount();
-				logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
-						"TNTInputStream.activity.filtered.out", ai);
-			}
+			incrementFilteredActivitiesCount();
+			logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"TNTInputStream.activity.filtered.out", ai);
 		}
 	}
 }
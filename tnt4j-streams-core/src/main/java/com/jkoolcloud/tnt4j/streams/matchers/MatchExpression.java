@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.matchers;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.jkoolcloud.tnt4j.streams.fields.ActivityInfo;
+
+/**
+ * Compiled match expression. Expression type is resolved and evaluation expression is prepared (e.g. RegEx pattern
+ * compiled) once, when expression is compiled, so evaluation of expression against activity data does not parse
+ * expression definition again.
+ * <p>
+ * Expressions having variables or defining script language are evaluated using {@link Matchers} facade.
+ *
+ * @version $Revision: 1 $
+ *
+ * @see Matchers#compile(String)
+ */
+public class MatchExpression {
+	private final String expression;
+	private final Matcher matcher;
+	private final String evalExpression;
+	private final Pattern pattern;
+
+	/**
+	 * Constructs a new MatchExpression.
+	 *
+	 * @param expression
+	 *            complete match expression string
+	 * @param matcher
+	 *            matcher to evaluate expression, or {@code null} if expression shall be evaluated by {@link Matchers}
+	 *            facade
+	 * @param evalExpression
+	 *            evaluation expression string, having no expression type prefix
+	 */
+	MatchExpression(String expression, Matcher matcher, String evalExpression) {
+		this.expression = expression;
+		this.matcher = matcher;
+		this.evalExpression = evalExpression;
+		this.pattern = matcher instanceof RegExMatcher ? compilePattern(evalExpression) : null;
+	}
+
+	private static Pattern compilePattern(String regex) {
+		try {
+			return Pattern.compile(regex);
+		} catch (PatternSyntaxException exc) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns match expression string.
+	 *
+	 * @return match expression string
+	 */
+	public String getExpression() {
+		return expression;
+	}
+
+	/**
+	 * Evaluates this match expression against provided activity {@code data} value or evaluation {@code context}
+	 * map.
+	 *
+	 * @param data
+	 *            data to evaluate expression
+	 * @param context
+	 *            evaluation context map containing references to activity info, field, parser, stream and etc.
+	 * @return {@code true} if activity {@code data} value or evaluation {@code context} matches this expression,
+	 *         {@code false} - otherwise
+	 *
+	 * @throws Exception
+	 *             if evaluation expression is empty or evaluation of match expression fails
+	 *
+	 * @see Matchers#evaluate(String, Object, java.util.Map)
+	 */
+	public boolean evaluate(Object data, Map<String, ?> context) throws Exception {
+		if (matcher == null || (data instanceof ActivityInfo && context == null)) {
+			return Matchers.evaluate(expression, data, context);
+		}
+		if (!matcher.isDataClassSupported(data)) {
+			return false;
+		}
+		if (pattern != null) {
+			return pattern.matcher(String.valueOf(data)).find();
+		}
+
+		return matcher.evaluate(evalExpression, data);
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+}
@@ -180,31 +180,70 @@ public class Matchers {
 		}
 
 		String[] expTokens = tokenizeExpression(expression);
-		String evalType = expTokens[0];
+		String evalType = getEvalType(expTokens[0]);
 		String evalExpression = expTokens[1];
 
-		if (StringUtils.isEmpty(evalType)) {
-			evalType = "STRING"; // NON-NLS
+		Matcher matcher = getMatcher(evalType);
+		if (matcher == null) {
+			return evaluate(evalType, evalExpression, data, context);
 		}
 
+		return validateAndProcess(matcher, evalExpression, data);
+	}
+
+	private static String getEvalType(String evalType) {
+		return StringUtils.isEmpty(evalType) ? "STRING" : evalType; // NON-NLS
+	}
+
+	private static Matcher getMatcher(String evalType) {
 		switch (evalType.toUpperCase()) {
 		case "XPATH": // NON-NLS
-			return validateAndProcess(XPathMatcher.getInstance(), evalExpression, data);
+			return XPathMatcher.getInstance();
 		case "REGEX": // NON-NLS
 		case "REGEXP": // NON-NLS
-			return validateAndProcess(RegExMatcher.getInstance(), evalExpression, data);
+			return RegExMatcher.getInstance();
 		case "JPATH": // NON-NLS
 		case "JSONPATH": // NON-NLS
-			return validateAndProcess(JsonPathMatcher.getInstance(), evalExpression, data);
+			return JsonPathMatcher.getInstance();
 		case "STRING": // NON-NLS
-			return validateAndProcess(StringMatcher.getInstance(), evalExpression, data);
+			return StringMatcher.getInstance();
 		case "RE2": // NON-NLS
-			return validateAndProcess(Re2jMatcher.getInstance(), evalExpression, data);
+			return Re2jMatcher.getInstance();
 		default:
-			return evaluate(evalType, evalExpression, data, context);
+			return null;
 		}
 	}
 
+	/**
+	 * Compiles match {@code expression} into {@link MatchExpression} instance, having expression type resolved and
+	 * evaluation expression prepared once, to be evaluated against multiple activity data items.
+	 * <p>
+	 * Expression compilation does not fail: invalid expressions are compiled into instances failing on evaluation,
+	 * the same way as {@link #evaluate(String, Object, java.util.Map)} does.
+	 *
+	 * @param expression
+	 *            match expression string defining type of expression and evaluation expression delimited by
+	 *            {@code ':'}, e.g. {@code "regex:.*"}. If type of expression is not defined, default is
+	 *            {@code "string"}
+	 * @return compiled match expression
+	 *
+	 * @see #evaluate(String, Object, java.util.Map)
+	 */
+	public static MatchExpression compile(String expression) {
+		if (Utils.isVariableExpression(expression)) {
+			return new MatchExpression(expression, null, null);
+		}
+
+		String[] expTokens;
+		try {
+			expTokens = tokenizeExpression(expression);
+		} catch (IllegalArgumentException exc) {
+			return new MatchExpression(expression, null, null);
+		}
+
+		return new MatchExpression(expression, getMatcher(getEvalType(expTokens[0])), expTokens[1]);
+	}
+
 	/**
 	 * Evaluates match {@code expression} against provided value bindings {@code valBindings} map.
 	 * 
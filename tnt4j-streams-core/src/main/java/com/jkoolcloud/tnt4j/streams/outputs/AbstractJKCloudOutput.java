@@ -18,13 +18,24 @@ package com.jkoolcloud.tnt4j.streams.outputs;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.lang.ref.WeakReference;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.jkoolcloud.tnt4j.TrackingLogger;
 import com.jkoolcloud.tnt4j.config.DefaultConfigFactory;
 import com.jkoolcloud.tnt4j.config.TrackerConfig;
@@ -43,6 +54,8 @@ import com.jkoolcloud.tnt4j.streams.configure.zookeeper.ZKConfigManager;
 import com.jkoolcloud.tnt4j.streams.inputs.InputStreamEventsAdapter;
 import com.jkoolcloud.tnt4j.streams.inputs.StreamStatus;
 import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStream;
+import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStreamStatistics;
+import com.jkoolcloud.tnt4j.streams.utils.SpillLog;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsThread;
 import com.jkoolcloud.tnt4j.streams.utils.Utils;
@@ -69,6 +82,25 @@ import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
  * <li>RetryInterval - alias for RetryPeriod. (Optional)</li>
  * <li>SendStreamStates - flag indicating whether to send stream status change messages (`startup`/`shutdown`) to output
  * endpoint e.g. 'jKoolCloud'. Default value - {@code true}. (Optional)</li>
+ * <li>AsyncSend - flag indicating whether activity data packages shall be sent by dedicated sender threads, so stream
+ * threads do not wait for output endpoint. Default value - {@code false}. (Optional)</li>
+ * <li>AsyncQueueSize - capacity of asynchronous send memory queue. Default value - {@code 1024}. (Optional)</li>
+ * <li>AsyncBatchSize - maximal number of activity data packages sender thread takes from queue at once. Default value
+ * - {@code 100}. (Optional)</li>
+ * <li>AsyncSenderThreads - number of asynchronous sender threads. Default value - {@code 1}. (Optional)</li>
+ * <li>SpillDir - path of directory to spill activity data packages not fitting into asynchronous send memory queue,
+ * and to store unsent packages on shutdown to be replayed after restart. Spilling is supported only by outputs
+ * serializing activity data packages. Default value - '{@code null}', meaning stream threads wait for free memory queue
+ * space. (Optional)</li>
+ * <li>SpillSegmentSize - maximal spill log segment file size in bytes. Default value - {@code 16777216}.
+ * (Optional)</li>
+ * <li>TrackersPoolSize - number of trackers shared by all stream threads. Thread uses pool tracker exclusively while
+ * sending activity data: it prefers pool tracker picked by its id, takes any other free pool tracker if that one is in
+ * use, and waits for its own pool tracker if all of them are in use. Value {@code 0} means every stream thread uses
+ * dedicated tracker. Default value - {@code 0}. (Optional)</li>
+ * <li>TrackerIdleTimeout - period in seconds after which dedicated thread tracker, not used for that period, gets
+ * closed. Trackers of terminated threads are closed regardless of this timeout. Trackers being used to send activity
+ * data are never closed. Value {@code 0} disables idle trackers eviction. Default value - {@code 600}. (Optional)</li>
  * </ul>
  *
  * @param <T>
@@ -76,7 +108,7 @@ import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
  * @param <O>
  *            the type of outgoing activity data package to be sent to jKoolCloud
  *
- * @version $Revision: 2 $
+ * @version $Revision: 6 $
  */
 public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutput<T> implements SinkErrorListener {
 
@@ -89,9 +121,16 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 	private static final String ZK_PREFIX = "zk://"; // NON-NLS
 
 	/**
-	 * Used to deliver processed activity data to destination.
+	 * Maximal period between dedicated thread trackers eviction runs, in milliseconds.
+	 */
+	private static final long EVICTION_PERIOD = TimeUnit.MINUTES.toMillis(1);
+
+	/**
+	 * Used to deliver processed activity data to destination. Dedicated thread trackers are mapped by thread id.
 	 */
-	private final Map<String, Tracker> trackersMap = new HashMap<>();
+	private final Map<Long, TrackerSlot> trackersMap = new ConcurrentHashMap<>();
+	private volatile AtomicReferenceArray<TrackerSlot> trackersPool;
+	private ScheduledExecutorService trackersEvictor;
 
 	private TrackerConfig trackerConfig;
 	private Source defaultSource;
@@ -103,6 +142,17 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 	private boolean sendStreamStates = true;
 	private JKoolNotificationListener jKoolNotificationListener = new JKoolNotificationListener();
 
+	private boolean asyncSend = false;
+	private int asyncQueueSize = 1024;
+	private int asyncBatchSize = 100;
+	private int asyncSenderThreads = 1;
+	private String spillDir;
+	private long spillSegmentSize = 16 * 1024 * 1024;
+	private volatile AsyncOutputSender<O> asyncSender;
+
+	private int trackersPoolSize = 0;
+	private long trackerIdleTimeout = TimeUnit.MINUTES.toMillis(10);
+
 	/**
 	 * Constructs a new AbstractJKCloudOutput.
 	 */
@@ -176,6 +226,101 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 		initializeTNT4JConfig();
 
 		setupDefaultSource();
+
+		startSenders();
+	}
+
+	/**
+	 * Starts output sender threads: dedicated thread trackers evictor, if trackers pool is not used, and asynchronous
+	 * activity data packages sender, if output is configured to send packages asynchronously and sender is not running
+	 * yet.
+	 *
+	 * @throws IOException
+	 *             if spill log can't be opened
+	 */
+	protected synchronized void startSenders() throws IOException {
+		if (trackersPool == null && trackersEvictor == null) {
+			trackersEvictor = Executors.newSingleThreadScheduledExecutor(
+					new TNTInputStream.StreamsThreadFactory(getName() + ":TrackersEvictor-")); // NON-NLS
+			long period = trackerIdleTimeout > 0 ? Math.min(EVICTION_PERIOD, trackerIdleTimeout) : EVICTION_PERIOD;
+			trackersEvictor.scheduleWithFixedDelay(() -> evictIdleTrackers(System.currentTimeMillis()), period, period,
+					TimeUnit.MILLISECONDS);
+		}
+
+		if (!asyncSend || asyncSender != null) {
+			return;
+		}
+
+		SpillLog spillLog = null;
+		if (StringUtils.isNotEmpty(spillDir)) {
+			spillLog = new SpillLog(Paths.get(spillDir), spillSegmentSize);
+			if (!spillLog.isEmpty()) {
+				logger().log(OpLevel.INFO, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+						"TNTStreamOutput.async.spill.replay", getName(), spillLog.getSize(), spillDir);
+			}
+		}
+
+		Timer sendTimer = null;
+		if (getStream() != null) {
+			MetricRegistry streamMetrics = TNTInputStreamStatistics.getMetrics(getStream());
+			String prefix = getStream().getName() + ":output:"; // NON-NLS
+			sendTimer = streamMetrics.timer(prefix + "send latency"); // NON-NLS
+			streamMetrics.gauge(prefix + "queue depth", // NON-NLS
+					() -> (Gauge<Integer>) () -> asyncSender == null ? 0 : asyncSender.getQueueDepth());
+			streamMetrics.gauge(prefix + "spill bytes", // NON-NLS
+					() -> (Gauge<Long>) () -> asyncSender == null ? 0L : asyncSender.getSpillSize());
+		}
+
+		asyncSender = new AsyncOutputSender<>(this, asyncQueueSize, asyncBatchSize, asyncSenderThreads, spillLog,
+				retryPeriod, sendTimer);
+		asyncSender.start();
+	}
+
+	/**
+	 * Stops output sender threads: asynchronous activity data packages sender, if it is running, and dedicated thread
+	 * trackers evictor. Packages left unsent are spilled.
+	 */
+	protected synchronized void stopSenders() {
+		AsyncOutputSender<O> sender = asyncSender;
+		if (sender != null) {
+			asyncSender = null;
+			sender.stop(retryPeriod);
+		}
+
+		if (trackersEvictor != null) {
+			trackersEvictor.shutdown();
+			trackersEvictor = null;
+		}
+	}
+
+	/**
+	 * Serializes activity data package to be stored in spill log.
+	 * <p>
+	 * Default implementation returns {@code null}, meaning activity data packages can't be spilled.
+	 *
+	 * @param activityData
+	 *            activity data package to serialize
+	 * @return serialized activity data package bytes, or {@code null} if package can't be serialized
+	 *
+	 * @see #deserializeActivity(byte[])
+	 */
+	protected byte[] serializeActivity(O activityData) {
+		return null;
+	}
+
+	/**
+	 * Restores activity data package from spill log stored bytes.
+	 * <p>
+	 * Default implementation returns {@code null}.
+	 *
+	 * @param bytes
+	 *            serialized activity data package bytes
+	 * @return activity data package, or {@code null} if package can't be deserialized
+	 *
+	 * @see #serializeActivity(Object)
+	 */
+	protected O deserializeActivity(byte[] bytes) {
+		return null;
 	}
 
 	@Override
@@ -283,14 +428,30 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 				OutputProperties.PROP_RETRY_INTERVAL)) {
 			int retryPeriodSec = Integer.parseInt((String) value);
 			retryPeriod = TimeUnit.SECONDS.toMillis(retryPeriodSec);
+		} else if (OutputProperties.PROP_ASYNC_SEND.equalsIgnoreCase(name)) {
+			asyncSend = Utils.toBoolean((String) value);
+		} else if (OutputProperties.PROP_ASYNC_QUEUE_SIZE.equalsIgnoreCase(name)) {
+			asyncQueueSize = Integer.parseInt((String) value);
+		} else if (OutputProperties.PROP_ASYNC_BATCH_SIZE.equalsIgnoreCase(name)) {
+			asyncBatchSize = Integer.parseInt((String) value);
+		} else if (OutputProperties.PROP_ASYNC_SENDER_THREADS.equalsIgnoreCase(name)) {
+			asyncSenderThreads = Integer.parseInt((String) value);
+		} else if (OutputProperties.PROP_SPILL_DIR.equalsIgnoreCase(name)) {
+			spillDir = (String) value;
+		} else if (OutputProperties.PROP_SPILL_SEGMENT_SIZE.equalsIgnoreCase(name)) {
+			spillSegmentSize = Long.parseLong((String) value);
+		} else if (OutputProperties.PROP_TRACKERS_POOL_SIZE.equalsIgnoreCase(name)) {
+			trackersPoolSize = Integer.parseInt((String) value);
+			trackersPool = trackersPoolSize > 0 ? new AtomicReferenceArray<>(trackersPoolSize) : null;
+		} else if (OutputProperties.PROP_TRACKER_IDLE_TIMEOUT.equalsIgnoreCase(name)) {
+			trackerIdleTimeout = TimeUnit.SECONDS.toMillis(Long.parseLong((String) value));
 		}
 	}
 
 	@Override
 	public boolean hasSink(String sinkId) {
-		Tracker tracker = getTracker();
-
-		if (tracker != null) {
+		Tracker tracker = acquireTracker();
+		try {
 			EventSink eSink = tracker.getEventSink();
 
 			if (eSink instanceof BroadcastingEventSink) {
@@ -298,14 +459,16 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 			} else if (eSink != null) {
 				return StringUtils.equals(eSink.getName(), sinkId);
 			}
+		} finally {
+			releaseTracker(tracker);
 		}
 
 		return false;
 	}
 
 	/**
-	 * Gets {@link Tracker} instance from {@link #trackersMap} matching {@link Thread#currentThread()} on which stream
-	 * output is running. If no tracker found in trackers map - new one is created.
+	 * Gets {@link Tracker} instance matching {@link Thread#currentThread()} on which stream output is running. If no
+	 * tracker found - new one is created.
 	 *
 	 * @return tracker instance for activity item
 	 *
@@ -319,8 +482,16 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 	}
 
 	/**
-	 * Gets {@link Tracker} instance from {@link #trackersMap} matching provided thread on which stream output is
-	 * running. If no tracker found in trackers map - new one is created.
+	 * Gets {@link Tracker} instance matching provided thread on which stream output is running. If no tracker found -
+	 * new one is created.
+	 * <p>
+	 * When trackers pool is used, thread gets pool tracker picked by thread id, otherwise thread gets dedicated tracker
+	 * from {@link #trackersMap}. Existing tracker is picked without locking, so stream threads do not contend for
+	 * trackers.
+	 * <p>
+	 * Pool tracker returned by this method may be used by other thread at the same time, and dedicated thread tracker
+	 * not marked as used may be closed by idle trackers eviction, so trackers used to send activity data shall be
+	 * obtained using {@link #acquireTracker()}.
 	 *
 	 * @param t
 	 *            thread on which stream is running
@@ -330,44 +501,221 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 	 *             indicates that created tracker is not opened and can not record activity data
 	 */
 	protected Tracker getTracker(Thread t) throws IllegalStateException {
-		synchronized (trackersMap) {
-			String tKey = getTrackersMapKey(t);
-			Tracker tracker = trackersMap.get(tKey);
-			if (tracker == null) {
-				tracker = TrackingLogger.getInstance(trackerConfig.build());
-				tracker.getEventSink().addSinkErrorListener(this);
-				checkTracker(tracker);
-				trackersMap.put(tKey, tracker);
-				logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
-						"TNTStreamOutput.built.new.tracker", getName(), getTrackerId(tracker), tKey, tracker);
+		long tId = t == null ? -1 : t.getId();
+		AtomicReferenceArray<TrackerSlot> pool = trackersPool;
+		TrackerSlot slot = pool == null ? getThreadTrackerSlot(t, tId)
+				: getPoolTrackerSlot(pool, (int) Math.floorMod(tId, (long) pool.length()));
+
+		slot.lastUsed = System.currentTimeMillis();
+		return slot.tracker;
+	}
+
+	/**
+	 * Gets {@link Tracker} instance matching {@link Thread#currentThread()} and marks it as used, so it does not get
+	 * closed by idle trackers eviction until released by {@link #releaseTracker(Tracker)}. Every acquired tracker must
+	 * be released.
+	 * <p>
+	 * When trackers pool is used, acquired pool tracker is used exclusively by current thread until released. Thread
+	 * takes pool tracker picked by its id, or any other free pool tracker if that one is in use. If all pool trackers
+	 * are in use, thread waits until its own pool tracker gets released.
+	 *
+	 * @return tracker instance for activity item
+	 *
+	 * @throws IllegalStateException
+	 *             indicates that created tracker is not opened and can not record activity data
+	 *
+	 * @see #getTracker(Thread)
+	 */
+	protected Tracker acquireTracker() throws IllegalStateException {
+		Thread t = Thread.currentThread();
+		AtomicReferenceArray<TrackerSlot> pool = trackersPool;
+		if (pool != null) {
+			return acquirePoolTracker(pool, t.getId());
+		}
+
+		while (true) {
+			TrackerSlot slot = getThreadTrackerSlot(t, t.getId());
+			if (slot.acquire()) {
+				slot.lastUsed = System.currentTimeMillis();
+				return slot.tracker;
+			}
+		}
+	}
+
+	/**
+	 * Releases tracker acquired by {@link #acquireTracker()}, making it available for idle trackers eviction.
+	 *
+	 * @param tracker
+	 *            acquired tracker instance
+	 */
+	protected void releaseTracker(Tracker tracker) {
+		AtomicReferenceArray<TrackerSlot> pool = trackersPool;
+		if (pool != null) {
+			for (int i = 0; i < pool.length(); i++) {
+				TrackerSlot slot = pool.get(i);
+				if (slot != null && slot.tracker == tracker && slot.lock.isHeldByCurrentThread()) {
+					slot.lastUsed = System.currentTimeMillis();
+					slot.lock.unlock();
+					return;
+				}
+			}
+			return;
+		}
+
+		TrackerSlot slot = trackersMap.get(Thread.currentThread().getId());
+		if (slot != null && slot.tracker == tracker) {
+			slot.lastUsed = System.currentTimeMillis();
+			slot.release();
+		}
+	}
+
+	private TrackerSlot getThreadTrackerSlot(Thread t, long tId) {
+		TrackerSlot slot = trackersMap.get(tId);
+		if (slot != null && !slot.isClosed()) {
+			return slot;
+		}
+
+		TrackerSlot newSlot = new TrackerSlot(buildTracker(tId), t);
+		if (slot == null) {
+			slot = trackersMap.putIfAbsent(tId, newSlot);
+		} else {
+			slot = trackersMap.replace(tId, slot, newSlot) ? null : trackersMap.putIfAbsent(tId, newSlot);
+		}
+		if (slot != null && !slot.isClosed()) {
+			// thread has built tracker concurrently
+			closeTracker(newSlot.tracker);
+			return slot;
+		}
+		if (slot != null) {
+			trackersMap.put(tId, newSlot);
+		}
+
+		return newSlot;
+	}
+
+	private Tracker acquirePoolTracker(AtomicReferenceArray<TrackerSlot> pool, long tId) {
+		int idx = (int) Math.floorMod(tId, (long) pool.length());
+		TrackerSlot slot = getPoolTrackerSlot(pool, idx);
+		if (!slot.lock.tryLock()) {
+			TrackerSlot freeSlot = null;
+			for (int i = 1; i < pool.length() && freeSlot == null; i++) {
+				TrackerSlot pSlot = getPoolTrackerSlot(pool, (idx + i) % pool.length());
+				if (pSlot.lock.tryLock()) {
+					freeSlot = pSlot;
+				}
+			}
+			if (freeSlot == null) {
+				slot.lock.lock();
+			} else {
+				slot = freeSlot;
+			}
+		}
+
+		slot.lastUsed = System.currentTimeMillis();
+		return slot.tracker;
+	}
+
+	private TrackerSlot getPoolTrackerSlot(AtomicReferenceArray<TrackerSlot> pool, int idx) {
+		TrackerSlot slot = pool.get(idx);
+		if (slot != null) {
+			return slot;
+		}
+
+		synchronized (pool) {
+			slot = pool.get(idx);
+			if (slot == null) {
+				slot = new TrackerSlot(buildTracker(idx), null);
+				pool.set(idx, slot);
 			}
+			return slot;
+		}
+	}
+
+	private Tracker buildTracker(long key) throws IllegalStateException {
+		Tracker tracker = createTracker(trackerConfig);
+		tracker.getEventSink().addSinkErrorListener(this);
+		checkTracker(tracker);
+		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+				"TNTStreamOutput.built.new.tracker", getName(), getTrackerId(tracker), key, tracker);
+
+		return tracker;
+	}
+
+	/**
+	 * Creates new tracker instance using provided tracker configuration.
+	 *
+	 * @param config
+	 *            tracker configuration
+	 * @return created tracker instance
+	 */
+	protected Tracker createTracker(TrackerConfig config) {
+		return TrackingLogger.getInstance(config.build());
+	}
 
-			return tracker;
+	/**
+	 * Closes dedicated thread trackers of terminated threads and trackers not used longer than tracker idle timeout.
+	 * Trackers marked as used are left open. Eviction is run by trackers evictor thread periodically.
+	 *
+	 * @param now
+	 *            eviction run time in milliseconds
+	 */
+	void evictIdleTrackers(long now) {
+		for (Map.Entry<Long, TrackerSlot> te : trackersMap.entrySet()) {
+			TrackerSlot slot = te.getValue();
+			if (slot.isTerminated() || (trackerIdleTimeout > 0 && now - slot.lastUsed > trackerIdleTimeout)) {
+				if (slot.evict()) {
+					trackersMap.remove(te.getKey(), slot);
+					closeTracker(slot.tracker);
+				}
+			}
 		}
 	}
 
-	private static String getTrackersMapKey(Thread t) {
-		return t == null ? "null" : String.valueOf(t.getId()); // NON-NLS
+	/**
+	 * Closes provided tracker: flushes accumulated activities, dumps tracker statistics and shuts down tracker.
+	 *
+	 * @param tracker
+	 *            tracker instance to close
+	 */
+	protected void closeTracker(Tracker tracker) {
+		try {
+			flushActivities(tracker, true);
+		} catch (IOException exc) {
+			Utils.logThrowable(logger(), OpLevel.ERROR,
+					StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"TNTStreamOutput.recording.failed", exc);
+		}
+		dumpTrackerStats(tracker);
+		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+				"TNTStreamOutput.tracker.close", getName(), getTrackerId(tracker), tracker);
+		tracker.getEventSink().removeSinkErrorListener(this);
+		Utils.close(tracker);
+
+		if (tracker instanceof TrackingLogger) {
+			TrackingLogger.shutdown((TrackingLogger) tracker);
+		}
 	}
 
 	@Override
 	public void cleanup() {
-		synchronized (trackersMap) {
-			if (!trackersMap.isEmpty()) {
-				for (Map.Entry<String, Tracker> te : trackersMap.entrySet()) {
-					Tracker tracker = te.getValue();
-					dumpTrackerStats(tracker);
-					logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
-							"TNTStreamOutput.tracker.close", getName(), getTrackerId(tracker), tracker);
-					tracker.getEventSink().removeSinkErrorListener(this);
-					Utils.close(tracker);
-
-					if (tracker instanceof TrackingLogger) {
-						TrackingLogger.shutdown((TrackingLogger) tracker);
+		stopSenders();
+
+		for (TrackerSlot slot : trackersMap.values()) {
+			slot.close();
+			closeTracker(slot.tracker);
+		}
+		trackersMap.clear();
+
+		AtomicReferenceArray<TrackerSlot> pool = trackersPool;
+		if (pool != null) {
+			synchronized (pool) {
+				for (int i = 0; i < pool.length(); i++) {
+					TrackerSlot slot = pool.getAndSet(i, null);
+					if (slot != null) {
+						slot.close();
+						closeTracker(slot.tracker);
 					}
 				}
-
-				trackersMap.clear();
 			}
 		}
 		super.cleanup();
@@ -456,6 +804,14 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 		}
 
 		setupDefaultSource();
+
+		try {
+			startSenders();
+		} catch (IOException exc) {
+			Utils.logThrowable(logger(), OpLevel.ERROR,
+					StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"TNTStreamOutput.async.spill.failed", getName(), exc);
+		}
 	}
 
 	private void applyUserTNT4JProperties() {
@@ -496,6 +852,9 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 	/**
 	 * Sends activity data package to jKoolCloud using the specified tracker. Performs resend after defined period of
 	 * time if initial sending fails.
+	 * <p>
+	 * If output sends activity data packages asynchronously, package is put to asynchronous sender queue and this
+	 * method returns without waiting for package to be sent.
 	 * 
 	 * @param tracker
 	 *            communication gateway to use to record activity
@@ -518,6 +877,28 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 			return;
 		}
 
+		AsyncOutputSender<O> sender = asyncSender;
+		if (sender != null && sender.enqueue(activityData)) {
+			return;
+		}
+
+		sendWithRetry(retryPeriod, activityData, () -> sendActivity(tracker, activityData));
+	}
+
+	/**
+	 * Performs provided send operation. If operation fails and current thread is {@link StreamsThread}, retries it
+	 * after defined period of time until operation succeeds or thread gets stopped.
+	 *
+	 * @param retryPeriod
+	 *            period in milliseconds between operation retries in case of failure
+	 * @param activityData
+	 *            activity data sent by operation, used for logging
+	 * @param operation
+	 *            send operation to perform
+	 * @throws IOException
+	 *             if send operation fails and current thread is not {@link StreamsThread}
+	 */
+	protected void sendWithRetry(long retryPeriod, Object activityData, SendOperation operation) throws IOException {
 		StreamsThread thread = null;
 		if (Thread.currentThread() instanceof StreamsThread) {
 			thread = (StreamsThread) Thread.currentThread();
@@ -526,7 +907,7 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 		int retryAttemptsCount = 0;
 		do {
 			try {
-				sendActivity(tracker, activityData);
+				operation.send();
 
 				if (retryAttemptsCount > 0) {
 					logger().log(OpLevel.INFO, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
@@ -588,14 +969,41 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 		logJKCActivity(tracker, activityData);
 
 		if (handleErrorInternally) {
-			if (eSink.errorState()) {
-				if (eSink.getLastError() instanceof IOException) {
-					throw (IOException) eSink.getLastError();
-				}
+			checkSinkError(eSink);
+		}
+	}
+
+	/**
+	 * Checks event sink state and throws last sink error if it is communication error.
+	 *
+	 * @param eSink
+	 *            event sink to check
+	 * @throws IOException
+	 *             if event sink is in error state caused by communication error
+	 */
+	protected static void checkSinkError(EventSink eSink) throws IOException {
+		if (eSink.errorState()) {
+			if (eSink.getLastError() instanceof IOException) {
+				throw (IOException) eSink.getLastError();
 			}
 		}
 	}
 
+	/**
+	 * Sends activity data packages accumulated by provided tracker, e.g. to be sent as single batch.
+	 * <p>
+	 * Default implementation does nothing, since activity data packages are sent as soon as they get logged.
+	 *
+	 * @param tracker
+	 *            communication gateway used to log accumulated activity data packages
+	 * @param force
+	 *            flag indicating to send all accumulated packages, even if batch thresholds are not reached
+	 * @throws IOException
+	 *             if communication with jKoolCloud fails
+	 */
+	protected void flushActivities(Tracker tracker, boolean force) throws IOException {
+	}
+
 	/**
 	 * Logs given activity data using provided tracker to communicate jKoolCloud.
 	 * 
@@ -606,6 +1014,20 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 	 */
 	protected abstract void logJKCActivity(Tracker tracker, O activityData);
 
+	/**
+	 * Activity data send operation, retried on communication failure.
+	 */
+	@FunctionalInterface
+	protected interface SendOperation {
+		/**
+		 * Performs send operation.
+		 *
+		 * @throws IOException
+		 *             if communication with jKoolCloud fails
+		 */
+		void send() throws IOException;
+	}
+
 	/**
 	 * Sends stream startup ("welcome") or shutdown message.
 	 *
@@ -613,7 +1035,15 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 	 *            stream status
 	 */
 	protected void sendStreamStateMessage(StreamStatus status) {
-		Tracker tracker = getTracker();
+		Tracker tracker = acquireTracker();
+		try {
+			sendStreamStateMessage(tracker, status);
+		} finally {
+			releaseTracker(tracker);
+		}
+	}
+
+	private void sendStreamStateMessage(Tracker tracker, StreamStatus status) {
 		TrackingEvent sMsgEvent;
 		if (status == StreamStatus.STARTED) {
 			sMsgEvent = tracker.newEvent(OpLevel.INFO, OpType.START, "Streaming-session-start-event", // NON-NLS
@@ -650,6 +1080,66 @@ public abstract class AbstractJKCloudOutput<T, O> extends AbstractTNTStreamOutpu
 	 */
 	protected abstract O formatStreamStatusMessage(TrackingEvent statusMessage);
 
+	/**
+	 * Tracker bound to stream thread or trackers pool slot. Counts tracker users, so tracker in use does not get
+	 * evicted. Pool slot lock gives thread exclusive use of pool tracker.
+	 */
+	private static class TrackerSlot {
+		private static final int CLOSED = -1;
+
+		private final Tracker tracker;
+		private final WeakReference<Thread> thread;
+		private volatile long lastUsed = System.currentTimeMillis();
+		private final AtomicInteger users = new AtomicInteger();
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private TrackerSlot(Tracker tracker, Thread thread) {
+			this.tracker = tracker;
+			this.thread = thread == null ? null : new WeakReference<>(thread);
+		}
+
+		private boolean acquire() {
+			while (true) {
+				int u = users.get();
+				if (u == CLOSED) {
+					return false;
+				}
+				if (users.compareAndSet(u, u + 1)) {
+					return true;
+				}
+			}
+		}
+
+		private void release() {
+			while (true) {
+				int u = users.get();
+				if (u <= 0 || users.compareAndSet(u, u - 1)) {
+					return;
+				}
+			}
+		}
+
+		private boolean evict() {
+			return users.compareAndSet(0, CLOSED);
+		}
+
+		private void close() {
+			users.set(CLOSED);
+		}
+
+		private boolean isClosed() {
+			return users.get() == CLOSED;
+		}
+
+		private boolean isTerminated() {
+			if (thread == null) {
+				return false;
+			}
+			Thread t = thread.get();
+			return t == null || t.getState() == Thread.State.TERMINATED;
+		}
+	}
+
 	private class JKoolNotificationListener extends InputStreamEventsAdapter {
 		@Override
 		public void onStatusChange(TNTInputStream<?, ?> stream, StreamStatus status) {
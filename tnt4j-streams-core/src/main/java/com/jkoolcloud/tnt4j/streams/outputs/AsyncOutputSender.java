@@ -0,0 +1,370 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.outputs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Timer;
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.streams.utils.SpillLog;
+import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
+import com.jkoolcloud.tnt4j.streams.utils.StreamsThread;
+import com.jkoolcloud.tnt4j.streams.utils.Utils;
+import com.jkoolcloud.tnt4j.tracker.Tracker;
+
+/**
+ * Store-and-forward sender of {@link AbstractJKCloudOutput} activity data packages. Stream threads put packages into
+ * bounded memory queue, and dedicated sender threads send queued packages in batches, so slow or unavailable output
+ * endpoint does not stall stream data parsing.
+ * <p>
+ * When spill log is defined, packages not fitting into memory queue are appended to spill log, and sender threads
+ * sends spilled packages when memory queue gets empty. Spilled packages are removed from spill log only after they have
+ * been sent. Packages left unsent on sender shutdown are spilled too, so they are replayed after restart. Without spill
+ * log, stream threads wait for free memory queue space.
+ * <p>
+ * Failed send gets retried with exponential backoff, starting from {@value #INITIAL_BACKOFF}ms and limited by output
+ * retry period.
+ *
+ * @param <O>
+ *            the type of outgoing activity data package
+ *
+ * @version $Revision: 2 $
+ */
+class AsyncOutputSender<O> {
+	private static final long INITIAL_BACKOFF = 500;
+	private static final long POLL_TIMEOUT = 500;
+
+	private final AbstractJKCloudOutput<?, O> output;
+	private final BlockingQueue<O> queue;
+	private final SpillLog spillLog;
+	private final int batchSize;
+	private final long maxBackoff;
+	private final Timer sendTimer;
+
+	private final List<SenderThread> senders;
+	private volatile boolean stopped = false;
+
+	/**
+	 * Constructs a new AsyncOutputSender.
+	 *
+	 * @param output
+	 *            output to send activity data packages
+	 * @param queueSize
+	 *            memory queue capacity
+	 * @param batchSize
+	 *            maximal number of packages sender thread takes to send at once
+	 * @param sendersCount
+	 *            number of sender threads
+	 * @param spillLog
+	 *            spill log to store packages not fitting into memory queue, or {@code null} if packages shall not be
+	 *            spilled
+	 * @param maxBackoff
+	 *            maximal period in milliseconds to wait before retrying failed send
+	 * @param sendTimer
+	 *            timer to account package send latency, or {@code null} if latency shall not be accounted
+	 */
+	AsyncOutputSender(AbstractJKCloudOutput<?, O> output, int queueSize, int batchSize, int sendersCount,
+			SpillLog spillLog, long maxBackoff, Timer sendTimer) {
+		this.output = output;
+		this.queue = new ArrayBlockingQueue<>(queueSize);
+		this.spillLog = spillLog;
+		this.batchSize = batchSize;
+		this.maxBackoff = Math.max(maxBackoff, INITIAL_BACKOFF);
+		this.sendTimer = sendTimer;
+
+		this.senders = new ArrayList<>(sendersCount);
+		for (int i = 0; i < sendersCount; i++) {
+			senders.add(new SenderThread(output.getName() + ":AsyncSender-" + (i + 1))); // NON-NLS
+		}
+	}
+
+	/**
+	 * Starts sender threads.
+	 */
+	void start() {
+		for (SenderThread sender : senders) {
+			sender.start();
+		}
+	}
+
+	/**
+	 * Puts activity data package to be sent by sender threads. When memory queue is full, package is spilled, or, if
+	 * package can't be spilled, calling thread waits until memory queue has free space.
+	 *
+	 * @param activityData
+	 *            activity data package to send
+	 * @return {@code true} if package has been accepted, {@code false} - if sender is stopped and package shall be
+	 *         sent by calling thread
+	 *
+	 * @throws InterruptedException
+	 *             if calling thread gets interrupted while waiting for free memory queue space
+	 */
+	boolean enqueue(O activityData) throws InterruptedException {
+		if ((spillLog == null || spillLog.isEmpty()) && queue.offer(activityData)) {
+			return true;
+		}
+		if (spill(activityData)) {
+			return true;
+		}
+
+		while (!stopped) {
+			if (queue.offer(activityData, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean spill(O activityData) {
+		if (spillLog == null) {
+			return false;
+		}
+
+		byte[] bytes = output.serializeActivity(activityData);
+		if (bytes == null) {
+			return false;
+		}
+
+		try {
+			spillLog.append(bytes);
+			return true;
+		} catch (IOException exc) {
+			Utils.logThrowable(output.logger(), OpLevel.ERROR,
+					StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"TNTStreamOutput.async.spill.failed", output.getName(), exc);
+			return false;
+		}
+	}
+
+	private void spillOrDrop(List<O> activities) {
+		int dropped = 0;
+		for (O activityData : activities) {
+			if (!spill(activityData)) {
+				dropped++;
+			}
+		}
+
+		if (dropped > 0) {
+			output.logger().log(OpLevel.WARNING, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"TNTStreamOutput.async.dropped", output.getName(), dropped);
+		}
+	}
+
+	/**
+	 * Returns number of activity data packages in memory queue.
+	 *
+	 * @return memory queue depth
+	 */
+	int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * Returns size of spilled activity data packages in bytes.
+	 *
+	 * @return spill log size in bytes, or {@code 0} if spill log is not defined
+	 */
+	long getSpillSize() {
+		return spillLog == null ? 0 : spillLog.getSize();
+	}
+
+	/**
+	 * Stops sender threads. Sender threads send packages left in memory queue, waiting for them no longer than
+	 * provided timeout. Packages left unsent are spilled, or dropped if can't be spilled.
+	 *
+	 * @param timeout
+	 *            maximal period in milliseconds to wait for memory queue packages to be sent
+	 */
+	void stop(long timeout) {
+		stopped = true;
+		for (SenderThread sender : senders) {
+			sender.halt(false);
+		}
+
+		long deadline = System.currentTimeMillis() + timeout;
+		for (SenderThread sender : senders) {
+			try {
+				sender.join(Math.max(1, deadline - System.currentTimeMillis()));
+				if (sender.isAlive()) {
+					sender.interrupt();
+					sender.join(POLL_TIMEOUT);
+				}
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		List<O> unsent = new ArrayList<>(queue.size());
+		queue.drainTo(unsent);
+		spillOrDrop(unsent);
+
+		if (spillLog != null) {
+			try {
+				spillLog.close();
+			} catch (IOException exc) {
+				Utils.logThrowable(output.logger(), OpLevel.ERROR,
+						StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+						"TNTStreamOutput.async.spill.failed", output.getName(), exc);
+			}
+		}
+	}
+
+	private class SenderThread extends StreamsThread {
+		private final List<O> batch = new ArrayList<>(batchSize);
+		private SpillLog.Batch spilledBatch;
+		private boolean spillStalled = false;
+
+		SenderThread(String name) {
+			super(name);
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			while (!isStopRunning() || !queue.isEmpty()) {
+				try {
+					if (!takeBatch()) {
+						continue;
+					}
+					if (!sendBatch()) {
+						break;
+					}
+					commitSpilledBatch();
+				} catch (InterruptedException exc) {
+					break;
+				} catch (Exception exc) {
+					Utils.logThrowable(output.logger(), OpLevel.ERROR,
+							StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+							"TNTStreamOutput.recording.failed", exc);
+					if (!backoff(maxBackoff)) {
+						break;
+					}
+				}
+			}
+
+			if (spilledBatch == null) {
+				spillOrDrop(batch);
+			} // else unsent spilled packages are left in spill log to be replayed after restart
+			batch.clear();
+		}
+
+		private boolean takeBatch() throws InterruptedException, IOException {
+			if (!batch.isEmpty()) {
+				// retry packages left unsent by failed send
+				return true;
+			}
+
+			boolean spilled = spillLog != null && !spillStalled && !spillLog.isEmpty();
+			O first = isStopRunning() || spilled ? queue.poll() : queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+			if (first != null) {
+				batch.add(first);
+				queue.drainTo(batch, batchSize - 1);
+			} else if (spillLog != null && !isStopRunning()) {
+				SpillLog.Batch readBatch = spillLog.readBatch(batchSize);
+				spillStalled = readBatch.isEmpty();
+				if (!spillStalled) {
+					spilledBatch = readBatch;
+					for (byte[] bytes : readBatch.getRecords()) {
+						O activityData = output.deserializeActivity(bytes);
+						if (activityData != null) {
+							batch.add(activityData);
+						}
+					}
+					if (batch.isEmpty()) {
+						commitSpilledBatch();
+					}
+				}
+			}
+
+			return !batch.isEmpty();
+		}
+
+		private void commitSpilledBatch() throws IOException {
+			SpillLog.Batch committed = spilledBatch;
+			spilledBatch = null;
+			if (committed != null) {
+				spillLog.commit(committed);
+			}
+		}
+
+		/**
+		 * Sends taken batch of activity data packages, retrying failed sends. When all batch packages are logged,
+		 * output accumulated packages get flushed.
+		 *
+		 * @return {@code true} if all batch packages have been sent, {@code false} - if sender got stopped having
+		 *         unsent packages
+		 */
+		private boolean sendBatch() {
+			Tracker tracker = output.acquireTracker();
+			int sent = 0;
+			int attempt = 0;
+			boolean flushed = false;
+			try {
+				while (!flushed) {
+					try {
+						long start = System.nanoTime();
+						if (sent < batch.size()) {
+							output.sendActivity(tracker, batch.get(sent));
+							sent++;
+						} else {
+							output.flushActivities(tracker, false);
+							flushed = true;
+						}
+						if (sendTimer != null) {
+							sendTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+						}
+
+						if (attempt > 0) {
+							output.logger().log(OpLevel.INFO,
+									StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+									"TNTStreamOutput.retry.successful", attempt);
+							attempt = 0;
+						}
+					} catch (IOException ioe) {
+						Utils.logThrowable(output.logger(), OpLevel.ERROR,
+								StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+								"TNTStreamOutput.recording.failed", ioe);
+						long delay = Math.min(maxBackoff, INITIAL_BACKOFF << Math.min(attempt++, 16));
+						if (isStopRunning() || !backoff(delay)) {
+							return false;
+						}
+					}
+				}
+				return true;
+			} finally {
+				batch.subList(0, sent).clear();
+				output.releaseTracker(tracker);
+			}
+		}
+
+		private boolean backoff(long delay) {
+			output.logger().log(OpLevel.INFO, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"TNTStreamOutput.async.will.retry", output.getName(), delay);
+			try {
+				Thread.sleep(delay);
+				return true;
+			} catch (InterruptedException exc) {
+				return false;
+			}
+		}
+	}
+}
@@ -16,17 +16,26 @@
 
 package com.jkoolcloud.tnt4j.streams.outputs;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import com.jkoolcloud.tnt4j.core.Activity;
+import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.Snapshot;
 import com.jkoolcloud.tnt4j.core.Trackable;
+import com.jkoolcloud.tnt4j.format.EventFormatter;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.source.DefaultSourceFactory;
 import com.jkoolcloud.tnt4j.source.Source;
@@ -34,7 +43,10 @@ import com.jkoolcloud.tnt4j.source.SourceFactory;
 import com.jkoolcloud.tnt4j.streams.configure.OutputProperties;
 import com.jkoolcloud.tnt4j.streams.fields.ActivityField;
 import com.jkoolcloud.tnt4j.streams.fields.ActivityInfo;
+import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStream;
 import com.jkoolcloud.tnt4j.streams.utils.LoggerUtils;
+import com.jkoolcloud.tnt4j.streams.utils.RedirectTNT4JStreamFormatter;
+import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
 import com.jkoolcloud.tnt4j.streams.utils.Utils;
 import com.jkoolcloud.tnt4j.tracker.Tracker;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
@@ -59,9 +71,22 @@ import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
  * <li>SourceFQN - {@link Source} FQN pattern to be used when building it from streamed activity entity fields values.
  * Format is: SourceType1=${FieldName1}#SourceType2=${FieldName2}#SourceType3=${FieldName3}... . Default value -
  * 'APPL=${ApplName}#USER=${UserName}#SERVER=${ServerName}#NETADDR=${ServerIp}#GEOADDR=${Location}'. (Optional)</li>
+ * <li>ActivitiesBatchSize - number of activity entities to accumulate per tracker before writing them to tracker
+ * event sink as single JSON array payload. Entities are formatted by tracker event formatter. Value {@code 0} disables
+ * batching. Batching requires tracker event formatter producing JSON and passing valid JSON through unchanged -
+ * {@link RedirectTNT4JStreamFormatter}. If tracker uses other event formatter, activity entities are sent unbatched.
+ * Default value - {@code 0}. (Optional)</li>
+ * <li>ActivitiesBatchBytes - length of formatted activity entities payload (in characters) to accumulate per tracker
+ * before sending it. Default value - {@code 1048576}. (Optional)</li>
+ * <li>ActivitiesBatchLinger - period in milliseconds to accumulate activity entities before sending them, even if
+ * batch size thresholds are not reached. Lingering batches are sent by dedicated thread using its own tracker. Default
+ * value - {@code 500}. (Optional)</li>
  * </ul>
+ * <p>
+ * When batching is enabled, activity entity child entities produced by splitting relatives are sent in same batch as
+ * parent entity.
  *
- * @version $Revision: 1 $
+ * @version $Revision: 4 $
  *
  * @see ActivityInfo#buildTrackable(com.jkoolcloud.tnt4j.tracker.Tracker, java.util.Map)
  */
@@ -76,6 +101,13 @@ public class JKCloudActivityOutput extends AbstractJKCloudOutput<ActivityInfo, T
 	private boolean buildFQNFromData = true;
 	private String sourceFQN = null;
 
+	private int batchSize = 0;
+	private int batchBytes = 1024 * 1024;
+	private long batchLinger = 500;
+	private final Map<Tracker, TrackablesBatch> batches = new ConcurrentHashMap<>();
+	private ScheduledExecutorService lingerFlusher;
+	private final AtomicBoolean unbatchedWarned = new AtomicBoolean();
+
 	/**
 	 * Constructs a new JKCloudActivityOutput.
 	 */
@@ -112,9 +144,79 @@ public class JKCloudActivityOutput extends AbstractJKCloudOutput<ActivityInfo, T
 			buildFQNFromData = Utils.toBoolean((String) value);
 		} else if (OutputProperties.PROP_SOURCE_FQN.equalsIgnoreCase(name)) {
 			sourceFQN = (String) value;
+		} else if (OutputProperties.PROP_ACTIVITIES_BATCH_SIZE.equalsIgnoreCase(name)) {
+			batchSize = Integer.parseInt((String) value);
+		} else if (OutputProperties.PROP_ACTIVITIES_BATCH_BYTES.equalsIgnoreCase(name)) {
+			batchBytes = Integer.parseInt((String) value);
+		} else if (OutputProperties.PROP_ACTIVITIES_BATCH_LINGER.equalsIgnoreCase(name)) {
+			batchLinger = Long.parseLong((String) value);
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Starts batches linger period flushing thread, if activity entities batching is enabled.
+	 */
+	@Override
+	protected synchronized void startSenders() throws IOException {
+		super.startSenders();
+
+		if (batchSize > 0 && lingerFlusher == null) {
+			lingerFlusher = Executors.newSingleThreadScheduledExecutor(
+					new TNTInputStream.StreamsThreadFactory(getName() + ":BatchLingerFlusher-")); // NON-NLS
+			long period = Math.max(1, batchLinger / 2);
+			lingerFlusher.scheduleAtFixedRate(this::flushLingeringBatches, period, period, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	protected synchronized void stopSenders() {
+		if (lingerFlusher != null) {
+			lingerFlusher.shutdown();
+			lingerFlusher = null;
+		}
+
+		super.stopSenders();
+	}
+
+	/**
+	 * Sends batches having linger period expired. Batches are sent using flushing thread own tracker, since stream
+	 * threads trackers are not shared.
+	 */
+	void flushLingeringBatches() {
+		if (batches.isEmpty()) {
+			return;
+		}
+
+		try {
+			Tracker tracker = acquireTracker();
+			try {
+				for (TrackablesBatch batch : batches.values()) {
+					batch.flush(tracker, false);
+				}
+			} finally {
+				releaseTracker(tracker);
+			}
+		} catch (Throwable exc) {
+			Utils.logThrowable(logger(), OpLevel.ERROR,
+					StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"TNTStreamOutput.recording.failed", exc);
+		}
+	}
+
+	@Override
+	protected void closeTracker(Tracker tracker) {
+		super.closeTracker(tracker);
+		batches.remove(tracker);
+	}
+
+	@Override
+	public void cleanup() {
+		super.cleanup();
+		batches.clear();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -125,27 +227,39 @@ public class JKCloudActivityOutput extends AbstractJKCloudOutput<ActivityInfo, T
 	public void logItem(ActivityInfo ai) throws Exception {
 		super.logItem(ai);
 		try {
-			Tracker tracker = getTracker();
-			ai.resolveServer(getBooleanValue(ai.getFieldValue(ActivityField.META_FIELD_RESOLVE_SERVER), resolveServer));
-			String aiFQN = buildFQNFromData ? StringUtils.isEmpty(sourceFQN) ? DEFAULT_SOURCE_FQN : sourceFQN : null;
-
-			Map<Trackable, ActivityInfo> childMap = new LinkedHashMap<>();
-			if (getBooleanValue(ai.getFieldValue(ActivityField.META_FIELD_SPLIT_RELATIVES), splitRelatives)
-					&& ai.hasChildren()) {
-				ai.buildSplitRelatives(tracker, childMap);
-			} else {
-				Trackable trackable = ai.buildTrackable(tracker, childMap);
-				recordActivity(tracker, trackable, ai, aiFQN);
-			}
-
-			for (Map.Entry<Trackable, ActivityInfo> child : childMap.entrySet()) {
-				recordActivity(tracker, child.getKey(), child.getValue(), aiFQN);
+			Tracker tracker = acquireTracker();
+			try {
+				logActivity(tracker, ai);
+			} finally {
+				releaseTracker(tracker);
 			}
 		} finally {
 			notifyLoggingFinish(ai);
 		}
 	}
 
+	private void logActivity(Tracker tracker, ActivityInfo ai) throws Exception {
+		ai.resolveServer(getBooleanValue(ai.getFieldValue(ActivityField.META_FIELD_RESOLVE_SERVER), resolveServer));
+		String aiFQN = buildFQNFromData ? StringUtils.isEmpty(sourceFQN) ? DEFAULT_SOURCE_FQN : sourceFQN : null;
+
+		Map<Trackable, ActivityInfo> childMap = new LinkedHashMap<>();
+		if (getBooleanValue(ai.getFieldValue(ActivityField.META_FIELD_SPLIT_RELATIVES), splitRelatives)
+				&& ai.hasChildren()) {
+			ai.buildSplitRelatives(tracker, childMap);
+		} else {
+			Trackable trackable = ai.buildTrackable(tracker, childMap);
+			recordActivity(tracker, trackable, ai, aiFQN);
+		}
+
+		for (Map.Entry<Trackable, ActivityInfo> child : childMap.entrySet()) {
+			recordActivity(tracker, child.getKey(), child.getValue(), aiFQN);
+		}
+
+		if (batchSize > 0) {
+			sendWithRetry(retryPeriod, ai, () -> flushActivities(tracker, false));
+		}
+	}
+
 	private static boolean getBooleanValue(Object metaValue, boolean defaultVal) {
 		return metaValue == null //
 				? defaultVal //
@@ -212,6 +326,11 @@ public class JKCloudActivityOutput extends AbstractJKCloudOutput<ActivityInfo, T
 
 	@Override
 	protected void logJKCActivity(Tracker tracker, Trackable trackable) {
+		if (batchSize > 0 && isBatchSupported(tracker)) {
+			batches.computeIfAbsent(tracker, t -> new TrackablesBatch()).add(tracker, trackable);
+			return;
+		}
+
 		if (trackable instanceof TrackingActivity) {
 			tracker.tnt((TrackingActivity) trackable);
 		} else if (trackable instanceof Snapshot) {
@@ -221,8 +340,100 @@ public class JKCloudActivityOutput extends AbstractJKCloudOutput<ActivityInfo, T
 		}
 	}
 
+	/**
+	 * Checks whether tracker event formatter passes JSON through unchanged, so formatted activity entities can be
+	 * written to tracker event sink as single JSON array payload. Logs warning once if batching is not supported.
+	 *
+	 * @param tracker
+	 *            tracker to check
+	 * @return {@code true} if activity entities can be batched for provided tracker, {@code false} - otherwise
+	 */
+	private boolean isBatchSupported(Tracker tracker) {
+		EventFormatter formatter = tracker.getEventSink().getEventFormatter();
+		if (formatter instanceof RedirectTNT4JStreamFormatter) {
+			return true;
+		}
+
+		if (unbatchedWarned.compareAndSet(false, true)) {
+			logger().log(OpLevel.WARNING, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"TNTStreamOutput.batch.unsupported.formatter", getName(),
+					formatter == null ? null : formatter.getClass().getName(),
+					RedirectTNT4JStreamFormatter.class.getName());
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Writes tracker accumulated activity entities batch to tracker event sink as single JSON array payload, when
+	 * batch reaches size thresholds or linger period.
+	 */
+	@Override
+	protected void flushActivities(Tracker tracker, boolean force) throws IOException {
+		TrackablesBatch batch = batches.get(tracker);
+		if (batch != null) {
+			batch.flush(tracker, force);
+		}
+	}
+
 	@Override
 	public Trackable formatStreamStatusMessage(TrackingEvent statusMessage) {
 		return statusMessage;
 	}
+
+	/**
+	 * Tracker accumulated batch of formatted activity entities.
+	 */
+	private class TrackablesBatch {
+		private final StringBuilder payload = new StringBuilder(1024);
+		private int count;
+		private long firstAddTime;
+
+		synchronized void add(Tracker tracker, Trackable trackable) {
+			String entity = format(tracker.getEventSink().getEventFormatter(), trackable);
+			if (count == 0) {
+				firstAddTime = System.currentTimeMillis();
+				payload.append('[');
+			} else {
+				payload.append(',');
+			}
+			payload.append(entity);
+			count++;
+		}
+
+		private String format(EventFormatter formatter, Trackable trackable) {
+			if (trackable instanceof TrackingActivity) {
+				return formatter.format((TrackingActivity) trackable);
+			} else if (trackable instanceof Snapshot) {
+				return formatter.format((Snapshot) trackable);
+			} else {
+				return formatter.format((TrackingEvent) trackable);
+			}
+		}
+
+		synchronized void flush(Tracker tracker, boolean force) throws IOException {
+			if (count == 0) {
+				return;
+			}
+			if (!force && count < batchSize && payload.length() < batchBytes
+					&& System.currentTimeMillis() - firstAddTime < batchLinger) {
+				return;
+			}
+
+			EventSink eSink = tracker.getEventSink();
+			try {
+				eSink.write(payload.append(']').toString());
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(exc.getMessage());
+			} finally {
+				payload.setLength(payload.length() - 1);
+			}
+			checkSinkError(eSink);
+
+			payload.setLength(0);
+			count = 0;
+		}
+	}
 }
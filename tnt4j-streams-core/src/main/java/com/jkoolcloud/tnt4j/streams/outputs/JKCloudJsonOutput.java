@@ -16,6 +16,8 @@
 
 package com.jkoolcloud.tnt4j.streams.outputs;
 
+import java.nio.charset.StandardCharsets;
+
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.format.JSONFormatter;
 import com.jkoolcloud.tnt4j.sink.EventSink;
@@ -29,8 +31,10 @@ import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
  * <p>
  * This output logger primarily is used by {@link com.jkoolcloud.tnt4j.streams.inputs.RedirectTNT4JStream} to redirect
  * incoming activities from other TNT4J based producer APIs like 'tnt4j-stream-jmx'.
+ * <p>
+ * When sending activities asynchronously, JSON strings not fitting into send queue can be spilled to disk.
  *
- * @version $Revision: 1 $
+ * @version $Revision: 2 $
  *
  * @see com.jkoolcloud.tnt4j.streams.inputs.RedirectTNT4JStream
  * @see Tracker#log(OpLevel, String, Object...)
@@ -70,7 +74,12 @@ public class JKCloudJsonOutput extends AbstractJKCloudOutput<String, String> {
 	public void logItem(String ai) throws Exception {
 		super.logItem(ai);
 		try {
-			recordActivity(getTracker(), retryPeriod, ai);
+			Tracker tracker = acquireTracker();
+			try {
+				recordActivity(tracker, retryPeriod, ai);
+			} finally {
+				releaseTracker(tracker);
+			}
 		} finally {
 			notifyLoggingFinish(ai);
 		}
@@ -81,6 +90,16 @@ public class JKCloudJsonOutput extends AbstractJKCloudOutput<String, String> {
 		tracker.log(OpLevel.INFO, trackable);
 	}
 
+	@Override
+	protected byte[] serializeActivity(String activityData) {
+		return activityData.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	protected String deserializeActivity(byte[] bytes) {
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
 	@Override
 	public String formatStreamStatusMessage(TrackingEvent statusMessage) {
 		return new JSONFormatter().format(statusMessage);
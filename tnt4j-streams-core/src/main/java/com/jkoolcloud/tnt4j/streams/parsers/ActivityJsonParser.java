@@ -36,14 +36,12 @@ import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.streams.configure.ParserProperties;
+import com.jkoolcloud.tnt4j.streams.fields.ActivityField;
 import com.jkoolcloud.tnt4j.streams.fields.ActivityFieldDataType;
 import com.jkoolcloud.tnt4j.streams.fields.ActivityFieldLocator;
 import com.jkoolcloud.tnt4j.streams.fields.ActivityFieldLocatorType;
 import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStream;
-import com.jkoolcloud.tnt4j.streams.utils.LoggerUtils;
-import com.jkoolcloud.tnt4j.streams.utils.StreamsConstants;
-import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
-import com.jkoolcloud.tnt4j.streams.utils.Utils;
+import com.jkoolcloud.tnt4j.streams.utils.*;
 
 /**
  * Implements an activity data parser that assumes each activity data item is an JSON format string. JSON parsing is
@@ -66,6 +64,11 @@ import com.jkoolcloud.tnt4j.streams.utils.Utils;
  * {@link JsonParser.Feature} for more details. (Optional)</li>
  * <li>List of Option.[OPTION_NAME] - defines set of JsonPath configuration options. See
  * {@link com.jayway.jsonpath.Option} for more details. (Optional)</li>
+ * <li>StreamingMode - indicates that parser shall resolve field values in a single Jackson token pass over JSON data,
+ * without building complete JSON document tree. Only definite JsonPath expressions (see {@link JsonStreamMatcher}) are
+ * evaluated in streaming manner, while document tree gets built on demand for the rest of expressions. Streaming mode
+ * does not apply when JsonPath options are defined, and to {@link com.jayway.jsonpath.DocumentContext} or
+ * {@link java.io.InputStream} input data. Default value - {@code false}. (Optional)</li>
  * </ul>
  * <p>
  * This activity parser supports those activity field locator types:
@@ -95,8 +98,20 @@ public class ActivityJsonParser extends GenericActivityParser<DocumentContext> {
 	private static final String[] PARSER_CFG_TOKENS = new String[] { DESERIALIZATION_FEATURE, MAPPER_FEATURE,
 			PARSER_FEATURE, OPTION };
 
+	private static final String STREAMED_VALUES_KEY = "CTX_STREAMED_VALUES"; // NON-NLS
+	private static final String LAZY_DOC_KEY = "CTX_LAZY_DOC"; // NON-NLS
+
 	private Map<String, String> parseProperties = new LinkedHashMap<>();
 	private Configuration parseConfiguration;
+	private ObjectMapper jsonMapper;
+
+	/**
+	 * Property indicating that parser shall evaluate field locators in streaming manner.
+	 */
+	protected boolean streamingMode = false;
+
+	private JsonStreamMatcher streamMatcher;
+	private final Map<String, String> streamedPaths = new HashMap<>();
 
 	/**
 	 * Constructs a new ActivityJsonParser.
@@ -114,10 +129,11 @@ public class ActivityJsonParser extends GenericActivityParser<DocumentContext> {
 	public void setProperties(Collection<Map.Entry<String, String>> props) {
 		super.setProperties(props);
 
+		ObjectMapper mapper = new ObjectMapper();
+		jsonMapper = mapper;
 		if (parseProperties.isEmpty()) {
 			parseConfiguration = Configuration.defaultConfiguration();
 		} else {
-			ObjectMapper mapper = new ObjectMapper();
 			Set<Option> options = EnumSet.noneOf(Option.class);
 
 			for (Map.Entry<String, String> pProp : parseProperties.entrySet()) {
@@ -154,6 +170,11 @@ public class ActivityJsonParser extends GenericActivityParser<DocumentContext> {
 		if (ParserProperties.PROP_READ_LINES.equalsIgnoreCase(name)) {
 			activityDelim = Utils.toBoolean(value) ? ActivityDelim.EOL.name() : ActivityDelim.EOF.name();
 
+			logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"ActivityParser.setting", name, value);
+		} else if (ParserProperties.PROP_STREAMING_MODE.equalsIgnoreCase(name)) {
+			streamingMode = Utils.toBoolean(value);
+
 			logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 					"ActivityParser.setting", name, value);
 		} else if (StringUtils.startsWithAny(name, PARSER_CFG_TOKENS)) {
@@ -170,6 +191,9 @@ public class ActivityJsonParser extends GenericActivityParser<DocumentContext> {
 		if (ParserProperties.PROP_READ_LINES.equalsIgnoreCase(name)) {
 			return activityDelim;
 		}
+		if (ParserProperties.PROP_STREAMING_MODE.equalsIgnoreCase(name)) {
+			return streamingMode;
+		}
 
 		Object pValue = super.getProperty(name);
 		if (pValue != null) {
@@ -207,8 +231,64 @@ public class ActivityJsonParser extends GenericActivityParser<DocumentContext> {
 		return false;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * When streaming mode is enabled, also binds streamable field locators to single pass JSON token matcher.
+	 */
+	@Override
+	public void organizeFields() {
+		super.organizeFields();
+
+		streamedPaths.clear();
+		streamMatcher = null;
+		if (!streamingMode || jsonMapper == null || !parseConfiguration.getOptions().isEmpty()) {
+			return;
+		}
+
+		for (ActivityField aField : fieldList) {
+			List<ActivityFieldLocator> locators = aField.getLocators();
+			if (locators == null) {
+				continue;
+			}
+			for (ActivityFieldLocator loc : locators) {
+				String locStr = loc.getLocator();
+				if (LOC_FOR_COMPLETE_ACTIVITY_DATA.equals(locStr)) {
+					// complete document is required anyway
+					streamedPaths.clear();
+					logger().log(OpLevel.INFO, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+							"ActivityJsonParser.streaming.disabled", getName(), aField.getFieldTypeName());
+					return;
+				}
+				if (loc.getBuiltInType() != ActivityFieldLocatorType.Label
+						&& loc.getBuiltInType() != ActivityFieldLocatorType.Expression
+						|| StringUtils.isEmpty(locStr) || locStr.startsWith(LOC_FOR_COMPLETE_ACTIVITY_METADATA)) {
+					continue;
+				}
+				String jsonPath = toJsonPath(locStr);
+				if (JsonStreamMatcher.isStreamable(jsonPath)) {
+					streamedPaths.put(locStr, jsonPath);
+				}
+			}
+		}
+
+		if (!streamedPaths.isEmpty()) {
+			streamMatcher = new JsonStreamMatcher(streamedPaths.values(), jsonMapper);
+		}
+		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+				"ActivityJsonParser.streaming.locators", getName(), streamedPaths.keySet());
+	}
+
+	private static String toJsonPath(String locStr) {
+		return locStr.startsWith(JSON_PATH_ROOT) ? locStr : JSON_PATH_ROOT + JSON_PATH_SEPARATOR + locStr;
+	}
+
 	@Override
 	protected ActivityContext prepareItem(TNTInputStream<?, ?> stream, Object data) throws ParseException {
+		if (streamMatcher != null && !(data instanceof DocumentContext) && !(data instanceof InputStream)) {
+			return prepareStreamedItem(stream, data);
+		}
+
 		DocumentContext jsonDoc;
 		String jsonString = null;
 		try {
@@ -241,6 +321,73 @@ public class ActivityJsonParser extends GenericActivityParser<DocumentContext> {
 		return cData;
 	}
 
+	/**
+	 * Prepares activity data context by reading JSON data in a single token pass and collecting values of all streamable
+	 * field locators. Context bound JSON document is left empty and gets parsed only when some non-streamable locator is
+	 * resolved.
+	 *
+	 * @param stream
+	 *            stream providing activity data
+	 * @param data
+	 *            raw activity data to prepare
+	 * @return activity data context package
+	 *
+	 * @throws ParseException
+	 *             if JSON data can't be read
+	 */
+	protected ActivityContext prepareStreamedItem(TNTInputStream<?, ?> stream, Object data) throws ParseException {
+		String jsonString;
+		Map<String, Object> values;
+		try {
+			jsonString = getNextActivityString(data);
+			if (StringUtils.isEmpty(jsonString)) {
+				return null;
+			}
+			values = streamMatcher.evaluate(jsonString);
+		} catch (Exception e) {
+			ParseException pe = new ParseException(StreamsResources.getString(StreamsResources.RESOURCE_BUNDLE_NAME,
+					"ActivityJsonParser.jsonDocument.parse.error"), 0);
+			pe.initCause(e);
+
+			throw pe;
+		}
+
+		ActivityContext cData = new ActivityContext(stream, data,
+				JsonPath.parse(new LinkedHashMap<>(), parseConfiguration)).setParser(this);
+		cData.setMessage(jsonString);
+		cData.put(STREAMED_VALUES_KEY, values);
+		cData.put(LAZY_DOC_KEY, true);
+
+		return cData;
+	}
+
+	/**
+	 * Returns context bound JSON document. If context was prepared in streaming mode, JSON document gets parsed on
+	 * first call from context bound JSON string.
+	 *
+	 * @param cData
+	 *            activity data context
+	 * @return context bound JSON document
+	 *
+	 * @throws ParseException
+	 *             if JSON document can't be parsed
+	 */
+	protected DocumentContext getContextDocument(ActivityContext cData) throws ParseException {
+		if (cData.remove(LAZY_DOC_KEY) != null) {
+			try {
+				cData.setData(JsonPath.parse(cData.getMessage(), parseConfiguration));
+			} catch (Exception e) {
+				ParseException pe = new ParseException(StreamsResources.getString(StreamsResources.RESOURCE_BUNDLE_NAME,
+						"ActivityJsonParser.jsonDocument.parse.error"), 0);
+				pe.initCause(e);
+
+				throw pe;
+			}
+		}
+
+		return cData.getData();
+	}
+
 	/**
 	 * Reads RAW activity data JSON package string from {@link BufferedReader}.
 	 *
@@ -316,15 +463,18 @@ public class ActivityJsonParser extends GenericActivityParser<DocumentContext> {
 		String locStr = locator.getLocator();
 
 		if (StringUtils.isNotEmpty(locStr)) {
-			if (!locStr.startsWith(JSON_PATH_ROOT)) {
-				locStr = JSON_PATH_ROOT + JSON_PATH_SEPARATOR + locStr;
-			}
-
 			Object jsonValue;
-			try {
-				jsonValue = cData.getData().read(locStr);
-			} catch (JsonPathException exc) {
-				jsonValue = null;
+			Map<String, Object> streamedValues = (Map<String, Object>) cData.get(STREAMED_VALUES_KEY);
+			String streamedPath = streamedValues == null ? null : streamedPaths.get(locStr);
+			if (streamedPath != null) {
+				jsonValue = streamedValues.get(streamedPath);
+			} else {
+				try {
+					JsonPath jsonPath = (JsonPath) getPreparedLocator(locStr, k -> JsonPath.compile(toJsonPath(k)));
+					jsonValue = getContextDocument(cData).read(jsonPath);
+				} catch (JsonPathException exc) {
+					jsonValue = null;
+				}
 			}
 
 			if (jsonValue != null) {
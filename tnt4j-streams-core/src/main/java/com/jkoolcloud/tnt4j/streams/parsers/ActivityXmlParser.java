@@ -20,13 +20,15 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
 
 import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.xpath.*;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -59,6 +61,11 @@ import com.jkoolcloud.tnt4j.streams.utils.*;
  * <li>Namespace - additional XML namespace mappings. (Optional)</li>
  * <li>NamespaceAware - indicates that parser has to provide support for XML namespaces. Default value - {@code true}.
  * (Optional)</li>
+ * <li>StreamingMode - indicates that parser shall resolve field values reading XML data in a single streaming (StAX)
+ * pass, without building DOM document. Only simple location path expressions (see {@link XmlStreamMatcher}) are
+ * evaluated in streaming manner, while DOM document gets built on demand for the rest of expressions. Streaming mode
+ * does not apply to {@link org.w3c.dom.Node} input data, fields having stacked parsers and parent references. Default
+ * value - {@code false}. (Optional)</li>
  * </ul>
  * <p>
  * This activity parser supports those activity field locator types:
@@ -95,22 +102,37 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 	 */
 	private static final String LOCALE_ATTR = "locale"; // NON-NLS
 
+	private static final String STREAMED_VALUES_KEY = "CTX_STREAMED_VALUES"; // NON-NLS
+	private static final String LAZY_DOM_KEY = "CTX_LAZY_DOM"; // NON-NLS
+
 	/**
 	 * Contains the XML namespace mappings.
 	 */
 	protected NamespaceMap namespaces = null;
 
-	private XPath xPath;
-	private DocumentBuilder builder;
+	private DocumentBuilderFactory domFactory;
+	private ThreadLocal<DocumentBuilder> builders = new ThreadLocal<>();
+	private final ThreadLocal<XPathCompiler> xPathCompilers = ThreadLocal.withInitial(XPathCompiler::new);
 
-	private final ReentrantLock xPathLock = new ReentrantLock();
-	private final ReentrantLock builderLock = new ReentrantLock();
+	/**
+	 * Set of field locators XPath expressions validated on fields organization. Only compiled expressions of these
+	 * locators are cached, since values of dynamic locators differ for every parsed activity.
+	 */
+	private final Set<String> staticXPaths = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * Property indicating that parser shall be namespace aware.
 	 */
 	protected boolean namespaceAware = true;
 
+	/**
+	 * Property indicating that parser shall evaluate field locators in streaming manner.
+	 */
+	protected boolean streamingMode = false;
+
+	private XmlStreamMatcher streamMatcher;
+	private final Set<String> streamedXPaths = new HashSet<>();
+
 	/**
 	 * Constructs a new activity XML string parser.
 	 */
@@ -132,17 +154,15 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 		domFactory.setNamespaceAware(namespaceAware);
 		domFactory.setValidating(false);
 
-		builder = domFactory.newDocumentBuilder();
-		builder.setEntityResolver(new EntityResolver() {
-			@Override
-			public InputSource resolveEntity(String publicId, String systemId) {
-				return new InputSource(new StringReader(""));
-			}
-		});
+		this.domFactory = domFactory;
+		builders = new ThreadLocal<>();
+		getDocumentBuilder();
 
-		xPath = StreamsXMLUtils.getStreamsXPath();
+		XPath xPath = StreamsXMLUtils.getStreamsXPath();
 
 		if (namespaces == null) {
+			// shared copy-on-write mappings, so parser namespaces are also visible to matchers, transformations and
+			// filters evaluating streams XPath
 			if (xPath.getNamespaceContext() instanceof NamespaceMap) {
 				namespaces = (NamespaceMap) xPath.getNamespaceContext();
 			} else {
@@ -157,11 +177,127 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 		namespaces.addPrefixUriMappings(uNamespaces);
 	}
 
+	/**
+	 * Returns DOM document builder bound to current thread. Since {@link DocumentBuilder} is not thread safe, every
+	 * parsing thread gets its own builder instance, created by shared builder factory.
+	 *
+	 * @return current thread bound DOM document builder
+	 *
+	 * @throws ParserConfigurationException
+	 *             if document builder can't be created
+	 */
+	protected DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
+		DocumentBuilder builder = builders.get();
+		if (builder == null) {
+			builder = domFactory.newDocumentBuilder();
+			builder.setEntityResolver(new EntityResolver() {
+				@Override
+				public InputSource resolveEntity(String publicId, String systemId) {
+					return new InputSource(new StringReader(""));
+				}
+			});
+			builders.set(builder);
+		}
+
+		return builder;
+	}
+
 	@Override
 	protected EventSink logger() {
 		return LOGGER;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Also validates and pre-compiles XPath expressions of static (having no dynamic attributes) field locators, so
+	 * compiled expressions get cached and reused by all parsing threads. When streaming mode is enabled, streamable
+	 * locators expressions are bound to single pass StAX matcher.
+	 */
+	@Override
+	public void organizeFields() {
+		super.organizeFields();
+
+		staticXPaths.clear();
+		streamedXPaths.clear();
+		streamMatcher = null;
+		if (namespaces == null) {
+			return;
+		}
+		for (ActivityField aField : fieldList) {
+			List<ActivityFieldLocator> locators = aField.getLocators();
+			if (locators == null) {
+				continue;
+			}
+			for (ActivityFieldLocator loc : locators) {
+				String xPathStr = getStaticXPath(loc);
+				if (xPathStr == null) {
+					continue;
+				}
+				try {
+					xPathCompilers.get().compile(xPathStr, false);
+					staticXPaths.add(xPathStr);
+				} catch (XPathExpressionException exc) {
+					Utils.logThrowable(logger(), OpLevel.WARNING,
+							StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+							"ActivityXmlParser.xPath.compile.failed", aField.getFieldTypeName(), xPathStr, exc);
+				}
+			}
+		}
+
+		if (streamingMode) {
+			initStreamMatcher();
+		}
+	}
+
+	private void initStreamMatcher() {
+		for (ActivityField aField : fieldList) {
+			List<ActivityFieldLocator> locators = aField.getLocators();
+			if (locators == null) {
+				continue;
+			}
+			for (ActivityFieldLocator loc : locators) {
+				if (LOC_FOR_COMPLETE_ACTIVITY_DATA.equals(loc.getLocator())) {
+					// complete DOM document is required anyway
+					streamedXPaths.clear();
+					logger().log(OpLevel.INFO, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+							"ActivityXmlParser.streaming.disabled", getName(), aField.getFieldTypeName());
+					return;
+				}
+				if (CollectionUtils.isNotEmpty(aField.getStackedParsers())) {
+					continue;
+				}
+				String xPathStr = getStaticXPath(loc);
+				if (xPathStr != null && xPathStr.equals(loc.getLocator()) && staticXPaths.contains(xPathStr)
+						&& XmlStreamMatcher.isStreamable(xPathStr)) {
+					streamedXPaths.add(xPathStr);
+				}
+			}
+		}
+
+		if (!streamedXPaths.isEmpty()) {
+			streamMatcher = new XmlStreamMatcher(streamedXPaths, namespaces, namespaceAware);
+		}
+		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+				"ActivityXmlParser.streaming.locators", getName(), streamedXPaths);
+	}
+
+	private static String getStaticXPath(ActivityFieldLocator loc) {
+		if (loc.getBuiltInType() != ActivityFieldLocatorType.Label
+				&& loc.getBuiltInType() != ActivityFieldLocatorType.Expression) {
+			return null;
+		}
+		String locStr = loc.getLocator();
+		if (StringUtils.isEmpty(locStr) || ActivityField.isDynamicAttr(locStr)
+				|| locStr.startsWith(LOC_FOR_COMPLETE_ACTIVITY_DATA)
+				|| locStr.startsWith(LOC_FOR_COMPLETE_ACTIVITY_METADATA)) {
+			return null;
+		}
+
+		return locStr.startsWith(StreamsConstants.PARENT_REFERENCE_PREFIX)
+				? locStr.substring(StreamsConstants.PARENT_REFERENCE_PREFIX.length()) : locStr;
+	}
+
 	@Override
 	public void setProperties(Collection<Map.Entry<String, String>> props) {
 		super.setProperties(props);
@@ -189,6 +325,12 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 						logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 								"ActivityParser.setting", name, value);
 					}
+				} else if (ParserProperties.PROP_STREAMING_MODE.equalsIgnoreCase(name)) {
+					if (StringUtils.isNotEmpty(value)) {
+						streamingMode = Utils.toBoolean(value);
+						logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+								"ActivityParser.setting", name, value);
+					}
 				}
 			}
 		}
@@ -205,6 +347,9 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 		if (ParserProperties.PROP_NAMESPACE_AWARE.equalsIgnoreCase(name)) {
 			return namespaceAware;
 		}
+		if (ParserProperties.PROP_STREAMING_MODE.equalsIgnoreCase(name)) {
+			return streamingMode;
+		}
 
 		return super.getProperty(name);
 	}
@@ -239,6 +384,10 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 
 	@Override
 	protected ActivityContext prepareItem(TNTInputStream<?, ?> stream, Object data) throws ParseException {
+		if (streamMatcher != null && !(data instanceof Node)) {
+			return prepareStreamedItem(stream, data);
+		}
+
 		Node xmlDoc;
 		String xmlString = null;
 		try {
@@ -287,6 +436,84 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 		return cData;
 	}
 
+	/**
+	 * Prepares activity data context by reading XML data in a single streaming pass and collecting values of all
+	 * streamable field locators. Context bound DOM document is left empty and gets built only when some non-streamable
+	 * locator is resolved.
+	 *
+	 * @param stream
+	 *            stream providing activity data
+	 * @param data
+	 *            raw activity data to prepare
+	 * @return activity data context package
+	 *
+	 * @throws ParseException
+	 *             if XML data can't be read
+	 */
+	protected ActivityContext prepareStreamedItem(TNTInputStream<?, ?> stream, Object data) throws ParseException {
+		String xmlString;
+		Map<String, List<XmlStreamMatcher.MatchedValue>> values;
+		Document emptyDoc;
+		try {
+			xmlString = getNextActivityString(data);
+			if (StringUtils.isEmpty(xmlString)) {
+				return null;
+			}
+			values = streamMatcher.evaluate(new StringReader(xmlString));
+			emptyDoc = getDocumentBuilder().newDocument();
+		} catch (XMLStreamException | ParserConfigurationException e) {
+			ParseException pe = new ParseException(StreamsResources.getString(StreamsResources.RESOURCE_BUNDLE_NAME,
+					"ActivityXmlParser.xmlDocument.parse.error"), 0);
+			pe.initCause(e);
+
+			throw pe;
+		}
+
+		ActivityContext cData = new ActivityContext(stream, data, emptyDoc).setParser(this);
+		cData.setMessage(xmlString);
+		cData.put(STREAMED_VALUES_KEY, values);
+		cData.put(LAZY_DOM_KEY, true);
+
+		return cData;
+	}
+
+	/**
+	 * Returns context bound XML DOM document. If context was prepared in streaming mode, DOM document gets built on
+	 * first call from context bound XML string.
+	 *
+	 * @param cData
+	 *            activity data context
+	 * @return context bound DOM document
+	 *
+	 * @throws ParseException
+	 *             if DOM document can't be built
+	 */
+	protected Node getContextDocument(ActivityContext cData) throws ParseException {
+		if (cData.remove(LAZY_DOM_KEY) != null) {
+			try {
+				Node xmlDoc = parseXmlDoc(IOUtils.toInputStream(cData.getMessage(), StandardCharsets.UTF_8));
+				StreamsXMLUtils.resolveDocumentNamespaces(xmlDoc, namespaces, true);
+				cData.setData(xmlDoc);
+			} catch (Exception e) {
+				ParseException pe = new ParseException(StreamsResources.getString(StreamsResources.RESOURCE_BUNDLE_NAME,
+						"ActivityXmlParser.xmlDocument.parse.error"), 0);
+				pe.initCause(e);
+
+				throw pe;
+			}
+		}
+
+		return cData.getData();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<XmlStreamMatcher.MatchedValue> getStreamedValues(ActivityContext cData, String locStr) {
+		Map<String, List<XmlStreamMatcher.MatchedValue>> values = (Map<String, List<XmlStreamMatcher.MatchedValue>>) cData
+				.get(STREAMED_VALUES_KEY);
+
+		return values == null ? null : values.getOrDefault(locStr, Collections.emptyList());
+	}
+
 	@Override
 	protected void parseFields(ActivityContext cData) throws Exception {
 		String[] savedFormats = null;
@@ -364,6 +591,15 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 		if (ActivityField.isDynamicAttr(locStr)) {
 			ActivityInfo ai = cData.getActivity();
 			locStr = StreamsCache.fillInKeyPattern(locStr, ai, getName());
+		} else if (streamedXPaths.contains(locStr)) {
+			List<XmlStreamMatcher.MatchedValue> streamedValues = getStreamedValues(cData, locStr);
+			if (streamedValues != null && !isDataSupportedByStackedParser(cData.getField(), cData.getData())) {
+				List<Object> values = new ArrayList<>(streamedValues.size());
+				for (XmlStreamMatcher.MatchedValue sv : streamedValues) {
+					values.add(getTextContent(locator, sv, formattingNeeded));
+				}
+				return Utils.simplifyValue(values);
+			}
 		}
 
 		if (StringUtils.isNotEmpty(locStr)) {
@@ -374,7 +610,7 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 					val = resolveValueOverXPath(cData.getParentContext(), expr);
 				} else {
 					XPathExpression expr = getXPathExpr(locStr);
-					Node nodeDocument = cData.getData();
+					Node nodeDocument = getContextDocument(cData);
 
 					if (nodeDocument != null) { // try expression relative to node
 						val = resolveValueOverXPath(nodeDocument, expr);
@@ -409,35 +645,20 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 		return val;
 	}
 
-	private Node parseXmlDoc(InputStream ins) throws SAXException, IOException {
-		builderLock.lock();
-		try {
-			return builder.parse(ins);
-		} finally {
-			builderLock.unlock();
-		}
+	private Node parseXmlDoc(InputStream ins) throws SAXException, IOException, ParserConfigurationException {
+		return getDocumentBuilder().parse(ins);
 	}
 
-	private Node nodeToDoc(Node node) throws SAXException, IOException {
-		builderLock.lock();
-		try {
-			Document newDocument = builder.newDocument();
-			Node importedNode = newDocument.importNode(node, true);
-			newDocument.appendChild(importedNode);
+	private Node nodeToDoc(Node node) throws ParserConfigurationException {
+		Document newDocument = getDocumentBuilder().newDocument();
+		Node importedNode = newDocument.importNode(node, true);
+		newDocument.appendChild(importedNode);
 
-			return newDocument;
-		} finally {
-			builderLock.unlock();
-		}
+		return newDocument;
 	}
 
 	private XPathExpression getXPathExpr(String locStr) throws XPathExpressionException {
-		xPathLock.lock();
-		try {
-			return xPath.compile(locStr);
-		} finally {
-			xPathLock.unlock();
-		}
+		return xPathCompilers.get().compile(locStr, staticXPaths.contains(locStr));
 	}
 
 	/**
@@ -493,11 +714,11 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 	}
 
 	@SuppressWarnings("unchecked")
-	private static Object resolveValueOverXPath(ActivityParserContext pcData, XPathExpression expr)
-			throws XPathExpressionException {
+	private Object resolveValueOverXPath(ActivityParserContext pcData, XPathExpression expr)
+			throws XPathExpressionException, ParseException {
 		Object val = null;
 		ActivityContext pc = (ActivityContext) pcData;
-		Node xmlDoc = pc == null ? null : pc.getData();
+		Node xmlDoc = pc == null ? null : getContextDocument(pc);
 		if (xmlDoc != null) {
 			val = resolveValueOverXPath(xmlDoc, expr);
 
@@ -537,36 +758,75 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 		// Get list of attributes and their values for current element
 		NamedNodeMap attrsMap = attrsNode == null ? null : attrsNode.getAttributes();
 		if (attrsMap != null && attrsMap.getLength() > 0) {
-			ActivityFieldLocator locCopy = locator.clone();
+			return formatTextContent(locator, strValue, attrName -> {
+				Node attr = LOCALE_ATTR.equals(attrName) ? attrsMap.getNamedItem(attrName)
+						: getFormattingAttr(attrsMap, attrName);
+				return attr == null ? null : attr.getTextContent();
+			}, formattingNeeded);
+		}
 
-			Node attr = getFormattingAttr(attrsMap, DATA_TYPE_ATTR);
-			String attrVal = attr == null ? null : attr.getTextContent();
-			if (StringUtils.isNotEmpty(attrVal)) {
-				locCopy.setDataType(ActivityFieldDataType.valueOf(attrVal));
-			}
+		return strValue.trim();
+	}
 
-			attr = getFormattingAttr(attrsMap, FORMAT_ATTR);
-			attrVal = attr == null ? null : attr.getTextContent();
-			if (StringUtils.isNotEmpty(attrVal)) {
-				attr = attrsMap.getNamedItem(LOCALE_ATTR);
-				String attrLVal = attr == null ? null : attr.getTextContent();
+	/**
+	 * Formats streamed XML node text using provided locator and attributes of matched element.
+	 *
+	 * @param locator
+	 *            locator instance to alter using XML attributes contained data type, format and units used to format
+	 *            streamed value
+	 * @param value
+	 *            streamed XML node value
+	 * @param formattingNeeded
+	 *            flag to set if value formatting is not needed
+	 * @return resolved textual value formatted based on the locator's formatting properties
+	 * @throws ParseException
+	 *             if exception occurs applying locator format properties to specified value
+	 */
+	protected static Object getTextContent(ActivityFieldLocator locator, XmlStreamMatcher.MatchedValue value,
+			AtomicBoolean formattingNeeded) throws ParseException {
+		Map<String, String> attrsMap = value.getAttributes();
+		if (!attrsMap.isEmpty()) {
+			return formatTextContent(locator, value.getText(), attrName -> {
+				if (LOCALE_ATTR.equals(attrName)) {
+					return attrsMap.get(attrName);
+				}
+				for (Map.Entry<String, String> attr : attrsMap.entrySet()) {
+					if (attr.getKey().equalsIgnoreCase(attrName)) {
+						return attr.getValue();
+					}
+				}
+				return null;
+			}, formattingNeeded);
+		}
 
-				locCopy.setFormat(attrVal, StringUtils.isEmpty(attrLVal) ? locator.getLocale() : attrLVal);
-			}
+		return value.getText().trim();
+	}
 
-			attr = getFormattingAttr(attrsMap, UNITS_ATTR);
-			attrVal = attr == null ? null : attr.getTextContent();
-			if (StringUtils.isNotEmpty(attrVal)) {
-				locCopy.setUnits(attrVal);
-			}
+	private static Object formatTextContent(ActivityFieldLocator locator, String strValue,
+			UnaryOperator<String> attrsResolver, AtomicBoolean formattingNeeded) throws ParseException {
+		ActivityFieldLocator locCopy = locator.clone();
 
-			Object fValue = locCopy.formatValue(strValue.trim());
-			formattingNeeded.set(false);
+		String attrVal = attrsResolver.apply(DATA_TYPE_ATTR);
+		if (StringUtils.isNotEmpty(attrVal)) {
+			locCopy.setDataType(ActivityFieldDataType.valueOf(attrVal));
+		}
+
+		attrVal = attrsResolver.apply(FORMAT_ATTR);
+		if (StringUtils.isNotEmpty(attrVal)) {
+			String attrLVal = attrsResolver.apply(LOCALE_ATTR);
 
-			return fValue;
+			locCopy.setFormat(attrVal, StringUtils.isEmpty(attrLVal) ? locator.getLocale() : attrLVal);
 		}
 
-		return strValue.trim();
+		attrVal = attrsResolver.apply(UNITS_ATTR);
+		if (StringUtils.isNotEmpty(attrVal)) {
+			locCopy.setUnits(attrVal);
+		}
+
+		Object fValue = locCopy.formatValue(strValue.trim());
+		formattingNeeded.set(false);
+
+		return fValue;
 	}
 
 	private static Node getFormattingAttr(NamedNodeMap attrsMap, String attrName) {
@@ -641,6 +901,41 @@ public class ActivityXmlParser extends GenericActivityParser<Node> {
 		return ACTIVITY_DATA_TYPES;
 	}
 
+	/**
+	 * Thread bound XPath expressions compiler. Since neither {@link XPath} nor {@link XPathExpression} are thread safe,
+	 * every parsing thread compiles and evaluates expressions using its own instances. Compiled expressions get
+	 * invalidated when parser namespace mappings change, because namespace prefixes are resolved at compile time.
+	 */
+	private class XPathCompiler {
+		private final XPath xPath;
+		private final Map<String, XPathExpression> expressions = new HashMap<>();
+		private int nsVersion;
+
+		XPathCompiler() {
+			xPath = StreamsXMLUtils.getStreamsXPath();
+			xPath.setNamespaceContext(namespaces);
+			nsVersion = namespaces.getVersion();
+		}
+
+		XPathExpression compile(String xPathStr, boolean cache) throws XPathExpressionException {
+			int version = namespaces.getVersion();
+			if (version != nsVersion) {
+				expressions.clear();
+				nsVersion = version;
+			}
+
+			XPathExpression expr = expressions.get(xPathStr);
+			if (expr == null) {
+				expr = xPath.compile(xPathStr);
+				if (cache) {
+					expressions.put(xPathStr, expr);
+				}
+			}
+
+			return expr;
+		}
+	}
+
 	@SuppressWarnings("deprecation")
 	private static final EnumSet<ActivityFieldLocatorType> UNSUPPORTED_LOCATOR_TYPES = EnumSet
 			.of(ActivityFieldLocatorType.Index, ActivityFieldLocatorType.Range, ActivityFieldLocatorType.REMatchId);
@@ -20,6 +20,7 @@ import java.io.*;
 import java.nio.ByteBuffer;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -66,7 +67,7 @@ import com.jkoolcloud.tnt4j.streams.utils.*;
  *
  * @param <T>
  *            the type of handled activity data
- * @version $Revision: 2 $
+ * @version $Revision: 3 $
  */
 public abstract class GenericActivityParser<T> extends ActivityParser {
 
@@ -127,7 +128,7 @@ public abstract class GenericActivityParser<T> extends ActivityParser {
 	private ActivityField parentIdField;
 
 	private final CustomProperties<String> customProperties = new CustomProperties<>(5);
-	private final Map<String, Object> locatorsMap = new HashMap<>(10);
+	private final Map<String, Object> locatorsMap = new ConcurrentHashMap<>(10);
 
 	/**
 	 * Constructs a new GenericActivityParser.
@@ -342,6 +343,8 @@ public abstract class GenericActivityParser<T> extends ActivityParser {
 
 	@Override
 	public void organizeFields() {
+		prepareLocatorResolvers();
+
 		List<ActivityField> sortedRefs = organizeFieldsReferences(fieldList);
 
 		if (autoArrangeFields) {
@@ -775,10 +778,14 @@ public abstract class GenericActivityParser<T> extends ActivityParser {
 			if (cData.getParentActivity() == null) {
 				ai.determineTrackingId();
 			}
-			StreamsCache.cacheValues(ai, getName());
+			StreamsCache.cacheValues(getStreamName(cData), ai, getName());
 		}
 	}
 
+	private static String getStreamName(ActivityContext cData) {
+		return cData.getStream() == null ? null : cData.getStream().getName();
+	}
+
 	/**
 	 * Parse the specified prepared activity data, converting each field in prepared data to its corresponding value of
 	 * activity info item.
@@ -1111,34 +1118,18 @@ public abstract class GenericActivityParser<T> extends ActivityParser {
 		Object val = null;
 		if (locator != null) {
 			String locStr = locator.getLocator();
-			AtomicBoolean formattingNeeded = new AtomicBoolean(true);
-			if (StringUtils.isNotEmpty(locStr)) {
-				if (locator.getBuiltInType() == ActivityFieldLocatorType.StreamProp) {
-					val = cData.getStream().getProperty(locStr);
-				} else if (locator.getBuiltInType() == ActivityFieldLocatorType.Cache) {
-					val = Utils.simplifyValue(StreamsCache.getValue(cData.getActivity(), locStr, getName()));
-				} else if (locator.getBuiltInType() == ActivityFieldLocatorType.Activity) {
-					val = resolveActivityValue(locator, cData);
-				} else if (LOC_FOR_COMPLETE_ACTIVITY_DATA.equals(locStr)) {
-					val = cData.getData();
-				} else if (LOC_FOR_COMPLETE_ACTIVITY_METADATA.equals(locStr)) {
-					val = cData.getMetadata();
-				} else if (locStr.startsWith(LOC_FOR_COMPLETE_ACTIVITY_METADATA)) {
-					val = Utils.getMapValueByPath(locStr.substring(LOC_FOR_COMPLETE_ACTIVITY_METADATA.length() + 1),
-							cData.getMetadata());
-				} else if (locator.getBuiltInType() == ActivityFieldLocatorType.ParserProp) {
-					val = getProperty(locStr);
-				} else if (locator.getBuiltInType() == ActivityFieldLocatorType.SystemProp) {
-					val = System.getProperty(locStr);
-				} else if (locator.getBuiltInType() == ActivityFieldLocatorType.EnvVariable) {
-					val = System.getenv(locStr);
-				} else {
-					val = resolveLocatorValue(locator, cData, formattingNeeded);
-				}
+			PreparedResolver pResolver = getPreparedResolver(locator);
+			AtomicBoolean formattingNeeded = pResolver.parserSpecific ? cData.resetFormattingNeeded() : null;
+			boolean format = true;
+			if (pResolver.resolver != null) {
+				val = pResolver.resolver.resolve(locator, cData, formattingNeeded);
+				format = formattingNeeded == null || formattingNeeded.get();
 
 				// logger().log(val == null && !locator.isOptional() ? OpLevel.WARNING : OpLevel.TRACE,
-				logger().log(OpLevel.TRACE, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
-						"ActivityParser.locator.resolved", cData.getField(), locStr, toString(val));
+				if (logger().isSet(OpLevel.TRACE)) {
+					logger().log(OpLevel.TRACE, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+							"ActivityParser.locator.resolved", cData.getField(), locStr, toString(val));
+				}
 
 				if (val != null && locator.isEmptyAsNull() && Utils.isEmptyContent(val, true)) {
 					logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
@@ -1149,7 +1140,7 @@ public abstract class GenericActivityParser<T> extends ActivityParser {
 
 			val = transformValue(val, locator, cData, locStr, ValueTransformation.Phase.RAW);
 
-			if (formattingNeeded.get()) {
+			if (format) {
 				val = locator.formatValue(val);
 			}
 
@@ -1170,6 +1161,114 @@ public abstract class GenericActivityParser<T> extends ActivityParser {
 		return val;
 	}
 
+	private PreparedResolver getPreparedResolver(ActivityFieldLocator locator) {
+		Object pResolver = locator.getPreparedResolver();
+		if (pResolver instanceof GenericActivityParser<?>.PreparedResolver
+				&& ((GenericActivityParser<?>.PreparedResolver) pResolver).getParser() == this) {
+			@SuppressWarnings("unchecked")
+			PreparedResolver resolver = (PreparedResolver) pResolver;
+			return resolver;
+		}
+
+		PreparedResolver resolver = new PreparedResolver(locator);
+		locator.setPreparedResolver(resolver);
+		return resolver;
+	}
+
+	/**
+	 * Prepares value resolvers for all fields locators of this parser.
+	 */
+	protected void prepareLocatorResolvers() {
+		for (ActivityField aField : fieldList) {
+			List<ActivityFieldLocator> locators = aField.getLocators();
+			if (locators != null) {
+				for (ActivityFieldLocator loc : locators) {
+					getPreparedResolver(loc);
+				}
+			}
+			Map<String, ActivityFieldLocator> dLocators = aField.getDynamicLocators();
+			if (dLocators != null) {
+				for (ActivityFieldLocator loc : dLocators.values()) {
+					getPreparedResolver(loc);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resolves activity field locator value from parsing context data.
+	 *
+	 * @param <C>
+	 *            type of parsing context data
+	 */
+	@FunctionalInterface
+	protected interface LocatorResolver<C> {
+		/**
+		 * Resolves locator value.
+		 *
+		 * @param locator
+		 *            activity field locator
+		 * @param cData
+		 *            parsing context data package
+		 * @param formattingNeeded
+		 *            flag to set if value formatting is not needed, {@code null} if resolver always requires value
+		 *            formatting
+		 * @return resolved locator value
+		 * @throws ParseException
+		 *             if exception occurs while resolving locator value
+		 */
+		Object resolve(ActivityFieldLocator locator, C cData, AtomicBoolean formattingNeeded) throws ParseException;
+	}
+
+	/**
+	 * Locator value resolver picked once by locator type and locator string, so per activity locator value resolution
+	 * is a single call without evaluating locator type and string again.
+	 */
+	private final class PreparedResolver {
+		private final LocatorResolver<ActivityContext> resolver;
+		private final boolean parserSpecific;
+
+		private PreparedResolver(ActivityFieldLocator locator) {
+			String locStr = locator.getLocator();
+			ActivityFieldLocatorType locType = locator.getBuiltInType();
+			boolean pSpecific = false;
+
+			if (StringUtils.isEmpty(locStr)) {
+				resolver = null;
+			} else if (locType == ActivityFieldLocatorType.StreamProp) {
+				resolver = (loc, cData, fn) -> cData.getStream().getProperty(locStr);
+			} else if (locType == ActivityFieldLocatorType.Cache) {
+				resolver = (loc, cData, fn) -> Utils.simplifyValue(
+						StreamsCache.getValue(getStreamName(cData), cData.getActivity(), locStr, getName()));
+			} else if (locType == ActivityFieldLocatorType.Activity) {
+				resolver = (loc, cData, fn) -> resolveActivityValue(loc, cData);
+			} else if (LOC_FOR_COMPLETE_ACTIVITY_DATA.equals(locStr)) {
+				resolver = (loc, cData, fn) -> cData.getData();
+			} else if (LOC_FOR_COMPLETE_ACTIVITY_METADATA.equals(locStr)) {
+				resolver = (loc, cData, fn) -> cData.getMetadata();
+			} else if (locStr.startsWith(LOC_FOR_COMPLETE_ACTIVITY_METADATA)) {
+				String metaPath = locStr.substring(LOC_FOR_COMPLETE_ACTIVITY_METADATA.length() + 1);
+				resolver = (loc, cData, fn) -> Utils.getMapValueByPath(metaPath, cData.getMetadata());
+			} else if (locType == ActivityFieldLocatorType.ParserProp) {
+				resolver = (loc, cData, fn) -> getProperty(locStr);
+			} else if (locType == ActivityFieldLocatorType.SystemProp) {
+				resolver = (loc, cData, fn) -> System.getProperty(locStr);
+			} else if (locType == ActivityFieldLocatorType.EnvVariable) {
+				String envValue = System.getenv(locStr);
+				resolver = (loc, cData, fn) -> envValue;
+			} else {
+				resolver = GenericActivityParser.this::resolveLocatorValue;
+				pSpecific = true;
+			}
+
+			parserSpecific = pSpecific;
+		}
+
+		private GenericActivityParser<T> getParser() {
+			return GenericActivityParser.this;
+		}
+	}
+
 	/**
 	 * Applies activity value transformations bound to defined activity value resolution {@code phase}.
 	 *
@@ -1321,9 +1420,12 @@ public abstract class GenericActivityParser<T> extends ActivityParser {
 
 		Object prepLoc = locatorsMap.get(loc);
 		if (prepLoc == null) {
-			synchronized (locatorsMap) {
-				prepLoc = initFnc.apply(loc);
-				locatorsMap.put(loc, prepLoc);
+			prepLoc = initFnc.apply(loc);
+			if (prepLoc != null) {
+				Object prevLoc = locatorsMap.putIfAbsent(loc, prepLoc);
+				if (prevLoc != null) {
+					prepLoc = prevLoc;
+				}
 			}
 		}
 
@@ -1465,6 +1567,7 @@ public abstract class GenericActivityParser<T> extends ActivityParser {
 		private static final String PARSER_REF_KEY = "CTX_PARSER_REF"; // NON-NLS
 
 		private boolean valid = true;
+		private final AtomicBoolean formattingNeeded = new AtomicBoolean(true);
 
 		/**
 		 * Constructs new activity data context.
@@ -1510,6 +1613,17 @@ public abstract class GenericActivityParser<T> extends ActivityParser {
 			return valid;
 		}
 
+		/**
+		 * Returns locator value formatting flag holder reused for every locator resolved using this context. Flag is
+		 * reset to {@code true} before returning.
+		 *
+		 * @return locator value formatting flag holder
+		 */
+		AtomicBoolean resetFormattingNeeded() {
+			formattingNeeded.set(true);
+			return formattingNeeded;
+		}
+
 		/**
 		 * Returns stream provided RAW activity data.
 		 *
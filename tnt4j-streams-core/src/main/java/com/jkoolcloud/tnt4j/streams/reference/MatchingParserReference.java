@@ -26,6 +26,7 @@ import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.streams.configure.NamedObject;
 import com.jkoolcloud.tnt4j.streams.fields.AbstractFieldEntity;
+import com.jkoolcloud.tnt4j.streams.matchers.MatchExpression;
 import com.jkoolcloud.tnt4j.streams.matchers.Matchers;
 import com.jkoolcloud.tnt4j.streams.parsers.ActivityParser;
 import com.jkoolcloud.tnt4j.streams.utils.LoggerUtils;
@@ -35,13 +36,18 @@ import com.jkoolcloud.tnt4j.streams.utils.Utils;
 
 /**
  * Defines activity parser reference having optional array of tags and match expressions bound to this reference.
+ * <p>
+ * Match expressions are compiled once, on first evaluation after expressions list change.
  *
- * @version $Revision: 1 $
+ * @version $Revision: 2 $
+ *
+ * @see Matchers#compile(String)
  */
 public class MatchingParserReference extends ParserReference {
 	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(MatchingParserReference.class);
 
 	private List<String> matchExpressions;
+	private volatile List<MatchExpression> compiledExpressions;
 
 	/**
 	 * Constructs a new MatchingParserReference using defined referred parser instance.
@@ -74,6 +80,7 @@ public class MatchingParserReference extends ParserReference {
 			matchExpressions = new ArrayList<>();
 		}
 		matchExpressions.add(matchExpression);
+		compiledExpressions = null;
 	}
 
 	/**
@@ -84,6 +91,20 @@ public class MatchingParserReference extends ParserReference {
 	 */
 	public void setMatchExpressions(List<String> matchExpressions) {
 		this.matchExpressions = matchExpressions;
+		compiledExpressions = null;
+	}
+
+	private List<MatchExpression> getCompiledExpressions() {
+		List<MatchExpression> expressions = compiledExpressions;
+		if (expressions == null) {
+			expressions = new ArrayList<>(matchExpressions.size());
+			for (String matchExpression : matchExpressions) {
+				expressions.add(Matchers.compile(matchExpression));
+			}
+			compiledExpressions = expressions;
+		}
+
+		return expressions;
 	}
 
 	/**
@@ -107,10 +128,10 @@ public class MatchingParserReference extends ParserReference {
 
 		AbstractFieldEntity field = (AbstractFieldEntity) context.get(StreamsConstants.CTX_FIELD_KEY);
 
-		for (String matchExpression : matchExpressions) {
+		for (MatchExpression matchExpression : getCompiledExpressions()) {
 			boolean match;
 			try {
-				match = Matchers.evaluate(matchExpression, value, context);
+				match = matchExpression.evaluate(value, context);
 				LOGGER.log(OpLevel.TRACE, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 						"MatchingParserReference.field.match.evaluation", caller.getName(), field.getName(),
 						getParser().getName(), matchExpression, match);
@@ -146,10 +167,10 @@ public class MatchingParserReference extends ParserReference {
 			return null;
 		}
 
-		for (String matchExpression : matchExpressions) {
+		for (MatchExpression matchExpression : getCompiledExpressions()) {
 			boolean match;
 			try {
-				match = Matchers.evaluate(matchExpression, value);
+				match = matchExpression.evaluate(value, null);
 				LOGGER.log(OpLevel.TRACE, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 						"MatchingParserReference.stream.match.evaluation", caller.getName(), getParser().getName(),
 						matchExpression, match);
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+
+/**
+ * Resolves host names to IP addresses and IP addresses to host names over DNS, caching resolution results.
+ * <p>
+ * DNS lookups are performed asynchronously by dedicated resolver threads: cache miss initiates lookup and returns
+ * {@code null}, so caller does not wait for DNS server response and shall use unresolved value until resolution result
+ * gets cached. Resolved values are cached for positive TTL period, unresolvable values - for negative TTL period. When
+ * cache size limit is reached, least recently used entries get evicted in batches, so cache lookups do not contend for
+ * single lock. When lookups queue is full, new lookup is dropped and value gets looked up on later resolution request.
+ * <p>
+ * Resolver is configured using these system properties:
+ * <ul>
+ * <li>com.jkoolcloud.tnt4j.streams.dns.cache.size - maximal number of cached entries. Default value -
+ * {@code 10000}.</li>
+ * <li>com.jkoolcloud.tnt4j.streams.dns.cache.ttl - period in seconds to keep resolved values. Default value -
+ * {@code 3600}.</li>
+ * <li>com.jkoolcloud.tnt4j.streams.dns.cache.negative.ttl - period in seconds to keep unresolvable values. Default
+ * value - {@code 300}.</li>
+ * <li>com.jkoolcloud.tnt4j.streams.dns.threads - number of resolver threads. Default value - {@code 2}.</li>
+ * <li>com.jkoolcloud.tnt4j.streams.dns.queue.size - maximal number of lookups waiting for resolver thread. Default
+ * value - {@code 1000}.</li>
+ * </ul>
+ *
+ * @version $Revision: 2 $
+ */
+public final class HostNameResolver {
+	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(HostNameResolver.class);
+
+	private static final String PROP_PREFIX = "com.jkoolcloud.tnt4j.streams.dns."; // NON-NLS
+	private static final int MAX_SIZE = Integer.getInteger(PROP_PREFIX + "cache.size", 10000); // NON-NLS
+	private static final long TTL = TimeUnit.SECONDS.toMillis(Long.getLong(PROP_PREFIX + "cache.ttl", 3600)); // NON-NLS
+	private static final long NEGATIVE_TTL = TimeUnit.SECONDS
+			.toMillis(Long.getLong(PROP_PREFIX + "cache.negative.ttl", 300)); // NON-NLS
+	private static final int THREADS = Integer.getInteger(PROP_PREFIX + "threads", 2); // NON-NLS
+	private static final int QUEUE_SIZE = Integer.getInteger(PROP_PREFIX + "queue.size", 1000); // NON-NLS
+
+	private static final ResolverCache ADDRESS_TO_NAME = new ResolverCache(MAX_SIZE);
+	private static final ResolverCache NAME_TO_ADDRESS = new ResolverCache(MAX_SIZE);
+	private static final ResolverStatistics STATISTICS = new ResolverStatistics();
+
+	private static ExecutorService executor;
+
+	private HostNameResolver() {
+	}
+
+	/**
+	 * Returns host name resolved from provided IP address.
+	 *
+	 * @param address
+	 *            IP address to resolve
+	 * @return resolved host name, or {@code null} if IP address is not resolved yet or is unresolvable
+	 */
+	public static String resolveAddressToHostName(String address) {
+		return resolve(address, ADDRESS_TO_NAME, Utils::resolveAddressToHostName, NAME_TO_ADDRESS);
+	}
+
+	/**
+	 * Returns IP address resolved from provided host name.
+	 *
+	 * @param hostName
+	 *            host name to resolve
+	 * @return resolved IP address, or {@code null} if host name is not resolved yet or is unresolvable
+	 */
+	public static String resolveHostNameToAddress(String hostName) {
+		return resolve(hostName, NAME_TO_ADDRESS, Utils::resolveHostNameToAddress, ADDRESS_TO_NAME);
+	}
+
+	private static String resolve(String key, ResolverCache cache, UnaryOperator<String> lookup,
+			ResolverCache reverseCache) {
+		if (StringUtils.isEmpty(key)) {
+			return null;
+		}
+
+		long now = System.currentTimeMillis();
+		CacheEntry entry = cache.get(key);
+		if (entry != null && (entry.pending || entry.expiresAt > now)) {
+			STATISTICS.hits.increment();
+			return entry.value;
+		}
+
+		STATISTICS.misses.increment();
+		CacheEntry pending = new CacheEntry(entry == null ? null : entry.value, Long.MAX_VALUE, true);
+		if (cache.replace(key, entry, pending)) {
+			try {
+				getExecutor().execute(() -> lookup(key, cache, lookup, reverseCache));
+			} catch (RejectedExecutionException exc) {
+				// lookups queue is full - drop lookup and let later resolution request retry it
+				STATISTICS.dropped.increment();
+				cache.remove(key, pending);
+			}
+		}
+
+		return pending.value;
+	}
+
+	private static void lookup(String key, ResolverCache cache, UnaryOperator<String> lookup,
+			ResolverCache reverseCache) {
+		long start = System.nanoTime();
+		String value = null;
+		try {
+			value = lookup.apply(key);
+		} catch (Exception exc) {
+			LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"HostNameResolver.lookup.failed", key, exc);
+		} finally {
+			STATISTICS.lookups.increment();
+			STATISTICS.lookupTime.add(System.nanoTime() - start);
+		}
+
+		long now = System.currentTimeMillis();
+		if (StringUtils.isEmpty(value)) {
+			// keep entry so unresolvable value is not looked up repeatedly
+			cache.put(key, new CacheEntry(null, now + NEGATIVE_TTL, false));
+		} else {
+			cache.put(key, new CacheEntry(value, now + TTL, false));
+			reverseCache.put(value, new CacheEntry(key, now + TTL, false));
+		}
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			ThreadPoolExecutor tpe = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(QUEUE_SIZE), r -> {
+						Thread t = new Thread(r, "HostNameResolver"); // NON-NLS
+						t.setDaemon(true);
+						return t;
+					});
+			tpe.allowCoreThreadTimeOut(true);
+			executor = tpe;
+		}
+		return executor;
+	}
+
+	/**
+	 * Returns number of cached resolution entries.
+	 *
+	 * @return cached entries count
+	 */
+	public static int cacheSize() {
+		return ADDRESS_TO_NAME.size() + NAME_TO_ADDRESS.size();
+	}
+
+	/**
+	 * Clears resolution results cache.
+	 */
+	public static void clear() {
+		ADDRESS_TO_NAME.clear();
+		NAME_TO_ADDRESS.clear();
+	}
+
+	/**
+	 * Returns resolver statistics.
+	 *
+	 * @return resolver statistics
+	 */
+	public static ResolverStatistics getStatistics() {
+		return STATISTICS;
+	}
+
+	private static final class CacheEntry {
+		private final String value;
+		private final long expiresAt;
+		private final boolean pending;
+		private volatile long lastAccess = System.nanoTime();
+
+		private CacheEntry(String value, long expiresAt, boolean pending) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+			this.pending = pending;
+		}
+	}
+
+	/**
+	 * Size bounded approximate least recently used entries cache. Entries access time is tracked without locking, and
+	 * when cache size exceeds limit, single thread evicts least recently accessed entries until cache size drops below
+	 * limit by {@value #EVICTION_FACTOR}th part, so eviction cost gets amortized over many insertions.
+	 */
+	private static final class ResolverCache {
+		private static final int EVICTION_FACTOR = 10;
+
+		private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+		private final AtomicBoolean evicting = new AtomicBoolean();
+		private final int maxSize;
+
+		private ResolverCache(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		CacheEntry get(String key) {
+			CacheEntry entry = entries.get(key);
+			if (entry != null) {
+				entry.lastAccess = System.nanoTime();
+			}
+			return entry;
+		}
+
+		void put(String key, CacheEntry entry) {
+			entries.put(key, entry);
+			evictIfFull();
+		}
+
+		boolean replace(String key, CacheEntry expected, CacheEntry entry) {
+			boolean replaced = expected == null ? entries.putIfAbsent(key, entry) == null
+					: entries.replace(key, expected, entry);
+			if (replaced) {
+				evictIfFull();
+			}
+			return replaced;
+		}
+
+		void remove(String key, CacheEntry entry) {
+			entries.remove(key, entry);
+		}
+
+		int size() {
+			return entries.size();
+		}
+
+		void clear() {
+			entries.clear();
+		}
+
+		private void evictIfFull() {
+			if (entries.size() <= maxSize || !evicting.compareAndSet(false, true)) {
+				return;
+			}
+
+			try {
+				List<Map.Entry<String, CacheEntry>> snapshot = new ArrayList<>(entries.entrySet());
+				int evictCount = snapshot.size() - (maxSize - maxSize / EVICTION_FACTOR);
+				if (evictCount <= 0) {
+					return;
+				}
+				snapshot.sort((e1, e2) -> Long.compare(e1.getValue().lastAccess, e2.getValue().lastAccess));
+				for (int i = 0; i < evictCount; i++) {
+					Map.Entry<String, CacheEntry> eldest = snapshot.get(i);
+					if (entries.remove(eldest.getKey(), eldest.getValue())) {
+						STATISTICS.evictions.increment();
+					}
+				}
+			} finally {
+				evicting.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Accounts resolver cache hits, misses and evictions, and DNS lookups latency.
+	 */
+	public static final class ResolverStatistics {
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		private final LongAdder evictions = new LongAdder();
+		private final LongAdder lookups = new LongAdder();
+		private final LongAdder lookupTime = new LongAdder();
+		private final LongAdder dropped = new LongAdder();
+
+		private ResolverStatistics() {
+		}
+
+		/**
+		 * Returns count of resolutions having cached value found.
+		 *
+		 * @return cache hits count
+		 */
+		public long getHitCount() {
+			return hits.sum();
+		}
+
+		/**
+		 * Returns count of resolutions having no cached value found or cached value expired.
+		 *
+		 * @return cache misses count
+		 */
+		public long getMissCount() {
+			return misses.sum();
+		}
+
+		/**
+		 * Returns count of entries evicted from cache because of size limit.
+		 *
+		 * @return cache evictions count
+		 */
+		public long getEvictionCount() {
+			return evictions.sum();
+		}
+
+		/**
+		 * Returns count of performed DNS lookups.
+		 *
+		 * @return DNS lookups count
+		 */
+		public long getLookupCount() {
+			return lookups.sum();
+		}
+
+		/**
+		 * Returns count of DNS lookups dropped because resolver lookups queue was full.
+		 *
+		 * @return dropped DNS lookups count
+		 */
+		public long getDroppedLookupCount() {
+			return dropped.sum();
+		}
+
+		/**
+		 * Returns mean DNS lookup latency in milliseconds.
+		 *
+		 * @return mean DNS lookup latency, or {@code 0.0} if there were no lookups performed
+		 */
+		public double getMeanLookupLatency() {
+			long lookupCount = getLookupCount();
+			return lookupCount == 0 ? 0.0 : lookupTime.sum() / 1000000.0 / lookupCount;
+		}
+
+		@Override
+		public String toString() {
+			return "ResolverStatistics{hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" // NON-NLS
+					+ getEvictionCount() + ", lookups=" + getLookupCount() + ", dropped=" // NON-NLS
+					+ getDroppedLookupCount() + ", meanLatency=" + getMeanLookupLatency() + "ms}"; // NON-NLS
+		}
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import java.io.IOException;
+import java.util.*;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Evaluates set of definite JsonPath expressions over JSON document in a single Jackson token pass, without building
+ * complete document tree. Only values of referenced paths are deserialized, while all other document branches are
+ * skipped. Reading stops as soon as all referenced paths have been resolved.
+ * <p>
+ * Supported JsonPath subset: root element {@code $} followed by dot-notation ({@code .name}) or bracket-notation
+ * ({@code ['name']}) property steps and non-negative array index ({@code [n]}) steps. Expressions having wildcards,
+ * deep scans, slices, unions, filters or functions are not streamable - use {@link #isStreamable(String)} to check.
+ *
+ * @version $Revision: 1 $
+ */
+public class JsonStreamMatcher {
+	private static final String JSON_PATH_ROOT = "$"; // NON-NLS
+	private static final String UNSUPPORTED_NAME_CHARS = "*@()?,'\" "; // NON-NLS
+
+	private final ObjectMapper mapper;
+	private final PathNode root = new PathNode();
+	private final int pathsCount;
+
+	/**
+	 * Constructs a new JsonStreamMatcher.
+	 *
+	 * @param jsonPaths
+	 *            collection of streamable JsonPath expressions to evaluate
+	 * @param mapper
+	 *            object mapper used to create JSON parser and deserialize matched values
+	 *
+	 * @throws IllegalArgumentException
+	 *             if any of provided expressions is not streamable
+	 */
+	public JsonStreamMatcher(Collection<String> jsonPaths, ObjectMapper mapper) {
+		this.mapper = mapper;
+
+		Set<String> uniquePaths = new LinkedHashSet<>(jsonPaths);
+		for (String jsonPath : uniquePaths) {
+			List<Object> tokens = tokenize(jsonPath);
+			if (tokens == null) {
+				throw new IllegalArgumentException("JsonPath expression is not streamable: " + jsonPath); // NON-NLS
+			}
+			PathNode node = root;
+			for (Object token : tokens) {
+				node = node.child(token);
+			}
+			node.paths.add(jsonPath);
+		}
+		pathsCount = uniquePaths.size();
+	}
+
+	/**
+	 * Checks whether provided JsonPath expression belongs to subset of expressions this matcher can evaluate.
+	 *
+	 * @param jsonPath
+	 *            JsonPath expression to check
+	 * @return {@code true} if expression can be evaluated in streaming manner, {@code false} - otherwise
+	 */
+	public static boolean isStreamable(String jsonPath) {
+		List<Object> tokens = tokenize(jsonPath);
+		return tokens != null && !tokens.isEmpty();
+	}
+
+	/**
+	 * Reads JSON document and collects values of all matcher expressions. Object and array values are deserialized as
+	 * {@link Map} and {@link List} instances.
+	 *
+	 * @param json
+	 *            JSON document string
+	 * @return map of expressions matched values. Map has no entries for expressions having no matches
+	 *
+	 * @throws IOException
+	 *             if JSON document reading fails
+	 */
+	public Map<String, Object> evaluate(String json) throws IOException {
+		Map<String, Object> results = new HashMap<>(pathsCount);
+		try (JsonParser jp = mapper.getFactory().createParser(json)) {
+			if (jp.nextToken() != null) {
+				walk(jp, root, results);
+			}
+		}
+
+		return results;
+	}
+
+	private boolean walk(JsonParser jp, PathNode node, Map<String, Object> results) throws IOException {
+		if (!node.paths.isEmpty()) {
+			Object value = mapper.readValue(jp, Object.class);
+			for (String path : node.paths) {
+				results.put(path, value);
+			}
+			if (!node.children.isEmpty()) {
+				collect(value, node, results);
+			}
+			return results.size() == pathsCount;
+		}
+
+		JsonToken token = jp.currentToken();
+		if (token == JsonToken.START_OBJECT) {
+			while (jp.nextToken() == JsonToken.FIELD_NAME) {
+				PathNode child = node.children.get(jp.currentName());
+				jp.nextToken();
+				if (child == null) {
+					jp.skipChildren();
+				} else if (walk(jp, child, results)) {
+					return true;
+				}
+			}
+		} else if (token == JsonToken.START_ARRAY) {
+			int idx = 0;
+			while (jp.nextToken() != JsonToken.END_ARRAY) {
+				PathNode child = node.children.get(idx++);
+				if (child == null) {
+					jp.skipChildren();
+				} else if (walk(jp, child, results)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static void collect(Object value, PathNode node, Map<String, Object> results) {
+		for (Map.Entry<Object, PathNode> ce : node.children.entrySet()) {
+			Object cValue;
+			if (ce.getKey() instanceof Integer && value instanceof List) {
+				List<?> list = (List<?>) value;
+				int idx = (Integer) ce.getKey();
+				cValue = idx < list.size() ? list.get(idx) : null;
+			} else if (ce.getKey() instanceof String && value instanceof Map) {
+				Map<?, ?> map = (Map<?, ?>) value;
+				if (!map.containsKey(ce.getKey())) {
+					continue;
+				}
+				cValue = map.get(ce.getKey());
+			} else {
+				continue;
+			}
+
+			PathNode child = ce.getValue();
+			for (String path : child.paths) {
+				results.put(path, cValue);
+			}
+			collect(cValue, child, results);
+		}
+	}
+
+	private static List<Object> tokenize(String jsonPath) {
+		String path = StringUtils.trim(jsonPath);
+		if (path == null || !path.startsWith(JSON_PATH_ROOT)) {
+			return null;
+		}
+
+		List<Object> tokens = new ArrayList<>();
+		int i = JSON_PATH_ROOT.length();
+		while (i < path.length()) {
+			char c = path.charAt(i);
+			if (c == '.') {
+				int end = i + 1;
+				while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+					end++;
+				}
+				String name = path.substring(i + 1, end);
+				if (name.isEmpty() || StringUtils.containsAny(name, UNSUPPORTED_NAME_CHARS)) {
+					return null;
+				}
+				tokens.add(name);
+				i = end;
+			} else if (c == '[') {
+				int end = path.indexOf(']', i);
+				if (end < 0) {
+					return null;
+				}
+				String step = path.substring(i + 1, end).trim();
+				if (step.length() >= 2 && (step.charAt(0) == '\'' || step.charAt(0) == '"')
+						&& step.charAt(step.length() - 1) == step.charAt(0)) {
+					String name = step.substring(1, step.length() - 1);
+					if (StringUtils.containsAny(name, "'\",")) { // NON-NLS
+						return null;
+					}
+					tokens.add(name);
+				} else if (!step.isEmpty() && StringUtils.isNumeric(step) && step.length() < 10) {
+					tokens.add(Integer.parseInt(step));
+				} else {
+					return null;
+				}
+				i = end + 1;
+			} else {
+				return null;
+			}
+		}
+
+		return tokens;
+	}
+
+	private static class PathNode {
+		private final Map<Object, PathNode> children = new HashMap<>();
+		private final List<String> paths = new ArrayList<>(1);
+
+		PathNode child(Object token) {
+			return children.computeIfAbsent(token, k -> new PathNode());
+		}
+	}
+}
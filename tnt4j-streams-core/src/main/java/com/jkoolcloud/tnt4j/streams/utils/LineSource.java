@@ -0,0 +1,112 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.LineNumberReader;
+
+/**
+ * Source of file lines, tracking number and, if supported, file byte offset of every read line.
+ *
+ * @version $Revision: 1 $
+ *
+ * @see PositionedLineReader
+ */
+public interface LineSource extends Closeable {
+
+	/**
+	 * Reads next line.
+	 *
+	 * @return line string not including line terminator, or {@code null} if end of source has been reached
+	 *
+	 * @throws IOException
+	 *             if I/O error occurs
+	 */
+	String readLine() throws IOException;
+
+	/**
+	 * Returns number of last read line.
+	 *
+	 * @return last read line number
+	 */
+	int getLineNumber();
+
+	/**
+	 * Sets current line number.
+	 *
+	 * @param lineNumber
+	 *            line number to set
+	 */
+	void setLineNumber(int lineNumber);
+
+	/**
+	 * Returns file byte offset last read line starts at.
+	 *
+	 * @return file byte offset of last read line start, or {@code -1} if no lines has been read yet or line offsets are
+	 *         not tracked by this source
+	 */
+	long getLineOffset();
+
+	/**
+	 * Returns file byte offset next line will be read from.
+	 *
+	 * @return file byte offset of next line, or {@code -1} if line offsets are not tracked by this source
+	 */
+	long getPosition();
+
+	/**
+	 * Wraps provided line number reader into line source not tracking line offsets.
+	 *
+	 * @param reader
+	 *            line number reader to wrap
+	 * @return line source reading lines from provided reader
+	 */
+	static LineSource of(LineNumberReader reader) {
+		return new LineSource() {
+			@Override
+			public String readLine() throws IOException {
+				return reader.readLine();
+			}
+
+			@Override
+			public int getLineNumber() {
+				return reader.getLineNumber();
+			}
+
+			@Override
+			public void setLineNumber(int lineNumber) {
+				reader.setLineNumber(lineNumber);
+			}
+
+			@Override
+			public long getLineOffset() {
+				return -1;
+			}
+
+			@Override
+			public long getPosition() {
+				return -1;
+			}
+
+			@Override
+			public void close() throws IOException {
+				reader.close();
+			}
+		};
+	}
+}
@@ -17,6 +17,7 @@
 package com.jkoolcloud.tnt4j.streams.utils;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.NamespaceContext;
@@ -26,14 +27,18 @@ import org.apache.commons.collections4.CollectionUtils;
 /**
  * Implements {@link NamespaceContext}, where every namespace prefix and URI relation is resolved from internally stored
  * {@link Map}.
+ * <p>
+ * Mappings are copied on write: lookups read immutable mappings snapshot without locking, and mappings are copied only
+ * when some namespace prefix gets mapped to new URI. Setting already existing mapping does not lock.
  *
- * @version $Revision: 1 $
+ * @version $Revision: 2 $
  */
 public final class NamespaceMap implements NamespaceContext {
 	private static final List<String> EMPTY_NS_LIST = Collections.singletonList(XMLConstants.DEFAULT_NS_PREFIX);
 
-	private final Map<String, String> mapNS = new HashMap<>(10);
-	private final Map<String, Set<String>> mapURI = new HashMap<>(10);
+	private volatile Map<String, String> mapNS = Collections.emptyMap();
+	private volatile Map<String, Set<String>> mapURI = Collections.emptyMap();
+	private final AtomicInteger version = new AtomicInteger();
 
 	/**
 	 * Constructs a new namespaces map.
@@ -41,6 +46,19 @@ public final class NamespaceMap implements NamespaceContext {
 	public NamespaceMap() {
 	}
 
+	/**
+	 * Constructs a new namespaces map, having same mappings as provided one.
+	 *
+	 * @param other
+	 *            namespaces map to copy mappings from
+	 */
+	public NamespaceMap(NamespaceMap other) {
+		synchronized (other) {
+			mapNS = other.mapNS;
+			mapURI = other.mapURI;
+		}
+	}
+
 	/**
 	 * Sets mapping of namespace prefix to namespace URI.
 	 *
@@ -50,8 +68,13 @@ public final class NamespaceMap implements NamespaceContext {
 	 *            uri to put into mapping
 	 */
 	public String setPrefixUriMapping(String prefix, String uri) {
-		mapURI(prefix, uri);
-		return mapNS.put(prefix, uri);
+		Map<String, String> ns = mapNS;
+		String prevUri = ns.get(prefix);
+		if (Objects.equals(prevUri, uri) && ns.containsKey(prefix)) {
+			return prevUri;
+		}
+
+		return putMapping(prefix, uri, false);
 	}
 
 	/**
@@ -64,12 +87,40 @@ public final class NamespaceMap implements NamespaceContext {
 	 * @return {@code true} if mapping was added, {@code false} - otherwise
 	 */
 	public boolean addPrefixUriMapping(String prefix, String uri) {
-		if (!mapNS.containsKey(prefix)) {
-			setPrefixUriMapping(prefix, uri);
+		if (mapNS.containsKey(prefix)) {
+			return false;
+		}
+
+		synchronized (this) {
+			if (mapNS.containsKey(prefix)) {
+				return false;
+			}
+			putMapping(prefix, uri, true);
 			return true;
 		}
+	}
 
-		return false;
+	private synchronized String putMapping(String prefix, String uri, boolean absentOnly) {
+		String prevUri = mapNS.get(prefix);
+		boolean mapped = mapNS.containsKey(prefix);
+		if (mapped && (absentOnly || Objects.equals(prevUri, uri))) {
+			return prevUri;
+		}
+
+		Map<String, Set<String>> newURI = new HashMap<>(mapURI);
+		Set<String> prefixList = newURI.get(uri);
+		prefixList = prefixList == null ? new LinkedHashSet<>(5) : new LinkedHashSet<>(prefixList);
+		prefixList.add(prefix);
+		newURI.put(uri, Collections.unmodifiableSet(prefixList));
+
+		Map<String, String> newNS = new HashMap<>(mapNS);
+		newNS.put(prefix, uri);
+
+		mapURI = newURI;
+		mapNS = newNS;
+		version.incrementAndGet();
+
+		return prevUri;
 	}
 
 	/**
@@ -90,20 +141,19 @@ public final class NamespaceMap implements NamespaceContext {
 	 *            map containing namespace prefix to namespace URI mappings
 	 */
 	public void addPrefixUriMappings(Map<String, String> nsMap) {
-		mapNS.putAll(nsMap);
-
 		for (Map.Entry<String, String> nsms : nsMap.entrySet()) {
-			mapURI(nsms.getKey(), nsms.getValue());
+			setPrefixUriMapping(nsms.getKey(), nsms.getValue());
 		}
 	}
 
-	private void mapURI(String prefix, String uri) {
-		Set<String> prefixList = mapURI.get(uri);
-		if (prefixList == null) {
-			prefixList = new LinkedHashSet<>(5);
-			mapURI.put(uri, prefixList);
-		}
-		prefixList.add(prefix);
+	/**
+	 * Returns mappings modification version. Version changes every time any namespace prefix gets mapped to new URI,
+	 * so it can be used to invalidate data depending on namespace mappings, e.g. compiled XPath expressions.
+	 *
+	 * @return mappings modification version
+	 */
+	public int getVersion() {
+		return version.get();
 	}
 
 	@Override
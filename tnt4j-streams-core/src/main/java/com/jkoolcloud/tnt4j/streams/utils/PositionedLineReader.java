@@ -0,0 +1,355 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Line reader reading file lines directly from file channel bytes and tracking byte offset of every read line. Reading
+ * starts from provided file byte offset, so file can be continued from known position without re-reading preceding
+ * file lines.
+ * <p>
+ * Line terminators are recognized at byte level, thus only charsets encoding {@code '\n'} and {@code '\r'} characters as
+ * single bytes, and never having those bytes within multi-byte character sequences, are supported - use
+ * {@link #isSupported(java.nio.charset.Charset)} to check. Since lines are decoded independently, such charsets keep no
+ * decoder state between lines, so charset and byte offset is enough to resume reading.
+ * <p>
+ * File bytes are read in chunks either into heap buffer, or by mapping file regions into memory. Mapped file region
+ * is reused while reading resumes within it, and file tail smaller than heap buffer is read into heap buffer instead
+ * of mapping many small regions. Line terminators are searched within chunk by scanning 8 bytes per step, and only
+ * complete line bytes are decoded.
+ * <p>
+ * Reader is a {@link LineSource}, thus only lines can be read: {@link #readLine()}, {@link #getLineNumber()},
+ * {@link #getLineOffset()} and {@link #getPosition()}.
+ *
+ * @version $Revision: 4 $
+ */
+public class PositionedLineReader implements LineSource {
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	private static final int DEFAULT_MAP_SIZE = 16 * 1024 * 1024;
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGHS = 0x8080808080808080L;
+	private static final long LF_WORD = 0x0A0A0A0A0A0A0A0AL;
+	private static final long CR_WORD = 0x0D0D0D0D0D0D0D0DL;
+
+	private final FileChannel channel;
+	private final Charset charset;
+	private final boolean memoryMapped;
+	private ByteBuffer buffer;
+	private ByteBuffer heapBuffer;
+	private ByteBuffer mapping;
+	private long mappingStart;
+	private long bufferEnd;
+
+	private byte[] lineBuffer = new byte[256];
+	private long position;
+	private long lineStart = -1;
+	private int lineNumber;
+	private boolean skipLF = false;
+	private boolean completeLinesOnly = false;
+
+	/**
+	 * Constructs a new PositionedLineReader. Reading starts from provided file byte offset. File bytes are read into
+	 * heap buffer.
+	 *
+	 * @param channel
+	 *            file channel to read lines from
+	 * @param charset
+	 *            charset to decode lines
+	 * @param position
+	 *            file byte offset to start reading from
+	 * @param lineNumber
+	 *            number of line preceding provided byte offset
+	 *
+	 * @throws IOException
+	 *             if channel position can't be changed
+	 */
+	public PositionedLineReader(FileChannel channel, Charset charset, long position, int lineNumber)
+			throws IOException {
+		this(channel, charset, position, lineNumber, false);
+	}
+
+	/**
+	 * Constructs a new PositionedLineReader. Reading starts from provided file byte offset.
+	 *
+	 * @param channel
+	 *            file channel to read lines from
+	 * @param charset
+	 *            charset to decode lines
+	 * @param position
+	 *            file byte offset to start reading from
+	 * @param lineNumber
+	 *            number of line preceding provided byte offset
+	 * @param memoryMapped
+	 *            flag indicating whether to read file by mapping its regions into memory
+	 *
+	 * @throws IOException
+	 *             if channel position can't be changed
+	 */
+	public PositionedLineReader(FileChannel channel, Charset charset, long position, int lineNumber,
+			boolean memoryMapped) throws IOException {
+		this.channel = channel;
+		this.charset = charset;
+		this.memoryMapped = memoryMapped;
+		this.position = position;
+		this.bufferEnd = position;
+		this.lineNumber = lineNumber;
+		if (!memoryMapped) {
+			this.heapBuffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		this.buffer = memoryMapped ? ByteBuffer.allocate(0) : heapBuffer;
+		this.buffer.flip();
+
+		channel.position(position);
+	}
+
+	/**
+	 * Checks whether provided charset can be used to read lines by this reader.
+	 *
+	 * @param charset
+	 *            charset to check
+	 * @return {@code true} if line terminators of this charset are single bytes, {@code false} - otherwise
+	 */
+	public static boolean isSupported(Charset charset) {
+		if (charset == null || !charset.canEncode()) {
+			return false;
+		}
+
+		return Arrays.equals("\n".getBytes(charset), new byte[] { '\n' }) // NON-NLS
+				&& Arrays.equals("\r".getBytes(charset), new byte[] { '\r' }) // NON-NLS
+				&& Arrays.equals("a".getBytes(charset), new byte[] { 'a' }); // NON-NLS
+	}
+
+	/**
+	 * Sets flag indicating whether bytes left at the end of file having no line terminator shall not be returned as
+	 * line. In that case reader position stays at start of that incomplete line, so it can be read completely later,
+	 * e.g. when file is being written.
+	 *
+	 * @param completeLinesOnly
+	 *            flag indicating to read only terminated lines
+	 */
+	public void setCompleteLinesOnly(boolean completeLinesOnly) {
+		this.completeLinesOnly = completeLinesOnly;
+	}
+
+	/**
+	 * Reads next file line. Line is terminated by line feed ({@code '\n'}), carriage return ({@code '\r'}) or carriage
+	 * return followed immediately by line feed. Bytes left at the end of file having no line terminator are returned
+	 * as line too, unless reader is set to read complete lines only.
+	 *
+	 * @return line string not including line terminator, or {@code null} if end of file has been reached
+	 *
+	 * @throws IOException
+	 *             if I/O error occurs
+	 *
+	 * @see #setCompleteLinesOnly(boolean)
+	 */
+	@Override
+	public String readLine() throws IOException {
+		int length = 0;
+		long start = -1;
+		while (true) {
+			if (!buffer.hasRemaining() && !fill()) {
+				if (start < 0) {
+					return null;
+				}
+				if (completeLinesOnly) {
+					position = start;
+					bufferEnd = start;
+					return null;
+				}
+				break;
+			}
+
+			if (skipLF) {
+				skipLF = false;
+				if (buffer.get(buffer.position()) == '\n') {
+					buffer.get();
+					position++;
+					continue;
+				}
+			}
+			if (start < 0) {
+				start = position;
+			}
+
+			int from = buffer.position();
+			int eol = indexOfEol(buffer, from, buffer.limit());
+			int chunkLength = (eol < 0 ? buffer.limit() : eol) - from;
+
+			if (eol >= 0 && length == 0 && buffer.hasArray()) {
+				String line = new String(buffer.array(), buffer.arrayOffset() + from, chunkLength, charset);
+				buffer.position(eol);
+				position += chunkLength;
+				skipTerminator();
+				return completeLine(start, line);
+			}
+
+			if (length + chunkLength > lineBuffer.length) {
+				lineBuffer = Arrays.copyOf(lineBuffer, Math.max(lineBuffer.length << 1, length + chunkLength));
+			}
+			buffer.get(lineBuffer, length, chunkLength);
+			length += chunkLength;
+			position += chunkLength;
+
+			if (eol >= 0) {
+				skipTerminator();
+				break;
+			}
+		}
+
+		return completeLine(start, new String(lineBuffer, 0, length, charset));
+	}
+
+	private String completeLine(long start, String line) {
+		lineStart = start;
+		lineNumber++;
+		return line;
+	}
+
+	private void skipTerminator() throws IOException {
+		byte b = buffer.get();
+		position++;
+		if (b == '\r') {
+			if (buffer.hasRemaining() || fill()) {
+				if (buffer.get(buffer.position()) == '\n') {
+					buffer.get();
+					position++;
+				}
+			} else {
+				skipLF = true;
+			}
+		}
+	}
+
+	/**
+	 * Finds index of first line terminator byte ({@code '\n'} or {@code '\r'}) within provided buffer range. Bytes are
+	 * compared 8 bytes per step, using SWAR (SIMD within a register) technique.
+	 *
+	 * @param buffer
+	 *            little-endian byte buffer to search
+	 * @param from
+	 *            index of first byte to check
+	 * @param to
+	 *            index of last byte to check (exclusive)
+	 * @return index of first line terminator byte, or {@code -1} if range has no line terminators
+	 */
+	static int indexOfEol(ByteBuffer buffer, int from, int to) {
+		int i = from;
+		for (int last = to - Long.BYTES; i <= last; i += Long.BYTES) {
+			long word = buffer.getLong(i);
+			long found = zeroBytes(word ^ LF_WORD) | zeroBytes(word ^ CR_WORD);
+			if (found != 0) {
+				return i + (Long.numberOfTrailingZeros(found) >>> 3);
+			}
+		}
+		for (; i < to; i++) {
+			byte b = buffer.get(i);
+			if (b == '\n' || b == '\r') {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private static long zeroBytes(long word) {
+		return (word - ONES) & ~word & HIGHS;
+	}
+
+	/**
+	 * Fills internal buffer with next bytes chunk read from file channel.
+	 *
+	 * @return {@code true} if any bytes have been read, {@code false} - if end of file has been reached
+	 *
+	 * @throws IOException
+	 *             if I/O error occurs
+	 */
+	protected boolean fill() throws IOException {
+		if (memoryMapped) {
+			long size = channel.size();
+			if (bufferEnd >= size) {
+				return false;
+			}
+			long mappingEnd = mapping == null ? -1 : mappingStart + mapping.capacity();
+			if (bufferEnd >= mappingStart && bufferEnd < mappingEnd) {
+				// reading resumes within mapped region, e.g. after incomplete line
+				buffer = mapping.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+				buffer.position((int) (bufferEnd - mappingStart));
+				bufferEnd = mappingEnd;
+
+				return true;
+			}
+			if (size - bufferEnd >= DEFAULT_BUFFER_SIZE) {
+				int length = (int) Math.min(DEFAULT_MAP_SIZE, size - bufferEnd);
+				mapping = channel.map(FileChannel.MapMode.READ_ONLY, bufferEnd, length);
+				mappingStart = bufferEnd;
+				buffer = mapping.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+				bufferEnd += length;
+
+				return true;
+			}
+			if (heapBuffer == null) {
+				heapBuffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			buffer = heapBuffer;
+		}
+
+		buffer.clear();
+		int read;
+		do {
+			read = channel.read(buffer, bufferEnd);
+		} while (read == 0);
+		buffer.flip();
+		if (read > 0) {
+			bufferEnd += read;
+		}
+
+		return read > 0;
+	}
+
+	@Override
+	public long getPosition() {
+		return position;
+	}
+
+	@Override
+	public long getLineOffset() {
+		return lineStart;
+	}
+
+	@Override
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	@Override
+	public void setLineNumber(int lineNumber) {
+		this.lineNumber = lineNumber;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
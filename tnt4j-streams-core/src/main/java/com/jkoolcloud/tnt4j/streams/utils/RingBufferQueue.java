@@ -0,0 +1,367 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free ring buffer implementing {@link BlockingQueue}. Every buffer slot carries sequence number, so
+ * producers and consumers claim slots using single CAS operation and never take a lock.
+ * <p>
+ * Buffer can be used in multi-producer mode (default), or in single-producer mode, when only one thread ever puts
+ * elements into the buffer and no CAS is required to claim slot for write. Multiple consumers are always allowed.
+ * <p>
+ * Blocking operations ({@link #put(Object)}, {@link #take()} and timed {@code offer}/{@code poll}) do not use
+ * signalling: waiting thread idles using defined {@link WaitStrategy} and retries.
+ * <p>
+ * Buffer capacity is rounded up to the nearest power of two. Iterator returns weakly consistent snapshot of buffer
+ * contents and does not support elements removal. Element can be removed from the middle of buffer by
+ * {@link #remove(Object)}: removed element slot is marked by CAS and consumers skip it, so buffer size includes removed
+ * elements until consumers pass them.
+ *
+ * @param <E>
+ *            the type of elements held in this buffer
+ *
+ * @version $Revision: 2 $
+ */
+public class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+	private static final int MAX_CAPACITY = 1 << 30;
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final Object REMOVED = new Object();
+
+	private final int capacity;
+	private final int mask;
+	private final boolean singleProducer;
+	private final WaitStrategy waitStrategy;
+
+	private final AtomicReferenceArray<Object> elements;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * Constructs a new multi-producer RingBufferQueue using {@link WaitStrategy#PARK} wait strategy.
+	 *
+	 * @param capacity
+	 *            minimal buffer capacity
+	 */
+	public RingBufferQueue(int capacity) {
+		this(capacity, false, WaitStrategy.PARK);
+	}
+
+	/**
+	 * Constructs a new RingBufferQueue.
+	 *
+	 * @param capacity
+	 *            minimal buffer capacity
+	 * @param singleProducer
+	 *            flag indicating whether buffer is filled by single producer thread
+	 * @param waitStrategy
+	 *            wait strategy to use by blocking operations
+	 */
+	public RingBufferQueue(int capacity, boolean singleProducer, WaitStrategy waitStrategy) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity); // NON-NLS
+		}
+		this.capacity = roundUpToPowerOfTwo(capacity);
+		this.mask = this.capacity - 1;
+		this.singleProducer = singleProducer;
+		this.waitStrategy = waitStrategy == null ? WaitStrategy.PARK : waitStrategy;
+
+		elements = new AtomicReferenceArray<>(this.capacity);
+		sequences = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	private static int roundUpToPowerOfTwo(int value) {
+		if (value > MAX_CAPACITY) {
+			return MAX_CAPACITY;
+		}
+		return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+	}
+
+	/**
+	 * Returns actual buffer capacity.
+	 *
+	 * @return buffer capacity
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Checks whether buffer is filled by single producer thread.
+	 *
+	 * @return {@code true} if buffer is single producer one, {@code false} - otherwise
+	 */
+	public boolean isSingleProducer() {
+		return singleProducer;
+	}
+
+	@Override
+	public boolean offer(E e) {
+		Objects.requireNonNull(e);
+
+		long pos = tail.get();
+		while (true) {
+			int idx = (int) (pos & mask);
+			long dif = sequences.get(idx) - pos;
+			if (dif == 0) {
+				if (singleProducer) {
+					tail.lazySet(pos + 1);
+				} else if (!tail.compareAndSet(pos, pos + 1)) {
+					pos = tail.get();
+					continue;
+				}
+				elements.lazySet(idx, e);
+				sequences.set(idx, pos + 1);
+				return true;
+			} else if (dif < 0) {
+				return false; // buffer is full
+			} else {
+				pos = tail.get();
+			}
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E poll() {
+		long pos = head.get();
+		while (true) {
+			int idx = (int) (pos & mask);
+			long dif = sequences.get(idx) - (pos + 1);
+			if (dif == 0) {
+				if (head.compareAndSet(pos, pos + 1)) {
+					Object e = elements.getAndSet(idx, null);
+					sequences.set(idx, pos + capacity);
+					if (e != REMOVED) {
+						return (E) e;
+					}
+				}
+				pos = head.get();
+			} else if (dif < 0) {
+				return null; // buffer is empty
+			} else {
+				pos = head.get();
+			}
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E peek() {
+		long pos = head.get();
+		while (true) {
+			int idx = (int) (pos & mask);
+			if (sequences.get(idx) != pos + 1) {
+				return null;
+			}
+			Object e = elements.get(idx);
+			if (e == REMOVED) {
+				pos++;
+			} else if (e == null) {
+				// element has been taken by consumer
+				pos = head.get();
+			} else {
+				return (E) e;
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Marks slot of first found element equal to provided one as removed. Consumers skip removed slots.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (o == null) {
+			return false;
+		}
+		long t = tail.get();
+		for (long pos = head.get(); pos < t; pos++) {
+			int idx = (int) (pos & mask);
+			if (sequences.get(idx) == pos + 1) {
+				Object e = elements.get(idx);
+				if (e != null && e != REMOVED && o.equals(e) && elements.compareAndSet(idx, e, REMOVED)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void put(E e) throws InterruptedException {
+		int counter = 0;
+		while (!offer(e)) {
+			counter = idle(counter);
+		}
+	}
+
+	@Override
+	public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int counter = 0;
+		while (!offer(e)) {
+			if (System.nanoTime() - deadline >= 0) {
+				return false;
+			}
+			counter = idle(counter);
+		}
+		return true;
+	}
+
+	@Override
+	public E take() throws InterruptedException {
+		int counter = 0;
+		E e;
+		while ((e = poll()) == null) {
+			counter = idle(counter);
+		}
+		return e;
+	}
+
+	@Override
+	public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int counter = 0;
+		E e;
+		while ((e = poll()) == null) {
+			if (System.nanoTime() - deadline >= 0) {
+				return null;
+			}
+			counter = idle(counter);
+		}
+		return e;
+	}
+
+	private int idle(int counter) throws InterruptedException {
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+		waitStrategy.idle(counter);
+		return counter + 1;
+	}
+
+	@Override
+	public int size() {
+		while (true) {
+			long h = head.get();
+			long t = tail.get();
+			if (h == head.get()) {
+				long size = t - h;
+				return size <= 0 ? 0 : (int) Math.min(size, capacity);
+			}
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return peek() == null;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return capacity - size();
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(Collection<? super E> c, int maxElements) {
+		Objects.requireNonNull(c);
+		if (c == this) {
+			throw new IllegalArgumentException();
+		}
+		int n = 0;
+		E e;
+		while (n < maxElements && (e = poll()) != null) {
+			c.add(e);
+			n++;
+		}
+		return n;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public Iterator<E> iterator() {
+		List<E> snapshot = new ArrayList<>(size());
+		long t = tail.get();
+		for (long pos = head.get(); pos < t; pos++) {
+			int idx = (int) (pos & mask);
+			if (sequences.get(idx) == pos + 1) {
+				Object e = elements.get(idx);
+				if (e != null && e != REMOVED) {
+					snapshot.add((E) e);
+				}
+			}
+		}
+		return Collections.unmodifiableList(snapshot).iterator();
+	}
+
+	/**
+	 * Defines how thread waits for buffer to become available for blocking operations.
+	 */
+	public enum WaitStrategy {
+		/**
+		 * Spins few times and then parks thread for progressively increasing period (up to 1ms). Lowest CPU usage.
+		 */
+		PARK {
+			@Override
+			void idle(int counter) {
+				if (counter < 100) {
+					Thread.onSpinWait();
+				} else {
+					LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(counter - 100, 10)));
+				}
+			}
+		},
+		/**
+		 * Yields thread on every retry.
+		 */
+		YIELD {
+			@Override
+			void idle(int counter) {
+				Thread.yield();
+			}
+		},
+		/**
+		 * Busy spins. Lowest latency, but occupies CPU core while waiting.
+		 */
+		SPIN {
+			@Override
+			void idle(int counter) {
+				Thread.onSpinWait();
+			}
+		};
+
+		abstract void idle(int counter);
+	}
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Segmented on-disk log of binary records, used to spill data items not fitting into memory and to keep them across
+ * application restarts.
+ * <p>
+ * Records are appended to the newest segment file. When segment file size exceeds defined segment size, new segment
+ * file gets created. Records are read in batches starting from the oldest segment file. Read records are kept in
+ * segment files until read batch gets committed, e.g. when batch records have been successfully sent, and segment file
+ * gets deleted as soon as all its records have been read and committed. Segment files found in log directory on log
+ * opening are read first, so records spilled (or read, but not committed) before application restart get replayed.
+ * <p>
+ * Every record is written as: record length (4 bytes), record bytes CRC32 checksum (4 bytes) and record bytes. Segment
+ * file reading stops on incomplete or corrupted record, e.g. written partially because of application crash.
+ * <p>
+ * Log directory shall be dedicated to single log instance.
+ *
+ * @version $Revision: 2 $
+ */
+public class SpillLog implements Closeable {
+	private static final String SEGMENT_PREFIX = "spill-"; // NON-NLS
+	private static final String SEGMENT_SUFFIX = ".log"; // NON-NLS
+	private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+	private final Path dir;
+	private final long segmentSize;
+
+	private final Deque<Path> segments = new ArrayDeque<>();
+	private final Deque<Path> unreadSegments = new ArrayDeque<>();
+	private long nextSegmentNumber;
+
+	private Path writeSegment;
+	private FileChannel writeChannel;
+	private long writeSize;
+	private Path readSegment;
+	private FileChannel readChannel;
+	private long readPosition;
+
+	private final Deque<Batch> pendingBatches = new ArrayDeque<>();
+	private Path committedSegment;
+	private long committedPosition;
+
+	private long size;
+	private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * Constructs a new SpillLog. Creates log directory if it does not exist and picks up segment files left in it.
+	 *
+	 * @param dir
+	 *            log segment files directory
+	 * @param segmentSize
+	 *            maximal segment file size in bytes, exceeding it new segment file gets created
+	 *
+	 * @throws IOException
+	 *             if log directory can't be created or read
+	 */
+	public SpillLog(Path dir, long segmentSize) throws IOException {
+		this.dir = dir;
+		this.segmentSize = segmentSize;
+
+		Files.createDirectories(dir);
+
+		List<Path> found = new ArrayList<>();
+		String glob = SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX; // NON-NLS
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, glob)) {
+			for (Path segment : ds) {
+				if (getSegmentNumber(segment) >= 0) {
+					found.add(segment);
+				}
+			}
+		}
+		found.sort((s1, s2) -> Long.compare(getSegmentNumber(s1), getSegmentNumber(s2)));
+
+		for (Path segment : found) {
+			segments.add(segment);
+			unreadSegments.add(segment);
+			size += Files.size(segment);
+			nextSegmentNumber = getSegmentNumber(segment) + 1;
+		}
+	}
+
+	private static long getSegmentNumber(Path segment) {
+		String name = segment.getFileName().toString();
+		try {
+			return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+		} catch (RuntimeException exc) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Appends record to the log.
+	 *
+	 * @param record
+	 *            record bytes
+	 *
+	 * @throws IOException
+	 *             if record can't be written to segment file
+	 */
+	public synchronized void append(byte[] record) throws IOException {
+		if (writeChannel == null || writeSize >= segmentSize) {
+			rollSegment();
+		}
+
+		crc.reset();
+		crc.update(record);
+		header.clear();
+		header.putInt(record.length).putInt((int) crc.getValue()).flip();
+
+		ByteBuffer[] bufs = { header, ByteBuffer.wrap(record) };
+		long length = HEADER_SIZE + record.length;
+		long written = 0;
+		while (written < length) {
+			written += writeChannel.write(bufs);
+		}
+		writeSize += length;
+		size += length;
+	}
+
+	private void rollSegment() throws IOException {
+		Utils.close(writeChannel);
+
+		writeSegment = dir
+				.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentNumber++, SEGMENT_SUFFIX)); // NON-NLS
+		writeChannel = FileChannel.open(writeSegment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		writeSize = 0;
+		segments.add(writeSegment);
+		unreadSegments.add(writeSegment);
+	}
+
+	/**
+	 * Reads and removes up to defined number of oldest records from the log.
+	 *
+	 * @param maxRecords
+	 *            maximal number of records to read
+	 * @return list of read records, empty if log has no records
+	 *
+	 * @throws IOException
+	 *             if segment file can't be read
+	 *
+	 * @see #readBatch(int)
+	 * @see #commit(Batch)
+	 */
+	public synchronized List<byte[]> read(int maxRecords) throws IOException {
+		Batch batch = readBatch(maxRecords);
+		commit(batch);
+
+		return batch.getRecords();
+	}
+
+	/**
+	 * Reads batch of up to defined number of oldest records from the log. Read records are not handed out again, but
+	 * are kept in segment files until batch gets committed, so records of not committed batches get replayed after log
+	 * reopening.
+	 *
+	 * @param maxRecords
+	 *            maximal number of records to read
+	 * @return batch of read records, empty if log has no records to read
+	 *
+	 * @throws IOException
+	 *             if segment file can't be read
+	 *
+	 * @see #commit(Batch)
+	 */
+	public synchronized Batch readBatch(int maxRecords) throws IOException {
+		List<byte[]> records = null;
+		Path startSegment = null;
+		Path endSegment = null;
+		long endPosition = 0;
+		while (records == null || records.size() < maxRecords) {
+			if (readChannel == null) {
+				if (unreadSegments.isEmpty()) {
+					break;
+				}
+				readSegment = unreadSegments.pollFirst();
+				readChannel = FileChannel.open(readSegment, StandardOpenOption.READ);
+				readPosition = 0;
+			}
+
+			byte[] record = readRecord();
+			if (record != null) {
+				if (records == null) {
+					records = new ArrayList<>(maxRecords);
+					startSegment = readSegment;
+				}
+				records.add(record);
+				endSegment = readSegment;
+				endPosition = readPosition;
+				continue;
+			}
+
+			if (readSegment.equals(writeSegment)) {
+				if (readPosition == 0 || readPosition != writeSize) {
+					break;
+				}
+				// all written records have been read
+				Utils.close(writeChannel);
+				writeChannel = null;
+				writeSegment = null;
+			}
+			closeReadSegment();
+		}
+
+		if (records == null) {
+			return new Batch(Collections.emptyList(), null, null, 0);
+		}
+
+		Batch batch = new Batch(records, startSegment, endSegment, endPosition);
+		pendingBatches.add(batch);
+		return batch;
+	}
+
+	/**
+	 * Commits read batch of records. Segment files having all records read and committed get deleted. Batches may be
+	 * committed in any order, but records are removed from segment files only up to the last record of contiguous
+	 * committed batches sequence.
+	 *
+	 * @param batch
+	 *            read batch of records
+	 *
+	 * @throws IOException
+	 *             if segment file can't be deleted
+	 */
+	public synchronized void commit(Batch batch) throws IOException {
+		batch.committed = true;
+		while (!pendingBatches.isEmpty() && pendingBatches.peekFirst().committed) {
+			Batch committed = pendingBatches.pollFirst();
+			committedSegment = committed.endSegment;
+			committedPosition = committed.endPosition;
+		}
+
+		releaseSegments();
+	}
+
+	private void releaseSegments() throws IOException {
+		while (!segments.isEmpty()) {
+			Path segment = segments.peekFirst();
+			if (segment.equals(readSegment) || segment.equals(writeSegment)
+					|| segment.equals(unreadSegments.peekFirst())) {
+				break;
+			}
+			if (!pendingBatches.isEmpty() && segment.equals(pendingBatches.peekFirst().startSegment)) {
+				break;
+			}
+
+			segments.pollFirst();
+			Files.deleteIfExists(segment);
+			if (segment.equals(committedSegment)) {
+				committedSegment = null;
+				committedPosition = 0;
+			}
+		}
+	}
+
+	private byte[] readRecord() throws IOException {
+		long available = readChannel.size() - readPosition;
+		if (available < HEADER_SIZE) {
+			return null;
+		}
+
+		header.clear();
+		readFully(header, readPosition);
+		header.flip();
+		int length = header.getInt();
+		int checksum = header.getInt();
+		if (length < 0 || available - HEADER_SIZE < length) {
+			return null;
+		}
+
+		byte[] record = new byte[length];
+		readFully(ByteBuffer.wrap(record), readPosition + HEADER_SIZE);
+		crc.reset();
+		crc.update(record);
+		if ((int) crc.getValue() != checksum) {
+			return null;
+		}
+
+		readPosition += HEADER_SIZE + length;
+		size -= HEADER_SIZE + length;
+		return record;
+	}
+
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (readChannel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of spill log segment " + readSegment); // NON-NLS
+			}
+		}
+	}
+
+	private void closeReadSegment() throws IOException {
+		// skip incomplete or corrupted records left in segment
+		size -= readChannel.size() - readPosition;
+		Utils.close(readChannel);
+		readChannel = null;
+		readSegment = null;
+	}
+
+	/**
+	 * Returns number of log bytes not read yet.
+	 *
+	 * @return log size in bytes
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Checks whether log has any records not read yet.
+	 *
+	 * @return {@code true} if log has no records to read, {@code false} - otherwise
+	 */
+	public synchronized boolean isEmpty() {
+		return size <= 0;
+	}
+
+	/**
+	 * Closes log segment files. Records not read yet and records of not committed batches are left in segment files,
+	 * so log can be reopened later. Already committed records are cut off from partially committed segment file.
+	 *
+	 * @throws IOException
+	 *             if partially committed segment file can't be rewritten
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		Utils.close(writeChannel);
+		writeChannel = null;
+		writeSegment = null;
+		Utils.close(readChannel);
+		readChannel = null;
+		readSegment = null;
+
+		try {
+			Path segment = segments.peekFirst();
+			if (segment != null && segment.equals(committedSegment) && committedPosition > 0) {
+				cutOff(segment, committedPosition);
+			}
+		} finally {
+			pendingBatches.clear();
+			committedSegment = null;
+			committedPosition = 0;
+		}
+	}
+
+	private void cutOff(Path segment, long position) throws IOException {
+		if (position >= Files.size(segment)) {
+			segments.remove(segment);
+			unreadSegments.remove(segment);
+			Files.deleteIfExists(segment);
+			return;
+		}
+
+		Path tmp = dir.resolve(segment.getFileName() + ".tmp"); // NON-NLS
+		try (FileChannel segmentChannel = FileChannel.open(segment, StandardOpenOption.READ);
+				FileChannel tmpChannel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+						StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			long count = segmentChannel.size() - position;
+			long transferred = 0;
+			while (transferred < count) {
+				transferred += segmentChannel.transferTo(position + transferred, count - transferred, tmpChannel);
+			}
+		}
+		Files.move(tmp, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Batch of records read from spill log.
+	 *
+	 * @see #readBatch(int)
+	 * @see #commit(Batch)
+	 */
+	public static final class Batch {
+		private final List<byte[]> records;
+		private final Path startSegment;
+		private final Path endSegment;
+		private final long endPosition;
+		private boolean committed;
+
+		private Batch(List<byte[]> records, Path startSegment, Path endSegment, long endPosition) {
+			this.records = records;
+			this.startSegment = startSegment;
+			this.endSegment = endSegment;
+			this.endPosition = endPosition;
+		}
+
+		/**
+		 * Returns batch records.
+		 *
+		 * @return list of batch records
+		 */
+		public List<byte[]> getRecords() {
+			return records;
+		}
+
+		/**
+		 * Checks whether batch has no records.
+		 *
+		 * @return {@code true} if batch has no records, {@code false} - otherwise
+		 */
+		public boolean isEmpty() {
+			return records.isEmpty();
+		}
+	}
+}
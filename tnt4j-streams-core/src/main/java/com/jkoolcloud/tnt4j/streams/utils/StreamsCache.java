@@ -17,12 +17,11 @@
 package com.jkoolcloud.tnt4j.streams.utils;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -39,6 +38,8 @@ import org.apache.commons.collections4.MapUtils;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.core.UsecTimestamp;
 import com.jkoolcloud.tnt4j.sink.EventSink;
@@ -59,13 +60,24 @@ import com.jkoolcloud.tnt4j.streams.fields.ActivityInfo;
  * (Optional)</li>
  * <li>Persisted - flag indicating cache contents has to be persisted to file on close and loaded on initialization.
  * Default value - {@code false}. (Optional)</li>
- * <li>FileName - defines file name to persist cache entries as XML. Default value - {@code "./persistedCache.xml"}.
+ * <li>FileName - defines file name to persist cache entries. Default value - {@code "./persistedCache.xml"} for
+ * {@code XML} format and {@code "./persistedCache.bin"} for {@code BINARY} format. (Optional)</li>
+ * <li>PersistingFormat - defines cache entries persisting format: {@code XML} - whole cache marshaled as XML document,
+ * {@code BINARY} - binary cache snapshot and append-only changes log, compacted periodically. Default value -
+ * {@code XML}. (Optional)</li>
+ * <li>PersistingPeriod - cache persisting period in seconds. Value {@code <= 0} disables periodic persisting. For
+ * {@code BINARY} format, this is changes log flushing and compaction check period. Default value - {@code 0}.
+ * (Optional)</li>
+ * <li>StreamNamespaces - flag indicating cache entries values has to be stored in stream specific namespaces, so
+ * streams sharing same cache entries definitions do not override each others values. Default value - {@code false}.
  * (Optional)</li>
- * <li>PersistingPeriod - cache persisting period in seconds. Value {@code <= 0} disables periodic persisting. Default
- * value - {@code 0}. (Optional)</li>
  * </ul>
+ * <p>
+ * Cache entries key and value patterns are compiled to templates once, when entry is defined. Cache values keys are
+ * indexed in sorted order, so values having same key prefix can be found without scanning whole cache. Cache lookups,
+ * puts and evictions are accounted by {@link CacheStatistics}.
  *
- * @version $Revision: 3 $
+ * @version $Revision: 4 $
  */
 public final class StreamsCache {
 	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(StreamsCache.class);
@@ -73,23 +85,34 @@ public final class StreamsCache {
 	private static final long DEFAULT_CACHE_MAX_SIZE = 100;
 	private static final long DEFAULT_CACHE_EXPIRE_IN_MINUTES = 10;
 	private static final String DEFAULT_FILE_NAME = "./persistedCache.xml"; // NON-NLS
+	private static final String DEFAULT_BINARY_FILE_NAME = "./persistedCache.bin"; // NON-NLS
+	private static final int MAX_KEY_TEMPLATES = 1024;
 
 	private static final String PARSER_NAME_VAR = "${ParserName}"; // NON-NLS
-
-	private static Cache<String, CacheValue> valuesCache;
-	private static Map<String, CacheEntry> cacheEntries = new HashMap<>(5);
+	private static final String NAMESPACE_DELIM = "::"; // NON-NLS
+
+	private static volatile Cache<String, CacheValue> valuesCache;
+	private static final Map<String, CacheEntry> cacheEntries = new ConcurrentHashMap<>(5);
+	private static final NavigableSet<String> keysIndex = new ConcurrentSkipListSet<>();
+	private static final Map<String, PatternTemplate> keyTemplates = new ConcurrentHashMap<>();
+	private static final CacheStatistics totalStatistics = new CacheStatistics();
+	private static final Map<String, CacheStatistics> namespaceStatistics = new ConcurrentHashMap<>();
 	private static AtomicInteger referencesCount = new AtomicInteger();
 
 	private static long maxSize = DEFAULT_CACHE_MAX_SIZE;
 	private static long expireDuration = DEFAULT_CACHE_EXPIRE_IN_MINUTES;
 	private static boolean persistenceOn = false;
-	private static String fileName = DEFAULT_FILE_NAME;
+	private static String fileName = null;
+	private static PersistingFormat persistingFormat = PersistingFormat.XML;
+	private static volatile StreamsCacheStore cacheStore = null;
+	private static boolean streamNamespaces = false;
 
 	private static ScheduledExecutorService periodicPersistingScheduler = null;
 	private static long persistingPeriodInSeconds;
 
 	private static Cache<String, CacheValue> buildCache(long cSize, long duration) {
-		return CacheBuilder.newBuilder().maximumSize(cSize).expireAfterAccess(duration, TimeUnit.MINUTES).build();
+		return CacheBuilder.newBuilder().maximumSize(cSize).expireAfterAccess(duration, TimeUnit.MINUTES)
+				.<String, CacheValue> removalListener(StreamsCache::onRemoval).build();
 	}
 
 	/**
@@ -113,8 +136,12 @@ public final class StreamsCache {
 					persistenceOn = Utils.toBoolean(value);
 				} else if (CacheProperties.PROP_PERSISTED_FILE_NAME.equalsIgnoreCase(name)) {
 					fileName = value;
+				} else if (CacheProperties.PROP_PERSISTING_FORMAT.equalsIgnoreCase(name)) {
+					persistingFormat = PersistingFormat.valueOf(value.toUpperCase());
 				} else if (CacheProperties.PROP_PERSISTING_PERIOD.equalsIgnoreCase(name)) {
 					persistingPeriodInSeconds = Integer.parseInt(value);
+				} else if (CacheProperties.PROP_STREAM_NAMESPACES.equalsIgnoreCase(name)) {
+					streamNamespaces = Utils.toBoolean(value);
 				}
 			}
 		}
@@ -126,10 +153,16 @@ public final class StreamsCache {
 	 * Initializes cache setting maximum cache size and cache entries expiration duration.
 	 */
 	public static void initialize() {
+		closeStore();
+		keysIndex.clear();
 		valuesCache = buildCache(maxSize, expireDuration);
 
 		if (persistenceOn) {
-			loadPersisted();
+			if (persistingFormat == PersistingFormat.BINARY) {
+				openStore();
+			} else {
+				loadPersisted();
+			}
 		}
 
 		if (persistingPeriodInSeconds > 0) {
@@ -138,7 +171,7 @@ public final class StreamsCache {
 				@Override
 				public void run() {
 					if (valuesCache != null) {
-						persist(valuesCache.asMap());
+						persist();
 					}
 				}
 			}, persistingPeriodInSeconds, persistingPeriodInSeconds, TimeUnit.SECONDS);
@@ -154,6 +187,15 @@ public final class StreamsCache {
 		return valuesCache != null;
 	}
 
+	/**
+	 * Checks if cache entries values are stored in stream specific namespaces.
+	 *
+	 * @return {@code true} if cache entries values are stored in stream specific namespaces, {@code false} - otherwise
+	 */
+	public static boolean isStreamNamespaces() {
+		return streamNamespaces;
+	}
+
 	/**
 	 * Fills in cache entries patterns with activity entity fields values and puts filled in entries to cache.
 	 *
@@ -163,17 +205,34 @@ public final class StreamsCache {
 	 *            parser name
 	 */
 	public static void cacheValues(ActivityInfo ai, String parserName) {
+		cacheValues(null, ai, parserName);
+	}
+
+	/**
+	 * Fills in cache entries patterns with activity entity fields values and puts filled in entries to cache. If cache
+	 * is configured to use stream namespaces, values are put into namespace of stream named {@code streamName}.
+	 *
+	 * @param streamName
+	 *            name of stream activity entity was streamed by, or {@code null} to use global namespace
+	 * @param ai
+	 *            activity entity to be used to fill in patterns data
+	 * @param parserName
+	 *            parser name
+	 */
+	public static void cacheValues(String streamName, ActivityInfo ai, String parserName) {
 		if (!isInitialized()) {
 			// valuesCache = buildCache(maxSize, expireDuration);
 			return;
 		}
 
+		String namespace = resolveNamespace(streamName);
 		for (CacheEntry cacheEntry : cacheEntries.values()) {
-			String resolvedFieldKey = fillInKeyPattern(cacheEntry.getKey(), ai, parserName);
-			Object resolvedFieldValue = fillInValuePattern(cacheEntry.getValue(), ai, parserName);
+			String resolvedFieldKey = cacheEntry.keyTemplate.fill(ai, parserName);
+			Object resolvedFieldValue = cacheEntry.valueTemplate.fillValue(ai, parserName);
 
 			if (resolvedFieldKey != null && resolvedFieldValue != null) {
-				valuesCache.put(resolvedFieldKey, new CacheValue(resolvedFieldValue, cacheEntry.isTransient()));
+				putValue(namespacedKey(namespace, resolvedFieldKey),
+						new CacheValue(resolvedFieldValue, cacheEntry.isTransient(), namespace));
 			}
 		}
 	}
@@ -190,36 +249,19 @@ public final class StreamsCache {
 	 * @return pattern string filled in with data values
 	 */
 	public static String fillInKeyPattern(String pattern, ActivityInfo ai, String parserName) {
-		List<String> vars = new ArrayList<>();
-		Utils.resolveCfgVariables(vars, pattern);
-
-		return fillInPattern(pattern, vars, ai, parserName);
-	}
-
-	private static Object fillInValuePattern(String pattern, ActivityInfo ai, String parserName) {
-		List<String> vars = new ArrayList<>();
-		Utils.resolveCfgVariables(vars, pattern);
-
-		return vars.size() == 1 ? ai.getFieldValue(vars.get(0)) : fillInPattern(pattern, vars, ai, parserName);
-	}
-
-	private static String fillInPattern(String pattern, List<String> vars, ActivityInfo ai, String parserName) {
-		String filledInValue = pattern;
-
-		for (String var : vars) {
-			Object fieldValue;
-			if (var.equals(PARSER_NAME_VAR)) {
-				fieldValue = parserName;
-			} else {
-				fieldValue = ai.getFieldValue(var);
-			}
+		if (pattern == null) {
+			return null;
+		}
 
-			if (fieldValue != null) {
-				filledInValue = filledInValue.replace(var, Utils.toString(fieldValue));
+		PatternTemplate template = keyTemplates.get(pattern);
+		if (template == null) {
+			template = new PatternTemplate(pattern);
+			if (keyTemplates.size() < MAX_KEY_TEMPLATES) {
+				keyTemplates.putIfAbsent(pattern, template);
 			}
 		}
 
-		return filledInValue;
+		return template.fill(ai, parserName);
 	}
 
 	/**
@@ -235,11 +277,31 @@ public final class StreamsCache {
 	 *         {@code null} if there is no such entry defined
 	 */
 	public static Object getValue(ActivityInfo ai, String entryIdStr, String parserName) {
+		return getValue(null, ai, entryIdStr, parserName);
+	}
+
+	/**
+	 * Resolves cache stored value identified by cache entry id. If cache is configured to use stream namespaces, value
+	 * is resolved from namespace of stream named {@code streamName}.
+	 *
+	 * @param streamName
+	 *            name of stream activity entity was streamed by, or {@code null} to use global namespace
+	 * @param ai
+	 *            activity entity to be used to fill in patterns data
+	 * @param entryIdStr
+	 *            cache entity pattern identifier string
+	 * @param parserName
+	 *            parser name
+	 * @return resolved cached value, {@code default entry value} if there is no data in cache for entry, or
+	 *         {@code null} if there is no such entry defined
+	 */
+	public static Object getValue(String streamName, ActivityInfo ai, String entryIdStr, String parserName) {
 		CacheEntry cacheEntry = cacheEntries.get(entryIdStr);
 		if (cacheEntry != null) {
-			String cacheKey = fillInKeyPattern(cacheEntry.getKey(), ai, parserName);
+			String cacheKey = cacheEntry.keyTemplate.fill(ai, parserName);
 			if (cacheKey != null) {
-				CacheValue value = valuesCache == null ? null : valuesCache.getIfPresent(cacheKey);
+				String namespace = resolveNamespace(streamName);
+				CacheValue value = lookupValue(namespace, namespacedKey(namespace, cacheKey));
 				return value == null ? evaluateValue(cacheEntry.getDefaultValue()) : value.value();
 			} else {
 				return evaluateValue(cacheEntry.getDefaultValue());
@@ -272,7 +334,27 @@ public final class StreamsCache {
 	 *         {@code null} if there is no such entry defined
 	 */
 	public static Object getValue(String cacheKey) {
-		CacheValue value = valuesCache == null ? null : valuesCache.getIfPresent(cacheKey);
+		return getValue(null, cacheKey);
+	}
+
+	/**
+	 * Resolves cache stored value identified by cache entry key. If cache is configured to use stream namespaces,
+	 * value is resolved from namespace of stream named {@code streamName} first, and from global namespace if stream
+	 * namespace has no value for that key.
+	 *
+	 * @param streamName
+	 *            name of stream to resolve value for, or {@code null} to use global namespace
+	 * @param cacheKey
+	 *            cache entry key
+	 * @return resolved cached value, {@code default entry value} if there is no data in cache for entry, or
+	 *         {@code null} if there is no such entry defined
+	 */
+	public static Object getValue(String streamName, String cacheKey) {
+		String namespace = resolveNamespace(streamName);
+		CacheValue value = namespace == null ? null : lookupValue(namespace, namespacedKey(namespace, cacheKey));
+		if (value == null) {
+			value = lookupValue(null, cacheKey);
+		}
 		if (value == null) {
 			CacheEntry cacheEntry = cacheEntries.get(cacheKey);
 			if (cacheEntry != null) {
@@ -285,6 +367,85 @@ public final class StreamsCache {
 		return value.value();
 	}
 
+	private static CacheValue lookupValue(String namespace, String key) {
+		Cache<String, CacheValue> vc = valuesCache;
+		CacheValue value = vc == null ? null : vc.getIfPresent(key);
+		totalStatistics.recordLookup(value != null);
+		if (namespace != null) {
+			getStatistics(namespace).recordLookup(value != null);
+		}
+		return value;
+	}
+
+	private static void putValue(String key, CacheValue value) {
+		valuesCache.put(key, value);
+		keysIndex.add(key);
+
+		StreamsCacheStore store = cacheStore;
+		if (store != null && !value.isTransient()) {
+			try {
+				store.logPut(key, value);
+			} catch (IOException exc) {
+				Utils.logThrowable(LOGGER, OpLevel.ERROR,
+						StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+						"StreamsCache.store.log.failed", exc);
+			}
+		}
+
+		totalStatistics.recordPut();
+		if (value.namespace != null) {
+			getStatistics(value.namespace).recordPut();
+		}
+	}
+
+	private static void onRemoval(RemovalNotification<String, CacheValue> notification) {
+		if (notification.getCause() == RemovalCause.REPLACED) {
+			return;
+		}
+
+		String key = notification.getKey();
+		if (key != null) {
+			keysIndex.remove(key);
+			// key may be put again while removal notification is processed
+			Cache<String, CacheValue> vc = valuesCache;
+			if (vc != null && vc.asMap().containsKey(key)) {
+				keysIndex.add(key);
+			} else {
+				StreamsCacheStore store = cacheStore;
+				if (store != null) {
+					try {
+						store.logRemove(key);
+					} catch (IOException exc) {
+						Utils.logThrowable(LOGGER, OpLevel.ERROR,
+								StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+								"StreamsCache.store.log.failed", exc);
+					}
+				}
+			}
+		}
+
+		if (notification.wasEvicted()) {
+			totalStatistics.recordEviction();
+			CacheValue value = notification.getValue();
+			if (value != null && value.namespace != null) {
+				getStatistics(value.namespace).recordEviction();
+			}
+		}
+	}
+
+	private static String resolveNamespace(String streamName) {
+		return streamNamespaces ? streamName : null;
+	}
+
+	private static String namespacedKey(String namespace, String key) {
+		return namespace == null ? key : namespace + NAMESPACE_DELIM + key;
+	}
+
+	private static String namespaceOf(String key) {
+		int dIdx = streamNamespaces && key != null ? key.indexOf(NAMESPACE_DELIM) : -1;
+		return dIdx > 0 ? key.substring(0, dIdx) : null;
+	}
+
 	private static boolean isInvalidCacheEntryValue(String val) {
 		return val == null || Utils.isVariableExpression(val);
 	}
@@ -308,11 +469,18 @@ public final class StreamsCache {
 
 		if (valuesCache != null) {
 			if (persistenceOn) {
-				persist(valuesCache.asMap());
+				if (cacheStore != null) {
+					compactStore();
+				} else {
+					persist(valuesCache.asMap());
+				}
 			}
+			closeStore();
 			valuesCache.invalidateAll();
 		}
+		keysIndex.clear();
 		cacheEntries.clear();
+		keyTemplates.clear();
 	}
 
 	/**
@@ -331,19 +499,37 @@ public final class StreamsCache {
 	 *            cache entry key fragment
 	 */
 	public static void clearValues(String entryKey) {
-		if (valuesCache != null) {
-			Map<String, CacheValue> cEntries = valuesCache.asMap();
-			List<String> keyList = new ArrayList<>();
-			for (Map.Entry<String, CacheValue> ce : cEntries.entrySet()) {
-				if (ce.getKey().startsWith(entryKey)) {
-					keyList.add(ce.getKey());
-				}
-			}
+		clearValues(null, entryKey);
+	}
 
-			valuesCache.invalidateAll(keyList);
+	/**
+	 * Cleans cache stored values for entries having key fragment defined by {@code entryKey}. If cache is configured to
+	 * use stream namespaces, values are cleaned in namespace of stream named {@code streamName}.
+	 *
+	 * @param streamName
+	 *            name of stream to clean values for, or {@code null} to use global namespace
+	 * @param entryKey
+	 *            cache entry key fragment
+	 */
+	public static void clearValues(String streamName, String entryKey) {
+		Cache<String, CacheValue> vc = valuesCache;
+		if (vc != null) {
+			vc.invalidateAll(keysStarting(namespacedKey(resolveNamespace(streamName), entryKey)));
 		}
 	}
 
+	private static List<String> keysStarting(String keyPrefix) {
+		List<String> keyList = new ArrayList<>();
+		for (String key : keysIndex.tailSet(keyPrefix, true)) {
+			if (!key.startsWith(keyPrefix)) {
+				break;
+			}
+			keyList.add(key);
+		}
+
+		return keyList;
+	}
+
 	/**
 	 * Adds stream-cache reference.
 	 */
@@ -420,11 +606,32 @@ public final class StreamsCache {
 		return maxSize;
 	}
 
+	/**
+	 * Returns statistics of all cache values lookups, puts and evictions.
+	 *
+	 * @return cache statistics
+	 */
+	public static CacheStatistics getStatistics() {
+		return totalStatistics;
+	}
+
+	/**
+	 * Returns statistics of cache values lookups, puts and evictions made in namespace of stream named
+	 * {@code streamName}.
+	 *
+	 * @param streamName
+	 *            stream name
+	 * @return stream namespace cache statistics
+	 */
+	public static CacheStatistics getStatistics(String streamName) {
+		return namespaceStatistics.computeIfAbsent(streamName, k -> new CacheStatistics());
+	}
+
 	private static void loadPersisted() {
 		try {
 			JAXBContext jc = JAXBContext.newInstance(CacheRoot.class);
 			Unmarshaller unmarshaller = jc.createUnmarshaller();
-			File persistedFile = new File(fileName);
+			File persistedFile = new File(getFileName());
 			LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 					"StreamsCache.loading.file", persistedFile.getAbsolutePath());
 			if (!persistedFile.exists()) {
@@ -439,6 +646,7 @@ public final class StreamsCache {
 			if (MapUtils.isNotEmpty(mapProperty)) {
 				for (Map.Entry<String, CacheValue> entry : mapProperty.entrySet()) {
 					valuesCache.put(entry.getKey(), entry.getValue());
+					keysIndex.add(entry.getKey());
 				}
 			}
 			LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
@@ -450,6 +658,83 @@ public final class StreamsCache {
 		}
 	}
 
+	private static String getFileName() {
+		if (fileName != null) {
+			return fileName;
+		}
+
+		return persistingFormat == PersistingFormat.BINARY ? DEFAULT_BINARY_FILE_NAME : DEFAULT_FILE_NAME;
+	}
+
+	private static void openStore() {
+		StreamsCacheStore store = new StreamsCacheStore(getFileName());
+		File persistedFile = store.getSnapshotFile();
+		try {
+			LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"StreamsCache.loading.file", persistedFile.getAbsolutePath());
+			long count = store.load((key, value) -> {
+				valuesCache.put(key, value);
+				keysIndex.add(key);
+			}, key -> valuesCache.invalidate(key));
+			LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"StreamsCache.loading.done", count, persistedFile.getAbsolutePath());
+		} catch (IOException exc) {
+			Utils.logThrowable(LOGGER, OpLevel.ERROR, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"StreamsCache.loading.failed", exc);
+		}
+
+		try {
+			store.open();
+			cacheStore = store;
+		} catch (IOException exc) {
+			Utils.logThrowable(LOGGER, OpLevel.ERROR, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"StreamsCache.persisting.failed", exc);
+		}
+	}
+
+	private static void persist() {
+		StreamsCacheStore store = cacheStore;
+		if (store == null) {
+			persist(valuesCache.asMap());
+			return;
+		}
+
+		try {
+			store.flush();
+		} catch (IOException exc) {
+			Utils.logThrowable(LOGGER, OpLevel.ERROR, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"StreamsCache.persisting.failed", exc);
+		}
+		if (store.isCompactionNeeded(valuesCache.size())) {
+			compactStore();
+		}
+	}
+
+	private static void compactStore() {
+		StreamsCacheStore store = cacheStore;
+		if (store == null) {
+			return;
+		}
+
+		File persistedFile = store.getSnapshotFile();
+		try {
+			LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"StreamsCache.persisting.file", persistedFile.getAbsolutePath());
+			long count = store.compact(valuesCache.asMap());
+			LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"StreamsCache.persisting.done", count, persistedFile.getAbsolutePath());
+		} catch (IOException exc) {
+			Utils.logThrowable(LOGGER, OpLevel.ERROR, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"StreamsCache.persisting.failed", exc);
+		}
+	}
+
+	private static void closeStore() {
+		StreamsCacheStore store = cacheStore;
+		cacheStore = null;
+		Utils.close(store);
+	}
+
 	private static void persist(Map<String, CacheValue> cacheEntries) {
 		try {
 			JAXBContext jc = JAXBContext.newInstance(CacheRoot.class);
@@ -457,7 +742,7 @@ public final class StreamsCache {
 			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
 			CacheRoot root = new CacheRoot();
 			root.setEntriesMap(cacheEntries);
-			File persistedFile = new File(fileName);
+			File persistedFile = new File(getFileName());
 			File parentPath = persistedFile.getParentFile();
 			if (parentPath != null) {
 				parentPath.mkdirs();
@@ -500,29 +785,49 @@ public final class StreamsCache {
 			initialize();
 		}
 
-		valuesCache.put(key, new CacheValue(value, transientValue));
+		putValue(key, new CacheValue(value, transientValue));
 	}
 
 	/**
 	 * Finds all cache stored values having keys prefixed with {@code keyPrefix} string and puts them into new map
 	 * instance. All found values are removed from this cache afterwards.
-	 * 
+	 * <p>
+	 * Values are looked up using sorted cache keys index, so only keys having {@code keyPrefix} are visited.
+	 *
 	 * @param keyPrefix
 	 *            cache value entry key prefix
 	 * @return cache values map, having keys prefixed with {@code keyPrefix} string
 	 */
 	public static Map<String, Object> drainValuesStarting(String keyPrefix) {
+		return drainValuesStarting(null, keyPrefix);
+	}
+
+	/**
+	 * Finds all cache stored values having keys prefixed with {@code keyPrefix} string and puts them into new map
+	 * instance. All found values are removed from this cache afterwards. If cache is configured to use stream
+	 * namespaces, values are drained from namespace of stream named {@code streamName}, and returned map keys have no
+	 * namespace prefix.
+	 *
+	 * @param streamName
+	 *            name of stream to drain values for, or {@code null} to use global namespace
+	 * @param keyPrefix
+	 *            cache value entry key prefix
+	 * @return cache values map, having keys prefixed with {@code keyPrefix} string
+	 */
+	public static Map<String, Object> drainValuesStarting(String streamName, String keyPrefix) {
 		Map<String, Object> vMap = new HashMap<>();
 
-		if (valuesCache != null) {
-			Map<String, CacheValue> cEntries = valuesCache.asMap();
-			for (Map.Entry<String, CacheValue> ce : cEntries.entrySet()) {
-				if (ce.getKey().startsWith(keyPrefix)) {
-					vMap.put(ce.getKey(), ce.getValue().value());
+		Cache<String, CacheValue> vc = valuesCache;
+		if (vc != null) {
+			String namespace = resolveNamespace(streamName);
+			int nsLength = namespace == null ? 0 : namespace.length() + NAMESPACE_DELIM.length();
+			Map<String, CacheValue> cEntries = vc.asMap();
+			for (String key : keysStarting(namespacedKey(namespace, keyPrefix))) {
+				CacheValue value = cEntries.remove(key);
+				if (value != null) {
+					vMap.put(key.substring(nsLength), value.value());
 				}
 			}
-
-			valuesCache.invalidateAll(vMap.keySet());
 		}
 
 		return vMap;
@@ -538,6 +843,9 @@ public final class StreamsCache {
 		private Object defaultValue;
 		private boolean transientEntry = false;
 
+		private final PatternTemplate keyTemplate;
+		private final PatternTemplate valueTemplate;
+
 		/**
 		 * Constructs new CacheEntry.
 		 *
@@ -574,6 +882,9 @@ public final class StreamsCache {
 			this.value = value;
 			this.defaultValue = defaultValue;
 			this.transientEntry = transientEntry;
+
+			this.keyTemplate = new PatternTemplate(key);
+			this.valueTemplate = new PatternTemplate(value);
 		}
 
 		/**
@@ -647,14 +958,20 @@ public final class StreamsCache {
 	public static class CacheValue {
 		private Object value;
 		private boolean transientValue = false;
+		private String namespace;
 
 		public CacheValue(Object value) {
 			this(value, false);
 		}
 
 		public CacheValue(Object value, boolean transientValue) {
+			this(value, transientValue, null);
+		}
+
+		public CacheValue(Object value, boolean transientValue, String namespace) {
 			this.value = value;
 			this.transientValue = transientValue;
+			this.namespace = namespace;
 		}
 
 		public Object value() {
@@ -664,6 +981,149 @@ public final class StreamsCache {
 		public boolean isTransient() {
 			return transientValue;
 		}
+
+		public String getNamespace() {
+			return namespace;
+		}
+	}
+
+	/**
+	 * Cache entries persisting formats.
+	 */
+	public enum PersistingFormat {
+		/**
+		 * Whole cache contents marshaled as XML document.
+		 */
+		XML,
+		/**
+		 * Binary cache snapshot and append-only changes log.
+		 */
+		BINARY
+	}
+
+	/**
+	 * Cache entry key or value pattern compiled to sequence of literal and variable parts.
+	 */
+	private static final class PatternTemplate {
+		private final String pattern;
+		private final String[] literals;
+		private final String[] vars;
+
+		private PatternTemplate(String pattern) {
+			this.pattern = pattern;
+
+			List<String> varsList = new ArrayList<>();
+			Utils.resolveCfgVariables(varsList, pattern);
+			vars = varsList.toArray(new String[0]);
+			literals = new String[vars.length + 1];
+
+			int pos = 0;
+			for (int i = 0; i < vars.length; i++) {
+				int vIdx = pattern.indexOf(vars[i], pos);
+				literals[i] = pattern.substring(pos, vIdx);
+				pos = vIdx + vars[i].length();
+			}
+			literals[vars.length] = pattern == null ? null : pattern.substring(pos);
+		}
+
+		private String fill(ActivityInfo ai, String parserName) {
+			if (vars.length == 0) {
+				return pattern;
+			}
+
+			StringBuilder sb = new StringBuilder(pattern.length() + 32);
+			for (int i = 0; i < vars.length; i++) {
+				sb.append(literals[i]);
+				Object fieldValue = PARSER_NAME_VAR.equals(vars[i]) ? parserName : ai.getFieldValue(vars[i]);
+				sb.append(fieldValue == null ? vars[i] : Utils.toString(fieldValue));
+			}
+			sb.append(literals[vars.length]);
+
+			return sb.toString();
+		}
+
+		private Object fillValue(ActivityInfo ai, String parserName) {
+			return vars.length == 1 ? ai.getFieldValue(vars[0]) : fill(ai, parserName);
+		}
+	}
+
+	/**
+	 * Accounts cache values lookups hits and misses, puts and evictions.
+	 */
+	public static final class CacheStatistics {
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		private final LongAdder puts = new LongAdder();
+		private final LongAdder evictions = new LongAdder();
+
+		private void recordLookup(boolean hit) {
+			if (hit) {
+				hits.increment();
+			} else {
+				misses.increment();
+			}
+		}
+
+		private void recordPut() {
+			puts.increment();
+		}
+
+		private void recordEviction() {
+			evictions.increment();
+		}
+
+		/**
+		 * Returns count of cache lookups having value found.
+		 *
+		 * @return cache hits count
+		 */
+		public long getHitCount() {
+			return hits.sum();
+		}
+
+		/**
+		 * Returns count of cache lookups having no value found.
+		 *
+		 * @return cache misses count
+		 */
+		public long getMissCount() {
+			return misses.sum();
+		}
+
+		/**
+		 * Returns ratio of cache lookups having value found. If there were no lookups made, {@code 1.0} is returned.
+		 *
+		 * @return cache hits ratio
+		 */
+		public double getHitRate() {
+			long hitCount = getHitCount();
+			long lookupCount = hitCount + getMissCount();
+			return lookupCount == 0 ? 1.0 : (double) hitCount / lookupCount;
+		}
+
+		/**
+		 * Returns count of values put into cache.
+		 *
+		 * @return cache puts count
+		 */
+		public long getPutCount() {
+			return puts.sum();
+		}
+
+		/**
+		 * Returns count of values evicted from cache because of size limit or expiration.
+		 *
+		 * @return cache evictions count
+		 */
+		public long getEvictionCount() {
+			return evictions.sum();
+		}
+
+		@Override
+		public String toString() {
+			return "CacheStatistics{hits=" + getHitCount() + ", misses=" + getMissCount() // NON-NLS
+					+ ", puts=" + getPutCount() + ", evictions=" + getEvictionCount() + "}"; // NON-NLS
+		}
 	}
 
 	/**
@@ -693,7 +1153,7 @@ public final class StreamsCache {
 		public Map<String, CacheValue> unmarshal(MapEntry[] mapElements) throws Exception {
 			Map<String, CacheValue> r = new ConcurrentHashMap<>(mapElements.length);
 			for (MapEntry mapElement : mapElements) {
-				r.put(mapElement.key, new CacheValue(mapElement.getValue()));
+				r.put(mapElement.key, new CacheValue(mapElement.getValue(), false, namespaceOf(mapElement.key)));
 				LOGGER.log(OpLevel.TRACE, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 						"StreamsCache.entry.unmarshal", mapElement.key, Utils.toString(mapElement.getValue()));
 			}
@@ -0,0 +1,652 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.core.UsecTimestamp;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+
+/**
+ * Binary streams cache persistence store, consisting of cache entries snapshot file and append-only cache changes
+ * (write-ahead) log file.
+ * <p>
+ * Every cache value put or removal is appended to changes log. Change records are encoded by thread changing cache and
+ * handed over to single log writer thread through lock-free queue, so cache changes are not serialized by log file
+ * writes. When changes log gets larger than cache itself, store is compacted: current changes log is rotated, new
+ * snapshot is written from cache contents and rotated log is deleted only when written snapshot has been read back
+ * and validated. On load, snapshot file and changes logs are memory-mapped and replayed in order of writing.
+ * <p>
+ * Snapshot and log files consist of length prefixed records, so torn records left by abnormal termination are
+ * skipped. Changes logs are truncated to the end of last valid record before appending new records. Snapshot is
+ * written atomically, so snapshot having invalid record is treated as corrupt: it is moved aside, and cache is loaded
+ * from changes logs only.
+ *
+ * @version $Revision: 3 $
+ */
+final class StreamsCacheStore implements Closeable {
+	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(StreamsCacheStore.class);
+
+	private static final int SNAPSHOT_MAGIC = 0x544E5443; // 'TNTC'
+	private static final byte FORMAT_VERSION = 1;
+
+	private static final String LOG_FILE_SUFFIX = ".log"; // NON-NLS
+	private static final String ROTATED_LOG_FILE_SUFFIX = ".log.1"; // NON-NLS
+	private static final String TMP_FILE_SUFFIX = ".tmp"; // NON-NLS
+	private static final String CORRUPT_FILE_SUFFIX = ".corrupt"; // NON-NLS
+
+	private static final byte OP_PUT = 1;
+	private static final byte OP_REMOVE = 2;
+
+	private static final byte T_NULL = 0;
+	private static final byte T_STRING = 1;
+	private static final byte T_INT = 2;
+	private static final byte T_LONG = 3;
+	private static final byte T_DOUBLE = 4;
+	private static final byte T_FLOAT = 5;
+	private static final byte T_BOOLEAN = 6;
+	private static final byte T_DATE = 7;
+	private static final byte T_BYTES = 8;
+	private static final byte T_SHORT = 9;
+	private static final byte T_BYTE = 10;
+	private static final byte T_BIG_DECIMAL = 11;
+	private static final byte T_BIG_INTEGER = 12;
+	private static final byte T_USEC_TIMESTAMP = 13;
+	private static final byte T_XML_CALENDAR = 14;
+
+	private static final long WRITER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private static final ThreadLocal<RecordEncoder> RECORD_ENCODER = ThreadLocal.withInitial(RecordEncoder::new);
+
+	private final File snapshotFile;
+	private final File logFile;
+	private final File rotatedLogFile;
+
+	private final Queue<byte[]> pendingRecords = new ConcurrentLinkedQueue<>();
+	private final Object compactionLock = new Object();
+	private DataOutputStream logOut;
+	private long logRecordsCount;
+	private volatile Thread logWriter;
+
+	/**
+	 * Constructs a new StreamsCacheStore.
+	 *
+	 * @param fileName
+	 *            cache snapshot file name, changes log file names are derived from it
+	 */
+	StreamsCacheStore(String fileName) {
+		snapshotFile = new File(fileName);
+		logFile = new File(fileName + LOG_FILE_SUFFIX);
+		rotatedLogFile = new File(fileName + ROTATED_LOG_FILE_SUFFIX);
+	}
+
+	/**
+	 * Returns cache snapshot file.
+	 *
+	 * @return cache snapshot file
+	 */
+	File getSnapshotFile() {
+		return snapshotFile;
+	}
+
+	/**
+	 * Loads persisted cache values from snapshot and changes log files. If snapshot file is corrupt, it is moved aside
+	 * and only changes logs are replayed.
+	 *
+	 * @param putConsumer
+	 *            consumer of loaded cache value put
+	 * @param removeConsumer
+	 *            consumer of loaded cache value removal
+	 * @return count of loaded records
+	 *
+	 * @throws IOException
+	 *             if snapshot or changes log file can't be read
+	 */
+	synchronized long load(BiConsumer<String, StreamsCache.CacheValue> putConsumer,
+			Consumer<String> removeConsumer) throws IOException {
+		long count = replaySnapshot(putConsumer);
+		count += replay(rotatedLogFile, false, putConsumer, removeConsumer);
+		long logCount = replay(logFile, false, putConsumer, removeConsumer);
+		logRecordsCount = logCount;
+
+		return count + logCount;
+	}
+
+	private long replaySnapshot(BiConsumer<String, StreamsCache.CacheValue> putConsumer) throws IOException {
+		Map<String, StreamsCache.CacheValue> entries = new LinkedHashMap<>();
+		long count;
+		try {
+			count = replay(snapshotFile, true, entries::put, entries::remove);
+		} catch (IOException exc) {
+			File corruptFile = new File(snapshotFile.getPath() + CORRUPT_FILE_SUFFIX);
+			Utils.logThrowable(LOGGER, OpLevel.ERROR, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+					"StreamsCache.store.snapshot.skipped", snapshotFile.getAbsolutePath(),
+					corruptFile.getAbsolutePath(), exc);
+			Files.move(snapshotFile.toPath(), corruptFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return 0;
+		}
+
+		entries.forEach(putConsumer);
+		return count;
+	}
+
+	private static long replay(File file, boolean snapshot, BiConsumer<String, StreamsCache.CacheValue> putConsumer,
+			Consumer<String> removeConsumer) throws IOException {
+		if (!file.isFile() || file.length() == 0) {
+			return 0;
+		}
+
+		long[] countAndLength = replayRecords(file, snapshot, putConsumer, removeConsumer);
+		if (!snapshot && countAndLength[1] < file.length()) {
+			// torn record left by abnormal termination, records appended after it would not be replayed
+			truncate(file, countAndLength[1]);
+		}
+
+		return countAndLength[0];
+	}
+
+	private static void truncate(File file, long validLength) throws IOException {
+		LOGGER.log(OpLevel.WARNING, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+				"StreamsCache.store.truncating", file.getAbsolutePath(), file.length(), validLength);
+		try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+			fc.truncate(validLength);
+			fc.force(true);
+		}
+	}
+
+	private static long[] replayRecords(File file, boolean snapshot,
+			BiConsumer<String, StreamsCache.CacheValue> putConsumer, Consumer<String> removeConsumer)
+			throws IOException {
+		long count = 0;
+		long validLength = 0;
+		try (FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+			if (snapshot) {
+				if (buffer.remaining() < 5 || buffer.getInt() != SNAPSHOT_MAGIC || buffer.get() != FORMAT_VERSION) {
+					throw invalidSnapshot(file);
+				}
+			}
+			validLength = buffer.position();
+
+			while (buffer.remaining() >= 4) {
+				int recordLength = buffer.getInt();
+				if (recordLength <= 0 || recordLength > buffer.remaining()) {
+					if (snapshot) {
+						throw invalidSnapshot(file);
+					}
+					break; // torn record
+				}
+				ByteBuffer record = buffer.slice();
+				record.limit(recordLength);
+				buffer.position(buffer.position() + recordLength);
+
+				try {
+					byte op = record.get();
+					String key = readString(record);
+					if (op == OP_PUT) {
+						String namespace = record.get() == 0 ? null : readString(record);
+						Object value = readValue(record);
+						putConsumer.accept(key, new StreamsCache.CacheValue(value, false, namespace));
+					} else if (op == OP_REMOVE) {
+						removeConsumer.accept(key);
+					}
+					count++;
+					validLength = buffer.position();
+				} catch (BufferUnderflowException | IllegalArgumentException | IllegalStateException
+						| NegativeArraySizeException exc) {
+					if (snapshot) {
+						throw invalidSnapshot(file);
+					}
+					break;
+				}
+			}
+			if (snapshot && buffer.hasRemaining()) {
+				throw invalidSnapshot(file);
+			}
+		}
+
+		return new long[] { count, validLength };
+	}
+
+	private static IOException invalidSnapshot(File file) {
+		return new IOException(StreamsResources.getStringFormatted(StreamsResources.RESOURCE_BUNDLE_NAME,
+				"StreamsCache.store.invalid.snapshot", file.getAbsolutePath()));
+	}
+
+	/**
+	 * Opens changes log file for appending.
+	 *
+	 * @throws IOException
+	 *             if changes log file can't be opened
+	 */
+	synchronized void open() throws IOException {
+		openLog();
+
+		if (logWriter == null) {
+			Thread writer = new Thread(this::writeLog, "StreamsCacheStore.LogWriter"); // NON-NLS
+			writer.setDaemon(true);
+			logWriter = writer;
+			writer.start();
+		}
+	}
+
+	private void openLog() throws IOException {
+		File parentPath = logFile.getAbsoluteFile().getParentFile();
+		if (parentPath != null) {
+			parentPath.mkdirs();
+		}
+		logOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true), 64 * 1024));
+	}
+
+	private void writeLog() {
+		Thread writer = Thread.currentThread();
+		while (logWriter == writer) {
+			try {
+				writePendingRecords();
+			} catch (IOException exc) {
+				Utils.logThrowable(LOGGER, OpLevel.ERROR,
+						StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+						"StreamsCache.store.log.failed", exc);
+			}
+			LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+		}
+	}
+
+	private synchronized void writePendingRecords() throws IOException {
+		byte[] record;
+		while ((record = pendingRecords.poll()) != null) {
+			if (logOut != null) {
+				logOut.write(record);
+				logRecordsCount++;
+			}
+		}
+	}
+
+	/**
+	 * Appends cache value put record to changes log.
+	 *
+	 * @param key
+	 *            cache value key
+	 * @param value
+	 *            cache value
+	 *
+	 * @throws IOException
+	 *             if record can't be appended to changes log
+	 */
+	void logPut(String key, StreamsCache.CacheValue value) throws IOException {
+		if (logWriter != null) {
+			RecordEncoder encoder = RECORD_ENCODER.get();
+			encoder.reset();
+			writePut(encoder.out, key, value);
+			pendingRecords.offer(encoder.toRecord());
+		}
+	}
+
+	/**
+	 * Appends cache value removal record to changes log.
+	 *
+	 * @param key
+	 *            cache value key
+	 *
+	 * @throws IOException
+	 *             if record can't be appended to changes log
+	 */
+	void logRemove(String key) throws IOException {
+		if (logWriter != null) {
+			RecordEncoder encoder = RECORD_ENCODER.get();
+			encoder.reset();
+			encoder.out.writeByte(OP_REMOVE);
+			writeString(encoder.out, key);
+			pendingRecords.offer(encoder.toRecord());
+		}
+	}
+
+	/**
+	 * Writes pending and flushes buffered changes log records to file.
+	 *
+	 * @throws IOException
+	 *             if flushing fails
+	 */
+	synchronized void flush() throws IOException {
+		writePendingRecords();
+		if (logOut != null) {
+			logOut.flush();
+		}
+	}
+
+	/**
+	 * Checks whether changes log has more records than cache has entries, so it is cheaper to write new snapshot than
+	 * to keep replaying changes log.
+	 *
+	 * @param entriesCount
+	 *            cache entries count
+	 * @return {@code true} if store should be compacted, {@code false} - otherwise
+	 */
+	synchronized boolean isCompactionNeeded(long entriesCount) {
+		return logRecordsCount > 0 && logRecordsCount >= entriesCount;
+	}
+
+	/**
+	 * Compacts store by writing new cache snapshot. Changes log is rotated before snapshot is written, so cache changes
+	 * made while snapshot is being written are preserved in new changes log. Rotated changes log is deleted only when
+	 * written snapshot has been read back and validated, otherwise it is kept and replayed on next load.
+	 *
+	 * @param entries
+	 *            cache entries map
+	 * @return count of entries written to snapshot
+	 *
+	 * @throws IOException
+	 *             if snapshot writing fails
+	 */
+	long compact(Map<String, StreamsCache.CacheValue> entries) throws IOException {
+		synchronized (compactionLock) {
+			rotateLog();
+			long count = writeSnapshot(entries);
+			validateSnapshot(count);
+			Files.deleteIfExists(rotatedLogFile.toPath());
+
+			return count;
+		}
+	}
+
+	private synchronized void rotateLog() throws IOException {
+		boolean opened = logOut != null;
+		writePendingRecords();
+		closeLog();
+		if (logFile.exists()) {
+			if (rotatedLogFile.exists()) {
+				// previous compaction has failed, so rotated log records are still needed
+				try (OutputStream out = new FileOutputStream(rotatedLogFile, true)) {
+					Files.copy(logFile.toPath(), out);
+				}
+				Files.delete(logFile.toPath());
+			} else {
+				Files.move(logFile.toPath(), rotatedLogFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		logRecordsCount = 0;
+		if (opened) {
+			openLog();
+		}
+	}
+
+	private long writeSnapshot(Map<String, StreamsCache.CacheValue> entries) throws IOException {
+		File tmpFile = new File(snapshotFile.getPath() + TMP_FILE_SUFFIX);
+		File parentPath = tmpFile.getAbsoluteFile().getParentFile();
+		if (parentPath != null) {
+			parentPath.mkdirs();
+		}
+
+		long count = 0;
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		DataOutputStream bufferOut = new DataOutputStream(buffer);
+		try (FileOutputStream fos = new FileOutputStream(tmpFile);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 64 * 1024))) {
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeByte(FORMAT_VERSION);
+			for (Map.Entry<String, StreamsCache.CacheValue> entry : entries.entrySet()) {
+				if (entry.getValue().isTransient()) {
+					continue;
+				}
+				buffer.reset();
+				writePut(bufferOut, entry.getKey(), entry.getValue());
+				out.writeInt(buffer.size());
+				buffer.writeTo(out);
+				count++;
+			}
+			out.flush();
+			fos.getFD().sync();
+		}
+
+		Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+		return count;
+	}
+
+	private void validateSnapshot(long expectedCount) throws IOException {
+		long[] countAndLength = replayRecords(snapshotFile, true, (key, value) -> {
+			// only validating records
+		}, key -> {
+			// snapshot has no removal records
+		});
+		if (countAndLength[0] != expectedCount) {
+			throw invalidSnapshot(snapshotFile);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		Thread writer = logWriter;
+		logWriter = null;
+		if (writer != null) {
+			LockSupport.unpark(writer);
+			try {
+				writer.join(TimeUnit.SECONDS.toMillis(5));
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		synchronized (this) {
+			writePendingRecords();
+			closeLog();
+		}
+	}
+
+	private synchronized void closeLog() throws IOException {
+		if (logOut != null) {
+			try {
+				logOut.close();
+			} finally {
+				logOut = null;
+			}
+		}
+	}
+
+	private static void writePut(DataOutputStream out, String key, StreamsCache.CacheValue value) throws IOException {
+		out.writeByte(OP_PUT);
+		writeString(out, key);
+		if (value.getNamespace() == null) {
+			out.writeByte(0);
+		} else {
+			out.writeByte(1);
+			writeString(out, value.getNamespace());
+		}
+		writeValue(out, value.value());
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(T_NULL);
+		} else if (value instanceof String) {
+			out.writeByte(T_STRING);
+			writeString(out, (String) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(T_INT);
+			out.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			out.writeByte(T_LONG);
+			out.writeLong((Long) value);
+		} else if (value instanceof Double) {
+			out.writeByte(T_DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Float) {
+			out.writeByte(T_FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof Boolean) {
+			out.writeByte(T_BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof Short) {
+			out.writeByte(T_SHORT);
+			out.writeShort((Short) value);
+		} else if (value instanceof Byte) {
+			out.writeByte(T_BYTE);
+			out.writeByte((Byte) value);
+		} else if (value instanceof Date) {
+			out.writeByte(T_DATE);
+			out.writeLong(((Date) value).getTime());
+		} else if (value instanceof XMLGregorianCalendar) {
+			out.writeByte(T_XML_CALENDAR);
+			writeString(out, ((XMLGregorianCalendar) value).toXMLFormat());
+		} else if (value instanceof UsecTimestamp) {
+			out.writeByte(T_USEC_TIMESTAMP);
+			out.writeLong(((UsecTimestamp) value).getTimeUsec());
+		} else if (value instanceof byte[]) {
+			byte[] bytes = (byte[]) value;
+			out.writeByte(T_BYTES);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		} else if (value instanceof BigDecimal) {
+			out.writeByte(T_BIG_DECIMAL);
+			writeString(out, value.toString());
+		} else if (value instanceof BigInteger) {
+			out.writeByte(T_BIG_INTEGER);
+			writeString(out, value.toString());
+		} else {
+			out.writeByte(T_STRING);
+			writeString(out, Utils.toString(value));
+		}
+	}
+
+	private static Object readValue(ByteBuffer buffer) {
+		byte type = buffer.get();
+		switch (type) {
+		case T_STRING:
+			return readString(buffer);
+		case T_INT:
+			return buffer.getInt();
+		case T_LONG:
+			return buffer.getLong();
+		case T_DOUBLE:
+			return buffer.getDouble();
+		case T_FLOAT:
+			return buffer.getFloat();
+		case T_BOOLEAN:
+			return buffer.get() != 0;
+		case T_SHORT:
+			return buffer.getShort();
+		case T_BYTE:
+			return buffer.get();
+		case T_DATE:
+			return new Date(buffer.getLong());
+		case T_BYTES:
+			byte[] bytes = new byte[buffer.getInt()];
+			buffer.get(bytes);
+			return bytes;
+		case T_BIG_DECIMAL:
+			return new BigDecimal(readString(buffer));
+		case T_BIG_INTEGER:
+			return new BigInteger(readString(buffer));
+		case T_USEC_TIMESTAMP:
+			return new UsecTimestamp(buffer.getLong());
+		case T_XML_CALENDAR:
+			return toXMLCalendar(readString(buffer));
+		case T_NULL:
+		default:
+			return null;
+		}
+	}
+
+	private static XMLGregorianCalendar toXMLCalendar(String lexicalValue) {
+		try {
+			return DatatypeFactory.newInstance().newXMLGregorianCalendar(lexicalValue);
+		} catch (DatatypeConfigurationException exc) {
+			throw new IllegalStateException(exc);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String str) throws IOException {
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		if (buffer.hasArray()) {
+			String str = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+					StandardCharsets.UTF_8);
+			buffer.position(buffer.position() + length);
+			return str;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Thread bound changes log record encoding buffer.
+	 */
+	private static final class RecordEncoder {
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		private final DataOutputStream out = new DataOutputStream(buffer);
+
+		/**
+		 * Resets buffer and reserves record length prefix.
+		 *
+		 * @throws IOException
+		 *             if length prefix can't be written
+		 */
+		void reset() throws IOException {
+			buffer.reset();
+			out.writeInt(0);
+		}
+
+		/**
+		 * Returns encoded record bytes prefixed with record length.
+		 *
+		 * @return length prefixed record bytes
+		 */
+		byte[] toRecord() {
+			byte[] record = buffer.toByteArray();
+			int length = record.length - 4;
+			record[0] = (byte) (length >>> 24);
+			record[1] = (byte) (length >>> 16);
+			record[2] = (byte) (length >>> 8);
+			record[3] = (byte) length;
+			return record;
+		}
+	}
+}
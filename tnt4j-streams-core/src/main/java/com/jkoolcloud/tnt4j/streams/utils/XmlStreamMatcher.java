@@ -0,0 +1,411 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import java.io.Reader;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Evaluates set of simple XPath location paths over XML document in a single pass using StAX, without building DOM
+ * document.
+ * <p>
+ * Supported XPath subset:
+ * <ul>
+ * <li>absolute ({@code /a/b}) and document relative ({@code a/b}) location paths built of child ({@code /}) and
+ * descendant ({@code //}) steps</li>
+ * <li>element name tests, optionally having namespace prefix, and wildcard {@code *} name test</li>
+ * <li>last path step selecting element attribute ({@code @name}) or element text nodes ({@code text()})</li>
+ * </ul>
+ * Expressions having predicates, functions, other axes or unions are not streamable, use {@link #isStreamable(String)}
+ * to check if expression can be evaluated by this matcher.
+ * <p>
+ * For element and attribute matches, matched value also provides attributes of matched (or owner) element, so values
+ * can be formatted the same way as DOM node values.
+ *
+ * @version $Revision: 1 $
+ */
+public class XmlStreamMatcher {
+	private static final Pattern NAME_TEST = Pattern
+			.compile("(?:[A-Za-z_][\\w.\\-]*:)?(?:[A-Za-z_][\\w.\\-]*|\\*)"); // NON-NLS
+	private static final String PATH_DELIM = "/"; // NON-NLS
+	private static final String TEXT_NODE_TEST = "text()"; // NON-NLS
+	private static final String WILDCARD = "*"; // NON-NLS
+
+	private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = ThreadLocal.withInitial(() -> {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return factory;
+	});
+
+	private final NamespaceMap namespaces;
+	private final boolean namespaceAware;
+
+	private final Map<String, List<Path>> pathsByName = new HashMap<>();
+	private final List<Path> wildcardPaths = new ArrayList<>();
+	private final int pathsCount;
+
+	/**
+	 * Constructs a new XmlStreamMatcher.
+	 *
+	 * @param xPaths
+	 *            collection of streamable XPath expressions to evaluate
+	 * @param namespaces
+	 *            namespace mappings used to resolve expressions namespace prefixes
+	 * @param namespaceAware
+	 *            flag indicating whether XML documents shall be read namespace aware
+	 *
+	 * @throws IllegalArgumentException
+	 *             if any of provided expressions is not streamable
+	 */
+	public XmlStreamMatcher(Collection<String> xPaths, NamespaceMap namespaces, boolean namespaceAware) {
+		this.namespaces = namespaces;
+		this.namespaceAware = namespaceAware;
+
+		Set<String> uniquePaths = new LinkedHashSet<>(xPaths);
+		for (String xPath : uniquePaths) {
+			Path path = Path.compile(xPath);
+			if (path == null) {
+				throw new IllegalArgumentException("XPath expression is not streamable: " + xPath); // NON-NLS
+			}
+			Step last = path.steps.get(path.steps.size() - 1);
+			if (WILDCARD.equals(last.localName)) {
+				wildcardPaths.add(path);
+			} else {
+				pathsByName.computeIfAbsent(last.localName, k -> new ArrayList<>(2)).add(path);
+			}
+		}
+		pathsCount = uniquePaths.size();
+	}
+
+	/**
+	 * Checks whether provided XPath expression belongs to subset of expressions this matcher can evaluate.
+	 *
+	 * @param xPath
+	 *            XPath expression to check
+	 * @return {@code true} if expression can be evaluated in streaming manner, {@code false} - otherwise
+	 */
+	public static boolean isStreamable(String xPath) {
+		return Path.compile(xPath) != null;
+	}
+
+	/**
+	 * Reads XML document from provided reader and collects values of all matcher expressions.
+	 *
+	 * @param reader
+	 *            XML document reader
+	 * @return map of expressions matched values, having values listed in document order. Map has no entries for
+	 *         expressions having no matches
+	 *
+	 * @throws XMLStreamException
+	 *             if XML document reading fails
+	 */
+	public Map<String, List<MatchedValue>> evaluate(Reader reader) throws XMLStreamException {
+		XMLInputFactory factory = INPUT_FACTORY.get();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, namespaceAware);
+
+		Map<String, List<MatchedValue>> results = new HashMap<>(pathsCount);
+		List<QName> elements = new ArrayList<>();
+		Deque<Frame> frames = new ArrayDeque<>();
+		List<Frame> contentFrames = new ArrayList<>();
+
+		XMLStreamReader xsr = factory.createXMLStreamReader(reader);
+		try {
+			while (xsr.hasNext()) {
+				switch (xsr.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					elements.add(xsr.getName());
+					if (elements.size() == 1 && namespaceAware) {
+						resolveDocumentNamespaces(xsr);
+					}
+					Frame frame = matchElement(xsr, elements, results);
+					frames.push(frame);
+					if (frame.content != null) {
+						contentFrames.add(frame);
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					Frame ended = frames.pop();
+					if (ended.content != null) {
+						contentFrames.remove(contentFrames.size() - 1);
+						for (MatchedValue mv : ended.contentValues) {
+							mv.text = ended.content.toString();
+						}
+					}
+					elements.remove(elements.size() - 1);
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					if (frames.isEmpty()) {
+						break;
+					}
+					String text = xsr.getText();
+					for (Frame cf : contentFrames) {
+						cf.content.append(text);
+					}
+					Frame top = frames.peek();
+					if (top.textValues != null) {
+						for (List<MatchedValue> values : top.textValues) {
+							values.add(new MatchedValue(text, Collections.emptyMap()));
+						}
+					}
+					break;
+				default:
+					break;
+				}
+			}
+		} finally {
+			xsr.close();
+		}
+
+		return results;
+	}
+
+	private void resolveDocumentNamespaces(XMLStreamReader xsr) {
+		for (int i = 0; i < xsr.getNamespaceCount(); i++) {
+			String prefix = xsr.getNamespacePrefix(i);
+			namespaces.setPrefixUriMapping(prefix == null ? XMLConstants.DEFAULT_NS_PREFIX : prefix,
+					xsr.getNamespaceURI(i));
+		}
+	}
+
+	private Frame matchElement(XMLStreamReader xsr, List<QName> elements, Map<String, List<MatchedValue>> results) {
+		Frame frame = new Frame();
+		QName element = elements.get(elements.size() - 1);
+		Map<String, String> attrs = null;
+
+		String name = qualifiedName(element);
+		List<Path> candidates = pathsByName.get(name.substring(name.indexOf(':') + 1));
+		for (int c = 0; c < 2; c++) {
+			List<Path> paths = c == 0 ? candidates : wildcardPaths;
+			if (paths == null) {
+				continue;
+			}
+			for (Path path : paths) {
+				if (!path.matches(elements, this)) {
+					continue;
+				}
+				if (attrs == null) {
+					attrs = readAttributes(xsr);
+				}
+				List<MatchedValue> values = results.computeIfAbsent(path.xPath, k -> new ArrayList<>(2));
+				if (path.attribute != null) {
+					for (int i = 0; i < xsr.getAttributeCount(); i++) {
+						if (path.attribute.matches(xsr.getAttributeName(i), this)) {
+							values.add(new MatchedValue(xsr.getAttributeValue(i), attrs));
+						}
+					}
+				} else if (path.textNodes) {
+					if (frame.textValues == null) {
+						frame.textValues = new ArrayList<>(2);
+					}
+					frame.textValues.add(values);
+				} else {
+					MatchedValue mv = new MatchedValue("", attrs);
+					values.add(mv);
+					if (frame.content == null) {
+						frame.content = new StringBuilder();
+						frame.contentValues = new ArrayList<>(2);
+					}
+					frame.contentValues.add(mv);
+				}
+			}
+		}
+
+		return frame;
+	}
+
+	private static Map<String, String> readAttributes(XMLStreamReader xsr) {
+		int count = xsr.getAttributeCount();
+		if (count == 0) {
+			return Collections.emptyMap();
+		}
+		Map<String, String> attrs = new LinkedHashMap<>(count);
+		for (int i = 0; i < count; i++) {
+			attrs.put(qualifiedName(xsr.getAttributeName(i)), xsr.getAttributeValue(i));
+		}
+
+		return attrs;
+	}
+
+	private static String qualifiedName(QName name) {
+		return StringUtils.isEmpty(name.getPrefix()) ? name.getLocalPart()
+				: name.getPrefix() + ":" + name.getLocalPart(); // NON-NLS
+	}
+
+	/**
+	 * Value matched by streamed XPath expression.
+	 */
+	public static class MatchedValue {
+		private String text;
+		private final Map<String, String> attributes;
+
+		MatchedValue(String text, Map<String, String> attributes) {
+			this.text = text;
+			this.attributes = attributes;
+		}
+
+		/**
+		 * Returns matched node text: text content of element, attribute value or text node value.
+		 *
+		 * @return matched node text
+		 */
+		public String getText() {
+			return text;
+		}
+
+		/**
+		 * Returns attributes of matched element, or owner element of matched attribute. Text nodes have no attributes.
+		 *
+		 * @return map of element attributes, where key is attribute qualified name
+		 */
+		public Map<String, String> getAttributes() {
+			return attributes;
+		}
+
+		@Override
+		public String toString() {
+			return text;
+		}
+	}
+
+	private static class Frame {
+		private StringBuilder content;
+		private List<MatchedValue> contentValues;
+		private List<List<MatchedValue>> textValues;
+	}
+
+	private static class Step {
+		private final String prefix;
+		private final String localName;
+		private final boolean descendant;
+
+		Step(String nameTest, boolean descendant) {
+			int idx = nameTest.indexOf(':');
+			this.prefix = idx < 0 ? null : nameTest.substring(0, idx);
+			this.localName = idx < 0 ? nameTest : nameTest.substring(idx + 1);
+			this.descendant = descendant;
+		}
+
+		boolean matches(QName name, XmlStreamMatcher matcher) {
+			if (!matcher.namespaceAware) {
+				String nameTest = prefix == null ? localName : prefix + ":" + localName; // NON-NLS
+				return WILDCARD.equals(nameTest) || nameTest.equals(qualifiedName(name));
+			}
+			if (!WILDCARD.equals(localName) && !localName.equals(name.getLocalPart())) {
+				return false;
+			}
+			String uri = prefix == null ? XMLConstants.NULL_NS_URI : matcher.namespaces.getPrefixUriMapping(prefix);
+			return WILDCARD.equals(localName) && prefix == null || Objects.equals(uri, name.getNamespaceURI());
+		}
+	}
+
+	private static class Path {
+		private final String xPath;
+		private final List<Step> steps;
+		private final Step attribute;
+		private final boolean textNodes;
+
+		private Path(String xPath, List<Step> steps, Step attribute, boolean textNodes) {
+			this.xPath = xPath;
+			this.steps = steps;
+			this.attribute = attribute;
+			this.textNodes = textNodes;
+		}
+
+		static Path compile(String xPath) {
+			String expr = StringUtils.trim(xPath);
+			if (StringUtils.isEmpty(expr)) {
+				return null;
+			}
+
+			boolean descendant = expr.startsWith("//"); // NON-NLS
+			String[] tokens = expr.substring(descendant ? 2 : expr.startsWith(PATH_DELIM) ? 1 : 0).split(PATH_DELIM,
+					-1);
+			List<Step> steps = new ArrayList<>(tokens.length);
+			Step attribute = null;
+			boolean textNodes = false;
+			for (int i = 0; i < tokens.length; i++) {
+				String token = tokens[i].trim();
+				boolean last = i == tokens.length - 1;
+				if (token.isEmpty()) {
+					if (descendant || last) {
+						return null;
+					}
+					descendant = true;
+					continue;
+				}
+				if (last && token.startsWith("@")) { // NON-NLS
+					String name = token.substring(1);
+					if (!NAME_TEST.matcher(name).matches()) {
+						return null;
+					}
+					attribute = new Step(name, false);
+				} else if (last && TEXT_NODE_TEST.equals(token)) {
+					textNodes = true;
+				} else if (NAME_TEST.matcher(token).matches()) {
+					steps.add(new Step(token, descendant));
+					descendant = false;
+				} else {
+					return null;
+				}
+			}
+
+			if (steps.isEmpty() || descendant) {
+				return null;
+			}
+
+			return new Path(xPath, steps, attribute, textNodes);
+		}
+
+		boolean matches(List<QName> elements, XmlStreamMatcher matcher) {
+			return matches(steps.size() - 1, elements.size() - 1, elements, matcher);
+		}
+
+		private boolean matches(int stepIdx, int elementIdx, List<QName> elements, XmlStreamMatcher matcher) {
+			Step step = steps.get(stepIdx);
+			if (!step.matches(elements.get(elementIdx), matcher)) {
+				return false;
+			}
+			if (stepIdx == 0) {
+				return step.descendant || elementIdx == 0;
+			}
+			if (!step.descendant) {
+				return elementIdx > 0 && matches(stepIdx - 1, elementIdx - 1, elements, matcher);
+			}
+			for (int ei = elementIdx - 1; ei >= stepIdx - 1; ei--) {
+				if (matches(stepIdx - 1, ei, elements, matcher)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+	}
+}
@@ -21,6 +21,8 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.zip.CRC32;
@@ -29,6 +31,7 @@ import java.util.zip.Checksum;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.jkoolcloud.tnt4j.streams.inputs.AbstractFileLineStream;
 import com.jkoolcloud.tnt4j.streams.utils.Utils;
 
 /**
@@ -107,4 +110,58 @@ public class FileStreamStateHandlerTest {
 		fileWritten.delete();
 	}
 
+	@Test
+	public void checkLineOffset() throws Exception {
+		FileStreamStateHandler rwd = new FileStreamStateHandler();
+
+		Path testFile = Files.createTempFile("offsetState", ".log"); // NON-NLS
+		try {
+			Files.write(testFile,
+					"first line\r\nsecond line\nthird line\n".getBytes(StandardCharsets.UTF_8)); // NON-NLS
+
+			CRC32 crcLine = new CRC32();
+			crcLine.update("second line".getBytes(StandardCharsets.UTF_8)); // NON-NLS
+
+			FileAccessState newFAS = new FileAccessState();
+			newFAS.currentLineNumber = 2;
+			newFAS.currentLineCrc = crcLine.getValue();
+			newFAS.currentLineOffset = 12L;
+			newFAS.charsetName = StandardCharsets.UTF_8.name();
+			assertEquals(24L, rwd.checkLineOffset(testFile, newFAS));
+
+			newFAS.currentLineOffset = 0L;
+			assertEquals(-1L, rwd.checkLineOffset(testFile, newFAS));
+
+			newFAS.currentLineOffset = 100L;
+			assertEquals(-1L, rwd.checkLineOffset(testFile, newFAS));
+
+			newFAS.currentLineOffset = null;
+			assertEquals(-1L, rwd.checkLineOffset(testFile, newFAS));
+		} finally {
+			Files.delete(testFile);
+		}
+	}
+
+	@Test
+	public void saveMultiLineState() throws Exception {
+		Path testFile = Files.createTempFile("offsetState", ".log"); // NON-NLS
+		try {
+			Files.write(testFile, "first line\nsecond line\nthird line\n".getBytes(StandardCharsets.UTF_8)); // NON-NLS
+			FileStreamStateHandler rwd = new FileStreamStateHandler(new Path[] { testFile },
+					"saveMultiLineState" + System.nanoTime()); // NON-NLS
+			rwd.setStreamedFile(testFile);
+			rwd.setStreamedFileCharset(StandardCharsets.UTF_8);
+
+			String secondLine = "second line"; // NON-NLS
+			rwd.saveState(new AbstractFileLineStream.Line("first line\n" + secondLine, 2, 11, // NON-NLS
+					AbstractFileStreamStateHandler.getLineCrc(secondLine)), null);
+			rwd.saveState(new AbstractFileLineStream.Line("third line", 3), null); // NON-NLS
+
+			FileAccessState fas = rwd.getFileAccessState();
+			assertEquals(Long.valueOf(11), fas.currentLineOffset);
+			assertEquals(23L, rwd.checkLineOffset(testFile, fas));
+		} finally {
+			Files.delete(testFile);
+		}
+	}
 }
@@ -19,11 +19,14 @@ package com.jkoolcloud.tnt4j.streams.inputs;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.streams.configure.StreamProperties;
+import com.jkoolcloud.tnt4j.streams.utils.RingBufferQueue;
 
 /**
  * @author akausinis
@@ -31,6 +34,7 @@ import com.jkoolcloud.tnt4j.sink.EventSink;
  */
 public class AbstractBufferedStreamTest {
 	public boolean inputShouldEnd = false;
+	public boolean singleProducer = false;
 	AbstractBufferedStream<String> abs = new AbstractBufferedStreamTestStub();
 
 	@Test
@@ -41,6 +45,18 @@ public class AbstractBufferedStreamTest {
 		assertEquals("TEST", abs.getNextItem());
 	}
 
+	@Test
+	public void getNextItemFromBatchTest() throws Exception {
+		abs.startStream();
+		abs.setOwnerThread(mock(StreamThread.class));
+		assertTrue(abs.addInputBatchToBuffer(Arrays.asList("T1", "T2", "T3"))); // NON-NLS
+		abs.addInputToBuffer("T4"); // NON-NLS
+		assertEquals("T1", abs.getNextItem()); // NON-NLS
+		assertEquals("T2", abs.getNextItem()); // NON-NLS
+		assertEquals("T3", abs.getNextItem()); // NON-NLS
+		assertEquals("T4", abs.getNextItem()); // NON-NLS
+	}
+
 	@Test(expected = IllegalStateException.class)
 	public void getNextItemFailOnNullTest() throws Exception {
 		abs.addInputToBuffer(null);
@@ -76,6 +92,17 @@ public class AbstractBufferedStreamTest {
 		thread.interrupt();
 	}
 
+	@Test
+	public void singleProducerBufferFallbackTest() {
+		abs.setProperty(StreamProperties.PROP_BUFFER_TYPE, "RING_SPSC"); // NON-NLS
+		RingBufferQueue<?> buffer = (RingBufferQueue<?>) abs.createInputBuffer();
+		assertFalse(buffer.isSingleProducer());
+
+		singleProducer = true;
+		buffer = (RingBufferQueue<?>) abs.createInputBuffer();
+		assertTrue(buffer.isSingleProducer());
+	}
+
 	private class AbstractBufferedStreamTestStub extends AbstractBufferedStream<String> {
 		private EventSink es = mock(EventSink.class);
 
@@ -103,6 +130,11 @@ public class AbstractBufferedStreamTest {
 			return false;
 		}
 
+		@Override
+		protected boolean isSingleProducer() {
+			return singleProducer;
+		}
+
 	}
 
 	private int overflowRecordCount = 1024 * 10 + 1;
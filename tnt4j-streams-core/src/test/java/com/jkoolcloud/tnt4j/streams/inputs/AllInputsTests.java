@@ -25,7 +25,8 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ AbstractBufferedStreamTest.class, AbstractFileLineStreamTest.class, CharacterStreamTest.class,
-		FileLineStreamTest.class, HttpStreamTest.class, JavaInputStreamTest.class, StreamThreadTest.class,
-		TNTInputStreamTest.class, PipedStreamTest.class, RedirectTNT4JStreamTest.class, ZipLineStreamTest.class })
+		FileLineStreamTest.class, HttpStreamTest.class, JavaInputStreamTest.class, OrderedItemsSequencerTest.class,
+		StreamThreadTest.class, TNTInputStreamTest.class, PipedStreamTest.class, RedirectTNT4JStreamTest.class,
+		ZipLineStreamTest.class, ParsersRouterTest.class })
 public class AllInputsTests {
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.inputs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.jkoolcloud.tnt4j.streams.utils.LineSource;
+import com.jkoolcloud.tnt4j.streams.utils.PositionedLineReader;
+
+/**
+ * JMH benchmark comparing file lines reading throughput of {@link LineNumberReader} used by file line streams by
+ * default and {@link PositionedLineReader} reading file chunks into heap buffer or mapping them into memory.
+ * <p>
+ * Benchmark reads access log file defined by {@code benchmark.file} system property. If property is not set, access log
+ * file of size defined by {@code benchmark.file.size} system property in megabytes (default {@code 256}) is generated
+ * into temp directory, e.g. use {@code -Dbenchmark.file.size=5120} to run benchmark over 5 GB access log.
+ * <p>
+ * Run it using {@link #main(String[])} from test classpath.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class FileLineReadBenchmark {
+	private static final String LOG_LINE = "127.0.0.1 - frank [10/Oct/2023:13:55:36 -0700]" // NON-NLS
+			+ " \"GET /apache_pb.gif?id=%d HTTP/1.1\" 200 2326 \"http://www.example.com/start.html\"" // NON-NLS
+			+ " \"Mozilla/4.08 [en] (Win98; I ;Nav)\"\n"; // NON-NLS
+
+	private Path logFile;
+	private boolean generated;
+
+	@Setup
+	public void setup() throws IOException {
+		String fileName = System.getProperty("benchmark.file"); // NON-NLS
+		if (fileName != null) {
+			logFile = Paths.get(fileName);
+			return;
+		}
+
+		long size = Long.getLong("benchmark.file.size", 256) * 1024 * 1024; // NON-NLS
+		logFile = Files.createTempFile("access", ".log"); // NON-NLS
+		generated = true;
+		long written = 0;
+		try (BufferedWriter writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8)) {
+			for (int i = 0; written < size; i++) {
+				String line = String.format(LOG_LINE, i);
+				writer.write(line);
+				written += line.length();
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		if (generated) {
+			Files.deleteIfExists(logFile);
+		}
+	}
+
+	@Benchmark
+	public void lineNumberReader(Blackhole bh) throws IOException {
+		try (LineNumberReader reader = new LineNumberReader(
+				Files.newBufferedReader(logFile, StandardCharsets.UTF_8))) {
+			readLines(LineSource.of(reader), bh);
+		}
+	}
+
+	@Benchmark
+	public void channelReader(Blackhole bh) throws IOException {
+		try (PositionedLineReader reader = new PositionedLineReader(
+				FileChannel.open(logFile, StandardOpenOption.READ), StandardCharsets.UTF_8, 0, 0, false)) {
+			readLines(reader, bh);
+		}
+	}
+
+	@Benchmark
+	public void mappedReader(Blackhole bh) throws IOException {
+		try (PositionedLineReader reader = new PositionedLineReader(
+				FileChannel.open(logFile, StandardOpenOption.READ), StandardCharsets.UTF_8, 0, 0, true)) {
+			readLines(reader, bh);
+		}
+	}
+
+	private static void readLines(LineSource reader, Blackhole bh) throws IOException {
+		String line;
+		while ((line = reader.readLine()) != null) {
+			bh.consume(line);
+		}
+		bh.consume(reader.getLineNumber());
+	}
+
+	public static void main(String... args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(FileLineReadBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.inputs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @version 1.0
+ */
+public class OrderedItemsSequencerTest {
+
+	@Test
+	public void testOutputInReadOrder() {
+		List<Integer> out = new ArrayList<>();
+		OrderedItemsSequencer sequencer = new OrderedItemsSequencer((t, e) -> {
+		});
+
+		OrderedItemsSequencer.Ticket t0 = sequencer.nextTicket(null);
+		OrderedItemsSequencer.Ticket t1 = sequencer.nextTicket(null);
+		OrderedItemsSequencer.Ticket t2 = sequencer.nextTicket(null);
+
+		t2.complete(() -> out.add(2));
+		t1.complete(() -> out.add(1));
+		assertTrue(out.isEmpty());
+		assertEquals(3, sequencer.getPendingCount());
+
+		t0.complete(() -> out.add(0));
+		assertEquals(Arrays.asList(0, 1, 2), out);
+		assertEquals(0, sequencer.getPendingCount());
+		assertEquals(0, sequencer.getPartitionsCount());
+	}
+
+	@Test
+	public void testSkippedAndFailedItems() {
+		List<Integer> out = new ArrayList<>();
+		AtomicInteger failures = new AtomicInteger();
+		OrderedItemsSequencer sequencer = new OrderedItemsSequencer((t, e) -> failures.incrementAndGet());
+
+		OrderedItemsSequencer.Ticket t0 = sequencer.nextTicket(null);
+		OrderedItemsSequencer.Ticket t1 = sequencer.nextTicket(null);
+		OrderedItemsSequencer.Ticket t2 = sequencer.nextTicket(null);
+
+		t2.complete(() -> out.add(2));
+		t1.complete(() -> {
+			throw new IllegalStateException("output failed"); // NON-NLS
+		});
+		t0.skip();
+
+		assertEquals(Collections.singletonList(2), out);
+		assertEquals(1, failures.get());
+	}
+
+	@Test
+	public void testPartitionsAreIndependent() {
+		List<String> out = new ArrayList<>();
+		OrderedItemsSequencer sequencer = new OrderedItemsSequencer((t, e) -> {
+		});
+
+		OrderedItemsSequencer.Ticket a0 = sequencer.nextTicket("A"); // NON-NLS
+		OrderedItemsSequencer.Ticket b0 = sequencer.nextTicket("B"); // NON-NLS
+		OrderedItemsSequencer.Ticket a1 = sequencer.nextTicket("A"); // NON-NLS
+
+		a1.complete(() -> out.add("a1")); // NON-NLS
+		b0.complete(() -> out.add("b0")); // NON-NLS
+		assertEquals(Collections.singletonList("b0"), out); // NON-NLS
+
+		a0.complete(() -> out.add("a0")); // NON-NLS
+		assertEquals(Arrays.asList("b0", "a0", "a1"), out); // NON-NLS
+	}
+
+	@Test
+	public void testConcurrentCompletion() throws Exception {
+		int itemsCount = 10000;
+		int partitionsCount = 4;
+		Map<Integer, List<Integer>> out = new HashMap<>();
+		for (int i = 0; i < partitionsCount; i++) {
+			out.put(i, Collections.synchronizedList(new ArrayList<>()));
+		}
+		OrderedItemsSequencer sequencer = new OrderedItemsSequencer((t, e) -> {
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < itemsCount; i++) {
+			int item = i;
+			int partition = i % partitionsCount;
+			OrderedItemsSequencer.Ticket ticket = sequencer.nextTicket(partition);
+			executor.execute(() -> {
+				if (ThreadLocalRandom.current().nextInt(10) == 0) {
+					Thread.yield();
+				}
+				ticket.complete(() -> out.get(partition).add(item));
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+		for (Map.Entry<Integer, List<Integer>> pe : out.entrySet()) {
+			List<Integer> pItems = pe.getValue();
+			assertEquals(itemsCount / partitionsCount, pItems.size());
+			for (int i = 1; i < pItems.size(); i++) {
+				assertTrue(pItems.get(i - 1) < pItems.get(i));
+			}
+		}
+		assertEquals(0, sequencer.getPendingCount());
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.inputs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.jkoolcloud.tnt4j.streams.parsers.ActivityParser;
+import com.jkoolcloud.tnt4j.streams.reference.ParserReference;
+
+/**
+ * @version 1.0
+ */
+public class ParsersRouterTest {
+
+	@Test
+	public void routeByDataClassAndTagsTest() {
+		ParserReference stringParser = parserRef("StringParser", String.class, null); // NON-NLS
+		ParserReference taggedParser = parserRef("TaggedParser", String.class, "TagA"); // NON-NLS
+		ParserReference bytesParser = parserRef("BytesParser", byte[].class, null); // NON-NLS
+
+		ParsersRouter router = new ParsersRouter(Arrays.asList(stringParser, taggedParser, bytesParser), false);
+
+		assertArrayEquals(new int[] { 0, 1 }, router.route("data")); // NON-NLS
+		assertArrayEquals(new int[] { 0, 1 }, router.route("data", "TagA")); // NON-NLS
+		assertArrayEquals(new int[] { 0 }, router.route("data", "TagB")); // NON-NLS
+		assertArrayEquals(new int[] { 2 }, router.route(new byte[0], "TagA")); // NON-NLS
+
+		router.route("other data"); // NON-NLS
+		verify(stringParser.getParser(), times(1)).isDataClassSupported(any());
+	}
+
+	@Test
+	public void adaptiveOrderTest() {
+		ParserReference first = parserRef("First", String.class, null); // NON-NLS
+		ParserReference second = parserRef("Second", String.class, null); // NON-NLS
+
+		ParsersRouter router = new ParsersRouter(Arrays.asList(first, second), true);
+		for (int i = 0; i < 1000; i++) {
+			int[] candidates = router.route("data"); // NON-NLS
+			router.missed(candidates[0]);
+			router.matched(candidates[1]);
+		}
+
+		assertArrayEquals(new int[] { 1, 0 }, router.route("data")); // NON-NLS
+
+		List<ParsersRouter.ParserStatistics> stats = router.getStatistics();
+		assertEquals("First", stats.get(0).getParserName()); // NON-NLS
+		assertEquals(0, stats.get(0).getMatchCount());
+		assertEquals(1000, stats.get(0).getMissCount());
+		assertEquals(1000, stats.get(1).getMatchCount());
+		assertEquals(0, stats.get(1).getMissCount());
+	}
+
+	private static ParserReference parserRef(String name, Class<?> dataClass, String tags) {
+		ActivityParser parser = mock(ActivityParser.class);
+		when(parser.getName()).thenReturn(name);
+		when(parser.isDataClassSupported(any())).thenAnswer(inv -> dataClass.isInstance(inv.getArgument(0)));
+
+		ParserReference ref = new ParserReference(parser);
+		if (tags != null) {
+			ref.setTags(tags);
+		}
+		return ref;
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.outputs;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.jkoolcloud.tnt4j.config.TrackerConfig;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.streams.configure.OutputProperties;
+import com.jkoolcloud.tnt4j.tracker.Tracker;
+
+/**
+ * @version 1.0
+ */
+public class AbstractJKCloudOutputTest {
+
+	@Test
+	public void testUsedTrackerNotEvicted() throws Exception {
+		TestOutput output = new TestOutput();
+		output.setProperty(OutputProperties.PROP_TRACKER_IDLE_TIMEOUT, "1"); // NON-NLS
+		long later = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+
+		Tracker tracker = output.acquireTracker();
+		output.evictIdleTrackers(later);
+		verify(tracker, never()).close();
+		assertSame(tracker, output.getTracker());
+
+		output.releaseTracker(tracker);
+		output.evictIdleTrackers(later);
+		verify(tracker).close();
+
+		Tracker newTracker = output.acquireTracker();
+		assertNotSame(tracker, newTracker);
+		output.releaseTracker(newTracker);
+	}
+
+	@Test
+	public void testTerminatedThreadTrackerEvicted() throws Exception {
+		TestOutput output = new TestOutput();
+		output.setProperty(OutputProperties.PROP_TRACKER_IDLE_TIMEOUT, "0"); // NON-NLS
+
+		Tracker tracker = output.acquireTracker();
+		AtomicReference<Tracker> threadTracker = new AtomicReference<>();
+		Thread thread = new Thread(() -> {
+			Tracker t = output.acquireTracker();
+			threadTracker.set(t);
+			output.releaseTracker(t);
+		});
+		thread.start();
+		thread.join();
+
+		output.evictIdleTrackers(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1));
+		verify(threadTracker.get()).close();
+		verify(tracker, never()).close();
+
+		output.releaseTracker(tracker);
+		output.cleanup();
+		verify(tracker).close();
+	}
+
+	@Test
+	public void testPoolTrackerUsedExclusively() throws Exception {
+		TestOutput output = new TestOutput();
+		output.setProperty(OutputProperties.PROP_TRACKERS_POOL_SIZE, "1"); // NON-NLS
+
+		Tracker tracker = output.acquireTracker();
+		AtomicReference<Tracker> threadTracker = new AtomicReference<>();
+		CountDownLatch started = new CountDownLatch(1);
+		Thread thread = new Thread(() -> {
+			started.countDown();
+			Tracker t = output.acquireTracker();
+			threadTracker.set(t);
+			output.releaseTracker(t);
+		});
+		thread.start();
+		started.await();
+		thread.join(200);
+		assertTrue(thread.isAlive());
+		assertNull(threadTracker.get());
+
+		output.releaseTracker(tracker);
+		thread.join();
+		assertSame(tracker, threadTracker.get());
+	}
+
+	@Test
+	public void testConcurrentSendsDoNotInterleave() throws Exception {
+		TestOutput output = new TestOutput();
+		output.setProperty(OutputProperties.PROP_TRACKERS_POOL_SIZE, "2"); // NON-NLS
+
+		Map<Tracker, AtomicInteger> senders = new ConcurrentHashMap<>();
+		AtomicBoolean interleaved = new AtomicBoolean();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < 1000; j++) {
+					Tracker tracker = output.acquireTracker();
+					try {
+						AtomicInteger count = senders.computeIfAbsent(tracker, t -> new AtomicInteger());
+						if (count.incrementAndGet() > 1) {
+							interleaved.set(true);
+						}
+						Thread.yield();
+						count.decrementAndGet();
+					} finally {
+						output.releaseTracker(tracker);
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertFalse(interleaved.get());
+		assertTrue(senders.size() <= 2);
+	}
+
+	private static class TestOutput extends JKCloudJsonOutput {
+		@Override
+		protected Tracker createTracker(TrackerConfig config) {
+			Tracker tracker = mock(Tracker.class);
+			when(tracker.isOpen()).thenReturn(true);
+			when(tracker.getEventSink()).thenReturn(mock(EventSink.class));
+			return tracker;
+		}
+	}
+}
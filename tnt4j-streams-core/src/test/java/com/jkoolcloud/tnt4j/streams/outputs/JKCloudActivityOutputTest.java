@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.outputs;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.jkoolcloud.tnt4j.config.TrackerConfig;
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.format.EventFormatter;
+import com.jkoolcloud.tnt4j.sink.EventSink;
+import com.jkoolcloud.tnt4j.streams.configure.OutputProperties;
+import com.jkoolcloud.tnt4j.streams.utils.RedirectTNT4JStreamFormatter;
+import com.jkoolcloud.tnt4j.tracker.Tracker;
+import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
+import com.jkoolcloud.tnt4j.tracker.TrackingEvent;
+
+/**
+ * @version 1.0
+ */
+public class JKCloudActivityOutputTest {
+
+	@Test
+	public void testBatchWrittenToEventSink() throws Exception {
+		TestOutput output = new TestOutput();
+		output.setProperty(OutputProperties.PROP_ACTIVITIES_BATCH_SIZE, "2"); // NON-NLS
+
+		Tracker tracker = output.acquireTracker();
+		try {
+			output.logJKCActivity(tracker, mock(TrackingEvent.class));
+			output.flushActivities(tracker, false);
+			verify(tracker.getEventSink(), never()).write(anyString());
+
+			output.logJKCActivity(tracker, mock(TrackingActivity.class));
+			output.flushActivities(tracker, false);
+			verify(tracker.getEventSink()).write("[{\"event\":1},{\"activity\":1}]"); // NON-NLS
+			verify(tracker, never()).log(any(OpLevel.class), anyString());
+			verify(tracker, never()).tnt(any(TrackingEvent.class));
+		} finally {
+			output.releaseTracker(tracker);
+		}
+	}
+
+	@Test
+	public void testLingeringBatchFlushedByOwnTracker() throws Exception {
+		TestOutput output = new TestOutput();
+		output.setProperty(OutputProperties.PROP_ACTIVITIES_BATCH_SIZE, "10"); // NON-NLS
+		output.setProperty(OutputProperties.PROP_ACTIVITIES_BATCH_LINGER, "0"); // NON-NLS
+
+		Tracker tracker = output.acquireTracker();
+		output.logJKCActivity(tracker, mock(TrackingEvent.class));
+		output.releaseTracker(tracker);
+
+		AtomicReference<Tracker> flusherTracker = new AtomicReference<>();
+		Thread flusher = new Thread(() -> {
+			output.flushLingeringBatches();
+			flusherTracker.set(output.getTracker());
+		});
+		flusher.start();
+		flusher.join();
+
+		verify(tracker.getEventSink(), never()).write(anyString());
+		verify(flusherTracker.get().getEventSink()).write("[{\"event\":1}]"); // NON-NLS
+	}
+
+	@Test
+	public void testUnbatchedWithPlainFormatter() throws Exception {
+		TestOutput output = new TestOutput();
+		output.formatterClass = EventFormatter.class;
+		output.setProperty(OutputProperties.PROP_ACTIVITIES_BATCH_SIZE, "1"); // NON-NLS
+
+		Tracker tracker = output.acquireTracker();
+		try {
+			TrackingEvent event = mock(TrackingEvent.class);
+			output.logJKCActivity(tracker, event);
+			output.flushActivities(tracker, true);
+			verify(tracker).tnt(event);
+			verify(tracker.getEventSink(), never()).write(anyString());
+		} finally {
+			output.releaseTracker(tracker);
+		}
+	}
+
+	private static class TestOutput extends JKCloudActivityOutput {
+		private Class<? extends EventFormatter> formatterClass = RedirectTNT4JStreamFormatter.class;
+
+		@Override
+		protected Tracker createTracker(TrackerConfig config) {
+			EventFormatter formatter = mock(formatterClass);
+			when(formatter.format(any(TrackingEvent.class))).thenReturn("{\"event\":1}"); // NON-NLS
+			when(formatter.format(any(TrackingActivity.class))).thenReturn("{\"activity\":1}"); // NON-NLS
+			EventSink eSink = mock(EventSink.class);
+			when(eSink.getEventFormatter()).thenReturn(formatter);
+
+			Tracker tracker = mock(Tracker.class);
+			when(tracker.isOpen()).thenReturn(true);
+			when(tracker.getEventSink()).thenReturn(eSink);
+			return tracker;
+		}
+	}
+}
@@ -28,6 +28,7 @@ import org.mockito.Mockito;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jkoolcloud.tnt4j.streams.TestUtils;
+import com.jkoolcloud.tnt4j.streams.configure.ParserProperties;
 import com.jkoolcloud.tnt4j.streams.configure.StreamProperties;
 import com.jkoolcloud.tnt4j.streams.fields.*;
 import com.jkoolcloud.tnt4j.streams.inputs.AbstractBufferedStream;
@@ -83,6 +84,30 @@ public class ActivityJsonParserTest {
 		assertEquals(ai.getFieldValue(FIELD_NAME), "OK");
 	}
 
+	@Test
+	public void parseStreamingModeTest() throws Exception {
+		ActivityField field = new ActivityField("status"); // NON-NLS
+		field.addLocator(new ActivityFieldLocator(ActivityFieldLocatorType.Label, "status")); // NON-NLS
+		parser.addField(field);
+		field = new ActivityField("code"); // NON-NLS
+		field.addLocator(new ActivityFieldLocator(ActivityFieldLocatorType.Label, "$['result'].code")); // NON-NLS
+		parser.addField(field);
+		field = new ActivityField("tags"); // NON-NLS
+		field.addLocator(new ActivityFieldLocator(ActivityFieldLocatorType.Label, "$.tags[*]")); // NON-NLS
+		parser.addField(field);
+
+		Map<String, String> props = new HashMap<>(1);
+		props.put(ParserProperties.PROP_STREAMING_MODE, String.valueOf(true));
+		parser.setProperties(props.entrySet());
+		parser.organizeFields();
+
+		String jsonString = "{\"status\":\"finished\",\"tags\":[\"a\",\"b\"],\"result\":{\"code\":200}}"; // NON-NLS
+		ActivityInfo ai = parser.parse(stream, jsonString);
+		assertEquals("finished", ai.getFieldValue("status")); // NON-NLS
+		assertEquals("200", String.valueOf(ai.getFieldValue("code"))); // NON-NLS
+		assertNotNull(ai.getFieldValue("tags")); // NON-NLS
+	}
+
 	@Test
 	public void parseWhenStringIsEmptyTest() throws Exception {
 		String jsonString = "";
@@ -24,6 +24,9 @@ import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.xml.XMLConstants;
@@ -47,6 +50,7 @@ import com.jkoolcloud.tnt4j.streams.configure.ParserProperties;
 import com.jkoolcloud.tnt4j.streams.fields.*;
 import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStream;
 import com.jkoolcloud.tnt4j.streams.inputs.TNTParseableInputStream;
+import com.jkoolcloud.tnt4j.streams.matchers.Matchers;
 import com.jkoolcloud.tnt4j.streams.preparsers.XMLFromBinDataPreParser;
 import com.jkoolcloud.tnt4j.streams.reference.MatchingParserReference;
 import com.jkoolcloud.tnt4j.streams.utils.NamespaceMap;
@@ -109,6 +113,47 @@ public class ActivityXmlParserTest extends GenericActivityParserTestBase<Activit
 		assertNotNull(ai);
 	}
 
+	@Test
+	public void concurrentParseTest() throws Exception {
+		parser.organizeFields();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<?>[] results = new Future<?>[8];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = executor.submit(() -> {
+					for (int j = 0; j < 100; j++) {
+						ActivityInfo ai = parser.parse(is, simpleString);
+						assertEquals("Message Body", ai.getFieldValue("Test")); // NON-NLS
+					}
+					return null;
+				});
+			}
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void streamingModeParseTest() throws Exception {
+		ActivityField field = new ActivityField("Format"); // NON-NLS
+		field.addLocator(new ActivityFieldLocator(ActivityFieldLocatorType.Label, "MsgData/@format")); // NON-NLS
+		parser.addField(field);
+		field = new ActivityField("Message"); // NON-NLS
+		field.addLocator(new ActivityFieldLocator(ActivityFieldLocatorType.Label, "string(/MsgData/@value)")); // NON-NLS
+		parser.addField(field);
+		setProperty(parser, ParserProperties.PROP_STREAMING_MODE, true);
+		parser.organizeFields();
+
+		ActivityInfo ai = parser.parse(is, simpleString);
+		assertEquals("Message Body", ai.getFieldValue("Test")); // NON-NLS
+		assertEquals("string", ai.getFieldValue("Format")); // NON-NLS
+		assertEquals("Message Body", ai.getFieldValue("Message")); // NON-NLS
+	}
+
 	@Override
 	@Test
 	public void setPropertiesTest() throws Exception {
@@ -116,6 +161,20 @@ public class ActivityXmlParserTest extends GenericActivityParserTestBase<Activit
 		setProperty(parser, ParserProperties.PROP_REQUIRE_ALL, true);
 	}
 
+	@Test
+	public void namespacePrefixedMatchTest() throws Exception {
+		setProperty(parser, ParserProperties.PROP_NAMESPACE, "tst=http://test.jkoolcloud.com/ns"); // NON-NLS
+
+		DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+		domFactory.setNamespaceAware(true);
+		String xml = "<tst:Msg xmlns:tst=\"http://test.jkoolcloud.com/ns\"><tst:Body>OK</tst:Body></tst:Msg>"; // NON-NLS
+		Document document = domFactory.newDocumentBuilder().parse(UtilsTest.toInputStream(xml));
+
+		// parser namespace mappings shall be visible to shared XPath context used by matchers
+		assertTrue(Matchers.evaluate("xpath:boolean(/tst:Msg/tst:Body)", document)); // NON-NLS
+		assertFalse(Matchers.evaluate("xpath:boolean(/tst:Msg/tst:Header)", document)); // NON-NLS
+	}
+
 	@Ignore("Not completed")
 	@Test
 	public void getLocatorValue() throws Exception {
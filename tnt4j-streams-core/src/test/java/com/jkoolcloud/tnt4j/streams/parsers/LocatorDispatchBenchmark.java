@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.parsers;
+
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.jkoolcloud.tnt4j.core.OpLevel;
+import com.jkoolcloud.tnt4j.streams.TestUtils;
+import com.jkoolcloud.tnt4j.streams.fields.*;
+import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStream;
+import com.jkoolcloud.tnt4j.streams.utils.StreamsCache;
+import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
+import com.jkoolcloud.tnt4j.streams.utils.Utils;
+
+/**
+ * JMH benchmark comparing activity parsing throughput of parser having many fields, when field locator values are
+ * resolved using prepared locator resolvers and using legacy locator type and string evaluation chain.
+ * <p>
+ * Run it using {@link #main(String[])} from test classpath.
+ *
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocatorDispatchBenchmark {
+
+	@Param({ "50", "100" })
+	private int fieldsCount;
+
+	private TNTInputStream<?, ?> stream;
+	private ActivityMapParser preparedParser;
+	private ActivityMapParser legacyParser;
+	private Map<String, Object> data;
+
+	@Setup
+	public void setup() {
+		stream = new TestUtils.SimpleTestStream();
+		preparedParser = new ActivityMapParser();
+		legacyParser = new LegacyDispatchMapParser();
+		data = new HashMap<>(fieldsCount);
+
+		for (int i = 0; i < fieldsCount; i++) {
+			String name = "field" + i; // NON-NLS
+			data.put(name, "value" + i); // NON-NLS
+
+			ActivityFieldLocatorType locType;
+			switch (i % 5) {
+			case 1:
+				locType = ActivityFieldLocatorType.StreamProp;
+				break;
+			case 2:
+				locType = ActivityFieldLocatorType.ParserProp;
+				break;
+			case 3:
+				locType = ActivityFieldLocatorType.EnvVariable;
+				break;
+			default:
+				locType = ActivityFieldLocatorType.Label;
+				break;
+			}
+			addField(preparedParser, name, locType);
+			addField(legacyParser, name, locType);
+		}
+
+		preparedParser.organizeFields();
+		legacyParser.organizeFields();
+	}
+
+	private static void addField(ActivityMapParser parser, String name, ActivityFieldLocatorType locType) {
+		ActivityField field = new ActivityField(name);
+		field.addLocator(new ActivityFieldLocator(locType, name));
+		parser.addField(field);
+	}
+
+	@Benchmark
+	public ActivityInfo preparedResolvers() throws ParseException {
+		return preparedParser.parse(stream, data);
+	}
+
+	@Benchmark
+	public ActivityInfo legacyChain() throws ParseException {
+		return legacyParser.parse(stream, data);
+	}
+
+	public static void main(String... args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(LocatorDispatchBenchmark.class.getSimpleName()).build();
+		new Runner(opt).run();
+	}
+
+	/**
+	 * Map parser resolving locator values by evaluating locator type and string for every parsed activity, as it was
+	 * done before locator resolvers were prepared.
+	 */
+	private static class LegacyDispatchMapParser extends ActivityMapParser {
+		@Override
+		protected Object getLocatorValue(ActivityFieldLocator locator, ActivityContext cData) throws ParseException {
+			Object val = null;
+			if (locator != null) {
+				String locStr = locator.getLocator();
+				AtomicBoolean formattingNeeded = new AtomicBoolean(true);
+				if (StringUtils.isNotEmpty(locStr)) {
+					if (locator.getBuiltInType() == ActivityFieldLocatorType.StreamProp) {
+						val = cData.getStream().getProperty(locStr);
+					} else if (locator.getBuiltInType() == ActivityFieldLocatorType.Cache) {
+						String streamName = cData.getStream() == null ? null : cData.getStream().getName();
+						val = Utils.simplifyValue(
+								StreamsCache.getValue(streamName, cData.getActivity(), locStr, getName()));
+					} else if (locator.getBuiltInType() == ActivityFieldLocatorType.Activity) {
+						val = resolveActivityValue(locator, cData);
+					} else if (LOC_FOR_COMPLETE_ACTIVITY_DATA.equals(locStr)) {
+						val = cData.getData();
+					} else if (LOC_FOR_COMPLETE_ACTIVITY_METADATA.equals(locStr)) {
+						val = cData.getMetadata();
+					} else if (locStr.startsWith(LOC_FOR_COMPLETE_ACTIVITY_METADATA)) {
+						val = Utils.getMapValueByPath(
+								locStr.substring(LOC_FOR_COMPLETE_ACTIVITY_METADATA.length() + 1),
+								cData.getMetadata());
+					} else if (locator.getBuiltInType() == ActivityFieldLocatorType.ParserProp) {
+						val = getProperty(locStr);
+					} else if (locator.getBuiltInType() == ActivityFieldLocatorType.SystemProp) {
+						val = System.getProperty(locStr);
+					} else if (locator.getBuiltInType() == ActivityFieldLocatorType.EnvVariable) {
+						val = System.getenv(locStr);
+					} else {
+						val = resolveLocatorValue(locator, cData, formattingNeeded);
+					}
+
+					if (logger().isSet(OpLevel.TRACE)) {
+						logger().log(OpLevel.TRACE,
+								StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+								"ActivityParser.locator.resolved", cData.getField(), locStr, toString(val));
+					}
+
+					if (val != null && locator.isEmptyAsNull() && Utils.isEmptyContent(val, true)) {
+						logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+								"ActivityParser.locator.empty.as.null", locStr, toString(val));
+						val = null;
+					}
+				}
+
+				val = transformValue(val, locator, cData, locStr, ValueTransformation.Phase.RAW);
+				if (formattingNeeded.get()) {
+					val = locator.formatValue(val);
+				}
+				val = transformValue(val, locator, cData, locStr, ValueTransformation.Phase.FORMATTED);
+
+				try {
+					boolean filteredOut = locator.filterValue(val, cData.getActivity());
+
+					if (filteredOut) {
+						val = null;
+					}
+				} catch (Exception exc) {
+					Utils.logThrowable(logger(), OpLevel.WARNING,
+							StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
+							"ActivityParser.field.filtering.failed", locStr, toString(val), exc);
+				}
+			}
+			return val;
+		}
+	}
+}
@@ -25,6 +25,8 @@ import org.junit.runners.Suite;
  */
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ UtilsTest.class, NumericFormatterTest.class, TimestampFormatterTest.class,
-		StreamsThreadTest.class, StreamsResourcesTest.class, StreamsCacheTest.class, SecurityUtilsTest.class })
+		StreamsThreadTest.class, StreamsResourcesTest.class, StreamsCacheTest.class, SecurityUtilsTest.class,
+		RingBufferQueueTest.class, XmlStreamMatcherTest.class, JsonStreamMatcherTest.class,
+		PositionedLineReaderTest.class, SpillLogTest.class, HostNameResolverTest.class, NamespaceMapTest.class })
 public class AllUtilsTests {
 }
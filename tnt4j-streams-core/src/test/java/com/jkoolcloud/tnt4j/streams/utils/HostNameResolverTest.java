@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @version 1.0
+ */
+public class HostNameResolverTest {
+
+	@Before
+	public void setUp() {
+		HostNameResolver.clear();
+	}
+
+	@Test
+	public void resolveAsynchronouslyTest() throws Exception {
+		HostNameResolver.ResolverStatistics stats = HostNameResolver.getStatistics();
+		long misses = stats.getMissCount();
+		long hits = stats.getHitCount();
+
+		assertNull(HostNameResolver.resolveHostNameToAddress("localhost")); // NON-NLS
+		assertEquals(misses + 1, stats.getMissCount());
+
+		String address = waitResolved("localhost"); // NON-NLS
+		assertNotNull(address);
+		assertTrue(stats.getHitCount() > hits);
+		assertTrue(stats.getLookupCount() > 0);
+		assertTrue(HostNameResolver.cacheSize() >= 2);
+
+		String hostName = HostNameResolver.resolveAddressToHostName(address);
+		assertEquals("localhost", hostName); // NON-NLS
+	}
+
+	@Test
+	public void resolveEmptyTest() {
+		long misses = HostNameResolver.getStatistics().getMissCount();
+
+		assertNull(HostNameResolver.resolveHostNameToAddress(null));
+		assertNull(HostNameResolver.resolveAddressToHostName("")); // NON-NLS
+		assertEquals(misses, HostNameResolver.getStatistics().getMissCount());
+	}
+
+	private static String waitResolved(String hostName) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			String address = HostNameResolver.resolveHostNameToAddress(hostName);
+			if (address != null) {
+				return address;
+			}
+			Thread.sleep(50);
+		}
+		return null;
+	}
+}
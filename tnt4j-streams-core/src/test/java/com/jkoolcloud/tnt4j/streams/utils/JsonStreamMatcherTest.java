@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * @version 1.0
+ */
+public class JsonStreamMatcherTest {
+
+	private static final String JSON = "{\"host\": {\"name\": \"srv1\", \"ip\": [\"10.0.0.1\", \"10.0.0.2\"]}," // NON-NLS
+			+ " \"skipped\": {\"a\": [1, 2, {\"b\": null}]}," // NON-NLS
+			+ " \"event\": {\"duration\": 125, \"ratio\": 0.5, \"ok\": true, \"tags\": {\"env\": \"dev\"}}," // NON-NLS
+			+ " \"message\": \"Hello\"}"; // NON-NLS
+
+	@Test
+	public void testIsStreamable() {
+		assertTrue(JsonStreamMatcher.isStreamable("$.host.name")); // NON-NLS
+		assertTrue(JsonStreamMatcher.isStreamable("$['host']['ip'][1]")); // NON-NLS
+		assertTrue(JsonStreamMatcher.isStreamable("$.host.ip[0]")); // NON-NLS
+		assertFalse(JsonStreamMatcher.isStreamable("$")); // NON-NLS
+		assertFalse(JsonStreamMatcher.isStreamable("$..name")); // NON-NLS
+		assertFalse(JsonStreamMatcher.isStreamable("$.host.*")); // NON-NLS
+		assertFalse(JsonStreamMatcher.isStreamable("$.host.ip[*]")); // NON-NLS
+		assertFalse(JsonStreamMatcher.isStreamable("$.host.ip[0:1]")); // NON-NLS
+		assertFalse(JsonStreamMatcher.isStreamable("$.host[?(@.name == 'srv1')]")); // NON-NLS
+		assertFalse(JsonStreamMatcher.isStreamable("$.host.ip.length()")); // NON-NLS
+		assertFalse(JsonStreamMatcher.isStreamable("host.name")); // NON-NLS
+	}
+
+	@Test
+	public void testEvaluate() throws Exception {
+		List<String> paths = Arrays.asList("$.host.name", "$['host']['ip'][1]", "$.event.duration", // NON-NLS
+				"$.event.ratio", "$.event.ok", "$.event.tags", "$.event.tags.env", "$.message", "$.missing"); // NON-NLS
+		JsonStreamMatcher matcher = new JsonStreamMatcher(paths, new ObjectMapper());
+		Map<String, Object> values = matcher.evaluate(JSON);
+
+		assertEquals("srv1", values.get("$.host.name")); // NON-NLS
+		assertEquals("10.0.0.2", values.get("$['host']['ip'][1]")); // NON-NLS
+		assertEquals(125, values.get("$.event.duration")); // NON-NLS
+		assertEquals(0.5, values.get("$.event.ratio")); // NON-NLS
+		assertEquals(Boolean.TRUE, values.get("$.event.ok")); // NON-NLS
+		assertTrue(values.get("$.event.tags") instanceof Map); // NON-NLS
+		assertEquals("dev", values.get("$.event.tags.env")); // NON-NLS
+		assertEquals("Hello", values.get("$.message")); // NON-NLS
+		assertFalse(values.containsKey("$.missing")); // NON-NLS
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @version 1.0
+ */
+public class NamespaceMapTest {
+
+	@Test
+	public void testVersionChangesOnlyOnNewMapping() {
+		NamespaceMap nsMap = new NamespaceMap();
+		nsMap.setPrefixUriMapping("a", "urn:a"); // NON-NLS
+		int version = nsMap.getVersion();
+
+		nsMap.setPrefixUriMapping("a", "urn:a"); // NON-NLS
+		assertFalse(nsMap.addPrefixUriMapping("a", "urn:b")); // NON-NLS
+		assertEquals(version, nsMap.getVersion());
+		assertEquals("urn:a", nsMap.getNamespaceURI("a")); // NON-NLS
+
+		assertEquals("urn:a", nsMap.setPrefixUriMapping("a", "urn:b")); // NON-NLS
+		assertNotEquals(version, nsMap.getVersion());
+		assertEquals("urn:b", nsMap.getNamespaceURI("a")); // NON-NLS
+		assertEquals("a", nsMap.getPrefix("urn:b")); // NON-NLS
+	}
+
+	@Test
+	public void testCopyIsIndependent() {
+		NamespaceMap nsMap = new NamespaceMap();
+		nsMap.setPrefixUriMapping("a", "urn:a"); // NON-NLS
+		NamespaceMap copy = new NamespaceMap(nsMap);
+		copy.setPrefixUriMapping("b", "urn:b"); // NON-NLS
+
+		assertEquals("urn:a", copy.getPrefixUriMapping("a")); // NON-NLS
+		assertNull(nsMap.getPrefixUriMapping("b")); // NON-NLS
+	}
+
+	@Test
+	public void testConcurrentMappings() throws Exception {
+		NamespaceMap nsMap = new NamespaceMap();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			int tIdx = t;
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 500; i++) {
+					nsMap.setPrefixUriMapping("p" + tIdx + "_" + i, "urn:" + i); // NON-NLS
+					nsMap.getNamespaceURI("p0_" + i); // NON-NLS
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (int t = 0; t < 4; t++) {
+			for (int i = 0; i < 500; i++) {
+				assertEquals("urn:" + i, nsMap.getPrefixUriMapping("p" + t + "_" + i)); // NON-NLS
+			}
+		}
+		assertEquals(2000, nsMap.getVersion());
+	}
+}
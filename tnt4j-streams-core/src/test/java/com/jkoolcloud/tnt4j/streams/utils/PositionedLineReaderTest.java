@@ -0,0 +1,201 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @version 1.0
+ */
+public class PositionedLineReaderTest {
+
+	private Path testFile;
+
+	@Before
+	public void setUp() throws Exception {
+		testFile = Files.createTempFile("positionedLines", ".log"); // NON-NLS
+		Files.write(testFile, "line one\r\n\u017Eodis\n\rlast".getBytes(StandardCharsets.UTF_8)); // NON-NLS
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Files.deleteIfExists(testFile);
+	}
+
+	@Test
+	public void testIsSupported() {
+		assertTrue(PositionedLineReader.isSupported(StandardCharsets.UTF_8));
+		assertTrue(PositionedLineReader.isSupported(StandardCharsets.ISO_8859_1));
+		assertTrue(PositionedLineReader.isSupported(StandardCharsets.US_ASCII));
+		assertFalse(PositionedLineReader.isSupported(StandardCharsets.UTF_16));
+		assertFalse(PositionedLineReader.isSupported(StandardCharsets.UTF_16LE));
+		assertFalse(PositionedLineReader.isSupported(Charset.forName("UTF-32"))); // NON-NLS
+		assertFalse(PositionedLineReader.isSupported(null));
+	}
+
+	@Test
+	public void testReadLines() throws Exception {
+		checkReadLines(false);
+	}
+
+	@Test
+	public void testReadLinesMapped() throws Exception {
+		checkReadLines(true);
+	}
+
+	private void checkReadLines(boolean mapped) throws Exception {
+		try (PositionedLineReader reader = open(0, 0, mapped)) {
+			assertEquals("line one", reader.readLine()); // NON-NLS
+			assertEquals(0, reader.getLineOffset());
+			assertEquals(10, reader.getPosition());
+			assertEquals(1, reader.getLineNumber());
+
+			assertEquals("\u017Eodis", reader.readLine()); // NON-NLS
+			assertEquals(10, reader.getLineOffset());
+			assertEquals(17, reader.getPosition());
+
+			assertEquals("", reader.readLine());
+			assertEquals(17, reader.getLineOffset());
+			assertEquals(18, reader.getPosition());
+
+			assertEquals("last", reader.readLine()); // NON-NLS
+			assertEquals(18, reader.getLineOffset());
+			assertEquals(22, reader.getPosition());
+			assertEquals(4, reader.getLineNumber());
+
+			assertNull(reader.readLine());
+			assertEquals(4, reader.getLineNumber());
+		}
+	}
+
+	@Test
+	public void testReadFromOffset() throws Exception {
+		try (PositionedLineReader reader = open(10, 1)) {
+			assertEquals("\u017Eodis", reader.readLine()); // NON-NLS
+			assertEquals(2, reader.getLineNumber());
+			assertEquals(17, reader.getPosition());
+		}
+	}
+
+	@Test
+	public void testAppendedLine() throws Exception {
+		Files.write(testFile, "first\r".getBytes(StandardCharsets.UTF_8)); // NON-NLS
+		try (PositionedLineReader reader = open(0, 0)) {
+			assertEquals("first", reader.readLine()); // NON-NLS
+			assertNull(reader.readLine());
+
+			Files.write(testFile, "\nsecond\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND); // NON-NLS
+			assertEquals("second", reader.readLine()); // NON-NLS
+			assertEquals(7, reader.getLineOffset());
+			assertEquals(14, reader.getPosition());
+		}
+	}
+
+	@Test
+	public void testCompleteLinesOnly() throws Exception {
+		Files.write(testFile, "first\nsec".getBytes(StandardCharsets.UTF_8)); // NON-NLS
+		try (PositionedLineReader reader = open(0, 0, true)) {
+			reader.setCompleteLinesOnly(true);
+			assertEquals("first", reader.readLine()); // NON-NLS
+			assertNull(reader.readLine());
+			assertEquals(6, reader.getPosition());
+			assertEquals(1, reader.getLineNumber());
+
+			Files.write(testFile, "ond\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND); // NON-NLS
+			assertEquals("second", reader.readLine()); // NON-NLS
+			assertEquals(6, reader.getLineOffset());
+			assertEquals(13, reader.getPosition());
+			assertEquals(2, reader.getLineNumber());
+		}
+	}
+
+	@Test
+	public void testLongLines() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		String longLine = sb.toString();
+		Files.write(testFile, (longLine + "\n" + longLine).getBytes(StandardCharsets.UTF_8)); // NON-NLS
+
+		for (boolean mapped : new boolean[] { false, true }) {
+			try (PositionedLineReader reader = open(0, 0, mapped)) {
+				assertEquals(longLine, reader.readLine());
+				assertEquals(longLine, reader.readLine());
+				assertEquals(longLine.length() + 1, reader.getLineOffset());
+				assertNull(reader.readLine());
+			}
+		}
+	}
+
+	@Test
+	public void testMappedIncompleteLine() throws Exception {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100000; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		String longLine = sb.toString();
+		Files.write(testFile, (longLine + "\nsec").getBytes(StandardCharsets.UTF_8)); // NON-NLS
+
+		try (PositionedLineReader reader = open(0, 0, true)) {
+			reader.setCompleteLinesOnly(true);
+			assertEquals(longLine, reader.readLine());
+			assertNull(reader.readLine());
+			assertEquals(longLine.length() + 1, reader.getPosition());
+
+			Files.write(testFile, "ond\nthird\n".getBytes(StandardCharsets.UTF_8), // NON-NLS
+					StandardOpenOption.APPEND);
+			assertEquals("second", reader.readLine()); // NON-NLS
+			assertEquals("third", reader.readLine()); // NON-NLS
+			assertNull(reader.readLine());
+			assertEquals(3, reader.getLineNumber());
+		}
+	}
+
+	@Test
+	public void testIndexOfEol() {
+		ByteBuffer buffer = ByteBuffer.wrap("0123456789abcdef\rxyz\n".getBytes(StandardCharsets.UTF_8)) // NON-NLS
+				.order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals(16, PositionedLineReader.indexOfEol(buffer, 0, buffer.limit()));
+		assertEquals(16, PositionedLineReader.indexOfEol(buffer, 3, buffer.limit()));
+		assertEquals(20, PositionedLineReader.indexOfEol(buffer, 17, buffer.limit()));
+		assertEquals(-1, PositionedLineReader.indexOfEol(buffer, 0, 16));
+		assertEquals(-1, PositionedLineReader.indexOfEol(buffer, 17, 20));
+	}
+
+	private PositionedLineReader open(long offset, int lineNumber) throws Exception {
+		return open(offset, lineNumber, false);
+	}
+
+	private PositionedLineReader open(long offset, int lineNumber, boolean mapped) throws Exception {
+		return new PositionedLineReader(FileChannel.open(testFile, StandardOpenOption.READ), StandardCharsets.UTF_8,
+				offset, lineNumber, mapped);
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * @version 1.0
+ */
+public class RingBufferQueueTest {
+
+	@Test
+	public void testCapacity() {
+		assertEquals(1, new RingBufferQueue<>(1).capacity());
+		assertEquals(8, new RingBufferQueue<>(5).capacity());
+		assertEquals(1024, new RingBufferQueue<>(1024).capacity());
+	}
+
+	@Test
+	public void testOfferPoll() throws Exception {
+		RingBufferQueue<Integer> queue = new RingBufferQueue<>(4);
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+
+		for (int i = 0; i < 4; i++) {
+			assertTrue(queue.offer(i));
+		}
+		assertFalse(queue.offer(4));
+		assertFalse(queue.offer(4, 10, TimeUnit.MILLISECONDS));
+		assertEquals(4, queue.size());
+		assertEquals(0, queue.remainingCapacity());
+		assertEquals(Integer.valueOf(0), queue.peek());
+		assertEquals(Arrays.asList(0, 1, 2, 3), new ArrayList<>(queue));
+
+		for (int i = 0; i < 4; i++) {
+			assertEquals(Integer.valueOf(i), queue.poll());
+		}
+		assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testDrainTo() {
+		RingBufferQueue<Integer> queue = new RingBufferQueue<>(8);
+		for (int i = 0; i < 6; i++) {
+			queue.offer(i);
+		}
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(4, queue.drainTo(drained, 4));
+		assertEquals(Arrays.asList(0, 1, 2, 3), drained);
+		assertEquals(2, queue.drainTo(drained));
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void testRemove() {
+		RingBufferQueue<String> queue = new RingBufferQueue<>(8);
+		for (String e : Arrays.asList("a", "b", "c", "d")) { // NON-NLS
+			queue.offer(e);
+		}
+
+		assertTrue(queue.remove("c")); // NON-NLS
+		assertFalse(queue.remove("c")); // NON-NLS
+		assertFalse(queue.remove("x")); // NON-NLS
+		assertFalse(queue.contains("c")); // NON-NLS
+		assertEquals(Arrays.asList("a", "b", "d"), new ArrayList<>(queue)); // NON-NLS
+
+		assertTrue(queue.remove("a")); // NON-NLS
+		assertEquals("b", queue.peek()); // NON-NLS
+		assertEquals("b", queue.poll()); // NON-NLS
+		assertEquals("d", queue.poll()); // NON-NLS
+		assertNull(queue.poll());
+		assertTrue(queue.isEmpty());
+
+		// removed slots are reused
+		for (int i = 0; i < 8; i++) {
+			assertTrue(queue.offer(String.valueOf(i)));
+		}
+		assertTrue(queue.remove("7")); // NON-NLS
+		assertEquals("0", queue.poll()); // NON-NLS
+	}
+
+	@Test
+	public void testMultipleProducers() throws Exception {
+		testProducers(4, false, RingBufferQueue.WaitStrategy.PARK);
+		testProducers(4, false, RingBufferQueue.WaitStrategy.YIELD);
+	}
+
+	@Test
+	public void testSingleProducer() throws Exception {
+		testProducers(1, true, RingBufferQueue.WaitStrategy.SPIN);
+	}
+
+	private static void testProducers(int producersCount, boolean singleProducer,
+			RingBufferQueue.WaitStrategy waitStrategy) throws Exception {
+		int itemsPerProducer = 20000;
+		RingBufferQueue<int[]> queue = new RingBufferQueue<>(64, singleProducer, waitStrategy);
+
+		List<Thread> producers = new ArrayList<>();
+		for (int p = 0; p < producersCount; p++) {
+			int producer = p;
+			Thread t = new Thread(() -> {
+				try {
+					for (int i = 0; i < itemsPerProducer; i++) {
+						queue.put(new int[] { producer, i });
+					}
+				} catch (InterruptedException exc) {
+				}
+			});
+			producers.add(t);
+			t.start();
+		}
+
+		int[] lastSeen = new int[producersCount];
+		Arrays.fill(lastSeen, -1);
+		for (int n = 0; n < producersCount * itemsPerProducer; n++) {
+			int[] item = queue.poll(10, TimeUnit.SECONDS);
+			assertNotNull(item);
+			assertEquals(lastSeen[item[0]] + 1, item[1]);
+			lastSeen[item[0]] = item[1];
+		}
+
+		for (Thread t : producers) {
+			t.join();
+		}
+		assertTrue(queue.isEmpty());
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @version 1.0
+ */
+public class SpillLogTest {
+	private Path dir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("spillLogTest"); // NON-NLS
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+			for (Path file : ds) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(dir);
+	}
+
+	@Test
+	public void appendAndReadTest() throws IOException {
+		SpillLog log = new SpillLog(dir, 64);
+		assertTrue(log.isEmpty());
+
+		for (int i = 0; i < 10; i++) {
+			log.append(record(i));
+		}
+		assertFalse(log.isEmpty());
+		assertTrue(countSegments() > 1);
+
+		List<String> read = readAll(log, 3);
+		assertEquals(10, read.size());
+		for (int i = 0; i < 10; i++) {
+			assertEquals("record-" + i, read.get(i)); // NON-NLS
+		}
+		assertTrue(log.isEmpty());
+		assertEquals(0, log.getSize());
+		assertEquals(0, countSegments());
+
+		log.append(record(10));
+		assertEquals("record-10", readAll(log, 5).get(0)); // NON-NLS
+		log.close();
+	}
+
+	@Test
+	public void replayAfterReopenTest() throws IOException {
+		SpillLog log = new SpillLog(dir, 1024);
+		for (int i = 0; i < 5; i++) {
+			log.append(record(i));
+		}
+		assertEquals(2, log.read(2).size());
+		log.close();
+
+		log = new SpillLog(dir, 1024);
+		log.append(record(5));
+		List<String> read = readAll(log, 10);
+		assertEquals(4, read.size());
+		assertEquals("record-2", read.get(0)); // NON-NLS
+		assertEquals("record-5", read.get(3)); // NON-NLS
+		log.close();
+	}
+
+	@Test
+	public void commitBatchesTest() throws IOException {
+		SpillLog log = new SpillLog(dir, 1024);
+		for (int i = 0; i < 5; i++) {
+			log.append(record(i));
+		}
+		SpillLog.Batch batch1 = log.readBatch(2);
+		SpillLog.Batch batch2 = log.readBatch(2);
+		assertEquals(2, batch2.getRecords().size());
+		log.commit(batch2);
+		log.close();
+
+		// first batch is not committed, so all records are replayed
+		log = new SpillLog(dir, 1024);
+		batch1 = log.readBatch(2);
+		assertEquals("record-0", new String(batch1.getRecords().get(0), StandardCharsets.UTF_8)); // NON-NLS
+		log.commit(batch1);
+		log.readBatch(2);
+		log.close();
+
+		log = new SpillLog(dir, 1024);
+		List<String> read = readAll(log, 10);
+		assertEquals(3, read.size());
+		assertEquals("record-2", read.get(0)); // NON-NLS
+		assertEquals(0, countSegments());
+		log.close();
+	}
+
+	@Test
+	public void skipCorruptedTailTest() throws IOException {
+		SpillLog log = new SpillLog(dir, 1024);
+		log.append(record(0));
+		log.append(record(1));
+		log.close();
+
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir);
+				RandomAccessFile raf = new RandomAccessFile(ds.iterator().next().toFile(), "rw")) { // NON-NLS
+			raf.setLength(raf.length() - 2);
+		}
+
+		log = new SpillLog(dir, 1024);
+		List<String> read = readAll(log, 10);
+		assertEquals(1, read.size());
+		assertEquals("record-0", read.get(0)); // NON-NLS
+		assertTrue(log.isEmpty());
+		log.close();
+	}
+
+	private static byte[] record(int i) {
+		return ("record-" + i).getBytes(StandardCharsets.UTF_8); // NON-NLS
+	}
+
+	private static List<String> readAll(SpillLog log, int batchSize) throws IOException {
+		List<String> all = new ArrayList<>();
+		List<byte[]> batch;
+		while (!(batch = log.read(batchSize)).isEmpty()) {
+			for (byte[] r : batch) {
+				all.add(new String(r, StandardCharsets.UTF_8));
+			}
+		}
+		return all;
+	}
+
+	private long countSegments() throws IOException {
+		try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+			long count = 0;
+			for (Path ignored : ds) {
+				count++;
+			}
+			return count;
+		}
+	}
+}
@@ -16,13 +16,21 @@
 
 package com.jkoolcloud.tnt4j.streams.utils;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.jkoolcloud.tnt4j.core.UsecTimestamp;
 import com.jkoolcloud.tnt4j.streams.fields.ActivityInfo;
 
 /**
@@ -62,4 +70,204 @@ public class StreamsCacheTest {
 		Assert.assertArrayEquals((byte[]) StreamsCache.getValue("byteArray"), new byte[] { 2, 2, 2, 2, 2 });
 		Assert.assertTrue(date.compareTo((Date) StreamsCache.getValue("date")) == 0);
 	}
+
+	@Test
+	public void cacheBinaryPersistingTest() throws Exception {
+		File cacheFile = File.createTempFile("streamsCache", ".bin");
+		Map<String, String> props = new HashMap<>();
+		props.put("Persisted", "true");
+		props.put("PersistingFormat", "BINARY");
+		props.put("FileName", cacheFile.getAbsolutePath());
+
+		try {
+			StreamsCache.setProperties(props.entrySet());
+
+			Date date = new Date();
+			StreamsCache.addValue("string", "value1");
+			StreamsCache.addValue("double", Double.MAX_VALUE);
+			StreamsCache.addValue("byteArray", new byte[] { 2, 2, 2, 2, 2 });
+			StreamsCache.addValue("date", date);
+			StreamsCache.addValue("transient", "value2", true);
+			StreamsCache.addValue("removed", "value3");
+			StreamsCache.clearValues("removed");
+
+			// reinitializing cache replays changes log
+			StreamsCache.initialize();
+			Assert.assertEquals("value1", StreamsCache.getValue("string"));
+			Assert.assertNull(StreamsCache.getValue("transient"));
+			Assert.assertNull(StreamsCache.getValue("removed"));
+
+			// cleanup compacts changes log into snapshot
+			StreamsCache.cleanup();
+			Assert.assertEquals(0, new File(cacheFile.getAbsolutePath() + ".log").length());
+
+			StreamsCache.setProperties(props.entrySet());
+			Assert.assertEquals("value1", StreamsCache.getValue("string"));
+			Assert.assertEquals(Double.MAX_VALUE, StreamsCache.getValue("double"));
+			Assert.assertArrayEquals(new byte[] { 2, 2, 2, 2, 2 }, (byte[]) StreamsCache.getValue("byteArray"));
+			Assert.assertEquals(date, StreamsCache.getValue("date"));
+		} finally {
+			StreamsCache.cleanup();
+			props.put("Persisted", "false");
+			props.put("PersistingFormat", "XML");
+			props.remove("FileName");
+			StreamsCache.setProperties(props.entrySet());
+			Files.deleteIfExists(cacheFile.toPath());
+			Files.deleteIfExists(new File(cacheFile.getAbsolutePath() + ".log").toPath());
+		}
+	}
+
+	@Test
+	public void cacheStoreTornRecordTest() throws Exception {
+		File cacheFile = File.createTempFile("streamsCacheStore", ".bin");
+		File logFile = new File(cacheFile.getAbsolutePath() + ".log");
+		Files.delete(cacheFile.toPath());
+		UsecTimestamp usecTs = new UsecTimestamp(1555677400000123L);
+		XMLGregorianCalendar xmlCal = DatatypeFactory.newInstance()
+				.newXMLGregorianCalendar("2023-04-18T13:17:25.123+02:00"); // NON-NLS
+
+		try {
+			StreamsCacheStore store = new StreamsCacheStore(cacheFile.getAbsolutePath());
+			store.open();
+			store.logPut("usec", new StreamsCache.CacheValue(usecTs)); // NON-NLS
+			store.logPut("xmlCal", new StreamsCache.CacheValue(xmlCal)); // NON-NLS
+			store.close();
+
+			// emulate record torn by abnormal termination
+			try (FileOutputStream out = new FileOutputStream(logFile, true)) {
+				out.write(new byte[] { 0, 0, 0, 100, 1, 0, 0 });
+			}
+
+			Map<String, Object> values = new HashMap<>();
+			store = new StreamsCacheStore(cacheFile.getAbsolutePath());
+			Assert.assertEquals(2, store.load((k, v) -> values.put(k, v.value()), values::remove));
+			store.open();
+			store.logPut("afterRestart", new StreamsCache.CacheValue("value")); // NON-NLS
+			store.logRemove("xmlCal"); // NON-NLS
+			store.close();
+
+			values.clear();
+			store = new StreamsCacheStore(cacheFile.getAbsolutePath());
+			Assert.assertEquals(4, store.load((k, v) -> values.put(k, v.value()), values::remove));
+			store.close();
+			Assert.assertEquals("value", values.get("afterRestart")); // NON-NLS
+			Assert.assertEquals(usecTs, values.get("usec")); // NON-NLS
+			Assert.assertFalse(values.containsKey("xmlCal")); // NON-NLS
+
+			values.clear();
+			store = new StreamsCacheStore(cacheFile.getAbsolutePath());
+			store.open();
+			store.logPut("xmlCal", new StreamsCache.CacheValue(xmlCal)); // NON-NLS
+			store.close();
+			store.load((k, v) -> values.put(k, v.value()), values::remove);
+			Assert.assertEquals(xmlCal, values.get("xmlCal")); // NON-NLS
+		} finally {
+			Files.deleteIfExists(cacheFile.toPath());
+			Files.deleteIfExists(logFile.toPath());
+		}
+	}
+
+	@Test
+	public void cacheStoreCorruptSnapshotTest() throws Exception {
+		File cacheFile = File.createTempFile("streamsCacheStore", ".bin");
+		File logFile = new File(cacheFile.getAbsolutePath() + ".log");
+		File corruptFile = new File(cacheFile.getAbsolutePath() + ".corrupt");
+		Files.delete(cacheFile.toPath());
+
+		try {
+			StreamsCacheStore store = new StreamsCacheStore(cacheFile.getAbsolutePath());
+			store.open();
+			Map<String, StreamsCache.CacheValue> entries = new HashMap<>();
+			entries.put("snapshotKey", new StreamsCache.CacheValue("snapshotValue")); // NON-NLS
+			Assert.assertEquals(1, store.compact(entries));
+			store.logPut("logKey", new StreamsCache.CacheValue("logValue")); // NON-NLS
+			store.close();
+
+			// corrupt snapshot header
+			try (RandomAccessFile raf = new RandomAccessFile(cacheFile, "rw")) { // NON-NLS
+				raf.writeInt(0);
+			}
+
+			Map<String, Object> values = new HashMap<>();
+			store = new StreamsCacheStore(cacheFile.getAbsolutePath());
+			Assert.assertEquals(1, store.load((k, v) -> values.put(k, v.value()), values::remove));
+			Assert.assertEquals("logValue", values.get("logKey")); // NON-NLS
+			Assert.assertFalse(values.containsKey("snapshotKey")); // NON-NLS
+			Assert.assertFalse(cacheFile.exists());
+			Assert.assertTrue(corruptFile.exists());
+
+			// compaction writes valid snapshot from loaded values
+			store.open();
+			entries.clear();
+			entries.put("logKey", new StreamsCache.CacheValue("logValue")); // NON-NLS
+			Assert.assertEquals(1, store.compact(entries));
+			store.close();
+
+			values.clear();
+			store = new StreamsCacheStore(cacheFile.getAbsolutePath());
+			Assert.assertEquals(1, store.load((k, v) -> values.put(k, v.value()), values::remove));
+			store.close();
+			Assert.assertEquals("logValue", values.get("logKey")); // NON-NLS
+		} finally {
+			Files.deleteIfExists(cacheFile.toPath());
+			Files.deleteIfExists(logFile.toPath());
+			Files.deleteIfExists(corruptFile.toPath());
+		}
+	}
+
+	@Test
+	public void streamNamespacesTest() {
+		Map<String, String> props = new HashMap<>();
+		props.put("Persisted", "false");
+		props.put("StreamNamespaces", "true");
+		StreamsCache.setProperties(props.entrySet());
+
+		try {
+			StreamsCache.addEntry("req", "req.${id}", "${name}", "none");
+			ActivityInfo ai = new ActivityInfo() {
+				{
+					addActivityProperty("id", "1");
+					addActivityProperty("name", "request");
+				}
+			};
+			StreamsCache.cacheValues("stream1", ai, "Test Parser");
+
+			long hits = StreamsCache.getStatistics("stream1").getHitCount();
+			Assert.assertEquals("request", StreamsCache.getValue("stream1", ai, "req", "Test Parser"));
+			Assert.assertEquals("none", StreamsCache.getValue("stream2", ai, "req", "Test Parser"));
+			Assert.assertEquals(hits + 1, StreamsCache.getStatistics("stream1").getHitCount());
+			Assert.assertEquals(1, StreamsCache.getStatistics("stream2").getMissCount());
+
+			StreamsCache.addValue("drain.a", 1);
+			StreamsCache.addValue("drain.b", 2);
+			StreamsCache.addValue("drainer", 3);
+			Map<String, Object> drained = StreamsCache.drainValuesStarting("drain.");
+			Assert.assertEquals(2, drained.size());
+			Assert.assertEquals(1, drained.get("drain.a"));
+			Assert.assertNull(StreamsCache.getValue("drain.b"));
+			Assert.assertEquals(3, StreamsCache.getValue("drainer"));
+
+			ActivityInfo ai2 = new ActivityInfo() {
+				{
+					addActivityProperty("id", "2");
+					addActivityProperty("name", "other");
+				}
+			};
+			StreamsCache.cacheValues("stream1", ai2, "Test Parser");
+			StreamsCache.cacheValues("stream2", ai2, "Test Parser");
+			drained = StreamsCache.drainValuesStarting("stream1", "req.");
+			Assert.assertEquals(2, drained.size());
+			Assert.assertEquals("request", drained.get("req.1"));
+			Assert.assertEquals("other", drained.get("req.2"));
+			Assert.assertEquals("none", StreamsCache.getValue("stream1", ai, "req", "Test Parser"));
+			Assert.assertEquals("other", StreamsCache.getValue("stream2", ai2, "req", "Test Parser"));
+
+			StreamsCache.clearValues("stream2", "req.");
+			Assert.assertEquals("none", StreamsCache.getValue("stream2", ai2, "req", "Test Parser"));
+		} finally {
+			StreamsCache.cleanup();
+			props.put("StreamNamespaces", "false");
+			StreamsCache.setProperties(props.entrySet());
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * @version 1.0
+ */
+public class XmlStreamMatcherTest {
+
+	private static final String XML = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" // NON-NLS
+			+ "<root xmlns:foo=\"http://www.foo.org/\">\n" // NON-NLS
+			+ "  <employees>\n" // NON-NLS
+			+ "    <employee id=\"1\" datatype=\"String\">Johnny <b>Depp</b></employee>\n" // NON-NLS
+			+ "    <employee id=\"2\">Al Pacino</employee>\n" // NON-NLS
+			+ "  </employees>\n" // NON-NLS
+			+ "  <foo:companies>\n" // NON-NLS
+			+ "    <foo:company id=\"6\"><![CDATA[Tata]]></foo:company>\n" // NON-NLS
+			+ "    <company id=\"7\">Wipro</company>\n" // NON-NLS
+			+ "  </foo:companies>\n" // NON-NLS
+			+ "</root>"; // NON-NLS
+
+	@Test
+	public void testIsStreamable() {
+		assertTrue(XmlStreamMatcher.isStreamable("/root/employees/employee")); // NON-NLS
+		assertTrue(XmlStreamMatcher.isStreamable("root/employees/employee/@id")); // NON-NLS
+		assertTrue(XmlStreamMatcher.isStreamable("//employee/text()")); // NON-NLS
+		assertTrue(XmlStreamMatcher.isStreamable("/root//foo:*")); // NON-NLS
+		assertFalse(XmlStreamMatcher.isStreamable("/root/employees/employee[1]")); // NON-NLS
+		assertFalse(XmlStreamMatcher.isStreamable("count(/root/employees/employee)")); // NON-NLS
+		assertFalse(XmlStreamMatcher.isStreamable("/root/employees/../employees")); // NON-NLS
+		assertFalse(XmlStreamMatcher.isStreamable("/root/a | /root/b")); // NON-NLS
+		assertFalse(XmlStreamMatcher.isStreamable("/root/")); // NON-NLS
+		assertFalse(XmlStreamMatcher.isStreamable("@id")); // NON-NLS
+	}
+
+	@Test
+	public void testEvaluate() throws Exception {
+		List<String> xPaths = Arrays.asList("/root/employees/employee", "root/employees/employee/@id", // NON-NLS
+				"//employee/text()", "/root/foo:companies/foo:company", "//company/@id", "/root/missing"); // NON-NLS
+		XmlStreamMatcher matcher = new XmlStreamMatcher(xPaths, new NamespaceMap(), true);
+		Map<String, List<XmlStreamMatcher.MatchedValue>> values = matcher.evaluate(new StringReader(XML));
+
+		List<XmlStreamMatcher.MatchedValue> employees = values.get("/root/employees/employee"); // NON-NLS
+		assertEquals(2, employees.size());
+		assertEquals("Johnny Depp", employees.get(0).getText()); // NON-NLS
+		assertEquals("String", employees.get(0).getAttributes().get("datatype")); // NON-NLS
+		assertEquals("Al Pacino", employees.get(1).getText()); // NON-NLS
+
+		assertEquals(Arrays.asList("1", "2"), texts(values.get("root/employees/employee/@id"))); // NON-NLS
+		assertEquals(Arrays.asList("Johnny ", "Al Pacino"), texts(values.get("//employee/text()"))); // NON-NLS
+		assertEquals(Arrays.asList("Tata"), texts(values.get("/root/foo:companies/foo:company"))); // NON-NLS
+		assertEquals(Arrays.asList("7"), texts(values.get("//company/@id"))); // NON-NLS
+		assertNull(values.get("/root/missing")); // NON-NLS
+	}
+
+	private static List<String> texts(List<XmlStreamMatcher.MatchedValue> values) {
+		String[] texts = new String[values.size()];
+		for (int i = 0; i < texts.length; i++) {
+			texts[i] = values.get(i).getText();
+		}
+		return Arrays.asList(texts);
+	}
+}
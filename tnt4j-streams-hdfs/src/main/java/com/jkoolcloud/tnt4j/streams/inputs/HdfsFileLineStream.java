@@ -33,6 +33,7 @@ import org.apache.hadoop.fs.*;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.streams.configure.state.HdfsFileStreamStateHandler;
+import com.jkoolcloud.tnt4j.streams.utils.LineSource;
 import com.jkoolcloud.tnt4j.streams.utils.LoggerUtils;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
 import com.jkoolcloud.tnt4j.streams.utils.Utils;
@@ -291,7 +292,7 @@ public class HdfsFileLineStream extends AbstractFileLineStream<Path> {
 					}
 				}
 
-				LineNumberReader lnr = null;
+				LineSource lnr = null;
 
 				try {
 					lnr = rollToCurrentLine(fs);
@@ -324,10 +325,10 @@ public class HdfsFileLineStream extends AbstractFileLineStream<Path> {
 					"FileLineStream.changes.read.end", fileToRead.toUri(), lineNumber, lineNumber - prevLineNumber);
 		}
 
-		private LineNumberReader rollToCurrentLine(FileSystem fs) throws Exception {
-			LineNumberReader lnr;
+		private LineSource rollToCurrentLine(FileSystem fs) throws Exception {
+			LineSource lnr;
 			try {
-				lnr = new LineNumberReader(new InputStreamReader(fs.open(fileToRead), fileCharset));
+				lnr = LineSource.of(new LineNumberReader(new InputStreamReader(fs.open(fileToRead), fileCharset)));
 			} catch (Exception exc) {
 				logger().log(OpLevel.ERROR, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 						"FileLineStream.reader.error");
@@ -339,7 +340,7 @@ public class HdfsFileLineStream extends AbstractFileLineStream<Path> {
 			return skipOldLines(lnr, fs);
 		}
 
-		private LineNumberReader skipOldLines(LineNumberReader lnr, FileSystem fs) throws Exception {
+		private LineSource skipOldLines(LineSource lnr, FileSystem fs) throws Exception {
 			boolean skipFail = false;
 			for (int i = 0; i < lineNumber; i++) {
 				if (lnr.readLine() == null) {
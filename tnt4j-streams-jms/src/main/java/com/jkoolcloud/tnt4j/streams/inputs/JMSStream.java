@@ -17,9 +17,8 @@
 package com.jkoolcloud.tnt4j.streams.inputs;
 
 import java.lang.IllegalStateException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Properties;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.jms.*;
 import javax.naming.Context;
@@ -32,10 +31,7 @@ import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.streams.configure.JMSStreamProperties;
 import com.jkoolcloud.tnt4j.streams.configure.StreamProperties;
-import com.jkoolcloud.tnt4j.streams.utils.LoggerUtils;
-import com.jkoolcloud.tnt4j.streams.utils.StreamsConstants;
-import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
-import com.jkoolcloud.tnt4j.streams.utils.Utils;
+import com.jkoolcloud.tnt4j.streams.utils.*;
 
 /**
  * Implements a JMS message transported activity stream, where each JMS message payload carried data is assumed to
@@ -53,26 +49,47 @@ import com.jkoolcloud.tnt4j.streams.utils.Utils;
  * 'Topic')</li>
  * <li>java.naming.factory.initial - JNDI context factory name. (Required)</li>
  * <li>JMSConnFactory - JMS connection factory name. (Required)</li>
+ * <li>AcknowledgeMode - defines JMS messages acknowledgement mode: {@code AUTO} - session acknowledges every received
+ * message, {@code CLIENT} - stream acknowledges batch of received messages using
+ * {@link javax.jms.Message#acknowledge()}, {@code TRANSACTED} - stream commits batch of received messages using
+ * transacted session. Batch is acknowledged (or committed) only when all batch messages have been processed by stream.
+ * If received message can't be added to stream buffer, or stream stops before batch messages get processed, not
+ * acknowledged messages are recovered (or transaction is rolled back) to be redelivered. Default value - {@code AUTO}.
+ * (Optional)</li>
+ * <li>AckBatchSize - defines number of received messages to acknowledge at once. Default value - {@code 100}.
+ * (Optional) Actual only if 'AcknowledgeMode' is {@code CLIENT} or {@code TRANSACTED}.</li>
+ * <li>AckBatchWait - defines maximal time in milliseconds to wait for acknowledgement batch to fill up after first
+ * batch message has been received. Default value - {@code 1000}. (Optional) Actual only if 'AcknowledgeMode' is
+ * {@code CLIENT} or {@code TRANSACTED}.</li>
+ * <li>ConsumersCount - defines number of concurrent JMS sessions and consumers receiving messages from every
+ * destination. Default value - {@code 1}. (Optional)</li>
  * <li>List of JNDI context configuration properties supported by JMS server implementation. See
  * {@link javax.naming.Context} for more details. (Optional)</li>
  * </ul>
  *
- * @version $Revision: 1 $
+ * @version $Revision: 4 $
  *
  * @see com.jkoolcloud.tnt4j.streams.parsers.ActivityParser#isDataClassSupported(Object)
  */
 public class JMSStream extends AbstractBufferedStream<Message> {
 	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(JMSStream.class);
 	private static final String DEFINITION_DELIMITER = ",";// NON-NLS
+	private static final long PROCESSED_WAIT_INTERVAL = 500;
 
 	// Stream properties
 	private String[] queueNames = null;
 	private String[] topicNames = null;
 	private String jmsConnFactory = null;
+	private AcknowledgeMode acknowledgeMode = AcknowledgeMode.AUTO;
+	private int ackBatchSize = 100;
+	private long ackBatchWait = 1000;
+	private int consumersCount = 1;
 	// JMS Context properties
 	private Properties ctxProps = new Properties();
 
 	private List<JMSDataReceiver> jmsDataReceivers = new ArrayList<>();
+	private final Map<Message, JMSDataReceiver> unprocessedMessages = Collections
+			.synchronizedMap(new IdentityHashMap<>());
 
 	/**
 	 * Constructs an empty JMSStream. Requires configuration settings to set input stream source.
@@ -97,6 +114,18 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 		if (JMSStreamProperties.PROP_JMS_CONN_FACTORY.equalsIgnoreCase(name)) {
 			return jmsConnFactory;
 		}
+		if (JMSStreamProperties.PROP_ACKNOWLEDGE_MODE.equalsIgnoreCase(name)) {
+			return acknowledgeMode;
+		}
+		if (JMSStreamProperties.PROP_ACK_BATCH_SIZE.equalsIgnoreCase(name)) {
+			return ackBatchSize;
+		}
+		if (JMSStreamProperties.PROP_ACK_BATCH_WAIT.equalsIgnoreCase(name)) {
+			return ackBatchWait;
+		}
+		if (JMSStreamProperties.PROP_CONSUMERS_COUNT.equalsIgnoreCase(name)) {
+			return consumersCount;
+		}
 
 		String cpv = ctxProps.getProperty(name);
 		if (cpv != null) {
@@ -116,6 +145,14 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 			topicNames = value.split(DEFINITION_DELIMITER);
 		} else if (JMSStreamProperties.PROP_JMS_CONN_FACTORY.equalsIgnoreCase(name)) {
 			jmsConnFactory = value;
+		} else if (JMSStreamProperties.PROP_ACKNOWLEDGE_MODE.equalsIgnoreCase(name)) {
+			acknowledgeMode = AcknowledgeMode.valueOf(value.toUpperCase());
+		} else if (JMSStreamProperties.PROP_ACK_BATCH_SIZE.equalsIgnoreCase(name)) {
+			ackBatchSize = Integer.parseInt(value);
+		} else if (JMSStreamProperties.PROP_ACK_BATCH_WAIT.equalsIgnoreCase(name)) {
+			ackBatchWait = Long.parseLong(value);
+		} else if (JMSStreamProperties.PROP_CONSUMERS_COUNT.equalsIgnoreCase(name)) {
+			consumersCount = Integer.parseInt(value);
 		} else if (!StreamsConstants.isStreamCfgProperty(name, JMSStreamProperties.class)) {
 			ctxProps.put(name, decPassword(value));
 		}
@@ -135,6 +172,17 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 					"TNTInputStream.property.undefined.one.of", StreamProperties.PROP_QUEUE_NAME,
 					StreamProperties.PROP_TOPIC_NAME));
 		}
+
+		if (consumersCount < 1) {
+			throw new IllegalArgumentException(StreamsResources.getStringFormatted(
+					StreamsResources.RESOURCE_BUNDLE_NAME, "TNTInputStream.property.illegal",
+					JMSStreamProperties.PROP_CONSUMERS_COUNT, consumersCount));
+		}
+		if (acknowledgeMode != AcknowledgeMode.AUTO && ackBatchSize < 1) {
+			throw new IllegalArgumentException(StreamsResources.getStringFormatted(
+					StreamsResources.RESOURCE_BUNDLE_NAME, "TNTInputStream.property.illegal",
+					JMSStreamProperties.PROP_ACK_BATCH_SIZE, ackBatchSize));
+		}
 	}
 
 	@Override
@@ -147,15 +195,45 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 		initReceivers(topicNames, ic);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * JMS stream input buffer is filled by single thread only when single consumer of single destination receives
+	 * messages itself. In {@code AUTO} acknowledge mode messages are delivered by JMS provider threads.
+	 */
+	@Override
+	protected boolean isSingleProducer() {
+		return acknowledgeMode != AcknowledgeMode.AUTO && consumersCount == 1
+				&& countDestinations(queueNames) + countDestinations(topicNames) == 1;
+	}
+
+	private static int countDestinations(String[] destinations) {
+		int count = 0;
+		if (destinations != null) {
+			for (String destName : destinations) {
+				if (StringUtils.isNotBlank(destName)) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
 	private void initReceivers(String[] destinations, Context ic) throws Exception {
 		if (destinations != null) {
 			JMSDataReceiver jmsDataReceiver;
 			for (String destName : destinations) {
 				String tDestName = destName.trim();
 				if (StringUtils.isNotEmpty(tDestName)) {
-					jmsDataReceiver = new JMSDataReceiver();
-					jmsDataReceivers.add(jmsDataReceiver);
-					jmsDataReceiver.initialize(ic, tDestName, jmsConnFactory);
+					for (int i = 0; i < consumersCount; i++) {
+						String rName = "JMSStream.JMSDataReceiver"; // NON-NLS
+						if (consumersCount > 1) {
+							rName += "-" + (i + 1); // NON-NLS
+						}
+						jmsDataReceiver = new JMSDataReceiver(rName);
+						jmsDataReceivers.add(jmsDataReceiver);
+						jmsDataReceiver.initialize(ic, tDestName, jmsConnFactory);
+					}
 				}
 			}
 		}
@@ -194,6 +272,59 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 		return true;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Marks message as processed, so batch of received messages can be acknowledged when all batch messages have been
+	 * processed. Failed and filtered out message is marked too, since failure is already logged.
+	 */
+	@Override
+	protected void processActivityItem(Message item, AtomicBoolean failureFlag) throws Exception {
+		try {
+			super.processActivityItem(item, failureFlag);
+		} finally {
+			messageProcessed(item);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Marks message as processed when item output step completes, or when message processing fails or produces no
+	 * output.
+	 */
+	@Override
+	protected OrderedItemsSequencer.ItemOutput processActivityItemDeferred(Message item, AtomicBoolean failureFlag)
+			throws Exception {
+		OrderedItemsSequencer.ItemOutput output = null;
+		try {
+			output = super.processActivityItemDeferred(item, failureFlag);
+		} finally {
+			if (output == null) {
+				messageProcessed(item);
+			}
+		}
+		if (output == null) {
+			return null;
+		}
+
+		OrderedItemsSequencer.ItemOutput itemOutput = output;
+		return () -> {
+			try {
+				itemOutput.output();
+			} finally {
+				messageProcessed(item);
+			}
+		};
+	}
+
+	private void messageProcessed(Message msg) {
+		JMSDataReceiver receiver = unprocessedMessages.remove(msg);
+		if (receiver != null) {
+			receiver.messageProcessed();
+		}
+	}
+
 	@Override
 	protected long getActivityItemByteSize(Message itemMsg) {
 		try {
@@ -223,8 +354,14 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 		private MessageConsumer jmsReceiver;
 		private Destination destination;
 
-		private JMSDataReceiver() {
-			super("JMSStream.JMSDataReceiver"); // NON-NLS
+		private Message lastMessage;
+		private int batchCount = 0;
+		private long batchDeadline;
+		private final Object processedLock = new Object();
+		private int unprocessedCount = 0;
+
+		private JMSDataReceiver(String name) {
+			super(name);
 		}
 
 		/**
@@ -244,14 +381,30 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 
 			jmsConFactory = (ConnectionFactory) ctx.lookup(jmsConnFactoryName);
 			jmsCon = jmsConFactory.createConnection();
-			jmsSession = jmsCon.createSession(false, Session.AUTO_ACKNOWLEDGE);
+			switch (acknowledgeMode) {
+			case TRANSACTED:
+				jmsSession = jmsCon.createSession(true, Session.SESSION_TRANSACTED);
+				break;
+			case CLIENT:
+				jmsSession = jmsCon.createSession(false, Session.CLIENT_ACKNOWLEDGE);
+				break;
+			default:
+				jmsSession = jmsCon.createSession(false, Session.AUTO_ACKNOWLEDGE);
+				break;
+			}
 			destination = (Destination) ctx.lookup(destinationName);
 			jmsReceiver = jmsSession.createConsumer(destination);
-			jmsReceiver.setMessageListener(this);
+			if (acknowledgeMode == AcknowledgeMode.AUTO) {
+				jmsReceiver.setMessageListener(this);
+			}
 		}
 
 		/**
 		 * Starts JMS client to receive incoming data. Shuts down this data receiver if exception occurs.
+		 * <p>
+		 * When stream acknowledges messages in batches, this thread receives messages synchronously, since session
+		 * acknowledgement or commit has to be performed by the same thread messages are received. Filled batch is
+		 * acknowledged when stream has processed all batch messages.
 		 */
 		@Override
 		public void run() {
@@ -263,8 +416,180 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 							StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 							"AbstractBufferedStream.input.start.failed", exc);
 					shutdown();
+					return;
+				}
+
+				if (acknowledgeMode != AcknowledgeMode.AUTO) {
+					receiveBatches();
+				}
+			}
+		}
+
+		private void receiveBatches() {
+			try {
+				while (!isStopping()) {
+					long waitTime = batchCount == 0 ? ackBatchWait
+							: Math.max(1, batchDeadline - System.currentTimeMillis());
+					Message msg = jmsReceiver.receive(waitTime);
+					if (msg != null) {
+						trackMessage(msg);
+						if (!addInputToBuffer(msg)) {
+							untrackMessage(msg);
+							logger().log(OpLevel.WARNING,
+									StreamsResources.getBundle(JMSStreamConstants.RESOURCE_BUNDLE_NAME),
+									"JMSStream.recovering", getName(), batchCount + 1, acknowledgeMode);
+							recoverBatch();
+							continue;
+						}
+						lastMessage = msg;
+						if (batchCount++ == 0) {
+							batchDeadline = System.currentTimeMillis() + ackBatchWait;
+						}
+					}
+
+					if (batchCount >= ackBatchSize
+							|| (batchCount > 0 && System.currentTimeMillis() >= batchDeadline)) {
+						if (!awaitBatchProcessed()) {
+							break;
+						}
+						acknowledgeBatch();
+					}
+				}
+
+				completeLastBatch();
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				try {
+					completeLastBatch();
+				} catch (JMSException jexc) {
+					Utils.logThrowable(logger(), OpLevel.ERROR,
+							StreamsResources.getBundle(JMSStreamConstants.RESOURCE_BUNDLE_NAME),
+							"JMSStream.receive.failed", getName(), jexc);
+				}
+			} catch (JMSException exc) {
+				if (!isStopping()) {
+					Utils.logThrowable(logger(), OpLevel.ERROR,
+							StreamsResources.getBundle(JMSStreamConstants.RESOURCE_BUNDLE_NAME),
+							"JMSStream.receive.failed", getName(), exc);
+					shutdown();
+				}
+			}
+		}
+
+		private void trackMessage(Message msg) {
+			synchronized (processedLock) {
+				unprocessedCount++;
+			}
+			unprocessedMessages.put(msg, this);
+		}
+
+		private void untrackMessage(Message msg) {
+			if (unprocessedMessages.remove(msg) != null) {
+				messageProcessed();
+			}
+		}
+
+		/**
+		 * Marks message received by this data receiver as processed by stream.
+		 */
+		void messageProcessed() {
+			synchronized (processedLock) {
+				if (--unprocessedCount <= 0) {
+					unprocessedCount = 0;
+					processedLock.notifyAll();
+				}
+			}
+		}
+
+		/**
+		 * Waits until stream processes all messages received by this data receiver.
+		 *
+		 * @return {@code true} if all received messages have been processed, {@code false} if receiver or stream got
+		 *         stopped before it
+		 * @throws InterruptedException
+		 *             if interrupted while waiting
+		 */
+		private boolean awaitBatchProcessed() throws InterruptedException {
+			synchronized (processedLock) {
+				while (unprocessedCount > 0) {
+					if (isStopping()) {
+						return false;
+					}
+					processedLock.wait(PROCESSED_WAIT_INTERVAL);
 				}
 			}
+			return true;
+		}
+
+		/**
+		 * Acknowledges last batch of received messages when receiver stops, if all batch messages have been processed
+		 * by stream. Otherwise, recovers batch messages to be redelivered.
+		 *
+		 * @throws JMSException
+		 *             if JMS fails to acknowledge or recover messages due to internal error
+		 */
+		private void completeLastBatch() throws JMSException {
+			if (batchCount == 0) {
+				return;
+			}
+
+			boolean processed;
+			synchronized (processedLock) {
+				processed = unprocessedCount == 0;
+			}
+			if (processed) {
+				acknowledgeBatch();
+			} else {
+				logger().log(OpLevel.WARNING, StreamsResources.getBundle(JMSStreamConstants.RESOURCE_BUNDLE_NAME),
+						"JMSStream.recovering.unprocessed", getName(), batchCount, acknowledgeMode);
+				recoverBatch();
+			}
+		}
+
+		/**
+		 * Acknowledges (or commits if session is transacted) all messages received by this data receiver since last
+		 * acknowledgement.
+		 *
+		 * @throws JMSException
+		 *             if JMS fails to acknowledge messages due to internal error
+		 */
+		private void acknowledgeBatch() throws JMSException {
+			if (batchCount == 0) {
+				return;
+			}
+
+			logger().log(OpLevel.TRACE, StreamsResources.getBundle(JMSStreamConstants.RESOURCE_BUNDLE_NAME),
+					"JMSStream.acknowledging", getName(), batchCount, acknowledgeMode);
+			try {
+				if (acknowledgeMode == AcknowledgeMode.TRANSACTED) {
+					jmsSession.commit();
+				} else {
+					lastMessage.acknowledge();
+				}
+			} finally {
+				lastMessage = null;
+				batchCount = 0;
+			}
+		}
+
+		/**
+		 * Recovers (or rolls back if session is transacted) all messages received by this data receiver since last
+		 * acknowledgement, so they get redelivered.
+		 *
+		 * @throws JMSException
+		 *             if JMS fails to recover messages due to internal error
+		 */
+		private void recoverBatch() throws JMSException {
+			try {
+				if (acknowledgeMode == AcknowledgeMode.TRANSACTED) {
+					jmsSession.rollback();
+				} else {
+					jmsSession.recover();
+				}
+			} finally {
+				lastMessage = null;
+				batchCount = 0;
+			}
 		}
 
 		/**
@@ -275,6 +600,14 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 		 */
 		@Override
 		void closeInternals() throws JMSException {
+			if (acknowledgeMode != AcknowledgeMode.AUTO && isAlive() && Thread.currentThread() != this) {
+				// let receiving thread to acknowledge last batch before closing session
+				try {
+					join(ackBatchWait + 5000);
+				} catch (InterruptedException exc) {
+					Thread.currentThread().interrupt();
+				}
+			}
 			if (jmsReceiver != null) {
 				jmsReceiver.close();
 			}
@@ -301,4 +634,22 @@ public class JMSStream extends AbstractBufferedStream<Message> {
 			addInputToBuffer(msg);
 		}
 	}
+
+	/**
+	 * This enumeration defines JMS messages acknowledgement modes.
+	 */
+	enum AcknowledgeMode {
+		/**
+		 * Session acknowledges every received message.
+		 */
+		AUTO,
+		/**
+		 * Stream acknowledges batch of received messages.
+		 */
+		CLIENT,
+		/**
+		 * Stream commits batch of received messages using transacted session.
+		 */
+		TRANSACTED
+	}
 }
@@ -17,16 +17,23 @@
 package com.jkoolcloud.tnt4j.streams.inputs;
 
 import static com.jkoolcloud.tnt4j.streams.TestUtils.testPropertyList;
+import static org.mockito.Mockito.*;
 
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.jms.*;
 import javax.naming.Context;
 import javax.naming.InitialContext;
+import javax.naming.spi.InitialContextFactory;
 
+import org.junit.After;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -42,6 +49,9 @@ import com.solacesystems.jms.SupportedProperty;
 public class JMSStreamTest {
 	JMSStream input;
 
+	private Session session;
+	private final BlockingQueue<Message> received = new LinkedBlockingQueue<>();
+
 	@Test
 	public void testProperties() {
 		input = new JMSStream();
@@ -54,6 +64,153 @@ public class JMSStreamTest {
 		testPropertyList(input, props.entrySet());
 	}
 
+	@Test
+	public void testBatchAcknowledgeProperties() {
+		input = new JMSStream();
+		Map<String, String> props = new HashMap<>(4);
+		props.put(JMSStreamProperties.PROP_ACKNOWLEDGE_MODE, "TRANSACTED"); // NON-NLS
+		props.put(JMSStreamProperties.PROP_ACK_BATCH_SIZE, "50"); // NON-NLS
+		props.put(JMSStreamProperties.PROP_ACK_BATCH_WAIT, "500"); // NON-NLS
+		props.put(JMSStreamProperties.PROP_CONSUMERS_COUNT, "4"); // NON-NLS
+		input.setProperties(props.entrySet());
+		testPropertyList(input, props.entrySet());
+	}
+
+	@After
+	public void tearDown() {
+		if (input != null) {
+			input.cleanup();
+		}
+	}
+
+	@Test
+	public void testCommitAtBatchSize() throws Exception {
+		startBatchStream("TRANSACTED", 3, 2000, 10); // NON-NLS
+		for (int i = 0; i < 3; i++) {
+			received.add(mock(TextMessage.class));
+		}
+		Thread.sleep(300);
+		verify(session, never()).commit();
+
+		processItems(3);
+		verify(session, timeout(1000)).commit();
+
+		received.add(mock(TextMessage.class));
+		Thread.sleep(300);
+		verify(session, times(1)).commit();
+		verify(session, never()).rollback();
+	}
+
+	@Test
+	public void testAcknowledgeAtBatchWait() throws Exception {
+		startBatchStream("CLIENT", 10, 200, 10); // NON-NLS
+		Message msg1 = mock(TextMessage.class);
+		Message msg2 = mock(TextMessage.class);
+		received.add(msg1);
+		received.add(msg2);
+		processItems(2);
+
+		verify(msg2, timeout(2000)).acknowledge();
+		verify(msg1, never()).acknowledge();
+		verify(session, never()).recover();
+	}
+
+	@Test
+	public void testRecoverOnRejectedMessage() throws Exception {
+		startBatchStream("CLIENT", 10, 1000, 2); // NON-NLS
+		Message[] msgs = new Message[3];
+		for (int i = 0; i < msgs.length; i++) {
+			msgs[i] = mock(TextMessage.class);
+			received.add(msgs[i]);
+		}
+
+		verify(session, timeout(2000)).recover();
+		input.cleanup();
+		input = null;
+		for (Message msg : msgs) {
+			verify(msg, never()).acknowledge();
+		}
+	}
+
+	@Test
+	public void testRollbackOnRejectedMessage() throws Exception {
+		startBatchStream("TRANSACTED", 10, 1000, 2); // NON-NLS
+		for (int i = 0; i < 3; i++) {
+			received.add(mock(TextMessage.class));
+		}
+
+		verify(session, timeout(2000)).rollback();
+		input.cleanup();
+		input = null;
+		verify(session, never()).commit();
+	}
+
+	@Test
+	public void testRecoverUnprocessedOnStop() throws Exception {
+		startBatchStream("CLIENT", 2, 1000, 10); // NON-NLS
+		Message msg1 = mock(TextMessage.class);
+		Message msg2 = mock(TextMessage.class);
+		received.add(msg1);
+		received.add(msg2);
+		processItems(1);
+
+		Thread.sleep(300);
+		input.cleanup();
+		input = null;
+		verify(session).recover();
+		verify(msg1, never()).acknowledge();
+		verify(msg2, never()).acknowledge();
+	}
+
+	private void processItems(int count) throws Exception {
+		for (int i = 0; i < count; i++) {
+			input.processActivityItem(input.getNextItem(), new AtomicBoolean());
+		}
+	}
+
+	private void startBatchStream(String ackMode, int batchSize, long batchWait, int bufferSize) throws Exception {
+		ConnectionFactory connFactory = mock(ConnectionFactory.class);
+		Connection conn = mock(Connection.class);
+		Destination dest = mock(Destination.class);
+		MessageConsumer consumer = mock(MessageConsumer.class);
+		session = mock(Session.class);
+		Context ctx = mock(Context.class);
+		when(ctx.lookup("JMS")).thenReturn(connFactory); // NON-NLS
+		when(ctx.lookup("test")).thenReturn(dest); // NON-NLS
+		when(connFactory.createConnection()).thenReturn(conn);
+		when(conn.createSession(anyBoolean(), anyInt())).thenReturn(session);
+		when(session.createConsumer(dest)).thenReturn(consumer);
+		when(consumer.receive(anyLong()))
+				.thenAnswer(invocation -> received.poll(invocation.getArgument(0), TimeUnit.MILLISECONDS));
+		MockContextFactory.context = ctx;
+
+		Map<String, String> props = new HashMap<>(9);
+		props.put(Context.INITIAL_CONTEXT_FACTORY, MockContextFactory.class.getName());
+		props.put(Context.PROVIDER_URL, "localhost"); // NON-NLS
+		props.put(StreamProperties.PROP_QUEUE_NAME, "test"); // NON-NLS
+		props.put(JMSStreamProperties.PROP_JMS_CONN_FACTORY, "JMS"); // NON-NLS
+		props.put(JMSStreamProperties.PROP_ACKNOWLEDGE_MODE, ackMode);
+		props.put(JMSStreamProperties.PROP_ACK_BATCH_SIZE, String.valueOf(batchSize));
+		props.put(JMSStreamProperties.PROP_ACK_BATCH_WAIT, String.valueOf(batchWait));
+		props.put(StreamProperties.PROP_BUFFER_SIZE, String.valueOf(bufferSize));
+		props.put(StreamProperties.PROP_FULL_BUFFER_ADD_POLICY, "DROP"); // NON-NLS
+		input = new JMSStream();
+		input.setProperties(props.entrySet());
+		input.startStream();
+	}
+
+	/**
+	 * JNDI context factory returning mocked JMS context.
+	 */
+	public static class MockContextFactory implements InitialContextFactory {
+		static Context context;
+
+		@Override
+		public Context getInitialContext(Hashtable<?, ?> environment) {
+			return context;
+		}
+	}
+
 	// @Test
 	// public void testInitialize() throws Exception {
 	// testProperties();
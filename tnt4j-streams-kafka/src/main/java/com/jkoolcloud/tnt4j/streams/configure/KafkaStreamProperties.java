@@ -19,7 +19,7 @@ package com.jkoolcloud.tnt4j.streams.configure;
 /**
  * Lists predefined property names used by TNT4-Streams Kafka input streams.
  *
- * @version $Revision: 1 $
+ * @version $Revision: 2 $
  */
 public interface KafkaStreamProperties extends StreamProperties {
 
@@ -32,4 +32,9 @@ public interface KafkaStreamProperties extends StreamProperties {
 	 * Constant for name of built-in {@value} property.
 	 */
 	String PROP_TOPIC_PATTERN = "TopicPattern"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_CONSUMERS_COUNT = "ConsumersCount"; // NON-NLS
 }
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import javax.management.*;
@@ -40,6 +41,7 @@ import org.apache.kafka.common.TopicPartition;
 
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Histogram;
+import com.codahale.metrics.LockFreeExponentiallyDecayingReservoir;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.json.MetricsModule;
@@ -61,6 +63,7 @@ import com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.InterceptionsManag
 import com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.TNTKafkaCInterceptor;
 import com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.TNTKafkaPInterceptor;
 import com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.reporters.InterceptionsReporter;
+import com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.reporters.trace.TraceSampler;
 import com.jkoolcloud.tnt4j.streams.utils.*;
 import com.jkoolcloud.tnt4j.tracker.Tracker;
 import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
@@ -75,11 +78,15 @@ import com.jkoolcloud.tnt4j.tracker.TrackingActivity;
  * <li>Kafka producer JMX metrics</li>
  * <li>JVM JMX metrics</li>
  * <li>This reporter accumulated additional Kafka metrics</li>
+ * <li>Messages trace sampling counters</li>
  * </ul>
  * <p>
  * Metrics data is reported in scheduled intervals and on interceptions shutdown.
+ * <p>
+ * Intercepted client calls update topic metrics without locking: topic metrics are looked up by reusable thread bound
+ * key, and metrics use striped counters and lock-free reservoirs, so reporting does not block client threads.
  *
- * @version $Revision: 2 $
+ * @version $Revision: 4 $
  */
 public class MetricsReporter implements InterceptionsReporter {
 	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(MetricsReporter.class);
@@ -95,7 +102,10 @@ public class MetricsReporter implements InterceptionsReporter {
 
 	private final Tracker tracker;
 
-	private final Map<String, TopicMetrics> topicsMetrics = new HashMap<>();
+	private static final ThreadLocal<MetricsKey> LOOKUP_KEY = ThreadLocal.withInitial(MetricsKey::new);
+
+	private final Map<MetricsKey, TopicMetrics> topicsMetrics = new ConcurrentHashMap<>();
+	private final ObjectMapper mapper = new ObjectMapper();
 
 	private boolean useObjectNameProperties = true;
 
@@ -118,7 +128,7 @@ public class MetricsReporter implements InterceptionsReporter {
 		/**
 		 * Last producer sent message timestamp.
 		 */
-		long lastSend;
+		volatile long lastSend;
 		/**
 		 * The metrics correlator, tying all metrics packages of one particular sampling.
 		 */
@@ -165,6 +175,30 @@ public class MetricsReporter implements InterceptionsReporter {
 			this.callName = callName;
 		}
 
+		/**
+		 * Registers histogram backed by lock-free reservoir.
+		 *
+		 * @param name
+		 *            histogram name
+		 * @return histogram instance
+		 */
+		Histogram histogram(String name) {
+			return mRegistry.histogram(name,
+					() -> new Histogram(LockFreeExponentiallyDecayingReservoir.builder().build()));
+		}
+
+		/**
+		 * Registers timer backed by lock-free reservoir.
+		 *
+		 * @param name
+		 *            timer name
+		 * @return timer instance
+		 */
+		com.codahale.metrics.Timer timer(String name) {
+			return mRegistry.timer(name,
+					() -> new com.codahale.metrics.Timer(LockFreeExponentiallyDecayingReservoir.builder().build()));
+		}
+
 		/**
 		 * Resets metrics before next collection iteration (after send).
 		 */
@@ -175,14 +209,14 @@ public class MetricsReporter implements InterceptionsReporter {
 		abstract Offset getOffset();
 	}
 
-	private static class ConsumerTopicMetrics extends TopicMetrics {
+	static class ConsumerTopicMetrics extends TopicMetrics {
 		private final Meter consumeM = mRegistry.meter("consumeMeter"); // NON-NLS
 		private final Counter consumeC = mRegistry.counter("consumeIterationsCounter"); // NON-NLS
 		private final Counter consumeMessagesC = mRegistry.counter("consumeMessageCounter"); // NON-NLS
 		private final Counter commitC = mRegistry.counter("commitCounter"); // NON-NLS
-		private final Histogram keySize = mRegistry.histogram("keySize"); // NON-NLS
-		private final Histogram valueSize = mRegistry.histogram("valueSize"); // NON-NLS
-		private final com.codahale.metrics.Timer latency = mRegistry.timer("messageLatency");// NON-NLS
+		private final Histogram keySize = histogram("keySize"); // NON-NLS
+		private final Histogram valueSize = histogram("valueSize"); // NON-NLS
+		private final com.codahale.metrics.Timer latency = timer("messageLatency");// NON-NLS
 
 		/**
 		 * Topic consumer offset data.
@@ -212,8 +246,8 @@ public class MetricsReporter implements InterceptionsReporter {
 		}
 	}
 
-	private static class ProducerTopicMetrics extends TopicMetrics {
-		private final Histogram jitter = mRegistry.histogram("messageProducerJitter"); // NON-NLS
+	static class ProducerTopicMetrics extends TopicMetrics {
+		private final Histogram jitter = histogram("messageProducerJitter"); // NON-NLS
 		private final Meter sendM = mRegistry.meter("sendMeter"); // NON-NLS
 		private final Meter ackM = mRegistry.meter("ackMeter"); // NON-NLS
 		private final Counter sendC = mRegistry.counter("sendCounter"); // NON-NLS
@@ -265,12 +299,13 @@ public class MetricsReporter implements InterceptionsReporter {
 	 */
 	public MetricsReporter(int reportingPeriod, Integer reportingDelay) {
 		tracker = initTracker();
+		mapper.registerModule(new MetricsModule(TimeUnit.SECONDS, TimeUnit.MILLISECONDS, false));
+		mapper.registerModule(new MetricsRegistryModule());
+
 		TimerTask mrt = new TimerTask() {
 			@Override
 			public void run() {
-				synchronized (topicsMetrics) {
-					reportMetrics(topicsMetrics);
-				}
+				reportMetrics(topicsMetrics);
 			}
 		};
 		long period = TimeUnit.SECONDS.toMillis(reportingPeriod);
@@ -286,8 +321,8 @@ public class MetricsReporter implements InterceptionsReporter {
 			ClusterResource clusterResource) {
 		String topic = producerRecord.topic();
 		String clientId = MapUtils.getString(interceptor.getConfig(), ProducerConfig.CLIENT_ID_CONFIG);
-		ProducerTopicMetrics topicMetrics = getProducerTopicMetrics(topic, producerRecord.partition(), clientId,
-				"send"); // NON-NLS
+		ProducerTopicMetrics topicMetrics = getProducerTopicMetrics(topic,
+				producerRecord.partition() == null ? -1 : producerRecord.partition(), clientId, "send"); // NON-NLS
 		long now = System.currentTimeMillis();
 		long jitter = now - topicMetrics.lastSend;
 		topicMetrics.jitter.update(jitter);
@@ -299,45 +334,55 @@ public class MetricsReporter implements InterceptionsReporter {
 				producerRecord.timestamp() == null ? System.currentTimeMillis() : producerRecord.timestamp());
 	}
 
-	private ConsumerTopicMetrics getConsumerTopicMetrics(String topic, Integer partition, String clientId,
+	private ConsumerTopicMetrics getConsumerTopicMetrics(String topic, int partition, String clientId,
 			String callName) {
-		if (topic == null) {
-			topic = TOPIC_UNRELATED;
-		}
-		String key = getMetricsKey(topic, partition, ConsumerTopicMetrics.class, callName);
-		ConsumerTopicMetrics topicMetrics = (ConsumerTopicMetrics) topicsMetrics.get(key);
-		if (topicMetrics == null) {
-			topicMetrics = new ConsumerTopicMetrics(topic, partition, clientId, callName);
-			synchronized (topicsMetrics) {
-				topicsMetrics.put(key, topicMetrics);
-			}
-		}
-
-		return topicMetrics;
+		return (ConsumerTopicMetrics) getTopicMetrics(topic, partition, ConsumerTopicMetrics.class, clientId,
+				callName);
 	}
 
-	private ProducerTopicMetrics getProducerTopicMetrics(String topic, Integer partition, String clientId,
+	private ProducerTopicMetrics getProducerTopicMetrics(String topic, int partition, String clientId,
 			String callName) {
+		return (ProducerTopicMetrics) getTopicMetrics(topic, partition, ProducerTopicMetrics.class, clientId,
+				callName);
+	}
+
+	/**
+	 * Finds topic metrics using calling thread bound lookup key, so no key instance is allocated for existing topic
+	 * metrics. If topic metrics are not found, new topic metrics instance is created.
+	 *
+	 * @param topic
+	 *            the topic name
+	 * @param partition
+	 *            the partition index, or {@code -1} if partition is undefined
+	 * @param metricsClass
+	 *            topic metrics class
+	 * @param clientId
+	 *            client identifier
+	 * @param callName
+	 *            intercepted client call name
+	 * @return topic metrics instance
+	 */
+	TopicMetrics getTopicMetrics(String topic, int partition, Class<? extends TopicMetrics> metricsClass,
+			String clientId, String callName) {
 		if (topic == null) {
 			topic = TOPIC_UNRELATED;
 		}
-		String key = getMetricsKey(topic, partition, ProducerTopicMetrics.class, callName);
-		ProducerTopicMetrics topicMetrics = (ProducerTopicMetrics) topicsMetrics.get(key);
+		MetricsKey key = LOOKUP_KEY.get().set(topic, partition, metricsClass, callName);
+		TopicMetrics topicMetrics = topicsMetrics.get(key);
 		if (topicMetrics == null) {
-			topicMetrics = new ProducerTopicMetrics(topic, partition, clientId, callName);
-			synchronized (topicsMetrics) {
-				topicsMetrics.put(key, topicMetrics);
+			Integer p = partition < 0 ? null : partition;
+			TopicMetrics newMetrics = metricsClass == ProducerTopicMetrics.class
+					? new ProducerTopicMetrics(topic, p, clientId, callName)
+					: new ConsumerTopicMetrics(topic, p, clientId, callName);
+			topicMetrics = topicsMetrics.putIfAbsent(key.copy(), newMetrics);
+			if (topicMetrics == null) {
+				topicMetrics = newMetrics;
 			}
 		}
 
 		return topicMetrics;
 	}
 
-	private static String getMetricsKey(String topic, Integer partition, Class<? extends TopicMetrics> metricsClass,
-			String op) {
-		return topic + ":" + partition + ":" + metricsClass.getSimpleName() + ":" + op; // NON-NLS
-	}
-
 	@Override
 	public void acknowledge(TNTKafkaPInterceptor interceptor, RecordMetadata recordMetadata, Exception e,
 			ClusterResource clusterResource) {
@@ -393,9 +438,7 @@ public class MetricsReporter implements InterceptionsReporter {
 	@Override
 	public void shutdown() {
 		metricsReportingTimer.cancel();
-		synchronized (topicsMetrics) {
-			reportMetrics(topicsMetrics);
-		}
+		reportMetrics(topicsMetrics);
 
 		synchronized (tracker) {
 			Utils.close(tracker);
@@ -408,7 +451,7 @@ public class MetricsReporter implements InterceptionsReporter {
 	 * @param mRegistry
 	 *            metrics registry map
 	 */
-	protected void reportMetrics(Map<String, TopicMetrics> mRegistry) {
+	protected void reportMetrics(Map<?, TopicMetrics> mRegistry) {
 		synchronized (tracker) {
 			String metricsCorrelator = tracker.newUUID();
 
@@ -427,6 +470,11 @@ public class MetricsReporter implements InterceptionsReporter {
 					metricsJMX.setCorrelator(metricsCorrelator);
 					prepareAndSend(metricsJMX);
 				}
+				TrackingActivity samplingMetrics = collectTraceSamplingMetrics(tracker);
+				if (samplingMetrics != null) {
+					samplingMetrics.setCorrelator(metricsCorrelator);
+					prepareAndSend(samplingMetrics);
+				}
 			} catch (Exception exc) {
 				Utils.logThrowable(LOGGER, OpLevel.WARNING,
 						StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
@@ -434,11 +482,7 @@ public class MetricsReporter implements InterceptionsReporter {
 			}
 
 			try {
-				ObjectMapper mapper = new ObjectMapper();
-				mapper.registerModule(new MetricsModule(TimeUnit.SECONDS, TimeUnit.MILLISECONDS, false));
-				mapper.registerModule(new MetricsRegistryModule());
-				for (Map.Entry<String, TopicMetrics> metrics : mRegistry.entrySet()) {
-					TopicMetrics topicMetrics = metrics.getValue();
+				for (TopicMetrics topicMetrics : mRegistry.values()) {
 					topicMetrics.correlator = metricsCorrelator;
 					String msg = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(topicMetrics);
 					topicMetrics.reset();
@@ -472,6 +516,34 @@ public class MetricsReporter implements InterceptionsReporter {
 		return tracker;
 	}
 
+	/**
+	 * Collects messages trace sampling statistics accounted by
+	 * {@link com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.reporters.trace.TraceSampler}.
+	 *
+	 * @param tracker
+	 *            tracker instance to use
+	 * @return activity containing snapshots of topic operations sampling counters, or {@code null} if there are no
+	 *         sampled messages
+	 */
+	protected TrackingActivity collectTraceSamplingMetrics(Tracker tracker) {
+		Collection<TraceSampler.SamplingStatistics> statistics = TraceSampler.getStatistics();
+		if (statistics.isEmpty()) {
+			return null;
+		}
+
+		TrackingActivity activity = tracker.newActivity(OpLevel.INFO, "Kafka messages trace sampling"); // NON-NLS
+		for (TraceSampler.SamplingStatistics stats : statistics) {
+			PropertySnapshot snapshot = new PropertySnapshot(stats.getTopic() + ":" + stats.getOperation()); // NON-NLS
+			snapshot.add("Topic", stats.getTopic()); // NON-NLS
+			snapshot.add("Operation", stats.getOperation()); // NON-NLS
+			snapshot.add("SampledKept", stats.getKeptCount()); // NON-NLS
+			snapshot.add("SampledDropped", stats.getDroppedCount()); // NON-NLS
+			activity.addSnapshot(snapshot);
+		}
+
+		return activity;
+	}
+
 	/**
 	 * Collects Kafka consumer domain {@code 'kafka.consumer'} JMX attributes values.
 	 *
@@ -742,9 +814,13 @@ public class MetricsReporter implements InterceptionsReporter {
 	 */
 	protected static class Offset {
 		/**
-		 * Topic offset values map.
+		 * Topic offset index.
+		 */
+		volatile long offset;
+		/**
+		 * Message production timestamp.
 		 */
-		final Map<String, Object> values = new HashMap<>(2);
+		volatile long pTimestamp;
 
 		/**
 		 * Constructs a new Offset.
@@ -762,10 +838,8 @@ public class MetricsReporter implements InterceptionsReporter {
 		 *            message production timestamp
 		 */
 		void update(long offset, long p_timestamp) {
-			synchronized (values) {
-				values.put("offset", offset); // NON-NLS
-				values.put("p_timestamp", p_timestamp); // NON-NLS
-			}
+			this.offset = offset;
+			this.pTimestamp = p_timestamp;
 		}
 
 		/**
@@ -774,9 +848,10 @@ public class MetricsReporter implements InterceptionsReporter {
 		 * @return topic offset values map
 		 */
 		Map<?, ?> values() {
-			synchronized (values) {
-				return values;
-			}
+			Map<String, Object> values = new LinkedHashMap<>(4);
+			values.put("offset", offset); // NON-NLS
+			values.put("p_timestamp", pTimestamp); // NON-NLS
+			return values;
 		}
 
 		/**
@@ -791,6 +866,15 @@ public class MetricsReporter implements InterceptionsReporter {
 	 * Defines consumer topic offset data.
 	 */
 	protected static class COffset extends Offset {
+		/**
+		 * Message production timestamp type.
+		 */
+		volatile String pTimestampType;
+		/**
+		 * Message consumption timestamp.
+		 */
+		volatile long cTimestamp;
+
 		/**
 		 * Constructs a new COffset.
 		 */
@@ -809,12 +893,18 @@ public class MetricsReporter implements InterceptionsReporter {
 		 *            message consumption timestamp
 		 */
 		void update(long offset, long p_timestamp, String tType, long c_timestamp) {
-			synchronized (values) {
-				values.put("offset", offset); // NON-NLS
-				values.put("p_timestamp", p_timestamp); // NON-NLS
-				values.put("p_timestamp_type", tType); // NON-NLS
-				values.put("c_timestamp", c_timestamp); // NON-NLS
-			}
+			update(offset, p_timestamp);
+			this.pTimestampType = tType;
+			this.cTimestamp = c_timestamp;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		Map<?, ?> values() {
+			Map<String, Object> values = (Map<String, Object>) super.values();
+			values.put("p_timestamp_type", pTimestampType); // NON-NLS
+			values.put("c_timestamp", cTimestamp); // NON-NLS
+			return values;
 		}
 
 		@Override
@@ -823,6 +913,55 @@ public class MetricsReporter implements InterceptionsReporter {
 		}
 	}
 
+	/**
+	 * Topic metrics lookup key. Thread bound key instance is reused for lookups, and its copy is used to store new
+	 * topic metrics.
+	 */
+	static final class MetricsKey {
+		private String topic;
+		private int partition;
+		private Class<? extends TopicMetrics> metricsClass;
+		private String op;
+		private int hash;
+
+		MetricsKey set(String topic, int partition, Class<? extends TopicMetrics> metricsClass, String op) {
+			this.topic = topic;
+			this.partition = partition;
+			this.metricsClass = metricsClass;
+			this.op = op;
+
+			int h = topic.hashCode();
+			h = 31 * h + partition;
+			h = 31 * h + metricsClass.hashCode();
+			h = 31 * h + (op == null ? 0 : op.hashCode());
+			this.hash = h;
+
+			return this;
+		}
+
+		MetricsKey copy() {
+			return new MetricsKey().set(topic, partition, metricsClass, op);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof MetricsKey)) {
+				return false;
+			}
+			MetricsKey other = (MetricsKey) obj;
+			return hash == other.hash && partition == other.partition && metricsClass == other.metricsClass
+					&& topic.equals(other.topic) && Objects.equals(op, other.op);
+		}
+	}
+
 	/**
 	 * Metric property name builder.
 	 */
@@ -26,6 +26,7 @@ import java.security.MessageDigest;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
@@ -39,8 +40,14 @@ import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.ClusterResource;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.StringDeserializer;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.LockFreeExponentiallyDecayingReservoir;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.streams.StreamsAgent;
@@ -56,6 +63,7 @@ import com.jkoolcloud.tnt4j.streams.inputs.InputStreamEventsAdapter;
 import com.jkoolcloud.tnt4j.streams.inputs.InterceptorStream;
 import com.jkoolcloud.tnt4j.streams.inputs.StreamStatus;
 import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStream;
+import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStreamStatistics;
 import com.jkoolcloud.tnt4j.streams.parsers.ActivityParser;
 import com.jkoolcloud.tnt4j.streams.utils.*;
 
@@ -70,8 +78,16 @@ import com.jkoolcloud.tnt4j.streams.utils.*;
  * <li>consume - n {@link com.jkoolcloud.tnt4j.core.OpType#RECEIVE} type events.</li>
  * <li>commit - n {@link com.jkoolcloud.tnt4j.core.OpType#EVENT} type events.</li>
  * </ul>
+ * <p>
+ * Interceptor callbacks only capture intercepted data snapshot into bounded lock-free trace events queue, so
+ * application producer/consumer threads are not charged with trace events parsing. When trace events queue is full,
+ * captured trace event is dropped. Captured trace events are parsed by dedicated reporter threads and put into trace
+ * stream buffer. Interceptor callbacks overhead, dropped and sampled out trace events counts are reported over trace
+ * stream metrics.
+ * <p>
+ * Traced messages can be sampled per topic and intercepted operation, see {@link TraceSampler}.
  *
- * @version $Revision: 2 $
+ * @version $Revision: 4 $
  */
 public class MsgTraceReporter implements InterceptionsReporter {
 	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(MsgTraceReporter.class);
@@ -113,6 +129,11 @@ public class MsgTraceReporter implements InterceptionsReporter {
 	public static final String DEFAULT_PARSER_NAME = "KafkaTraceParser"; // NON-NLS
 	private static final String PARSER_DELIM = "#"; // NON-NLS
 
+	private static final int DEFAULT_QUEUE_SIZE = 8192;
+	private static final int PARSE_BATCH_SIZE = 100;
+	private static final long POLL_TIMEOUT = 500;
+	private static final long PARSERS_STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
 	private ActivityParser mainParser;
 
 	private InterceptorStream<ActivityInfo> stream;
@@ -123,6 +144,14 @@ public class MsgTraceReporter implements InterceptionsReporter {
 	private KafkaConsumer<String, TraceCommandDeserializer.TopicTraceCommand> consumer;
 	private final Object closeLock = new Object();
 
+	private RingBufferQueue<KafkaTraceEventData> traceQueue;
+	private TraceSampler traceSampler;
+	private final List<TraceEventsParser> traceParsers = new ArrayList<>();
+
+	private Timer captureTimer;
+	private Counter droppedCounter;
+	private Counter sampledOutCounter;
+
 	/**
 	 * Constructs a new MsgTraceReporter.
 	 * 
@@ -210,6 +239,8 @@ public class MsgTraceReporter implements InterceptionsReporter {
 		LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
 				"MsgTraceReporter.stream.started", stream.getName());
 
+		startTraceParsers(interceptorProperties);
+
 		if (enableCfgPolling) {
 			String cfgTopicName = interceptorProperties.getProperty(TRACER_PROPERTY_PREFIX + "cfg.topic"); // NON-NLS
 			if (StringUtils.isNotEmpty(cfgTopicName)) {
@@ -224,6 +255,47 @@ public class MsgTraceReporter implements InterceptionsReporter {
 		}
 	}
 
+	private void startTraceParsers(Properties interceptorProperties) {
+		int queueSize = Integer.parseInt(Utils.getString(TRACER_PROPERTY_PREFIX + "queue.size", // NON-NLS
+				interceptorProperties, String.valueOf(DEFAULT_QUEUE_SIZE)));
+		int parserThreads = Integer.parseInt(Utils.getString(TRACER_PROPERTY_PREFIX + "parser.threads", // NON-NLS
+				interceptorProperties, "1")); // NON-NLS
+		traceSampler = new TraceSampler(interceptorProperties);
+
+		traceQueue = new RingBufferQueue<>(queueSize, false, RingBufferQueue.WaitStrategy.PARK);
+
+		MetricRegistry metrics = TNTInputStreamStatistics.getMetrics(stream);
+		// default timer reservoir locks on update, while capture time is updated by every intercepted call
+		captureTimer = metrics.timer(stream.getName() + ":tracer:capture time", // NON-NLS
+				() -> new Timer(LockFreeExponentiallyDecayingReservoir.builder().build()));
+		droppedCounter = metrics.counter(stream.getName() + ":tracer:dropped"); // NON-NLS
+		sampledOutCounter = metrics.counter(stream.getName() + ":tracer:sampled out"); // NON-NLS
+		metrics.gauge(stream.getName() + ":tracer:queue load", // NON-NLS
+				() -> (Gauge<String>) () -> traceQueue.size() + "/" + traceQueue.capacity()); // NON-NLS
+
+		for (int i = 0; i < parserThreads; i++) {
+			TraceEventsParser parser = new TraceEventsParser(stream.getName() + "_TraceParser-" + (i + 1)); // NON-NLS
+			traceParsers.add(parser);
+			parser.start();
+		}
+	}
+
+	private void stopTraceParsers() {
+		for (TraceEventsParser parser : traceParsers) {
+			parser.halt(false);
+		}
+
+		long deadline = System.currentTimeMillis() + PARSERS_STOP_TIMEOUT;
+		for (TraceEventsParser parser : traceParsers) {
+			try {
+				parser.join(Math.max(1, deadline - System.currentTimeMillis()));
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		traceParsers.clear();
+	}
+
 	/**
 	 * Loads parser name having provided {@code name} from interceptor events parsers configuration file.
 	 * <p>
@@ -344,6 +416,7 @@ public class MsgTraceReporter implements InterceptionsReporter {
 					for (ConsumerRecord<String, TraceCommandDeserializer.TopicTraceCommand> record : records) {
 						if (record.value() != null) {
 							traceConfig.put(record.value().topic, record.value());
+							traceSampler.setSampling(record.value().topic, record.value().sampling);
 						}
 					}
 				}
@@ -443,6 +516,31 @@ public class MsgTraceReporter implements InterceptionsReporter {
 	 * @return {@code true} if message should be traced, {@code false} - otherwise
 	 */
 	protected boolean shouldSendTrace(String topic, boolean count, String opName) {
+		return checkTrace(topic, count, opName, null);
+	}
+
+	/**
+	 * Checks tracing configuration and sampling whether message lifecycle event shall be traced by interceptor.
+	 *
+	 * @param topic
+	 *            topic name event received from
+	 * @param count
+	 *            events counts
+	 * @param opName
+	 *            intercepted operation name
+	 * @param msgKey
+	 *            message key, or value if key is not defined, used to sample message consistently across intercepted
+	 *            operations, or {@code null} if operation has no message data
+	 *
+	 * @return {@code true} if message should be traced, {@code false} - otherwise
+	 *
+	 * @see TraceSampler#sample(String, String, Object)
+	 */
+	protected boolean shouldSendTrace(String topic, boolean count, String opName, Object msgKey) {
+		return checkTrace(topic, count, opName, msgKey);
+	}
+
+	private boolean checkTrace(String topic, boolean count, String opName, Object msgKey) {
 		if (!isOpTraceEnabled(opName) || cfgTopic.equals(topic)) {
 			return false;
 		}
@@ -453,10 +551,17 @@ public class MsgTraceReporter implements InterceptionsReporter {
 		}
 
 		boolean send = (topic != null && topicTraceConfig != null) && topicTraceConfig.match(topic, count);
-		StackTraceElement callMethodTrace = Utils.getStackFrame(2);
+		if (send && !traceSampler.sample(topic, opName, msgKey)) {
+			sampledOutCounter.inc();
+			send = false;
+		}
+		if (LOGGER.isSet(OpLevel.DEBUG)) {
+			StackTraceElement callMethodTrace = Utils.getStackFrame(3);
 
-		LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
-				"MsgTraceReporter.should.trace", callMethodTrace.getMethodName(), topic, count, topicTraceConfig, send);
+			LOGGER.log(OpLevel.DEBUG, StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
+					"MsgTraceReporter.should.trace", callMethodTrace.getMethodName(), topic, count, topicTraceConfig,
+					send);
+		}
 
 		return send;
 	}
@@ -465,24 +570,54 @@ public class MsgTraceReporter implements InterceptionsReporter {
 		return traceOptions == null || traceOptions.contains(opName) || traceOptions.contains(ALL);
 	}
 
+	private static Object getSampleKey(Object key, Object value) {
+		return key == null ? value : key;
+	}
+
+	/**
+	 * Puts captured trace event into trace events queue. If queue is full, trace event is dropped.
+	 *
+	 * @param kafkaTraceData
+	 *            captured trace event data
+	 */
+	private void capture(KafkaTraceEventData kafkaTraceData) {
+		if (!traceQueue.offer(kafkaTraceData)) {
+			droppedCounter.inc();
+		}
+	}
+
+	/**
+	 * Makes producer record copy having own headers instance, since interceptors chain and producer may alter record
+	 * headers after trace event gets captured.
+	 *
+	 * @param producerRecord
+	 *            intercepted producer record
+	 * @return producer record snapshot
+	 */
+	private static ProducerRecord<?, ?> snapshot(ProducerRecord<?, ?> producerRecord) {
+		return new ProducerRecord<>(producerRecord.topic(), producerRecord.partition(), producerRecord.timestamp(),
+				producerRecord.key(), producerRecord.value(), new RecordHeaders(producerRecord.headers().toArray()));
+	}
+
 	@Override
 	public void send(TNTKafkaPInterceptor interceptor, ProducerRecord<Object, Object> producerRecord,
 			ClusterResource clusterResource) {
 		if (producerRecord == null) {
 			return;
 		}
-		if (shouldSendTrace(producerRecord.topic(), true, SEND)) {
+		long start = System.nanoTime();
+		if (shouldSendTrace(producerRecord.topic(), true, SEND,
+				getSampleKey(producerRecord.key(), producerRecord.value()))) {
 			try {
-				KafkaTraceEventData kafkaTraceData = new KafkaTraceEventData(producerRecord, clusterResource,
-						MapUtils.getString(interceptor.getConfig(), ProducerConfig.CLIENT_ID_CONFIG));
-
-				stream.addInputToBuffer(mainParser.parse(stream, kafkaTraceData));
+				capture(new KafkaTraceEventData(snapshot(producerRecord), clusterResource,
+						MapUtils.getString(interceptor.getConfig(), ProducerConfig.CLIENT_ID_CONFIG)));
 			} catch (Exception exc) {
 				Utils.logThrowable(LOGGER, OpLevel.ERROR,
 						StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
 						"MsgTraceReporter.send.failed", exc);
 			}
 		}
+		captureTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 	}
 
 	@Override
@@ -491,18 +626,18 @@ public class MsgTraceReporter implements InterceptionsReporter {
 		if (recordMetadata == null) {
 			return;
 		}
+		long start = System.nanoTime();
 		if (shouldSendTrace(recordMetadata.topic(), false, ACK)) {
 			try {
-				KafkaTraceEventData kafkaTraceData = new KafkaTraceEventData(recordMetadata, e, clusterResource,
-						MapUtils.getString(interceptor.getConfig(), ProducerConfig.CLIENT_ID_CONFIG));
-				stream.addInputToBuffer(mainParser.parse(stream, kafkaTraceData));
+				capture(new KafkaTraceEventData(recordMetadata, e, clusterResource,
+						MapUtils.getString(interceptor.getConfig(), ProducerConfig.CLIENT_ID_CONFIG)));
 			} catch (Exception exc) {
 				Utils.logThrowable(LOGGER, OpLevel.ERROR,
 						StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
 						"MsgTraceReporter.acknowledge.failed", exc);
-				exc.printStackTrace();
 			}
 		}
+		captureTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 	}
 
 	@Override
@@ -511,15 +646,15 @@ public class MsgTraceReporter implements InterceptionsReporter {
 		if (consumerRecords == null) {
 			return;
 		}
+		long start = System.nanoTime();
+		String clientId = MapUtils.getString(interceptor.getConfig(), ConsumerConfig.CLIENT_ID_CONFIG);
 		for (ConsumerRecord<Object, Object> cr : consumerRecords) {
 			if (cr == null) {
 				continue;
 			}
-			if (shouldSendTrace(cr.topic(), true, CONSUME)) {
+			if (shouldSendTrace(cr.topic(), true, CONSUME, getSampleKey(cr.key(), cr.value()))) {
 				try {
-					KafkaTraceEventData kafkaTraceData = new KafkaTraceEventData(cr, clusterResource,
-							MapUtils.getString(interceptor.getConfig(), ConsumerConfig.CLIENT_ID_CONFIG));
-					stream.addInputToBuffer(mainParser.parse(stream, kafkaTraceData));
+					capture(new KafkaTraceEventData(cr, clusterResource, clientId));
 				} catch (Exception exc) {
 					Utils.logThrowable(LOGGER, OpLevel.ERROR,
 							StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
@@ -527,6 +662,7 @@ public class MsgTraceReporter implements InterceptionsReporter {
 				}
 			}
 		}
+		captureTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 	}
 
 	@Override
@@ -535,16 +671,15 @@ public class MsgTraceReporter implements InterceptionsReporter {
 		if (map == null || map.isEmpty()) {
 			return;
 		}
+		long start = System.nanoTime();
+		String clientId = MapUtils.getString(interceptor.getConfig(), ConsumerConfig.CLIENT_ID_CONFIG);
 		for (Map.Entry<TopicPartition, OffsetAndMetadata> me : map.entrySet()) {
 			if (me == null) {
 				continue;
 			}
 			if (shouldSendTrace(me.getKey().topic(), false, COMMIT)) {
 				try {
-					KafkaTraceEventData kafkaTraceData = new KafkaTraceEventData(me.getKey(), me.getValue(),
-							clusterResource,
-							MapUtils.getString(interceptor.getConfig(), ConsumerConfig.CLIENT_ID_CONFIG));
-					stream.addInputToBuffer(mainParser.parse(stream, kafkaTraceData));
+					capture(new KafkaTraceEventData(me.getKey(), me.getValue(), clusterResource, clientId));
 				} catch (Exception exc) {
 					Utils.logThrowable(LOGGER, OpLevel.ERROR,
 							StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
@@ -552,6 +687,7 @@ public class MsgTraceReporter implements InterceptionsReporter {
 				}
 			}
 		}
+		captureTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 	}
 
 	@Override
@@ -566,11 +702,57 @@ public class MsgTraceReporter implements InterceptionsReporter {
 			}
 		}
 
+		stopTraceParsers();
+
 		if (stream != null) {
 			stream.markEnded();
 		}
 	}
 
+	/**
+	 * Parses captured trace events taken from trace events queue and puts produced activities into trace stream
+	 * buffer.
+	 */
+	private class TraceEventsParser extends StreamsThread {
+		private final List<KafkaTraceEventData> batch = new ArrayList<>(PARSE_BATCH_SIZE);
+
+		TraceEventsParser(String name) {
+			super(name);
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			while (!isStopRunning() || !traceQueue.isEmpty()) {
+				try {
+					KafkaTraceEventData first = traceQueue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+					if (first == null) {
+						continue;
+					}
+					batch.add(first);
+					traceQueue.drainTo(batch, PARSE_BATCH_SIZE - 1);
+				} catch (InterruptedException exc) {
+					break;
+				}
+
+				for (KafkaTraceEventData kafkaTraceData : batch) {
+					parse(kafkaTraceData);
+				}
+				batch.clear();
+			}
+		}
+
+		private void parse(KafkaTraceEventData kafkaTraceData) {
+			try {
+				stream.addInputToBuffer(mainParser.parse(stream, kafkaTraceData));
+			} catch (Exception exc) {
+				Utils.logThrowable(LOGGER, OpLevel.ERROR,
+						StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
+						"MsgTraceReporter.parse.failed", kafkaTraceData.type(), exc);
+			}
+		}
+	}
+
 	private static final MessageDigest MSG_DIGEST = Utils.getMD5Digester();
 
 	/**
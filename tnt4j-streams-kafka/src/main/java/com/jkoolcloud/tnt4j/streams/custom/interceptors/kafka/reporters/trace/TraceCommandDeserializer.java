@@ -44,9 +44,11 @@ import com.jkoolcloud.tnt4j.streams.utils.Utils;
  * token</li>
  * <li>has to end at particular time - {@code endAt}, date/time value after "between" or "until" command message
  * tokens</li>
+ * <li>has to sample traced messages - {@code sampling}, sampling definition value after "sample" command message token,
+ * see {@link TraceSampler}</li>
  * </ul>
  *
- * @version $Revision: 1 $
+ * @version $Revision: 2 $
  */
 public class TraceCommandDeserializer implements Deserializer<TraceCommandDeserializer.TopicTraceCommand> {
 	/**
@@ -85,6 +87,10 @@ public class TraceCommandDeserializer implements Deserializer<TraceCommandDeseri
 	 * The constant for a command message token defining tracing OFF state value.
 	 */
 	public static final String OFF = "off"; // NON-NLS
+	/**
+	 * The constant for a command message token defining traced messages sampling.
+	 */
+	public static final String SAMPLE = "sample"; // NON-NLS
 
 	private StringDeserializer cmdDeserializer = new StringDeserializer();
 
@@ -136,6 +142,11 @@ public class TraceCommandDeserializer implements Deserializer<TraceCommandDeseri
 			if (arg.equalsIgnoreCase(TOPIC)) {
 				command.topic = args[++i];
 			}
+
+			if (arg.equalsIgnoreCase(SAMPLE)) {
+				command.sampling = args[++i];
+				TraceSampler.parse(command.sampling);
+			}
 		}
 
 		return command;
@@ -185,6 +196,10 @@ public class TraceCommandDeserializer implements Deserializer<TraceCommandDeseri
 		 * Tracing termination timestamp value.
 		 */
 		Long endAt;
+		/**
+		 * Traced messages sampling definition.
+		 */
+		String sampling;
 
 		/**
 		 * Checks if {@code topic} matches messages tracing command state and message should be traced.
@@ -252,6 +267,10 @@ public class TraceCommandDeserializer implements Deserializer<TraceCommandDeseri
 				sb.append(" until "); // NON-NLS
 				sb.append(new Date(endAt));
 			}
+			if (sampling != null) {
+				sb.append(" sampling "); // NON-NLS
+				sb.append(sampling);
+			}
 
 			return sb.toString();
 		}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.reporters.trace;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.jkoolcloud.tnt4j.streams.utils.KafkaStreamConstants;
+import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
+import com.jkoolcloud.tnt4j.streams.utils.Utils;
+
+/**
+ * Kafka interceptors intercepted messages trace sampler, picking which messages shall be traced for particular topic
+ * and intercepted operation.
+ * <p>
+ * Sampling is defined using comma separated sampling entries {@code "[operation=]mode:parameter"}, where
+ * {@code operation} is one of {@code send}, {@code ack}, {@code consume} or {@code commit}. Entry without operation
+ * applies to all operations not having dedicated entry. Supported sampling modes:
+ * <ul>
+ * <li>{@code rate:ratio} - traces randomly picked ratio ({@code 0.0} - {@code 1.0}) of messages</li>
+ * <li>{@code tokens:count} - traces up to defined count of messages per second</li>
+ * <li>{@code hash:ratio} - traces ratio ({@code 0.0} - {@code 1.0}) of messages picked by message key (or value,
+ * if key is not defined) hash, so every intercepted operation of same message (e.g. producer {@code send} and consumer
+ * {@code consume}) is either traced or not. Operations not having message key and value ({@code ack},
+ * {@code commit}) are sampled randomly using same ratio.</li>
+ * </ul>
+ * E.g. {@code "send=hash:0.01,consume=hash:0.01,tokens:100"}.
+ * <p>
+ * Topic sampling is resolved in this order: sampling set by trace command for that topic, interceptor configuration
+ * property {@code "messages.tracer.sampling.topic.<topicName>"}, sampling set by trace command for all topics,
+ * interceptor configuration property {@code "messages.tracer.sampling"}. When no sampling is defined, all messages are
+ * traced.
+ * <p>
+ * Sampling decisions are accounted per topic and operation. Accounted statistics are shared by all samplers of JVM and
+ * reported by {@link com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.reporters.metrics.MetricsReporter}.
+ *
+ * @version $Revision: 2 $
+ */
+public class TraceSampler {
+	/**
+	 * Constant defining trace sampling configuration properties prefix.
+	 */
+	public static final String SAMPLING_PROPERTY = "messages.tracer.sampling"; // NON-NLS
+	private static final String TOPIC_SAMPLING_PREFIX = SAMPLING_PROPERTY + ".topic."; // NON-NLS
+
+	private static final String RATE = "rate"; // NON-NLS
+	private static final String TOKENS = "tokens"; // NON-NLS
+	private static final String HASH = "hash"; // NON-NLS
+	private static final String ANY_OP = "*"; // NON-NLS
+
+	private static final Map<String, SamplingStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+	private final Map<String, String> topicSpecs = new ConcurrentHashMap<>();
+	private final Map<String, String> commandSpecs = new ConcurrentHashMap<>();
+	private volatile String defaultSpec;
+	private final Map<String, Map<String, SamplerEntry>> samplers = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs a new TraceSampler.
+	 *
+	 * @param interceptorProperties
+	 *            Kafka interceptor configuration properties
+	 *
+	 * @throws IllegalArgumentException
+	 *             if configuration defined sampling is invalid
+	 */
+	public TraceSampler(Properties interceptorProperties) throws IllegalArgumentException {
+		for (String key : interceptorProperties.stringPropertyNames()) {
+			String spec = interceptorProperties.getProperty(key);
+			if (SAMPLING_PROPERTY.equals(key)) {
+				defaultSpec = validate(spec);
+			} else if (key.startsWith(TOPIC_SAMPLING_PREFIX)) {
+				topicSpecs.put(key.substring(TOPIC_SAMPLING_PREFIX.length()), validate(spec));
+			}
+		}
+	}
+
+	/**
+	 * Sets topic sampling defined by trace command. Sampling of {@link TraceCommandDeserializer#MASTER_CONFIG} topic
+	 * applies to all topics not having dedicated sampling.
+	 *
+	 * @param topic
+	 *            topic name
+	 * @param spec
+	 *            sampling definition, or {@code null} to remove command defined topic sampling
+	 *
+	 * @throws IllegalArgumentException
+	 *             if sampling definition is invalid
+	 */
+	public void setSampling(String topic, String spec) throws IllegalArgumentException {
+		if (StringUtils.isEmpty(spec)) {
+			commandSpecs.remove(topic);
+		} else {
+			commandSpecs.put(topic, validate(spec));
+		}
+		samplers.clear();
+	}
+
+	/**
+	 * Checks whether intercepted message operation shall be traced.
+	 *
+	 * @param topic
+	 *            topic name, not {@code null}
+	 * @param opName
+	 *            intercepted operation name
+	 * @param msgKey
+	 *            message key, or value if key is not defined, or {@code null} if operation has no message data
+	 * @return {@code true} if message operation shall be traced, {@code false} - otherwise
+	 */
+	public boolean sample(String topic, String opName, Object msgKey) {
+		Map<String, SamplerEntry> topicSamplers = samplers.get(topic);
+		if (topicSamplers == null) {
+			topicSamplers = samplers.computeIfAbsent(topic, t -> new ConcurrentHashMap<>());
+		}
+		SamplerEntry entry = topicSamplers.get(opName);
+		if (entry == null) {
+			entry = topicSamplers.computeIfAbsent(opName, op -> new SamplerEntry(resolveSampler(topic, op),
+					STATISTICS.computeIfAbsent(topic + ":" + op, k -> new SamplingStatistics(topic, op)))); // NON-NLS
+		}
+
+		if (entry.sampler == null || entry.sampler.sample(msgKey)) {
+			entry.statistics.kept.increment();
+			return true;
+		}
+		entry.statistics.dropped.increment();
+		return false;
+	}
+
+	private Sampler resolveSampler(String topic, String opName) {
+		for (String spec : new String[] { commandSpecs.get(topic), topicSpecs.get(topic),
+				commandSpecs.get(TraceCommandDeserializer.MASTER_CONFIG), defaultSpec }) {
+			if (spec != null) {
+				return parse(spec).get(opName);
+			}
+		}
+		return null;
+	}
+
+	private static String validate(String spec) throws IllegalArgumentException {
+		parse(spec);
+		return spec;
+	}
+
+	/**
+	 * Parses sampling definition into map of operation samplers.
+	 *
+	 * @param spec
+	 *            sampling definition
+	 * @return map of operation samplers
+	 *
+	 * @throws IllegalArgumentException
+	 *             if sampling definition is invalid
+	 */
+	static Map<String, Sampler> parse(String spec) throws IllegalArgumentException {
+		Map<String, String> opSpecs = new HashMap<>();
+		for (String entry : spec.split(",")) { // NON-NLS
+			entry = entry.trim();
+			if (entry.isEmpty()) {
+				continue;
+			}
+			int opIdx = entry.indexOf('=');
+			opSpecs.put(opIdx < 0 ? ANY_OP : entry.substring(0, opIdx).trim().toLowerCase(),
+					entry.substring(opIdx + 1).trim());
+		}
+
+		Map<String, Sampler> opSamplers = new HashMap<>();
+		for (String op : new String[] { MsgTraceReporter.SEND, MsgTraceReporter.ACK, MsgTraceReporter.CONSUME,
+				MsgTraceReporter.COMMIT }) {
+			String opSpec = opSpecs.getOrDefault(op, opSpecs.get(ANY_OP));
+			if (opSpec != null) {
+				opSamplers.put(op, createSampler(opSpec));
+			}
+		}
+		return opSamplers;
+	}
+
+	private static Sampler createSampler(String opSpec) throws IllegalArgumentException {
+		String[] tokens = opSpec.split(":"); // NON-NLS
+		try {
+			if (tokens.length == 2) {
+				String mode = tokens[0].trim().toLowerCase();
+				String param = tokens[1].trim();
+				if (RATE.equals(mode)) {
+					return new RateSampler(Double.parseDouble(param));
+				}
+				if (TOKENS.equals(mode)) {
+					return new TokenBucketSampler(Double.parseDouble(param));
+				}
+				if (HASH.equals(mode)) {
+					return new HashSampler(Double.parseDouble(param));
+				}
+			}
+		} catch (NumberFormatException exc) {
+		}
+
+		throw new IllegalArgumentException(StreamsResources.getStringFormatted(
+				KafkaStreamConstants.RESOURCE_BUNDLE_NAME, "TraceSampler.invalid.sampling", opSpec));
+	}
+
+	/**
+	 * Returns sampling statistics accounted for all topics and operations.
+	 *
+	 * @return collection of topic operation sampling statistics
+	 */
+	public static Collection<SamplingStatistics> getStatistics() {
+		return Collections.unmodifiableCollection(STATISTICS.values());
+	}
+
+	/**
+	 * Message operation sampler.
+	 */
+	interface Sampler {
+		/**
+		 * Checks whether message operation shall be traced.
+		 *
+		 * @param msgKey
+		 *            message key, or {@code null} if operation has no message data
+		 * @return {@code true} if message operation shall be traced, {@code false} - otherwise
+		 */
+		boolean sample(Object msgKey);
+	}
+
+	/**
+	 * Sampler tracing randomly picked ratio of messages.
+	 */
+	static class RateSampler implements Sampler {
+		private final double ratio;
+
+		RateSampler(double ratio) {
+			this.ratio = ratio;
+		}
+
+		@Override
+		public boolean sample(Object msgKey) {
+			return ratio >= 1.0 || ThreadLocalRandom.current().nextDouble() < ratio;
+		}
+	}
+
+	/**
+	 * Sampler tracing up to defined count of messages per second. Allows burst of up to one second messages count.
+	 */
+	static class TokenBucketSampler implements Sampler {
+		private final long interval;
+		private final long burst;
+		private final AtomicLong nextFreeTime = new AtomicLong(System.nanoTime());
+
+		TokenBucketSampler(double perSecond) {
+			if (perSecond <= 0) {
+				throw new NumberFormatException();
+			}
+			this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+			this.burst = interval * Math.max(1, (long) perSecond);
+		}
+
+		@Override
+		public boolean sample(Object msgKey) {
+			long now = System.nanoTime();
+			while (true) {
+				long tat = nextFreeTime.get();
+				long newTat = Math.max(tat - now, 0) + now + interval;
+				if (newTat - now > burst) {
+					return false;
+				}
+				if (nextFreeTime.compareAndSet(tat, newTat)) {
+					return true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sampler tracing ratio of messages picked by message key hash.
+	 */
+	static class HashSampler implements Sampler {
+		private final double ratio;
+		private final long threshold;
+		private final RateSampler fallback;
+
+		HashSampler(double ratio) {
+			this.ratio = ratio;
+			this.threshold = (long) (ratio * 0x100000000L);
+			this.fallback = new RateSampler(ratio);
+		}
+
+		@Override
+		public boolean sample(Object msgKey) {
+			if (ratio >= 1.0) {
+				return true;
+			}
+			if (msgKey == null) {
+				return fallback.sample(null);
+			}
+
+			return (mix(hash(msgKey)) & 0xFFFFFFFFL) < threshold;
+		}
+
+		private static int hash(Object msgKey) {
+			if (msgKey instanceof byte[]) {
+				return Arrays.hashCode((byte[]) msgKey);
+			}
+			if (msgKey instanceof ByteBuffer) {
+				return msgKey.hashCode();
+			}
+			return Utils.toString(msgKey).hashCode();
+		}
+
+		/**
+		 * Spreads hash bits using MurmurHash3 finalization step, since string hash codes of similar keys differ only in
+		 * low bits.
+		 */
+		private static int mix(int h) {
+			h ^= h >>> 16;
+			h *= 0x85ebca6b;
+			h ^= h >>> 13;
+			h *= 0xc2b2ae35;
+			h ^= h >>> 16;
+			return h;
+		}
+	}
+
+	private static class SamplerEntry {
+		private final Sampler sampler;
+		private final SamplingStatistics statistics;
+
+		private SamplerEntry(Sampler sampler, SamplingStatistics statistics) {
+			this.sampler = sampler;
+			this.statistics = statistics;
+		}
+	}
+
+	/**
+	 * Accounts topic operation sampling decisions.
+	 */
+	public static final class SamplingStatistics {
+		private final String topic;
+		private final String operation;
+		private final LongAdder kept = new LongAdder();
+		private final LongAdder dropped = new LongAdder();
+
+		private SamplingStatistics(String topic, String operation) {
+			this.topic = topic;
+			this.operation = operation;
+		}
+
+		/**
+		 * Returns sampled topic name.
+		 *
+		 * @return topic name
+		 */
+		public String getTopic() {
+			return topic;
+		}
+
+		/**
+		 * Returns sampled intercepted operation name.
+		 *
+		 * @return operation name
+		 */
+		public String getOperation() {
+			return operation;
+		}
+
+		/**
+		 * Returns count of message operations picked to be traced.
+		 *
+		 * @return kept message operations count
+		 */
+		public long getKeptCount() {
+			return kept.sum();
+		}
+
+		/**
+		 * Returns count of message operations sampled out.
+		 *
+		 * @return dropped message operations count
+		 */
+		public long getDroppedCount() {
+			return dropped.sum();
+		}
+
+		@Override
+		public String toString() {
+			return "SamplingStatistics{topic=" + topic + ", operation=" + operation // NON-NLS
+					+ ", kept=" + getKeptCount() + ", dropped=" + getDroppedCount() + "}"; // NON-NLS
+		}
+	}
+}
@@ -19,6 +19,8 @@ package com.jkoolcloud.tnt4j.streams.inputs;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -50,6 +52,8 @@ import com.jkoolcloud.tnt4j.streams.utils.*;
  * <li>Offset - defines list of topic offsets (delimited using '|' character) to start consuming messages. Single value
  * applies to all topics. Default value - {@code -1 (from latest)}. (Optional)</li>
  * <li>FileName - Kafka Consumer configuration file ({@code "consumer.properties"}) path. (Optional)</li>
+ * <li>ConsumersCount - defines number of Kafka consumers (within same consumer group) stream runs to consume topic
+ * partitions in parallel. Default value - {@code 1}. (Optional)</li>
  * <li>List of Kafka Consumer configuration properties. See
  * <a href="https://kafka.apache.org/documentation/#consumerconfigs">Kafka Consumer configuration reference</a>.</li>
  * </ul>
@@ -57,8 +61,18 @@ import com.jkoolcloud.tnt4j.streams.utils.*;
  * NOTE: those file defined Kafka consumer properties gets merged with ones defined in stream configuration - user
  * defined properties. So you can take some basic consumer configuration form file and customize it using stream
  * configuration defined properties.
+ * <p>
+ * When Kafka consumer auto commit is disabled ({@code enable.auto.commit=false}), stream tracks consumed records and
+ * asynchronously commits offsets of processed records in {@code auto.commit.interval.ms} intervals. Only offsets of
+ * contiguous successfully processed records sequence are committed, so records failed, dropped or not yet processed
+ * on stream shutdown or partition revocation are consumed again.
+ * <p>
+ * Multiple stream consumers share topic partitions using Kafka consumer group rebalancing, and put consumed records
+ * into same stream input buffer. To process partitions in parallel, use stream executors ordered model: records are
+ * partitioned by topic partition, so records of every partition are sent to output in the same order as were
+ * consumed.
  *
- * @version $Revision: 1 $
+ * @version $Revision: 4 $
  *
  * @see com.jkoolcloud.tnt4j.streams.parsers.ActivityParser#isDataClassSupported(Object)
  * @see com.jkoolcloud.tnt4j.streams.parsers.KafkaConsumerRecordParser
@@ -81,10 +95,13 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 	private String offset;
 	private List<Integer> offsets;
 	private String cfgFileName;
+	private int consumersCount = 1;
 
 	private Map<String, Properties> userKafkaProps = new HashMap<>(3);
 
-	private KafkaDataReceiver kafkaDataReceiver;
+	List<KafkaDataReceiver> kafkaDataReceivers;
+	KafkaOffsetsTracker offsetsTracker;
+	private final Set<TopicPartition> seekedPartitions = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * Constructs a new KafkaConsumerStream.
@@ -124,6 +141,8 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 			}
 		} else if (StreamProperties.PROP_FILENAME.equalsIgnoreCase(name)) {
 			cfgFileName = value;
+		} else if (KafkaStreamProperties.PROP_CONSUMERS_COUNT.equalsIgnoreCase(name)) {
+			consumersCount = Integer.parseInt(value);
 		} else if (KafkaStreamProperties.PROP_OFFSET.equalsIgnoreCase(name)) {
 			offset = value;
 
@@ -155,6 +174,9 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 		if (StreamProperties.PROP_FILENAME.equalsIgnoreCase(name)) {
 			return cfgFileName;
 		}
+		if (KafkaStreamProperties.PROP_CONSUMERS_COUNT.equalsIgnoreCase(name)) {
+			return consumersCount;
+		}
 
 		Object prop = super.getProperty(name);
 		if (prop == null) {
@@ -280,6 +302,12 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 			}
 		}
 
+		if (consumersCount < 1) {
+			throw new IllegalArgumentException(StreamsResources.getStringFormatted(
+					StreamsResources.RESOURCE_BUNDLE_NAME, "TNTInputStream.property.illegal",
+					KafkaStreamProperties.PROP_CONSUMERS_COUNT, consumersCount));
+		}
+
 		if (StringUtils.isNotEmpty(cfgFileName)) {
 			logger().log(OpLevel.DEBUG, StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
 					"KafkaConsumerStream.consumer.cfgFile.load", cfgFileName);
@@ -301,15 +329,63 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
 				"KafkaConsumerStream.consumer.starting");
 
-		kafkaDataReceiver = new KafkaDataReceiver();
-		kafkaDataReceiver.initialize(getScopeProps(PROP_SCOPE_CONSUMER), topicNames, topicPattern, offsets);
+		Properties cProperties = getScopeProps(PROP_SCOPE_CONSUMER);
+		if (!Utils.getBoolean(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, cProperties, true)) {
+			offsetsTracker = new KafkaOffsetsTracker();
+		}
+
+		createDataReceivers(cProperties);
+	}
+
+	/**
+	 * Creates and initializes stream defined number of Kafka data receivers. When stream runs more than one consumer,
+	 * consumer client identifier gets suffixed by consumer index to stay unique within JVM.
+	 *
+	 * @param cProperties
+	 *            Kafka consumer configuration properties
+	 * @throws Exception
+	 *             if fails to initialize data receiver
+	 */
+	void createDataReceivers(Properties cProperties) throws Exception {
+		String clientId = cProperties.getProperty(ConsumerConfig.CLIENT_ID_CONFIG);
+		kafkaDataReceivers = new ArrayList<>(consumersCount);
+		for (int i = 0; i < consumersCount; i++) {
+			Properties rProperties = cProperties;
+			String rName = "KafkaConsumerStream.KafkaDataReceiver"; // NON-NLS
+			if (consumersCount > 1) {
+				rName += "-" + (i + 1); // NON-NLS
+				if (StringUtils.isNotEmpty(clientId)) {
+					// consumer client identifiers must be unique within JVM
+					rProperties = new Properties();
+					rProperties.putAll(cProperties);
+					rProperties.setProperty(ConsumerConfig.CLIENT_ID_CONFIG, clientId + "-" + (i + 1)); // NON-NLS
+				}
+			}
+
+			KafkaDataReceiver kafkaDataReceiver = new KafkaDataReceiver(rName);
+			kafkaDataReceiver.initialize(rProperties, topicNames, topicPattern, offsets);
+			kafkaDataReceivers.add(kafkaDataReceiver);
+		}
+	}
+
+	/**
+	 * Creates Kafka consumer instance using provided consumer configuration properties.
+	 *
+	 * @param cProperties
+	 *            Kafka consumer configuration properties
+	 * @return Kafka consumer instance
+	 */
+	protected Consumer<?, ?> createConsumer(Properties cProperties) {
+		return new KafkaConsumer<>(cProperties);
 	}
 
 	@Override
 	protected void start() throws Exception {
 		super.start();
 
-		kafkaDataReceiver.start();
+		for (KafkaDataReceiver kafkaDataReceiver : kafkaDataReceivers) {
+			kafkaDataReceiver.start();
+		}
 
 		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(StreamsResources.RESOURCE_BUNDLE_NAME),
 				"TNTInputStream.stream.start", getClass().getSimpleName(), getName());
@@ -320,34 +396,119 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 		return Math.max(activityItem.serializedKeySize(), 0) + Math.max(activityItem.serializedValueSize(), 0);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Every Kafka consumer runs own thread putting records into stream input buffer.
+	 */
+	@Override
+	protected boolean isSingleProducer() {
+		return consumersCount == 1;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Kafka consumer records are partitioned by topic partition, so ordered executors model keeps records order within
+	 * every topic partition.
+	 */
+	@Override
+	protected Object getItemPartitionKey(ConsumerRecord<?, ?> item) {
+		return new TopicPartition(item.topic(), item.partition());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Marks consumer record as processed, making its offset committable, when item processing completes. Failed or
+	 * filtered out record is marked too, since failure is already logged, and otherwise it would hold back partition
+	 * offset commits for the rest of consumer life.
+	 */
+	@Override
+	protected void processActivityItem(ConsumerRecord<?, ?> item, AtomicBoolean failureFlag) throws Exception {
+		try {
+			super.processActivityItem(item, failureFlag);
+		} finally {
+			recordProcessed(item);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Marks consumer record as processed, making its offset committable, when item output step completes, or when
+	 * item processing fails or produces no output.
+	 */
+	@Override
+	protected OrderedItemsSequencer.ItemOutput processActivityItemDeferred(ConsumerRecord<?, ?> item,
+			AtomicBoolean failureFlag) throws Exception {
+		OrderedItemsSequencer.ItemOutput output = null;
+		try {
+			output = super.processActivityItemDeferred(item, failureFlag);
+		} finally {
+			if (output == null) {
+				recordProcessed(item);
+			}
+		}
+		if (output == null) {
+			return null;
+		}
+
+		OrderedItemsSequencer.ItemOutput itemOutput = output;
+		return () -> {
+			try {
+				itemOutput.output();
+			} finally {
+				recordProcessed(item);
+			}
+		};
+	}
+
+	private void recordProcessed(ConsumerRecord<?, ?> record) {
+		if (offsetsTracker != null) {
+			offsetsTracker.processed(record);
+		}
+	}
+
 	@Override
 	public boolean isInputEnded() {
-		return kafkaDataReceiver.isInputEnded();
+		for (KafkaDataReceiver kafkaDataReceiver : kafkaDataReceivers) {
+			if (!kafkaDataReceiver.isInputEnded()) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
 	protected void cleanup() {
-		if (kafkaDataReceiver != null) {
-			kafkaDataReceiver.shutdown();
+		if (kafkaDataReceivers != null) {
+			for (KafkaDataReceiver kafkaDataReceiver : kafkaDataReceivers) {
+				kafkaDataReceiver.shutdown();
+			}
 		}
+		seekedPartitions.clear();
 
 		userKafkaProps.clear();
 
 		super.cleanup();
 	}
 
-	private class KafkaDataReceiver extends InputProcessor {
+	class KafkaDataReceiver extends InputProcessor {
 
 		private Consumer<?, ?> consumer;
 		private Set<String> topics;
 		private Pattern topicNamePattern;
 		private List<Integer> topicOffsets;
-		private boolean autoCommit = true;
+		private final Map<String, Integer> startOffsets = new HashMap<>();
+		private long commitInterval;
+		private long lastCommitTime;
 
 		private final Object closeLock = new Object();
+		private boolean closed = false;
 
-		private KafkaDataReceiver() {
-			super("KafkaConsumerStream.KafkaDataReceiver"); // NON-NLS
+		private KafkaDataReceiver(String name) {
+			super(name);
 		}
 
 		/**
@@ -367,8 +528,8 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 			topicNamePattern = (Pattern) params[2];
 			topicOffsets = (List<Integer>) params[3];
 
-			autoCommit = Utils.getBoolean(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, cProperties, true);
-			consumer = new KafkaConsumer<>(cProperties);
+			commitInterval = Utils.getInt(ConsumerConfig.AUTO_COMMIT_INTERVAL_MS_CONFIG, cProperties, 5000);
+			consumer = createConsumer(cProperties);
 		}
 
 		/**
@@ -378,11 +539,12 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 		public void run() {
 			if (consumer != null) {
 				try {
+					ConsumerRebalanceListener rebalanceListener = new OffsetsCommittingRebalanceListener();
 					if (topicNamePattern != null) {
-						consumer.subscribe(topicNamePattern);
+						consumer.subscribe(topicNamePattern, rebalanceListener);
 						topics = consumer.subscription();
 					} else {
-						consumer.subscribe(topics);
+						consumer.subscribe(topics, rebalanceListener);
 					}
 
 					if (CollectionUtils.isNotEmpty(topicOffsets)) {
@@ -396,32 +558,28 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 						for (String topic : topics) {
 							int tOffset = topicOffsets.size() == 1 ? topicOffsets.get(idx) : topicOffsets.get(idx++);
 							if (tOffset >= 0) {
-								consumer.seek(new TopicPartition(topic, 0), tOffset);
+								startOffsets.put(topic, tOffset);
 							}
 						}
 					}
 
+					// without auto commit poll must return in time to commit processed records offsets
+					Duration pollTimeout = Duration.ofMillis(offsetsTracker == null ? Long.MAX_VALUE : commitInterval);
 					while (!isHalted()) {
-						ConsumerRecords<?, ?> records = consumer.poll(Duration.ofMillis(Long.MAX_VALUE));
-						if (autoCommit) {
-							addRecordsToBuffer(records);
-						} else {
-							for (TopicPartition partition : records.partitions()) {
-								List<? extends ConsumerRecord<?, ?>> partitionRecords = records.records(partition);
-								addRecordsToBuffer(partitionRecords);
-								long lastOffset = partitionRecords.get(partitionRecords.size() - 1).offset();
-								consumer.commitSync(
-										Collections.singletonMap(partition, new OffsetAndMetadata(lastOffset + 1)));
-								logger().log(OpLevel.DEBUG,
-										StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
-										"KafkaConsumerStream.committing.offset", partition, lastOffset);
-							}
+						ConsumerRecords<?, ?> records = consumer.poll(pollTimeout);
+						addRecordsToBuffer(records);
+						if (offsetsTracker != null) {
+							commitOffsets(consumer.assignment(), false);
 						}
 					}
 				} catch (WakeupException exc) {
 				} finally {
+					if (offsetsTracker != null) {
+						commitOffsets(consumer.assignment(), true);
+					}
 					consumer.close();
 					synchronized (closeLock) {
+						closed = true;
 						closeLock.notifyAll();
 					}
 				}
@@ -429,7 +587,8 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 		}
 
 		/**
-		 * Adds consumer records from provided {@code records} collection to stream input buffer.
+		 * Adds consumer records from provided {@code records} collection to stream input buffer. When offsets of
+		 * processed records are committed by stream, records are tracked before getting added to buffer.
 		 *
 		 * @param records
 		 *            records collection to add to stream input buffer
@@ -442,10 +601,86 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 				logger().log(OpLevel.DEBUG, StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
 						"KafkaConsumerStream.next.message", msgData);
 
+				if (offsetsTracker != null) {
+					offsetsTracker.track(record);
+				}
+				// dropped record is not marked processed, so its offset is left uncommitted
 				addInputToBuffer(record);
 			}
 		}
 
+		/**
+		 * Commits offsets of processed records for provided topic partitions. Periodic commits are performed
+		 * asynchronously not more often than {@code auto.commit.interval.ms} period, while final commits (e.g. on
+		 * shutdown or partitions revocation) are performed synchronously.
+		 *
+		 * @param topicPartitions
+		 *            topic partitions to commit offsets
+		 * @param sync
+		 *            flag indicating whether to perform final synchronous commit
+		 */
+		protected void commitOffsets(Collection<TopicPartition> topicPartitions, boolean sync) {
+			long now = System.currentTimeMillis();
+			if (!sync && now - lastCommitTime < commitInterval) {
+				return;
+			}
+			lastCommitTime = now;
+
+			Map<TopicPartition, OffsetAndMetadata> committable = offsetsTracker.getCommittableOffsets(topicPartitions,
+					sync);
+			if (committable.isEmpty()) {
+				return;
+			}
+
+			logger().log(OpLevel.DEBUG, StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
+					"KafkaConsumerStream.committing.offsets", committable);
+			if (sync) {
+				try {
+					consumer.commitSync(committable);
+					offsetsTracker.committed(committable);
+				} catch (Exception exc) {
+					Utils.logThrowable(logger(), OpLevel.WARNING,
+							StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
+							"KafkaConsumerStream.commit.failed", committable, exc);
+				}
+			} else {
+				consumer.commitAsync(committable, (offsets, exc) -> {
+					if (exc == null) {
+						offsetsTracker.committed(offsets);
+					} else {
+						// offsets are left not committed, so commit is retried on next interval
+						Utils.logThrowable(logger(), OpLevel.WARNING,
+								StreamsResources.getBundle(KafkaStreamConstants.RESOURCE_BUNDLE_NAME),
+								"KafkaConsumerStream.commit.failed", offsets, exc);
+					}
+				});
+			}
+		}
+
+		/**
+		 * Commits processed records offsets of revoked topic partitions and stops tracking them. Seeks assigned topic
+		 * partitions to stream defined start offsets, if partition was not sought by any stream consumer yet.
+		 */
+		private class OffsetsCommittingRebalanceListener implements ConsumerRebalanceListener {
+			@Override
+			public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+				if (offsetsTracker != null) {
+					commitOffsets(partitions, true);
+					offsetsTracker.remove(partitions);
+				}
+			}
+
+			@Override
+			public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+				for (TopicPartition partition : partitions) {
+					Integer tOffset = partition.partition() == 0 ? startOffsets.get(partition.topic()) : null;
+					if (tOffset != null && seekedPartitions.add(partition)) {
+						consumer.seek(partition, tOffset);
+					}
+				}
+			}
+		}
+
 		/**
 		 * Closes Kafka consume.
 		 */
@@ -455,7 +690,9 @@ public class KafkaConsumerStream extends AbstractBufferedStream<ConsumerRecord<?
 				consumer.wakeup();
 				synchronized (closeLock) {
 					try {
-						closeLock.wait();
+						while (!closed) {
+							closeLock.wait();
+						}
 					} catch (InterruptedException e) {
 					}
 				}
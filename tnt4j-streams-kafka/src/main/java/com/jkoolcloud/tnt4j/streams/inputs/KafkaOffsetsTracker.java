@@ -0,0 +1,174 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.inputs;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Tracks Kafka consumer records offsets, to commit only offsets of records processed by stream. Records of one topic
+ * partition may be processed out of order (e.g. by parallel stream executors), so committable partition offset is the
+ * one following highest offset of contiguous processed records sequence. Record still being processed leaves a gap
+ * holding back partition offset commits, so it gets redelivered after consumer restart or partition reassignment.
+ * Stream marks failed and filtered out records as processed too, so such records do not hold back commits forever.
+ * <p>
+ * Collected offsets stay committable until commit gets confirmed by {@link #committed(java.util.Map)}, so failed
+ * commit is retried on next collection.
+ *
+ * @version $Revision: 3 $
+ */
+class KafkaOffsetsTracker {
+	private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+
+	/**
+	 * Starts tracking provided consumer record offset. Records of same topic partition must be tracked in offsets
+	 * order, and before record gets passed for processing.
+	 *
+	 * @param record
+	 *            consumer record to track
+	 */
+	void track(ConsumerRecord<?, ?> record) {
+		TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+		partitions.computeIfAbsent(tp, k -> new PartitionOffsets()).track(record.offset());
+	}
+
+	/**
+	 * Marks provided consumer record as processed. Records of not tracked topic partitions (e.g. revoked from this
+	 * consumer) are ignored.
+	 *
+	 * @param record
+	 *            processed consumer record
+	 */
+	void processed(ConsumerRecord<?, ?> record) {
+		PartitionOffsets offsets = partitions.get(new TopicPartition(record.topic(), record.partition()));
+		if (offsets != null) {
+			offsets.processed(record.offset());
+		}
+	}
+
+	/**
+	 * Collects committable offsets of provided topic partitions.
+	 *
+	 * @param topicPartitions
+	 *            topic partitions to collect offsets
+	 * @param all
+	 *            flag indicating whether to collect all committable offsets, or only ones not committed yet
+	 * @return map of topic partitions committable offsets
+	 */
+	Map<TopicPartition, OffsetAndMetadata> getCommittableOffsets(Collection<TopicPartition> topicPartitions,
+			boolean all) {
+		Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>();
+		for (TopicPartition tp : topicPartitions) {
+			PartitionOffsets offsets = partitions.get(tp);
+			long offset = offsets == null ? -1L : offsets.collect(all);
+			if (offset >= 0) {
+				committable.put(tp, new OffsetAndMetadata(offset));
+			}
+		}
+
+		return committable;
+	}
+
+	/**
+	 * Marks provided topic partitions offsets as successfully committed.
+	 *
+	 * @param offsets
+	 *            map of committed topic partitions offsets
+	 */
+	void committed(Map<TopicPartition, OffsetAndMetadata> offsets) {
+		for (Map.Entry<TopicPartition, OffsetAndMetadata> oe : offsets.entrySet()) {
+			PartitionOffsets po = partitions.get(oe.getKey());
+			if (po != null) {
+				po.committed(oe.getValue().offset());
+			}
+		}
+	}
+
+	/**
+	 * Stops tracking offsets of provided topic partitions.
+	 *
+	 * @param topicPartitions
+	 *            topic partitions to stop tracking
+	 */
+	void remove(Collection<TopicPartition> topicPartitions) {
+		for (TopicPartition tp : topicPartitions) {
+			partitions.remove(tp);
+		}
+	}
+
+	/**
+	 * Returns number of tracked and not yet processed records.
+	 *
+	 * @return pending records count
+	 */
+	int pendingCount() {
+		int count = 0;
+		for (PartitionOffsets offsets : partitions.values()) {
+			count += offsets.pendingCount();
+		}
+		return count;
+	}
+
+	private static class PartitionOffsets {
+		private final ArrayDeque<Long> pending = new ArrayDeque<>();
+		private final Set<Long> processedAhead = new HashSet<>();
+		private long commitOffset = -1L;
+		private long committedOffset = -1L;
+
+		synchronized void track(long offset) {
+			pending.addLast(offset);
+		}
+
+		synchronized void processed(long offset) {
+			Long first = pending.peekFirst();
+			if (first == null || offset < first) {
+				// record was tracked before partition got reassigned
+				return;
+			}
+			if (offset != first) {
+				processedAhead.add(offset);
+				return;
+			}
+
+			pending.pollFirst();
+			commitOffset = offset + 1;
+			while ((first = pending.peekFirst()) != null && processedAhead.remove(first)) {
+				pending.pollFirst();
+				commitOffset = first + 1;
+			}
+		}
+
+		synchronized long collect(boolean all) {
+			if (!all && commitOffset == committedOffset) {
+				return -1L;
+			}
+			return commitOffset;
+		}
+
+		synchronized void committed(long offset) {
+			committedOffset = Math.max(committedOffset, offset);
+		}
+
+		synchronized int pendingCount() {
+			return pending.size();
+		}
+	}
+}
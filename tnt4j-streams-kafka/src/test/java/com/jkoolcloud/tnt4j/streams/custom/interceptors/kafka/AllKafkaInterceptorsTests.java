@@ -20,12 +20,13 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 import com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.reporters.trace.TraceCommandDeserializerTest;
+import com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.reporters.trace.TraceSamplerTest;
 
 /**
  * @author akausinis
  * @version 1.0
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ InterceptionsManagerTest.class, TraceCommandDeserializerTest.class })
+@Suite.SuiteClasses({ InterceptionsManagerTest.class, TraceCommandDeserializerTest.class, TraceSamplerTest.class })
 public class AllKafkaInterceptorsTests {
 }
@@ -18,11 +18,12 @@ package com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.reporters.metrics
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 
 import java.lang.management.ManagementFactory;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
 
 import javax.management.*;
 
@@ -93,6 +94,86 @@ public class MetricsReporterTest {
 		assertThat(ai.getFieldValue("Float"), instanceOf(Double.class));
 	}
 
+	@Test
+	public void testMetricsKeyLookup() {
+		MetricsReporter.MetricsKey key = new MetricsReporter.MetricsKey().set("topic", 1,
+				MetricsReporter.ConsumerTopicMetrics.class, "consume");
+		MetricsReporter.MetricsKey copy = key.copy();
+
+		assertNotSame(key, copy);
+		assertEquals(key, copy);
+		assertEquals(key.hashCode(), copy.hashCode());
+		assertEquals(new MetricsReporter.MetricsKey().set("topic", 1, MetricsReporter.ProducerTopicMetrics.class, null),
+				new MetricsReporter.MetricsKey().set("topic", 1, MetricsReporter.ProducerTopicMetrics.class, null));
+
+		assertNotEquals(copy, new MetricsReporter.MetricsKey().set("topic", 2,
+				MetricsReporter.ConsumerTopicMetrics.class, "consume"));
+		assertNotEquals(copy, new MetricsReporter.MetricsKey().set("topic", 1,
+				MetricsReporter.ProducerTopicMetrics.class, "consume"));
+		assertNotEquals(copy, new MetricsReporter.MetricsKey().set("topic", 1,
+				MetricsReporter.ConsumerTopicMetrics.class, "commit"));
+		assertNotEquals(copy, new MetricsReporter.MetricsKey().set("topic", 1,
+				MetricsReporter.ConsumerTopicMetrics.class, null));
+
+		key.set("other", 1, MetricsReporter.ConsumerTopicMetrics.class, "consume");
+		assertNotEquals(key, copy);
+		key.set("topic", 1, MetricsReporter.ConsumerTopicMetrics.class, "consume");
+		assertEquals(copy, key);
+	}
+
+	@Test
+	public void testConcurrentTopicMetricsLookup() throws Exception {
+		MetricsReporter reporter = new MetricsReporter(Integer.MAX_VALUE, Integer.MAX_VALUE);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(threads);
+			List<Future<MetricsReporter.TopicMetrics>> results = new ArrayList<>(threads);
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					barrier.await();
+					return reporter.getTopicMetrics("topic", 0, MetricsReporter.ConsumerTopicMetrics.class, "client",
+							"consume");
+				}));
+			}
+
+			MetricsReporter.TopicMetrics metrics = results.get(0).get(10, TimeUnit.SECONDS);
+			assertNotNull(metrics);
+			for (Future<MetricsReporter.TopicMetrics> result : results) {
+				assertSame(metrics, result.get(10, TimeUnit.SECONDS));
+			}
+			assertSame(metrics, reporter.getTopicMetrics("topic", 0, MetricsReporter.ConsumerTopicMetrics.class,
+					"client", "consume"));
+			assertNotSame(metrics, reporter.getTopicMetrics("topic", 0, MetricsReporter.ConsumerTopicMetrics.class,
+					"client", "commit"));
+			assertNull(reporter.getTopicMetrics("topic", -1, MetricsReporter.ProducerTopicMetrics.class, "client",
+					"send").partition);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testOffsetValuesSnapshot() {
+		MetricsReporter.COffset offset = new MetricsReporter.COffset();
+		offset.update(10L, 100L, "CreateTime", 200L);
+		Map<?, ?> values = offset.values();
+
+		offset.update(11L, 101L, "LogAppendTime", 201L);
+		assertEquals(10L, values.get("offset"));
+		assertEquals(100L, values.get("p_timestamp"));
+		assertEquals("CreateTime", values.get("p_timestamp_type"));
+		assertEquals(200L, values.get("c_timestamp"));
+		assertEquals(11L, offset.values().get("offset"));
+
+		offset.reset();
+		values = offset.values();
+		assertEquals(-1L, values.get("offset"));
+		assertEquals(-1L, values.get("p_timestamp"));
+		assertNull(values.get("p_timestamp_type"));
+		assertEquals(-1L, values.get("c_timestamp"));
+	}
+
 	private MBeanServer createTestMBean() throws MalformedObjectNameException, InstanceAlreadyExistsException,
 			MBeanRegistrationException, NotCompliantMBeanException {
 		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
@@ -20,6 +20,7 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.text.ParseException;
 import java.time.Duration;
 import java.util.*;
@@ -40,6 +41,9 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.xml.sax.SAXException;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.Ordering;
 import com.jkoolcloud.tnt4j.core.OpType;
 import com.jkoolcloud.tnt4j.core.UsecTimestamp;
@@ -48,6 +52,7 @@ import com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.TNTKafkaCIntercept
 import com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.TNTKafkaPInterceptor;
 import com.jkoolcloud.tnt4j.streams.fields.*;
 import com.jkoolcloud.tnt4j.streams.inputs.InterceptorStream;
+import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStreamStatistics;
 import com.jkoolcloud.tnt4j.streams.outputs.JKCloudActivityOutput;
 import com.jkoolcloud.tnt4j.streams.parsers.ActivityJavaObjectParser;
 import com.jkoolcloud.tnt4j.streams.parsers.ActivityParser;
@@ -220,6 +225,41 @@ public class MsgTraceReporterTest {
 		return new ProducerRecord<String, String>(TOPIC, 0, null, "VALUE"); // NON-NLS
 	}
 
+	@Test
+	public void testSampledOut() throws Exception {
+		InterceptorStream<ActivityInfo> stream = buildStream();
+		Properties props = new Properties();
+		props.setProperty(TraceSampler.SAMPLING_PROPERTY, "rate:0"); // NON-NLS
+		MsgTraceReporter reporter = new MsgTraceReporter(stream, props, false, "all"); // NON-NLS
+
+		MetricRegistry metrics = TNTInputStreamStatistics.getMetrics(stream);
+		Counter sampledOut = metrics.counter(stream.getName() + ":tracer:sampled out"); // NON-NLS
+		Timer captureTime = metrics.timer(stream.getName() + ":tracer:capture time"); // NON-NLS
+		long sampledOutCount = sampledOut.getCount();
+		long captureCount = captureTime.getCount();
+
+		// not traced topic messages are not sampled
+		reporter.send(mock(TNTKafkaPInterceptor.class), getProducerRecord(), null);
+		assertEquals(sampledOutCount, sampledOut.getCount());
+		assertEquals(captureCount + 1, captureTime.getCount());
+
+		getTraceConfig(reporter).put(TraceCommandDeserializer.MASTER_CONFIG,
+				new TraceCommandDeserializer.TopicTraceCommand());
+		reporter.send(mock(TNTKafkaPInterceptor.class), getProducerRecord(), null);
+		assertEquals(sampledOutCount + 1, sampledOut.getCount());
+		assertEquals(captureCount + 2, captureTime.getCount());
+
+		reporter.shutdown();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, TraceCommandDeserializer.TopicTraceCommand> getTraceConfig(MsgTraceReporter reporter)
+			throws Exception {
+		Field traceConfig = MsgTraceReporter.class.getDeclaredField("traceConfig"); // NON-NLS
+		traceConfig.setAccessible(true);
+		return (Map<String, TraceCommandDeserializer.TopicTraceCommand>) traceConfig.get(reporter);
+	}
+
 	private InterceptorStream<ActivityInfo> buildStream() throws Exception {
 		InterceptorStream<ActivityInfo> stream = new InterceptorStream<>() {
 			{
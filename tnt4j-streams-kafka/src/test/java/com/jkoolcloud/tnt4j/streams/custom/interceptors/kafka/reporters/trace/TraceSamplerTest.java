@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.custom.interceptors.kafka.reporters.trace;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * @version 1.0
+ */
+public class TraceSamplerTest {
+
+	@Test
+	public void hashSamplingTest() {
+		Properties props = new Properties();
+		props.setProperty(TraceSampler.SAMPLING_PROPERTY, "send=hash:0.5,consume=hash:0.5"); // NON-NLS
+		TraceSampler sampler = new TraceSampler(props);
+
+		int kept = 0;
+		for (int i = 0; i < 1000; i++) {
+			String key = "key-" + i; // NON-NLS
+			boolean sent = sampler.sample("HashTopic", MsgTraceReporter.SEND, key); // NON-NLS
+			assertEquals(sent, sampler.sample("HashTopic", MsgTraceReporter.CONSUME, key)); // NON-NLS
+			if (sent) {
+				kept++;
+			}
+		}
+		assertTrue(kept > 400 && kept < 600);
+
+		assertTrue(sampler.sample("HashTopic", MsgTraceReporter.ACK, null)); // NON-NLS
+	}
+
+	@Test
+	public void tokenBucketSamplingTest() {
+		Properties props = new Properties();
+		props.setProperty(TraceSampler.SAMPLING_PROPERTY, "tokens:10"); // NON-NLS
+		TraceSampler sampler = new TraceSampler(props);
+
+		int kept = 0;
+		for (int i = 0; i < 100; i++) {
+			if (sampler.sample("TokensTopic", MsgTraceReporter.SEND, null)) { // NON-NLS
+				kept++;
+			}
+		}
+		assertTrue(kept >= 1 && kept <= 11);
+	}
+
+	@Test
+	public void topicSamplingTest() {
+		Properties props = new Properties();
+		props.setProperty(TraceSampler.SAMPLING_PROPERTY, "rate:0"); // NON-NLS
+		props.setProperty(TraceSampler.SAMPLING_PROPERTY + ".topic.Traced", "rate:1"); // NON-NLS
+		TraceSampler sampler = new TraceSampler(props);
+
+		assertTrue(sampler.sample("Traced", MsgTraceReporter.SEND, null)); // NON-NLS
+		assertFalse(sampler.sample("Other", MsgTraceReporter.SEND, null)); // NON-NLS
+
+		sampler.setSampling("Other", "consume=rate:1"); // NON-NLS
+		assertTrue(sampler.sample("Other", MsgTraceReporter.CONSUME, null)); // NON-NLS
+		assertTrue(sampler.sample("Other", MsgTraceReporter.SEND, null)); // NON-NLS
+
+		sampler.setSampling("Other", null); // NON-NLS
+		assertFalse(sampler.sample("Other", MsgTraceReporter.CONSUME, null)); // NON-NLS
+
+		boolean found = false;
+		for (TraceSampler.SamplingStatistics stats : TraceSampler.getStatistics()) {
+			if ("Other".equals(stats.getTopic()) && MsgTraceReporter.SEND.equals(stats.getOperation())) { // NON-NLS
+				assertEquals(1, stats.getKeptCount());
+				assertEquals(1, stats.getDroppedCount());
+				found = true;
+			}
+		}
+		assertTrue(found);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidSamplingTest() {
+		TraceSampler.parse("send=sometimes:0.5"); // NON-NLS
+	}
+}
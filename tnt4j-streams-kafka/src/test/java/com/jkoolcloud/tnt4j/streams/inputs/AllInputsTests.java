@@ -24,6 +24,6 @@ import org.junit.runners.Suite;
  * @version 1.0
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ KafkaConsumerStreamTest.class })
+@Suite.SuiteClasses({ KafkaConsumerStreamTest.class, KafkaOffsetsTrackerTest.class })
 public class AllInputsTests {
 }
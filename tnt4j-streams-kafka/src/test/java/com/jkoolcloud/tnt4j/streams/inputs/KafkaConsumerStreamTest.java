@@ -17,23 +17,28 @@
 package com.jkoolcloud.tnt4j.streams.inputs;
 
 import static com.jkoolcloud.tnt4j.streams.TestUtils.testPropertyList;
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
 
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.*;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import com.jkoolcloud.tnt4j.streams.configure.KafkaStreamProperties;
 import com.jkoolcloud.tnt4j.streams.configure.StreamProperties;
 import com.jkoolcloud.tnt4j.streams.utils.KafkaStreamConstants;
+import com.jkoolcloud.tnt4j.streams.utils.RingBufferQueue;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
 
 /**
@@ -63,6 +68,83 @@ public class KafkaConsumerStreamTest {
 		input.startStream();
 	}
 
+	@Test
+	public void testConsumersClientIdSuffix() throws Exception {
+		MockConsumersStream stream = new MockConsumersStream();
+		Map<String, String> props = new HashMap<>(3);
+		props.put(StreamProperties.PROP_TOPIC_NAME, DEFAULT_TEST_TOPIC);
+		props.put(KafkaStreamProperties.PROP_CONSUMERS_COUNT, "3");
+		props.put(ConsumerConfig.CLIENT_ID_CONFIG, "testClient"); // NON-NLS
+		stream.setProperties(props.entrySet());
+		stream.createDataReceivers(stream.getScopeProps(KafkaConsumerStream.PROP_SCOPE_CONSUMER));
+
+		assertEquals(3, stream.kafkaDataReceivers.size());
+		assertEquals(3, stream.consumerProps.size());
+		for (int i = 0; i < 3; i++) {
+			assertEquals("testClient-" + (i + 1), // NON-NLS
+					stream.consumerProps.get(i).getProperty(ConsumerConfig.CLIENT_ID_CONFIG));
+		}
+
+		stream = new MockConsumersStream();
+		props.put(KafkaStreamProperties.PROP_CONSUMERS_COUNT, "1");
+		stream.setProperties(props.entrySet());
+		stream.createDataReceivers(stream.getScopeProps(KafkaConsumerStream.PROP_SCOPE_CONSUMER));
+
+		assertEquals(1, stream.consumerProps.size());
+		assertEquals("testClient", stream.consumerProps.get(0).getProperty(ConsumerConfig.CLIENT_ID_CONFIG));
+	}
+
+	@Test
+	public void testConsumersSeekOnlyOnFirstAssignment() throws Exception {
+		MockConsumersStream stream = new MockConsumersStream();
+		Map<String, String> props = new HashMap<>(3);
+		props.put(StreamProperties.PROP_TOPIC_NAME, DEFAULT_TEST_TOPIC);
+		props.put(KafkaStreamProperties.PROP_CONSUMERS_COUNT, "2");
+		props.put(KafkaStreamProperties.PROP_OFFSET, "5");
+		stream.setProperties(props.entrySet());
+		stream.createDataReceivers(stream.getScopeProps(KafkaConsumerStream.PROP_SCOPE_CONSUMER));
+
+		List<ConsumerRebalanceListener> listeners = new ArrayList<>(2);
+		for (int i = 0; i < stream.kafkaDataReceivers.size(); i++) {
+			// consumer poll is woken up, so receiver subscribes and ends run right away
+			stream.kafkaDataReceivers.get(i).run();
+			ArgumentCaptor<ConsumerRebalanceListener> listener = ArgumentCaptor
+					.forClass(ConsumerRebalanceListener.class);
+			verify(stream.consumers.get(i)).subscribe(anyCollection(), listener.capture());
+			listeners.add(listener.getValue());
+		}
+
+		TopicPartition partition = new TopicPartition(DEFAULT_TEST_TOPIC, 0);
+		listeners.get(0).onPartitionsAssigned(Collections.singleton(partition));
+		listeners.get(1).onPartitionsAssigned(Collections.singleton(partition));
+		listeners.get(0).onPartitionsAssigned(Collections.singleton(partition));
+
+		verify(stream.consumers.get(0), times(1)).seek(partition, 5L);
+		verify(stream.consumers.get(1), never()).seek(any(TopicPartition.class), anyLong());
+	}
+
+	@Test
+	public void testConsumersSingleProducerBuffer() {
+		KafkaConsumerStream stream = new KafkaConsumerStream();
+		Map<String, String> props = new HashMap<>(3);
+		props.put(StreamProperties.PROP_TOPIC_NAME, DEFAULT_TEST_TOPIC);
+		props.put(StreamProperties.PROP_BUFFER_TYPE, "RING_SPSC"); // NON-NLS
+		stream.setProperties(props.entrySet());
+
+		assertTrue(stream.isSingleProducer());
+		BlockingQueue<Object> buffer = stream.createInputBuffer();
+		assertTrue(buffer instanceof RingBufferQueue);
+		assertTrue(((RingBufferQueue<?>) buffer).isSingleProducer());
+
+		props.put(KafkaStreamProperties.PROP_CONSUMERS_COUNT, "2");
+		stream.setProperties(props.entrySet());
+
+		assertFalse(stream.isSingleProducer());
+		buffer = stream.createInputBuffer();
+		assertTrue(buffer instanceof RingBufferQueue);
+		assertFalse(((RingBufferQueue<?>) buffer).isSingleProducer());
+	}
+
 	@Test
 	public void testRB() {
 		String keyModule = "KafkaConsumerStream.next.message";
@@ -79,6 +161,20 @@ public class KafkaConsumerStreamTest {
 		assertEquals("Core resource bundle entry found in kafka", brbStr, rbs1);
 	}
 
+	private static class MockConsumersStream extends KafkaConsumerStream {
+		private final List<Properties> consumerProps = new ArrayList<>();
+		private final List<Consumer<?, ?>> consumers = new ArrayList<>();
+
+		@Override
+		protected Consumer<?, ?> createConsumer(Properties cProperties) {
+			Consumer<?, ?> consumer = mock(Consumer.class);
+			when(consumer.poll(any(Duration.class))).thenThrow(new WakeupException());
+			consumerProps.add(cProperties);
+			consumers.add(consumer);
+			return consumer;
+		}
+	}
+
 	@Ignore("Used to run when testing server")
 	@Test
 	public void produceMessages() throws InterruptedException {
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.inputs;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import com.jkoolcloud.tnt4j.streams.fields.ActivityInfo;
+
+/**
+ * @version 1.0
+ */
+public class KafkaOffsetsTrackerTest {
+	private static final String TOPIC = "TNT4JKafkaTestTopic"; // NON-NLS
+	private static final TopicPartition TP = new TopicPartition(TOPIC, 0);
+
+	@Test
+	public void testContiguousOffsets() {
+		KafkaOffsetsTracker tracker = new KafkaOffsetsTracker();
+		ConsumerRecord<?, ?> r10 = record(10);
+		ConsumerRecord<?, ?> r11 = record(11);
+		ConsumerRecord<?, ?> r13 = record(13);
+		tracker.track(r10);
+		tracker.track(r11);
+		tracker.track(r13);
+
+		List<TopicPartition> tps = Collections.singletonList(TP);
+		assertTrue(tracker.getCommittableOffsets(tps, false).isEmpty());
+
+		tracker.processed(r11);
+		assertTrue(tracker.getCommittableOffsets(tps, false).isEmpty());
+
+		tracker.processed(r10);
+		Map<TopicPartition, OffsetAndMetadata> offsets = tracker.getCommittableOffsets(tps, false);
+		assertEquals(12, offsets.get(TP).offset());
+		// not confirmed commit is retried
+		assertEquals(12, tracker.getCommittableOffsets(tps, false).get(TP).offset());
+		tracker.committed(offsets);
+		assertTrue(tracker.getCommittableOffsets(tps, false).isEmpty());
+		assertEquals(12, tracker.getCommittableOffsets(tps, true).get(TP).offset());
+		assertEquals(1, tracker.pendingCount());
+
+		tracker.processed(r13);
+		assertEquals(14, tracker.getCommittableOffsets(tps, false).get(TP).offset());
+		assertEquals(0, tracker.pendingCount());
+	}
+
+	@Test
+	public void testUnprocessedRecordGap() {
+		KafkaOffsetsTracker tracker = new KafkaOffsetsTracker();
+		ConsumerRecord<?, ?> r1 = record(1);
+		ConsumerRecord<?, ?> r2 = record(2);
+		ConsumerRecord<?, ?> r3 = record(3);
+		tracker.track(r1);
+		tracker.track(r2);
+		tracker.track(r3);
+
+		List<TopicPartition> tps = Collections.singletonList(TP);
+		tracker.processed(r1);
+		// r2 is still being processed
+		tracker.processed(r3);
+		assertEquals(2, tracker.getCommittableOffsets(tps, true).get(TP).offset());
+		assertEquals(2, tracker.pendingCount());
+	}
+
+	@Test
+	public void testFailedRecordInBatch() throws Exception {
+		KafkaOffsetsTracker tracker = new KafkaOffsetsTracker();
+		KafkaConsumerStream stream = new KafkaConsumerStream() {
+			@Override
+			protected ActivityInfo makeActivityInfo(ConsumerRecord<?, ?> data) throws Exception {
+				if (data.offset() == 2) {
+					throw new IllegalStateException("Failed to parse record"); // NON-NLS
+				}
+				// no parser - record is skipped
+				return null;
+			}
+		};
+		stream.offsetsTracker = tracker;
+
+		List<ConsumerRecord<?, ?>> batch = Arrays.asList(record(1), record(2), record(3));
+		int failures = 0;
+		for (ConsumerRecord<?, ?> r : batch) {
+			tracker.track(r);
+		}
+		for (ConsumerRecord<?, ?> r : batch) {
+			try {
+				stream.processActivityItem(r, new AtomicBoolean());
+			} catch (IllegalStateException exc) {
+				failures++;
+			}
+		}
+
+		assertEquals(1, failures);
+		List<TopicPartition> tps = Collections.singletonList(TP);
+		assertEquals(4, tracker.getCommittableOffsets(tps, false).get(TP).offset());
+		assertEquals(0, tracker.pendingCount());
+	}
+
+	@Test
+	public void testRemovedPartition() {
+		KafkaOffsetsTracker tracker = new KafkaOffsetsTracker();
+		ConsumerRecord<?, ?> r1 = record(1);
+		tracker.track(r1);
+
+		List<TopicPartition> tps = Collections.singletonList(TP);
+		tracker.remove(tps);
+		tracker.processed(r1);
+		assertTrue(tracker.getCommittableOffsets(tps, true).isEmpty());
+
+		ConsumerRecord<?, ?> r5 = record(5);
+		tracker.track(r5);
+		tracker.processed(r1);
+		tracker.processed(r5);
+		assertEquals(6, tracker.getCommittableOffsets(tps, false).get(TP).offset());
+	}
+
+	private static ConsumerRecord<?, ?> record(long offset) {
+		return new ConsumerRecord<>(TOPIC, 0, offset, "key", "value"); // NON-NLS
+	}
+}
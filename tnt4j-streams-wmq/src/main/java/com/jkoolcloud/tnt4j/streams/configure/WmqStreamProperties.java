@@ -19,7 +19,7 @@ package com.jkoolcloud.tnt4j.streams.configure;
 /**
  * Lists predefined property names used by TNT4-Streams WMQ input streams.
  *
- * @version $Revision: 1 $
+ * @version $Revision: 2 $
  */
 public interface WmqStreamProperties extends StreamProperties {
 
@@ -63,4 +63,24 @@ public interface WmqStreamProperties extends StreamProperties {
 	 */
 	String OPEN_OPTIONS = "OpenOptions"; // NON-NLS
 
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_GET_BATCH_SIZE = "GetBatchSize"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_GET_BATCH_WAIT = "GetBatchWait"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_CONSUMERS_COUNT = "ConsumersCount"; // NON-NLS
+
+	/**
+	 * Constant for name of built-in {@value} property.
+	 */
+	String PROP_TRACES_SPLIT_MODE = "TracesSplitMode"; // NON-NLS
+
 }
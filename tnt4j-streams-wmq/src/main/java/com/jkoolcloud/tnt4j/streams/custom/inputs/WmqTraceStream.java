@@ -16,13 +16,12 @@
 
 package com.jkoolcloud.tnt4j.streams.custom.inputs;
 
-import java.util.Enumeration;
-import java.util.HashSet;
-import java.util.NoSuchElementException;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -41,6 +40,13 @@ import com.jkoolcloud.tnt4j.streams.utils.*;
  * 'marks' PCF message contained trace entry as 'processed' by setting custom PCF parameter
  * {@link WmqStreamConstants#GROUP_MARKER}. Using this PCF parameter parser "knows" which trace entry to process.
  * <p>
+ * When 'TracesSplitMode' is set to {@code VIEW} or {@code PARALLEL}, PCF message is split into activity traces only
+ * once: message level PCF parameters and trace entries are collected in single parameters pass, and every streamed item
+ * is a lightweight PCF message view sharing message level parameters and single trace entry instances of original PCF
+ * message. {@code VIEW} mode builds trace views lazily - when stream is requested for next item, while
+ * {@code PARALLEL} mode filters and builds all message trace views in parallel, without holding stream message access
+ * lock.
+ * <p>
  * Stream also performs traced operations filtering using 'TraceOperations' and 'ExcludedRC' properties:
  * <ul>
  * <li>setting 'TraceOperations' property value to 'MQXF_(GET|PUT|CLOSE)' will stream only traces for 'MQXF_GET',
@@ -62,9 +68,13 @@ import com.jkoolcloud.tnt4j.streams.utils.*;
  * constant name values. Default value - {@code ""}. (Optional)</li>
  * <li>SuppressBrowseGets - flag indicating whether to exclude WMQ BROWSE type GET operation traces from streaming.
  * Default value - {@code false}. (Optional)</li>
+ * <li>TracesSplitMode - defines PCF message activity traces splitting mode: {@code MARKER} - marks processed trace
+ * entry in original PCF message and copies all message parameters for every trace, {@code VIEW} - splits message into
+ * lazily built trace views, {@code PARALLEL} - splits message into trace views filtered and built in parallel. Default
+ * value - {@code MARKER}. (Optional)</li>
  * </ul>
  *
- * @version $Revision: 2 $
+ * @version $Revision: 4 $
  */
 public class WmqTraceStream extends WmqStreamPCF {
 	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(WmqTraceStream.class);
@@ -80,6 +90,10 @@ public class WmqTraceStream extends WmqStreamPCF {
 
 	private boolean suppressBrowseGets = false;
 
+	private SplitMode splitMode = SplitMode.MARKER;
+	private Iterator<PCFContent> traceViews;
+	private final Deque<PCFContent> builtViews = new ArrayDeque<>();
+
 	// private Map<String, MQCFGR> dupIds = new HashMap<>(); //TODO: duplicate traces handling if such may occur
 
 	/**
@@ -127,6 +141,13 @@ public class WmqTraceStream extends WmqStreamPCF {
 			}
 		} else if (WmqStreamProperties.PROP_SUPPRESS_BROWSE_GETS.equalsIgnoreCase(name)) {
 			suppressBrowseGets = Utils.toBoolean(value);
+		} else if (WmqStreamProperties.PROP_TRACES_SPLIT_MODE.equalsIgnoreCase(name)) {
+			try {
+				splitMode = SplitMode.valueOf(value.toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException exc) {
+				throw new IllegalArgumentException(StreamsResources.getStringFormatted(
+						StreamsResources.RESOURCE_BUNDLE_NAME, "TNTInputStream.property.illegal", name, value));
+			}
 		}
 	}
 
@@ -144,16 +165,88 @@ public class WmqTraceStream extends WmqStreamPCF {
 			return suppressBrowseGets;
 		}
 
+		if (WmqStreamProperties.PROP_TRACES_SPLIT_MODE.equalsIgnoreCase(name)) {
+			return splitMode;
+		}
+
 		return super.getProperty(name);
 	}
 
 	@Override
 	public PCFContent getNextItem() throws Exception {
+		if (splitMode == SplitMode.MARKER) {
+			return getNextMarkedItem();
+		}
+
+		while (true) {
+			PCFContent pcfMsg;
+			msgAccessLock.lock();
+			try {
+				PCFContent view = builtViews.poll();
+				if (view != null) {
+					return view;
+				}
+				if (traceViews != null && traceViews.hasNext()) {
+					return traceViews.next();
+				}
+
+				traceViews = null;
+				pcfMsg = nextMessage();
+				if (pcfMsg == null) {
+					return null;
+				}
+
+				if (splitMode != SplitMode.PARALLEL) {
+					traceViews = split(pcfMsg).iterator();
+					if (!traceViews.hasNext()) {
+						logNoTraces();
+					}
+					continue;
+				}
+			} finally {
+				msgAccessLock.unlock();
+			}
+
+			// parallel split shall not block other stream threads accessing messages
+			List<PCFContent> views = split(pcfMsg).collect(Collectors.toList());
+			if (views.isEmpty()) {
+				logNoTraces();
+				continue;
+			}
+
+			msgAccessLock.lock();
+			try {
+				builtViews.addAll(views.subList(1, views.size()));
+			} finally {
+				msgAccessLock.unlock();
+			}
+
+			return views.get(0);
+		}
+	}
+
+	/**
+	 * Retrieves next PCF message from MQ server.
+	 *
+	 * @return next PCF message, or {@code null} if stream has no more messages
+	 * @throws Exception
+	 *             if any errors occurred getting message
+	 */
+	PCFContent nextMessage() throws Exception {
+		return super.getNextItem();
+	}
+
+	private void logNoTraces() {
+		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+				"WmqTraceStream.trace.init.no.traces");
+	}
+
+	private PCFContent getNextMarkedItem() throws Exception {
 		while (true) {
 			msgAccessLock.lock();
 			try {
 				if (isPCFMessageConsumed(pcfMessage)) {
-					pcfMessage = super.getNextItem();
+					pcfMessage = nextMessage();
 
 					if (pcfMessage != null) {
 						boolean hasMatchingTraces = initTrace(pcfMessage);
@@ -204,6 +297,52 @@ public class WmqTraceStream extends WmqStreamPCF {
 		}
 	}
 
+	/**
+	 * Splits PCF message into activity trace views: PCF messages sharing message level parameters and single relevant
+	 * MQ activity trace parameter instances of provided PCF message. Trace views are built lazily while consuming
+	 * returned stream, which is parallel if split mode is {@link SplitMode#PARALLEL}.
+	 *
+	 * @param pcfContent
+	 *            PCF message containing MQ activity traces
+	 * @return stream of PCF message activity trace views
+	 */
+	private Stream<PCFContent> split(PCFContent pcfContent) {
+		if (!(pcfContent instanceof PCFMessage)) {
+			return Stream.of(pcfContent);
+		}
+
+		PCFMessage pcfMsg = (PCFMessage) pcfContent;
+		List<PCFParameter> msgParams = new ArrayList<>();
+		List<MQCFGR> traces = new ArrayList<>();
+
+		Enumeration<?> params = pcfMsg.getParameters();
+		while (params.hasMoreElements()) {
+			PCFParameter param = (PCFParameter) params.nextElement();
+			if (WmqUtils.isTraceParameter(param)) {
+				traces.add((MQCFGR) param);
+			} else {
+				msgParams.add(param);
+			}
+		}
+
+		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+				"WmqTraceStream.trace.split", traces.size(), splitMode);
+
+		Stream<MQCFGR> tracesStream = splitMode == SplitMode.PARALLEL ? traces.parallelStream() : traces.stream();
+		return tracesStream.filter(this::isTraceRelevant).map(trace -> newTraceView(pcfMsg, msgParams, trace));
+	}
+
+	private static PCFContent newTraceView(PCFMessage pcfMsg, List<PCFParameter> msgParams, MQCFGR trace) {
+		PCFMessage view = new PCFMessage(pcfMsg.getType(), pcfMsg.getCommand(), pcfMsg.getMsgSeqNumber(),
+				pcfMsg.getControl() == 1);
+		for (PCFParameter param : msgParams) {
+			view.addParameter(param);
+		}
+		view.addParameter(trace);
+
+		return view;
+	}
+
 	private static int getIntParam(PCFContent pcf, int param) {
 		MQCFIN pv = (MQCFIN) pcf.getParameter(param);
 		return pv == null ? 0 : pv.getIntValue();
@@ -372,4 +511,22 @@ public class WmqTraceStream extends WmqStreamPCF {
 			return pcfContent;
 		}
 	}
+
+	/**
+	 * This enumeration defines PCF message activity traces splitting modes.
+	 */
+	public enum SplitMode {
+		/**
+		 * Mark processed trace entry in original PCF message and copy all message parameters for every trace entry.
+		 */
+		MARKER,
+		/**
+		 * Split PCF message into trace views built lazily.
+		 */
+		VIEW,
+		/**
+		 * Split PCF message into trace views filtered and built in parallel.
+		 */
+		PARALLEL
+	}
 }
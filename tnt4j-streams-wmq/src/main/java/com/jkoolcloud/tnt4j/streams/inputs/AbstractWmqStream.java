@@ -16,9 +16,14 @@
 
 package com.jkoolcloud.tnt4j.streams.inputs;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -82,12 +87,30 @@ import com.jkoolcloud.tnt4j.streams.utils.*;
  * <li>MQSO_RESUME - if subscription name is defined</li>
  * </ul>
  * (Optional)</li>
+ * <li>GetBatchSize - maximal number of messages to get within single unit of work, committed at once. Default value -
+ * {@code 1}. (Optional)</li>
+ * <li>GetBatchWait - maximal time in milliseconds to wait for more messages to fill batch after first batch message
+ * has been got. Default value - {@code 100}. (Optional) Actual only if {@code GetBatchSize} is greater than
+ * {@code 1}.</li>
+ * <li>ConsumersCount - defines number of parallel consumers, each having own queue manager connection and object
+ * handle to get messages. Default value - {@code 1}. (Optional)</li>
  * </ul>
+ * <p>
+ * When messages are got in batches, batch unit of work is committed when all batch messages have been processed
+ * (including failed and filtered out ones) and stream gets next batch, or backed out if stream fails or gets stopped
+ * before it. If executor service rejects or drops batch item, batch stays uncommitted until stream gets stopped, and
+ * then is backed out to be redelivered.
+ * <p>
+ * When stream runs multiple consumers, every consumer runs own get loop, having own read and connection failures
+ * accounting, and puts got activity data into stream shared buffer. If multiple queue manager connections are defined,
+ * consumers start from different connections, so stream can get messages from several queue managers at once.
+ * Consumer commits unit of work of got messages batch only when stream has processed all batch items, so items left in
+ * shared buffer or not processed on stream stop belong to backed out units of work.
  *
  * @param <T>
  *            the type of RAW activity data retrieved from {@link MQMessage}
  *
- * @version $Revision: 1 $
+ * @version $Revision: 5 $
  */
 public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 	/**
@@ -132,6 +155,9 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 	 */
 	protected static final String CONN_FAIL_COUNT_KEY = "ConnFailCount"; // NON-NLS
 
+	private static final long CONSUMED_ITEM_POLL_TIMEOUT = 500;
+	private static final long CONSUMER_STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
 	/**
 	 * Represents Queue Manager connected to
 	 */
@@ -149,7 +175,8 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 
 	/**
 	 * Registry map for failure counters. Currently two types of failures are supported out of the box: READ and
-	 * CONNECT.
+	 * CONNECT. Every parallel consumer has own registry, so failures are accounted per queue manager connection and
+	 * object handle.
 	 *
 	 * @see #READ_FAIL_COUNT_KEY
 	 * @see #CONN_FAIL_COUNT_KEY
@@ -177,9 +204,22 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 	private int openOptions;
 	private boolean forceOpenOptions;
 
+	private int getBatchSize = 1;
+	private long getBatchWait = 100;
+	private final Deque<T> batchItems = new ArrayDeque<>();
+	private boolean batchUncommitted = false;
+	private CountDownLatch batchLatch;
+	private final Map<T, CountDownLatch> unprocessedItems = Collections.synchronizedMap(new IdentityHashMap<>());
+
 	private MQMessage mqMsg;
 	private final Queue<Pair<String, Integer>> connections = new ArrayDeque<>(5);
 
+	private int consumersCount = 1;
+	private final List<Map.Entry<String, String>> streamProperties = new ArrayList<>();
+	private List<WmqConsumer> consumers;
+	private BlockingQueue<T> consumedItems;
+	private AbstractWmqStream<T> parentStream;
+
 	protected AbstractWmqStream() {
 		mqConnProps.put(CMQC.PORT_PROPERTY, 1414);
 		mqConnProps.put(CMQC.CHANNEL_PROPERTY, "SYSTEM.DEF.SVRCONN"); // NON-NLS
@@ -189,6 +229,7 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 	@Override
 	public void setProperty(String name, String value) {
 		super.setProperty(name, value);
+		streamProperties.add(new AbstractMap.SimpleImmutableEntry<>(name, value));
 
 		if (WmqStreamProperties.PROP_QMGR_NAME.equalsIgnoreCase(name)) {
 			qmgrName = value;
@@ -226,6 +267,12 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 			reconnectDelay = TimeUnit.SECONDS.toMillis(Integer.decode(value));
 		} else if (WmqStreamProperties.OPEN_OPTIONS.equalsIgnoreCase(name)) {
 			openOptions = initOpenOptions(value);
+		} else if (WmqStreamProperties.PROP_GET_BATCH_SIZE.equalsIgnoreCase(name)) {
+			getBatchSize = Integer.parseInt(value);
+		} else if (WmqStreamProperties.PROP_GET_BATCH_WAIT.equalsIgnoreCase(name)) {
+			getBatchWait = Long.parseLong(value);
+		} else if (WmqStreamProperties.PROP_CONSUMERS_COUNT.equalsIgnoreCase(name)) {
+			consumersCount = Integer.parseInt(value);
 		} else if (!StreamsConstants.isStreamCfgProperty(name, WmqStreamProperties.class)) {
 			String[] mqcNameTokens = name.split("\\.");
 			String mqcName = Utils.lastOf(mqcNameTokens);
@@ -420,6 +467,15 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 		if (WmqStreamProperties.OPEN_OPTIONS.equalsIgnoreCase(name)) {
 			return openOptions;
 		}
+		if (WmqStreamProperties.PROP_GET_BATCH_SIZE.equalsIgnoreCase(name)) {
+			return getBatchSize;
+		}
+		if (WmqStreamProperties.PROP_GET_BATCH_WAIT.equalsIgnoreCase(name)) {
+			return getBatchWait;
+		}
+		if (WmqStreamProperties.PROP_CONSUMERS_COUNT.equalsIgnoreCase(name)) {
+			return consumersCount;
+		}
 
 		return super.getProperty(name);
 	}
@@ -434,6 +490,11 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 					"WmqStream.must.specify.one", StreamProperties.PROP_QUEUE_NAME, StreamProperties.PROP_TOPIC_NAME,
 					StreamProperties.PROP_TOPIC_STRING, WmqStreamProperties.PROP_SUB_NAME));
 		}
+		if (consumersCount < 1) {
+			throw new IllegalArgumentException(StreamsResources.getStringFormatted(
+					StreamsResources.RESOURCE_BUNDLE_NAME, "TNTInputStream.property.illegal",
+					WmqStreamProperties.PROP_CONSUMERS_COUNT, consumersCount));
+		}
 
 		connectionStr = initConnections((String) mqConnProps.get(CMQC.HOST_NAME_PROPERTY));
 
@@ -445,9 +506,58 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 		gmo.options |= CMQC.MQGMO_SYNCPOINT | CMQC.MQGMO_WAIT;
 	}
 
+	@Override
+	protected void initialize() throws Exception {
+		super.initialize();
+
+		if (consumersCount > 1 && parentStream == null) {
+			consumedItems = new ArrayBlockingQueue<>(Math.max(2 * consumersCount * getBatchSize, 64));
+			consumers = new ArrayList<>(consumersCount);
+			for (int i = 0; i < consumersCount; i++) {
+				consumers.add(new WmqConsumer(i));
+			}
+		}
+	}
+
+	@Override
+	protected void start() throws Exception {
+		super.start();
+
+		if (consumers != null) {
+			for (WmqConsumer consumer : consumers) {
+				consumer.start();
+			}
+		}
+	}
+
+	/**
+	 * Creates stream instance used by parallel consumer to get messages over own queue manager connection and object
+	 * handle. Consumer stream is configured using same properties as this stream, and starts from connection matching
+	 * consumer index.
+	 *
+	 * @param idx
+	 *            consumer index
+	 * @return consumer stream instance
+	 * @throws Exception
+	 *             if consumer stream can't be created or configured
+	 */
+	@SuppressWarnings("unchecked")
+	private AbstractWmqStream<T> newConsumerStream(int idx) throws Exception {
+		AbstractWmqStream<T> cStream = getClass().getDeclaredConstructor().newInstance();
+		cStream.parentStream = this;
+		cStream.setName(getName() + ":consumer-" + (idx + 1)); // NON-NLS
+		cStream.setProperties(streamProperties);
+		cStream.applyProperties();
+		for (int i = 0; i < idx; i++) {
+			cStream.swapConnection();
+		}
+
+		return cStream;
+	}
+
 	/**
 	 * Interrupts owner thread to interrupt sleep between QM reconnect attempts and closes target {@link #dest} if
-	 * opened.
+	 * opened. Closes target objects of all parallel consumers.
 	 *
 	 * @see #closeDestination()
 	 */
@@ -461,6 +571,12 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 		}
 
 		closeDestination();
+		if (consumers != null) {
+			for (WmqConsumer consumer : consumers) {
+				consumer.halt(false);
+				consumer.cStream.closeDestination();
+			}
+		}
 
 		// Restore WMQ tracing.
 		traceOff(false);
@@ -592,6 +708,17 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 		return failCountsMap.get(fKey).incrementAndGet();
 	}
 
+	/**
+	 * Returns current count of defined failures counter.
+	 *
+	 * @param fKey
+	 *            failure counter key
+	 * @return current failures count value
+	 */
+	protected int getFailCount(String fKey) {
+		return failCountsMap.get(fKey).get();
+	}
+
 	/**
 	 * Checks if failures counter reached limit of consecutive failures.
 	 * 
@@ -606,59 +733,168 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 		return failCountsMap.get(fKey).get() >= max;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If stream runs parallel consumers, takes activity data item put into stream shared buffer by consumers.
+	 * Otherwise, gets message from queue manager.
+	 */
 	@Override
 	public T getNextItem() throws Exception {
-		while (true) {
-			while (!isHalted() && !isConnectedToQmgr(null)) {
-				try {
-					connectToQmgr();
-				} catch (MQException mqe) {
-					if (isConnectedToQmgr(mqe)) {
-						// connection to qmgr was successful, so we were not able to open/subscribe to required
-						// queue/topic, so exit
-						logger().log(OpLevel.ERROR, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
-								"WmqStream.failed.opening", formatMqException(mqe));
-						return null;
-					}
+		if (consumers != null) {
+			return getConsumedItem();
+		}
 
-					incrementFailCount(CONN_FAIL_COUNT_KEY);
-					logger().log(OpLevel.ERROR, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
-							"WmqStream.failed.to.connect", formatMqException(mqe));
-					if (!isHalted()) {
-						if (isFailLimitReached(CONN_FAIL_COUNT_KEY, connections.size())) {
-							logger().log(OpLevel.WARNING,
-									StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
-									"WmqStream.reached.conn.limit", connections.size());
-							sleep(reconnectDelay);
-							resetFailCount(CONN_FAIL_COUNT_KEY);
-						}
-
-						if (CollectionUtils.size(connections) > 1) {
-							swapConnection();
-						}
-					}
+		return readItem();
+	}
+
+	/**
+	 * Takes activity data item put into stream shared buffer by parallel consumers.
+	 *
+	 * @return activity data item, or {@code null} if stream is halted or all consumers have ended
+	 * @throws InterruptedException
+	 *             if interrupted while waiting for item
+	 */
+	private T getConsumedItem() throws InterruptedException {
+		while (!isHalted()) {
+			T item = consumedItems.poll(CONSUMED_ITEM_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+			if (item != null) {
+				return item;
+			}
+			if (!isAnyConsumerAlive()) {
+				// all consumers have ended and backed out batches of items left in buffer, so exit
+				return null;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Marks item as processed, so unit of work of its batch can be committed when all batch items have been processed.
+	 * Failed and filtered out item is marked too, since failure is already logged.
+	 */
+	@Override
+	protected void processActivityItem(T item, AtomicBoolean failureFlag) throws Exception {
+		try {
+			super.processActivityItem(item, failureFlag);
+		} finally {
+			itemProcessed(item);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Marks item as processed when item output step completes, or when item processing fails or produces no output.
+	 */
+	@Override
+	protected OrderedItemsSequencer.ItemOutput processActivityItemDeferred(T item, AtomicBoolean failureFlag)
+			throws Exception {
+		OrderedItemsSequencer.ItemOutput output = null;
+		try {
+			output = super.processActivityItemDeferred(item, failureFlag);
+		} finally {
+			if (output == null) {
+				itemProcessed(item);
+			}
+		}
+		if (output == null) {
+			return null;
+		}
+
+		OrderedItemsSequencer.ItemOutput itemOutput = output;
+		return () -> {
+			try {
+				itemOutput.output();
+			} finally {
+				itemProcessed(item);
+			}
+		};
+	}
+
+	/**
+	 * Registers batch items to be tracked until processed.
+	 *
+	 * @param items
+	 *            batch activity data items
+	 * @return batch items countdown latch, reaching zero when all batch items have been processed
+	 */
+	private CountDownLatch trackBatchItems(Collection<T> items) {
+		CountDownLatch latch = new CountDownLatch(items.size());
+		for (T item : items) {
+			unprocessedItems.put(item, latch);
+		}
+		return latch;
+	}
+
+	private void itemProcessed(T item) {
+		CountDownLatch latch = unprocessedItems.remove(item);
+		if (latch != null) {
+			latch.countDown();
+		}
+	}
+
+	/**
+	 * Waits until stream processes all items of messages batch got by this stream.
+	 *
+	 * @return {@code true} if all batch items have been processed, {@code false} if stream got halted before it
+	 * @throws InterruptedException
+	 *             if interrupted while waiting
+	 */
+	private boolean awaitBatchProcessed() throws InterruptedException {
+		if (batchLatch != null) {
+			while (!batchLatch.await(CONSUMED_ITEM_POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				if (isHalted()) {
+					return false;
 				}
 			}
+			batchLatch = null;
+		}
+		return true;
+	}
+
+	private boolean isAnyConsumerAlive() {
+		for (WmqConsumer consumer : consumers) {
+			if (consumer.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
 
-			if (isHalted() || !isConnectedToQmgr(null)) {
-				// stream is halted or not connected to qmgr, so exit
+	/**
+	 * Gets activity data item from queue manager, (re)connecting to queue manager when required.
+	 *
+	 * @return activity data item, or {@code null} if stream is halted or can't open target object
+	 * @throws Exception
+	 *             if any errors occurred getting message
+	 */
+	private T readItem() throws Exception {
+		while (true) {
+			T batchItem = batchItems.poll();
+			if (batchItem != null) {
+				return batchItem;
+			}
+
+			if (!ensureConnected()) {
 				return null;
 			}
 
 			try {
-				MQMessage mqMsg = new MQMessage();
-				logger().log(OpLevel.DEBUG, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
-						"WmqStream.waiting.for.message", dest.getName().trim());
-				dest.get(mqMsg, gmo);
-				logger().log(OpLevel.DEBUG, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
-						"WmqStream.read.msg", dest.getName().trim(), mqMsg.getMessageLength());
-				// TODO: MQCFH mqcfh = new MQCFH(mqMsg); mqcfh.control != MQConstants.MQCFC_LAST;
-				if (stripHeaders) {
-					MQHeaderIterator hdrIt = new MQHeaderIterator(mqMsg);
-					hdrIt.skipHeaders();
-					logger().log(OpLevel.DEBUG, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
-							"WmqStream.stripped.wmq");
+				if (getBatchSize > 1) {
+					if (!awaitBatchProcessed()) {
+						return null;
+					}
+					commitBatch();
+					getBatch();
+					batchLatch = trackBatchItems(batchItems);
+					continue;
 				}
+
+				MQMessage mqMsg = getMessage();
 				T msgData = getActivityDataFromMessage(mqMsg);
 				qmgr.commit();
 				resetFailCount(READ_FAIL_COUNT_KEY);
@@ -666,36 +902,283 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 				// logger().log(OpLevel.DEBUG, "QUEUE {0} DEPTH: {1}", queueName, ((MQQueue) dest).getCurrentDepth());
 				return msgData;
 			} catch (MQException mqe) {
-				if (isHalted() && mqe.getReason() == CMQC.MQRC_UNEXPECTED_ERROR) {
-					// stream is halted and most likely dest.get(MQMessage) was interrupted by stream stop method
-					// invoking dest.close()
+				if (!handleReadFailure(mqe)) {
+					return null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets batch of activity data items from queue manager for parallel consumer, (re)connecting to queue manager
+	 * when required. Batch unit of work is left uncommitted, and consumer commits it by {@link #commitBatch()} when
+	 * all batch items have been processed by stream.
+	 *
+	 * @return list of batch activity data items, or {@code null} if stream is halted or can't open target object
+	 * @throws Exception
+	 *             if any errors occurred getting messages
+	 */
+	private List<T> readBatch() throws Exception {
+		while (true) {
+			if (!ensureConnected()) {
+				return null;
+			}
+
+			try {
+				getBatch();
+				if (batchItems.isEmpty()) {
+					// all batch messages have been skipped
+					commitBatch();
+					continue;
+				}
+				List<T> items = new ArrayList<>(batchItems);
+				batchItems.clear();
+				return items;
+			} catch (MQException mqe) {
+				if (!handleReadFailure(mqe)) {
 					return null;
 				}
+			}
+		}
+	}
 
-				incrementFailCount(READ_FAIL_COUNT_KEY);
+	/**
+	 * Connects to queue manager and opens target object, if not connected yet. Retries connection until succeeds or
+	 * stream gets halted, swapping connections when multiple are defined.
+	 *
+	 * @return {@code true} if connected to queue manager, {@code false} if stream is halted or can't open target
+	 *         object
+	 * @throws Exception
+	 *             if any errors occurred connecting to queue manager
+	 */
+	private boolean ensureConnected() throws Exception {
+		while (!isHalted() && !isConnectedToQmgr(null)) {
+			try {
+				connectToQmgr();
+			} catch (MQException mqe) {
+				if (isConnectedToQmgr(mqe)) {
+					// connection to qmgr was successful, so we were not able to open/subscribe to required
+					// queue/topic, so exit
+					logger().log(OpLevel.ERROR, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+							"WmqStream.failed.opening", formatMqException(mqe));
+					return false;
+				}
+
+				incrementFailCount(CONN_FAIL_COUNT_KEY);
 				logger().log(OpLevel.ERROR, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
-						"WmqStream.failed.reading", dest.getName().trim(), formatMqException(mqe));
-				boolean throwException = true;
-				if (isFailLimitReached(READ_FAIL_COUNT_KEY, MAX_CONSECUTIVE_FAILURES)) {
-					logger().log(OpLevel.WARNING, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
-							"WmqStream.reached.limit", MAX_CONSECUTIVE_FAILURES);
-					closeQmgrConnection();
-					resetFailCount(READ_FAIL_COUNT_KEY);
-				} else {
-					if (!isHalted()) {
-						switch (mqe.getReason()) {
-						case CMQC.MQRC_GET_INHIBITED:
-							sleep(reconnectDelay);
-							throwException = false;
-							break;
-						default:
-							break;
-						}
+						"WmqStream.failed.to.connect", formatMqException(mqe));
+				if (!isHalted()) {
+					if (isFailLimitReached(CONN_FAIL_COUNT_KEY, connections.size())) {
+						logger().log(OpLevel.WARNING,
+								StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+								"WmqStream.reached.conn.limit", connections.size());
+						sleep(reconnectDelay);
+						resetFailCount(CONN_FAIL_COUNT_KEY);
+					}
+
+					if (CollectionUtils.size(connections) > 1) {
+						swapConnection();
 					}
 				}
+			}
+		}
+
+		// stream may be halted or not connected to qmgr
+		return !isHalted() && isConnectedToQmgr(null);
+	}
+
+	/**
+	 * Handles failure of getting messages from queue manager: increments read failures count, and closes queue
+	 * manager connection when consecutive failures limit is reached.
+	 *
+	 * @param mqe
+	 *            MQ exception thrown getting messages
+	 * @return {@code true} if getting messages can be retried, {@code false} if stream is halted
+	 * @throws MQException
+	 *             provided exception, if it has to be passed to caller
+	 */
+	private boolean handleReadFailure(MQException mqe) throws MQException {
+		if (isHalted() && mqe.getReason() == CMQC.MQRC_UNEXPECTED_ERROR) {
+			// stream is halted and most likely dest.get(MQMessage) was interrupted by stream stop method
+			// invoking dest.close()
+			return false;
+		}
+
+		incrementFailCount(READ_FAIL_COUNT_KEY);
+		logger().log(OpLevel.ERROR, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+				"WmqStream.failed.reading", dest.getName().trim(), formatMqException(mqe));
+		boolean throwException = true;
+		if (isFailLimitReached(READ_FAIL_COUNT_KEY, MAX_CONSECUTIVE_FAILURES)) {
+			logger().log(OpLevel.WARNING, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+					"WmqStream.reached.limit", MAX_CONSECUTIVE_FAILURES);
+			closeQmgrConnection();
+			resetFailCount(READ_FAIL_COUNT_KEY);
+		} else {
+			if (!isHalted()) {
+				switch (mqe.getReason()) {
+				case CMQC.MQRC_GET_INHIBITED:
+					sleep(reconnectDelay);
+					throwException = false;
+					break;
+				default:
+					break;
+				}
+			}
+		}
+
+		if (throwException) {
+			throw mqe;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets message from {@link #dest} and strips WMQ headers if stream is configured to do so.
+	 *
+	 * @return MQ message got from destination
+	 * @throws Exception
+	 *             if any errors occurred getting message
+	 */
+	private MQMessage getMessage() throws Exception {
+		MQMessage mqMsg = newMessage();
+		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+				"WmqStream.waiting.for.message", dest.getName().trim());
+		dest.get(mqMsg, gmo);
+		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+				"WmqStream.read.msg", dest.getName().trim(), mqMsg.getMessageLength());
+		// TODO: MQCFH mqcfh = new MQCFH(mqMsg); mqcfh.control != MQConstants.MQCFC_LAST;
+		if (stripHeaders) {
+			MQHeaderIterator hdrIt = new MQHeaderIterator(mqMsg);
+			hdrIt.skipHeaders();
+			logger().log(OpLevel.DEBUG, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+					"WmqStream.stripped.wmq");
+		}
+		return mqMsg;
+	}
+
+	/**
+	 * Returns MQ message instance to get message into. When stream does not keep references to got messages, single
+	 * message instance (and its data buffer) is reused for all gets.
+	 *
+	 * @return MQ message instance to get message into
+	 * @throws IOException
+	 *             if reused message data can't be cleared
+	 *
+	 * @see #isMessageReusable()
+	 */
+	private MQMessage newMessage() throws IOException {
+		if (!isMessageReusable()) {
+			return new MQMessage();
+		}
+
+		if (mqMsg == null) {
+			mqMsg = new MQMessage();
+		} else {
+			mqMsg.clearMessage();
+			// reset identifiers to not match next message by previous message identifiers
+			mqMsg.messageId = CMQC.MQMI_NONE;
+			mqMsg.correlationId = CMQC.MQCI_NONE;
+		}
+		return mqMsg;
+	}
+
+	/**
+	 * Checks whether single {@link MQMessage} instance can be reused to get all messages. It can be reused when
+	 * {@link #getActivityDataFromMessage(com.ibm.mq.MQMessage)} copies message data and does not keep reference to
+	 * provided message.
+	 * <p>
+	 * Default implementation returns {@code false}.
+	 *
+	 * @return {@code true} if MQ message instance can be reused, {@code false} - otherwise
+	 */
+	protected boolean isMessageReusable() {
+		return false;
+	}
+
+	/**
+	 * Gets batch of messages within single unit of work: waits for first message and then gets messages until batch
+	 * size is reached, no more messages are available or batch wait time expires. If getting fails, whole batch gets
+	 * backed out. Batch unit of work gets committed by {@link #commitBatch()}, when all batch items have been passed
+	 * for processing.
+	 *
+	 * @throws Exception
+	 *             if any errors occurred getting messages
+	 */
+	private void getBatch() throws Exception {
+		int waitInterval = gmo.waitInterval;
+		long deadline = 0;
+		try {
+			for (int i = 0; i < getBatchSize; i++) {
+				if (i > 0) {
+					gmo.waitInterval = (int) Math.max(deadline - System.currentTimeMillis(), 0);
+				}
+
+				MQMessage mqMsg;
+				try {
+					mqMsg = getMessage();
+				} catch (MQException mqe) {
+					if (i > 0 && mqe.getReason() == CMQC.MQRC_NO_MSG_AVAILABLE) {
+						break;
+					}
+					throw mqe;
+				}
+				if (i == 0) {
+					deadline = System.currentTimeMillis() + getBatchWait;
+				}
+				batchUncommitted = true;
+				addStreamedBytesCount(mqMsg.getMessageLength());
 
-				if (throwException) {
+				try {
+					T msgData = getActivityDataFromMessage(mqMsg);
+					if (msgData != null) {
+						batchItems.add(msgData);
+					}
+				} catch (MQException mqe) {
 					throw mqe;
+				} catch (Exception exc) {
+					Utils.logThrowable(logger(), OpLevel.ERROR,
+							StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+							"WmqStream.failed.converting", dest.getName().trim(), exc);
+					incrementSkippedActivitiesCount();
+				}
+			}
+			resetFailCount(READ_FAIL_COUNT_KEY);
+		} catch (Exception exc) {
+			backoutBatch();
+			throw exc;
+		} finally {
+			gmo.waitInterval = waitInterval;
+		}
+	}
+
+	/**
+	 * Commits unit of work of messages batch, if there is one pending.
+	 *
+	 * @throws MQException
+	 *             if queue manager fails to commit unit of work
+	 */
+	private void commitBatch() throws MQException {
+		if (batchUncommitted) {
+			batchUncommitted = false;
+			qmgr.commit();
+		}
+	}
+
+	/**
+	 * Backs out unit of work of messages batch, if there is one pending, and drops batch items not passed for
+	 * processing yet.
+	 */
+	private void backoutBatch() {
+		batchItems.clear();
+		batchLatch = null;
+		if (batchUncommitted) {
+			batchUncommitted = false;
+			if (qmgr != null) {
+				try {
+					qmgr.backout();
+				} catch (MQException mqe) {
+					logger().log(OpLevel.WARNING, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+							"WmqStream.error.backout", formatMqException(mqe));
 				}
 			}
 		}
@@ -719,6 +1202,7 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 	 * @see #disconnectQM()
 	 */
 	protected void closeQmgrConnection() {
+		backoutBatch();
 		closeDestination();
 		disconnectQM();
 	}
@@ -768,10 +1252,153 @@ public abstract class AbstractWmqStream<T> extends TNTParseableInputStream<T> {
 	@Override
 	protected void cleanup() {
 		closeQmgrConnection();
+		if (consumers != null) {
+			for (WmqConsumer consumer : consumers) {
+				consumer.shutdown();
+			}
+			consumers = null;
+			// consumers have backed out units of work of items left in buffer
+			consumedItems.clear();
+		}
+		unprocessedItems.clear();
 
 		super.cleanup();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Parallel consumer stream is halted when parent stream is halted.
+	 */
+	@Override
+	public boolean isHalted() {
+		return parentStream == null ? super.isHalted() : parentStream.isHalted();
+	}
+
+	@Override
+	protected void addStreamedBytesCount(long bytesCount) {
+		if (parentStream == null) {
+			super.addStreamedBytesCount(bytesCount);
+		} else {
+			parentStream.addStreamedBytesCount(bytesCount);
+		}
+	}
+
+	@Override
+	protected void incrementSkippedActivitiesCount() {
+		if (parentStream == null) {
+			super.incrementSkippedActivitiesCount();
+		} else {
+			parentStream.incrementSkippedActivitiesCount();
+		}
+	}
+
+	/**
+	 * Commits unit of work of parallel consumer messages batch. If commit fails, increments read failures count of
+	 * this consumer and closes its queue manager connection when connection is broken or consecutive failures limit is
+	 * reached.
+	 */
+	private void commitConsumedBatch() {
+		try {
+			commitBatch();
+		} catch (MQException mqe) {
+			incrementFailCount(READ_FAIL_COUNT_KEY);
+			logger().log(OpLevel.ERROR, StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+					"WmqStream.failed.commit", getName(), formatMqException(mqe));
+			if (!isConnectedToQmgr(mqe) || isFailLimitReached(READ_FAIL_COUNT_KEY, MAX_CONSECUTIVE_FAILURES)) {
+				closeQmgrConnection();
+				resetFailCount(READ_FAIL_COUNT_KEY);
+			}
+		}
+	}
+
+	/**
+	 * Parallel consumer thread, getting batches of messages over own queue manager connection and putting activity
+	 * data items into stream shared buffer. Batch unit of work is committed when stream has processed all batch items,
+	 * or backed out if consumer gets stopped before it.
+	 */
+	private class WmqConsumer extends StreamsThread {
+		private final AbstractWmqStream<T> cStream;
+
+		/**
+		 * Constructs a new WmqConsumer.
+		 *
+		 * @param idx
+		 *            consumer index
+		 * @throws Exception
+		 *             if consumer stream can't be created or configured
+		 */
+		WmqConsumer(int idx) throws Exception {
+			super(AbstractWmqStream.this.getName() + ":WmqConsumer-" + (idx + 1)); // NON-NLS
+			setDaemon(true);
+			this.cStream = newConsumerStream(idx);
+		}
+
+		@Override
+		public void run() {
+			while (!isStopRunning() && !isHalted()) {
+				try {
+					List<T> items = cStream.readBatch();
+					if (items == null) {
+						break;
+					}
+					CountDownLatch batchLatch = trackBatchItems(items);
+					for (T item : items) {
+						consumedItems.put(item);
+					}
+					if (!awaitProcessed(batchLatch)) {
+						break;
+					}
+					cStream.commitConsumedBatch();
+				} catch (InterruptedException exc) {
+					break;
+				} catch (Exception exc) {
+					Utils.logThrowable(logger(), OpLevel.ERROR,
+							StreamsResources.getBundle(WmqStreamConstants.RESOURCE_BUNDLE_NAME),
+							"WmqStream.consumer.failed", getName(), exc);
+					incrementSkippedActivitiesCount();
+				}
+			}
+			cStream.backoutBatch();
+		}
+
+		/**
+		 * Waits until stream processes all batch items put into shared buffer.
+		 *
+		 * @param batchLatch
+		 *            batch items countdown latch
+		 * @return {@code true} if all batch items have been processed, {@code false} if consumer or stream got stopped
+		 *         before it
+		 * @throws InterruptedException
+		 *             if interrupted while waiting
+		 */
+		private boolean awaitProcessed(CountDownLatch batchLatch) throws InterruptedException {
+			while (!batchLatch.await(CONSUMED_ITEM_POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				if (isStopRunning() || isHalted()) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Stops consumer thread and closes consumer queue manager connection.
+		 */
+		void shutdown() {
+			halt(false);
+			try {
+				join(CONSUMER_STOP_TIMEOUT);
+				if (isAlive()) {
+					interrupt();
+					join(CONSUMER_STOP_TIMEOUT);
+				}
+			} catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+			}
+			cStream.closeQmgrConnection();
+		}
+	}
+
 	/**
 	 * Formats display string for WMQ Exceptions.
 	 * <p>
@@ -41,7 +41,7 @@ import com.jkoolcloud.tnt4j.streams.utils.WmqStreamConstants;
  * <p>
  * This activity stream supports configuration properties from {@link AbstractWmqStream} (and higher hierarchy streams).
  *
- * @version $Revision: 3 $
+ * @version $Revision: 4 $
  * 
  * @see com.jkoolcloud.tnt4j.streams.parsers.ActivityPCFParser
  */
@@ -65,6 +65,16 @@ public class WmqStreamPCF extends AbstractWmqStream<PCFContent> {
 		return msgToPCF(mqMsg);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * MQ message data is copied to PCF message, so MQ message instance is reused.
+	 */
+	@Override
+	protected boolean isMessageReusable() {
+		return true;
+	}
+
 	/**
 	 * Converts provided {@link com.ibm.mq.MQMessage} {@code mqMsg} to {@link com.ibm.mq.headers.pcf.PCFMessage}.
 	 * <p>
@@ -39,6 +39,7 @@ import com.jkoolcloud.tnt4j.core.OpLevel;
 import com.jkoolcloud.tnt4j.sink.EventSink;
 import com.jkoolcloud.tnt4j.streams.configure.WmqParserProperties;
 import com.jkoolcloud.tnt4j.streams.fields.*;
+import com.jkoolcloud.tnt4j.streams.inputs.TNTInputStream;
 import com.jkoolcloud.tnt4j.streams.utils.*;
 
 /**
@@ -94,7 +95,7 @@ import com.jkoolcloud.tnt4j.streams.utils.*;
  * <li>{@link com.jkoolcloud.tnt4j.streams.fields.ActivityFieldLocatorType#EnvVariable}</li>
  * </ul>
  *
- * @version $Revision: 2 $
+ * @version $Revision: 3 $
  */
 public class ActivityPCFParser extends GenericActivityParser<PCFContent> {
 	private static final EventSink LOGGER = LoggerUtils.getLoggerSink(ActivityPCFParser.class);
@@ -103,6 +104,7 @@ public class ActivityPCFParser extends GenericActivityParser<PCFContent> {
 	private static final String HEAD_MQMD = "MQMD"; // NON-NLS
 	private static final Pattern STRUCT_ATTR_PATTERN = Pattern.compile("MQBACF_(\\w{4,5})_STRUCT"); // NON-NLS
 	private static final String MQ_TMP_CTX_STRUCT_PREF = "MQ_TMP_CTX_"; // NON-NLS
+	private static final String CTX_PARAMS_INDEX_KEY = "MQ_TMP_CTX_PARAMS_INDEX"; // NON-NLS
 
 	private boolean translateNumValues = true;
 
@@ -157,6 +159,21 @@ public class ActivityPCFParser extends GenericActivityParser<PCFContent> {
 		return data instanceof PCFContent;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Builds PCF message parameters index to be used by field locators to resolve parameter values.
+	 */
+	@Override
+	protected ActivityContext prepareItem(TNTInputStream<?, ?> stream, Object data) throws ParseException {
+		ActivityContext cData = super.prepareItem(stream, data);
+		if (cData != null && cData.getData() != null) {
+			cData.put(CTX_PARAMS_INDEX_KEY, new PCFParametersIndex(cData.getData()));
+		}
+
+		return cData;
+	}
+
 	/**
 	 * Gets field raw data value resolved by locator.
 	 *
@@ -247,14 +264,14 @@ public class ActivityPCFParser extends GenericActivityParser<PCFContent> {
 		if (i == 0 && paramStr.equals(HEAD_MQCFH)) {
 			val = resolvePCFHeaderValue(locator, path[i + 1], (PCFMessage) pcfContent);
 		} else if (i == 0 && paramStr.equalsIgnoreCase(HEAD_MQMD)) {
-			val = resolveMDMQHeaderValue(locator, path[i + 1], pcfContent);
+			val = resolveMDMQHeaderValue(locator, path[i + 1], pcfContent, cData);
 		} else {
 			try {
 				Integer paramId = WmqUtils.getParamId(paramStr);
-				PCFParameter[] params = WmqUtils.getParameters(pcfContent, paramId);
+				PCFParameter[] params = getParameters(pcfContent, paramId, cData);
 
 				if (ArrayUtils.isEmpty(params)) {
-					params = WmqUtils.getParameters(pcfContent, WmqStreamConstants.PCF_MQMD_HEADER + paramId);
+					params = getParameters(pcfContent, WmqStreamConstants.PCF_MQMD_HEADER + paramId, cData);
 				}
 
 				if (ArrayUtils.isEmpty(params)) {
@@ -286,6 +303,30 @@ public class ActivityPCFParser extends GenericActivityParser<PCFContent> {
 		return val;
 	}
 
+	/**
+	 * Resolves all PCF parameters matching provided parameter id from provided PCF content. Parameters are resolved
+	 * using PCF message parameters index built while preparing activity data item, or by enumerating PCF content
+	 * parameters if parsing context has no parameters index.
+	 *
+	 * @param pcfContent
+	 *            PCF content data (message or parameters group)
+	 * @param paramId
+	 *            PCF parameter identifier
+	 * @param cData
+	 *            PCF message parsing context data
+	 * @return PCF parameters array, or empty array if no matching parameters available
+	 *
+	 * @see com.jkoolcloud.tnt4j.streams.utils.PCFParametersIndex#getParameters(com.ibm.mq.headers.pcf.PCFContent, int)
+	 */
+	protected PCFParameter[] getParameters(PCFContent pcfContent, int paramId, ActivityContext cData) {
+		PCFParametersIndex paramsIndex = cData == null ? null : (PCFParametersIndex) cData.get(CTX_PARAMS_INDEX_KEY);
+		if (paramsIndex == null) {
+			return WmqUtils.getParameters(pcfContent, paramId);
+		}
+
+		return paramsIndex.getParameters(pcfContent, paramId);
+	}
+
 	private static boolean isLastPathToken(String[] path, int i) {
 		return i >= path.length - 1;
 	}
@@ -354,11 +395,12 @@ public class ActivityPCFParser extends GenericActivityParser<PCFContent> {
 		return translateNumValues && isTextualLocatorDataType(fDataType);
 	}
 
-	private Object resolveMDMQHeaderValue(ActivityFieldLocator locator, String hAttrName, PCFContent pcfContent)
-			throws ParseException {
+	private Object resolveMDMQHeaderValue(ActivityFieldLocator locator, String hAttrName, PCFContent pcfContent,
+			ActivityContext cData) throws ParseException {
 		try {
 			Integer paramId = getMQMDParamId(hAttrName);
-			PCFParameter param = pcfContent.getParameter(WmqStreamConstants.PCF_MQMD_HEADER + paramId);
+			PCFParameter[] params = getParameters(pcfContent, WmqStreamConstants.PCF_MQMD_HEADER + paramId, cData);
+			PCFParameter param = ArrayUtils.isEmpty(params) ? null : params[0];
 
 			return resolvePCFParamValue(locator, param);
 		} catch (NoSuchElementException exc) {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.utils;
+
+import java.util.*;
+
+import com.ibm.mq.headers.pcf.PCFContent;
+import com.ibm.mq.headers.pcf.PCFParameter;
+
+/**
+ * Indexes PCF content parameters by parameter identifier, to resolve parameters of same PCF message multiple times
+ * without enumerating all message parameters for every lookup.
+ * <p>
+ * Indexed PCF content is the PCF message (or {@link com.ibm.mq.headers.pcf.MQCFGR} group) provided to constructor and
+ * any of its inner {@link com.ibm.mq.headers.pcf.MQCFGR} groups. Inner groups are indexed lazily on first lookup. Index
+ * is intended to be used for single PCF message parsing and is not thread safe.
+ *
+ * @version $Revision: 1 $
+ *
+ * @see WmqUtils#getParameters(com.ibm.mq.headers.pcf.PCFContent, int)
+ */
+public class PCFParametersIndex {
+	private static final PCFParameter[] NO_PARAMS = new PCFParameter[0];
+
+	private final Map<PCFContent, Map<Integer, PCFParameter[]>> contentIndexes = new IdentityHashMap<>();
+
+	/**
+	 * Constructs a new PCFParametersIndex and indexes parameters of provided PCF content.
+	 *
+	 * @param pcf
+	 *            PCF content (message or parameters group) to index
+	 */
+	public PCFParametersIndex(PCFContent pcf) {
+		getIndex(pcf);
+	}
+
+	/**
+	 * Resolves all PCF parameters matching provided parameter id from provided PCF content. Content gets indexed if it
+	 * is not indexed yet.
+	 *
+	 * @param pcf
+	 *            PCF content (message or parameters group)
+	 * @param paramId
+	 *            PCF parameter identifier
+	 * @return PCF parameters array: empty when no matching parameters available, multiple items usually returned for
+	 *         {@link com.ibm.mq.headers.pcf.MQCFGR} type parameters
+	 */
+	public PCFParameter[] getParameters(PCFContent pcf, int paramId) {
+		PCFParameter[] params = getIndex(pcf).get(paramId);
+		return params == null ? NO_PARAMS : params;
+	}
+
+	private Map<Integer, PCFParameter[]> getIndex(PCFContent pcf) {
+		Map<Integer, PCFParameter[]> index = contentIndexes.get(pcf);
+		if (index == null) {
+			index = buildIndex(pcf);
+			contentIndexes.put(pcf, index);
+		}
+
+		return index;
+	}
+
+	private static Map<Integer, PCFParameter[]> buildIndex(PCFContent pcf) {
+		Map<Integer, PCFParameter[]> index = new HashMap<>(pcf.getParameterCount() * 2);
+		Enumeration<?> params = pcf.getParameters();
+		while (params.hasMoreElements()) {
+			PCFParameter param = (PCFParameter) params.nextElement();
+			PCFParameter[] indexed = index.get(param.getParameter());
+			if (indexed == null) {
+				indexed = new PCFParameter[] { param };
+			} else {
+				indexed = Arrays.copyOf(indexed, indexed.length + 1);
+				indexed[indexed.length - 1] = param;
+			}
+			index.put(param.getParameter(), indexed);
+		}
+
+		return index;
+	}
+}
@@ -23,6 +23,7 @@ import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -44,7 +45,7 @@ import com.jkoolcloud.tnt4j.streams.parsers.MessageType;
 /**
  * WMQ utility methods used by TNT4J-Streams-WMQ module.
  *
- * @version $Revision: 2 $
+ * @version $Revision: 3 $
  */
 public class WmqUtils {
 
@@ -196,7 +197,7 @@ public class WmqUtils {
 		return paramsList.toArray(new PCFParameter[0]);
 	}
 
-	private static final Map<String, Integer> PCF_PARAMS_CACHE = new HashMap<>();
+	private static final Map<String, Integer> PCF_PARAMS_CACHE = new ConcurrentHashMap<>();
 
 	/**
 	 * Translates PCF parameter MQ constant name to constant numeric value.
@@ -216,7 +217,10 @@ public class WmqUtils {
 				paramId = MQConstants.getIntValue(paramIdStr);
 			}
 
-			PCF_PARAMS_CACHE.put(paramIdStr, paramId);
+			Integer cachedId = PCF_PARAMS_CACHE.putIfAbsent(paramIdStr, paramId);
+			if (cachedId != null) {
+				paramId = cachedId;
+			}
 		}
 
 		return paramId;
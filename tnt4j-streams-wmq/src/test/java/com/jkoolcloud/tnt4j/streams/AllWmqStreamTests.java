@@ -20,6 +20,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 import com.jkoolcloud.tnt4j.streams.configure.sax.ConfigParserHandlerTest;
+import com.jkoolcloud.tnt4j.streams.custom.inputs.AllCustomInputsTests;
 import com.jkoolcloud.tnt4j.streams.inputs.AllInputsTests;
 import com.jkoolcloud.tnt4j.streams.parsers.AllParsersTests;
 import com.jkoolcloud.tnt4j.streams.utils.AllUtilsTests;
@@ -29,6 +30,7 @@ import com.jkoolcloud.tnt4j.streams.utils.AllUtilsTests;
  * @version 1.0
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ ConfigParserHandlerTest.class, AllInputsTests.class, AllParsersTests.class, AllUtilsTests.class })
+@Suite.SuiteClasses({ ConfigParserHandlerTest.class, AllCustomInputsTests.class, AllInputsTests.class,
+		AllParsersTests.class, AllUtilsTests.class })
 public class AllWmqStreamTests {
 }
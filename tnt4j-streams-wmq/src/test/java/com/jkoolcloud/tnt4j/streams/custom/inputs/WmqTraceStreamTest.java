@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014-2023 JKOOL, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jkoolcloud.tnt4j.streams.custom.inputs;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.Test;
+
+import com.ibm.mq.constants.MQConstants;
+import com.ibm.mq.headers.pcf.*;
+import com.jkoolcloud.tnt4j.streams.configure.WmqStreamProperties;
+
+/**
+ * @version 1.0
+ */
+public class WmqTraceStreamTest {
+
+	@Test
+	public void testDefaultSplitMode() {
+		WmqTraceStream stream = new WmqTraceStream();
+		assertEquals(WmqTraceStream.SplitMode.MARKER, stream.getProperty(WmqStreamProperties.PROP_TRACES_SPLIT_MODE));
+
+		stream.setProperty(WmqStreamProperties.PROP_TRACES_SPLIT_MODE, "parallel"); // NON-NLS
+		assertEquals(WmqTraceStream.SplitMode.PARALLEL,
+				stream.getProperty(WmqStreamProperties.PROP_TRACES_SPLIT_MODE));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalSplitMode() {
+		new WmqTraceStream().setProperty(WmqStreamProperties.PROP_TRACES_SPLIT_MODE, "SPLIT"); // NON-NLS
+	}
+
+	@Test
+	public void testSplitModesProduceSameItems() throws Exception {
+		List<PCFMessage> messages = Arrays.asList(newTraceMessage(), newTraceMessage());
+
+		// MARKER mode adds marker parameters to original messages, so run it last
+		List<PCFContent> viewItems = streamItems(WmqTraceStream.SplitMode.VIEW, messages);
+		List<PCFContent> parallelItems = streamItems(WmqTraceStream.SplitMode.PARALLEL, messages);
+		List<PCFContent> markerItems = streamItems(WmqTraceStream.SplitMode.MARKER, messages);
+
+		assertEquals(4, markerItems.size());
+		assertSameItems(markerItems, viewItems);
+		assertSameItems(markerItems, parallelItems);
+	}
+
+	private static PCFMessage newTraceMessage() {
+		PCFMessage msg = new PCFMessage(MQConstants.MQCMD_ACTIVITY_TRACE);
+		msg.addParameter(MQConstants.MQCACF_APPL_NAME, "APPL_NAME"); // NON-NLS
+		int[] ops = { MQConstants.MQXF_PUT, MQConstants.MQXF_GET, MQConstants.MQXF_PUT };
+		for (int i = 0; i < ops.length; i++) {
+			MQCFGR trace = new MQCFGR();
+			trace.setParameter(MQConstants.MQGACF_ACTIVITY_TRACE);
+			trace.addParameter(new MQCFIN(MQConstants.MQIACF_OPERATION_ID, ops[i]));
+			trace.addParameter(new MQCFIN(MQConstants.MQIACF_REASON_CODE, i));
+			msg.addParameter(trace);
+		}
+		return msg;
+	}
+
+	private static List<PCFContent> streamItems(WmqTraceStream.SplitMode mode, List<PCFMessage> messages)
+			throws Exception {
+		Deque<PCFContent> pending = new ArrayDeque<>(messages);
+		WmqTraceStream stream = new WmqTraceStream() {
+			@Override
+			PCFContent nextMessage() {
+				return pending.poll();
+			}
+		};
+		stream.setProperty(WmqStreamProperties.PROP_TRACE_OPERATIONS, "MQXF_PUT"); // NON-NLS
+		stream.setProperty(WmqStreamProperties.PROP_TRACES_SPLIT_MODE, mode.name());
+
+		List<PCFContent> items = new ArrayList<>();
+		PCFContent item;
+		while ((item = stream.getNextItem()) != null) {
+			items.add(item);
+		}
+		return items;
+	}
+
+	private static void assertSameItems(List<PCFContent> expected, List<PCFContent> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			List<?> eParams = Collections.list(expected.get(i).getParameters());
+			List<?> aParams = Collections.list(actual.get(i).getParameters());
+			assertEquals(eParams.size(), aParams.size());
+			for (int p = 0; p < eParams.size(); p++) {
+				assertSame(eParams.get(p), aParams.get(p));
+			}
+		}
+	}
+}
@@ -20,17 +20,22 @@ import static com.jkoolcloud.tnt4j.streams.TestUtils.testPropertyList;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.junit.Test;
+import org.mockito.stubbing.Answer;
 
-import com.ibm.mq.MQDestination;
-import com.ibm.mq.MQException;
-import com.ibm.mq.MQQueueManager;
+import com.ibm.mq.*;
+import com.ibm.mq.constants.CMQC;
 import com.ibm.mq.constants.MQConstants;
 import com.jkoolcloud.tnt4j.streams.configure.WmqStreamProperties;
 import com.jkoolcloud.tnt4j.streams.utils.StreamsResources;
+import com.jkoolcloud.tnt4j.streams.utils.StreamsThread;
 import com.jkoolcloud.tnt4j.streams.utils.WmqStreamConstants;
 
 /**
@@ -120,6 +125,265 @@ public class WmqStreamTest {
 		// Verify doesn't throw
 	}
 
+	@Test
+	public void consumersCommitProcessedBatchesTest() throws Exception {
+		AtomicInteger commits = new AtomicInteger();
+		AtomicInteger backouts = new AtomicInteger();
+		for (int i = 0; i < 2; i++) {
+			MQQueueManager qmgr = mockQmgr(commits, backouts);
+			MQDestination dest = mockDestination(new AtomicInteger(), 0, 2);
+			HandlesWmqStream.HANDLES.add(new ImmutablePair<>(qmgr, dest));
+		}
+		HandlesWmqStream stream = startHandlesStream(new HandlesWmqStream(), 2, 2);
+		try {
+			Thread.sleep(300);
+			assertEquals("Batches committed before processing", 0, commits.get());
+
+			Set<Object> items = new HashSet<>();
+			for (int i = 0; i < 4; i++) {
+				items.add(stream.getNextItem());
+			}
+			assertEquals("Unexpected items count", 4, items.size());
+			Thread.sleep(300);
+			assertEquals("Batches committed before items processed", 0, commits.get());
+
+			Iterator<Object> itemsIt = items.iterator();
+			for (int i = 0; i < 3; i++) {
+				stream.processActivityItem((MQMessage) itemsIt.next(), new AtomicBoolean());
+			}
+			// last item is not processed yet, so only one batch can be committed
+			awaitCount(commits, 1);
+			Thread.sleep(300);
+			assertEquals("Unexpected committed batches count", 1, commits.get());
+		} finally {
+			stream.cleanup();
+		}
+		assertEquals("Unexpected committed batches count", 1, commits.get());
+		assertEquals("Unprocessed batch not backed out", 1, backouts.get());
+	}
+
+	@Test
+	public void consumerFailuresCountTest() throws Exception {
+		AtomicInteger failingGets = new AtomicInteger();
+		MQDestination failingDest = mockDestination(failingGets, 3, 0);
+		HandlesWmqStream.HANDLES.add(new ImmutablePair<>(mockQmgr(new AtomicInteger(), new AtomicInteger()),
+				failingDest));
+		HandlesWmqStream.HANDLES.add(new ImmutablePair<>(mockQmgr(new AtomicInteger(), new AtomicInteger()),
+				mockDestination(new AtomicInteger(), 0, 0)));
+		HandlesWmqStream stream = startHandlesStream(new HandlesWmqStream(), 2, 2);
+		try {
+			awaitCount(failingGets, 4);
+			awaitCount(HandlesWmqStream.CONNECTED, 2);
+			for (HandlesWmqStream cStream : HandlesWmqStream.CONNECTED_STREAMS) {
+				int expected = cStream.dest == failingDest ? 3 : 0;
+				assertEquals("Unexpected consumer read failures count", expected,
+						cStream.getFailCount(AbstractWmqStream.READ_FAIL_COUNT_KEY));
+			}
+			assertEquals("Stream read failures counted", 0,
+					stream.getFailCount(AbstractWmqStream.READ_FAIL_COUNT_KEY));
+		} finally {
+			stream.cleanup();
+		}
+	}
+
+	@Test
+	public void batchGetCommitsProcessedBatchTest() throws Exception {
+		AtomicInteger commits = new AtomicInteger();
+		AtomicInteger gets = new AtomicInteger();
+		List<MQMessage> gotMessages = new ArrayList<>();
+		HandlesWmqStream.HANDLES.clear();
+		HandlesWmqStream.HANDLES.add(new ImmutablePair<>(mockQmgr(commits, new AtomicInteger()),
+				mockBatchDestination(gets, 5, gotMessages, null)));
+		HandlesWmqStream stream = startHandlesStream(new HandlesWmqStream(), 1, 3);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			List<MQMessage> items = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				items.add(stream.getNextItem());
+			}
+			assertEquals("Unexpected messages got count", 3, gets.get());
+			assertEquals("Batch committed before processing", 0, commits.get());
+
+			stream.processActivityItem(items.get(0), new AtomicBoolean());
+			stream.processActivityItem(items.get(1), new AtomicBoolean());
+			Future<MQMessage> nextItem = executor.submit(stream::getNextItem);
+			Thread.sleep(300);
+			assertFalse("Next batch got before batch processed", nextItem.isDone());
+			assertEquals("Batch committed before all items processed", 0, commits.get());
+
+			stream.processActivityItem(items.get(2), new AtomicBoolean());
+			assertNotNull("Next batch item not got", nextItem.get(5, TimeUnit.SECONDS));
+			assertEquals("Unexpected committed batches count", 1, commits.get());
+			// two messages left and no more messages available ends second batch
+			assertEquals("Unexpected messages got count", 6, gets.get());
+			assertNotNull("Second batch item not got", stream.getNextItem());
+			assertEquals("Unexpected messages got count", 6, gets.get());
+		} finally {
+			executor.shutdownNow();
+			stream.cleanup();
+		}
+	}
+
+	@Test
+	public void batchGetMessageReuseTest() throws Exception {
+		List<MQMessage> gotMessages = new ArrayList<>();
+		HandlesWmqStream.HANDLES.clear();
+		HandlesWmqStream.HANDLES.add(new ImmutablePair<>(mockQmgr(new AtomicInteger(), new AtomicInteger()),
+				mockBatchDestination(new AtomicInteger(), 3, gotMessages, null)));
+		HandlesWmqStream stream = startHandlesStream(new HandlesWmqStream(), 1, 3);
+		try {
+			List<MQMessage> items = new ArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				items.add(stream.getNextItem());
+			}
+			assertEquals("Stream items shall be distinct messages", 3, identityCount(items));
+			assertEquals("Non reusable message got more than once", 3, identityCount(gotMessages));
+		} finally {
+			stream.cleanup();
+		}
+
+		gotMessages.clear();
+		List<Boolean> idsReset = new ArrayList<>();
+		HandlesWmqStream.HANDLES.add(new ImmutablePair<>(mockQmgr(new AtomicInteger(), new AtomicInteger()),
+				mockBatchDestination(new AtomicInteger(), 3, gotMessages, idsReset)));
+		ReusingWmqStream rStream = (ReusingWmqStream) startHandlesStream(new ReusingWmqStream(), 1, 3);
+		try {
+			for (int i = 0; i < 3; i++) {
+				assertNotNull("Stream item not got", rStream.getNextItem());
+			}
+			assertEquals("Unexpected messages got count", 3, gotMessages.size());
+			assertEquals("Reusable message not reused", 1, identityCount(gotMessages));
+			assertEquals("Reused message identifiers not reset", Arrays.asList(true, true, true), idsReset);
+		} finally {
+			rStream.cleanup();
+		}
+	}
+
+	private static int identityCount(Collection<?> objects) {
+		Set<Object> identities = Collections.newSetFromMap(new IdentityHashMap<>());
+		identities.addAll(objects);
+		return identities.size();
+	}
+
+	private static HandlesWmqStream startHandlesStream(HandlesWmqStream stream, int consumers, int batchSize)
+			throws Exception {
+		HandlesWmqStream.CONNECTED.set(0);
+		HandlesWmqStream.CONNECTED_STREAMS.clear();
+		Map<String, String> props = new HashMap<>(6);
+		props.put(WmqStreamProperties.PROP_QMGR_NAME, "TEST"); // NON-NLS
+		props.put(WmqStreamProperties.PROP_QUEUE_NAME, "TEST"); // NON-NLS
+		props.put(WmqStreamProperties.PROP_HOST, "localhost"); // NON-NLS
+		props.put(WmqStreamProperties.PROP_STRIP_HEADERS, String.valueOf(false));
+		props.put(WmqStreamProperties.PROP_CONSUMERS_COUNT, String.valueOf(consumers));
+		props.put(WmqStreamProperties.PROP_GET_BATCH_SIZE, String.valueOf(batchSize));
+		props.put(WmqStreamProperties.PROP_GET_BATCH_WAIT, String.valueOf(50));
+		stream.setProperties(props.entrySet());
+		stream.startStream();
+		return stream;
+	}
+
+	private static MQQueueManager mockQmgr(AtomicInteger commits, AtomicInteger backouts) throws MQException {
+		MQQueueManager qmgr = mock(MQQueueManager.class);
+		when(qmgr.isConnected()).thenReturn(true);
+		doAnswer(invocation -> commits.incrementAndGet()).when(qmgr).commit();
+		doAnswer(invocation -> backouts.incrementAndGet()).when(qmgr).backout();
+		return qmgr;
+	}
+
+	private static MQDestination mockDestination(AtomicInteger gets, int failures, int messages) throws MQException {
+		MQDestination dest = mock(MQDestination.class);
+		when(dest.getName()).thenReturn("TEST"); // NON-NLS
+		doAnswer(getAnswer(gets, failures, messages)).when(dest).get(any(MQMessage.class),
+				any(MQGetMessageOptions.class));
+		return dest;
+	}
+
+	private static MQDestination mockBatchDestination(AtomicInteger gets, int messages, List<MQMessage> gotMessages,
+			List<Boolean> idsReset) throws MQException {
+		MQDestination dest = mock(MQDestination.class);
+		when(dest.getName()).thenReturn("TEST"); // NON-NLS
+		doAnswer(invocation -> {
+			if (gets.incrementAndGet() > messages) {
+				throw new MQException(MQConstants.MQCC_FAILED, MQConstants.MQRC_NO_MSG_AVAILABLE,
+						invocation.getMock());
+			}
+			MQMessage msg = invocation.getArgument(0);
+			gotMessages.add(msg);
+			if (idsReset != null) {
+				idsReset.add(Arrays.equals(CMQC.MQMI_NONE, msg.messageId)
+						&& Arrays.equals(CMQC.MQCI_NONE, msg.correlationId));
+			}
+			msg.messageId = String.valueOf(gotMessages.size()).getBytes();
+			msg.correlationId = msg.messageId;
+			return null;
+		}).when(dest).get(any(MQMessage.class), any(MQGetMessageOptions.class));
+		return dest;
+	}
+
+	private static Answer<Void> getAnswer(AtomicInteger gets, int failures, int messages) {
+		return invocation -> {
+			int n = gets.incrementAndGet();
+			if (n <= failures) {
+				throw new MQException(MQConstants.MQCC_FAILED, MQConstants.MQRC_NOT_AUTHORIZED, invocation.getMock());
+			}
+			if (n <= failures + messages) {
+				return null;
+			}
+			// no more messages: wait until consumer gets stopped
+			StreamsThread consumer = (StreamsThread) Thread.currentThread();
+			while (!consumer.isStopRunning()) {
+				Thread.sleep(10);
+			}
+			throw new MQException(MQConstants.MQCC_FAILED, MQConstants.MQRC_UNEXPECTED_ERROR, invocation.getMock());
+		};
+	}
+
+	private static void awaitCount(AtomicInteger count, int expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+		while (count.get() < expected && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue("Count has not reached " + expected, count.get() >= expected);
+	}
+
+	/**
+	 * WMQ stream connecting parallel consumers to mocked queue manager handles.
+	 */
+	public static class HandlesWmqStream extends WmqStream {
+		static final Queue<Pair<MQQueueManager, MQDestination>> HANDLES = new ConcurrentLinkedQueue<>();
+		static final Queue<HandlesWmqStream> CONNECTED_STREAMS = new ConcurrentLinkedQueue<>();
+		static final AtomicInteger CONNECTED = new AtomicInteger();
+
+		@Override
+		protected void connectToQmgr() throws Exception {
+			Pair<MQQueueManager, MQDestination> handle = HANDLES.poll();
+			if (handle == null) {
+				throw new MQException(MQConstants.MQCC_FAILED, MQConstants.MQRC_Q_MGR_NOT_AVAILABLE, this);
+			}
+			qmgr = handle.getLeft();
+			dest = handle.getRight();
+			CONNECTED_STREAMS.add(this);
+			CONNECTED.incrementAndGet();
+		}
+	}
+
+	/**
+	 * WMQ stream copying got message, so single MQ message instance is reused for all gets.
+	 */
+	public static class ReusingWmqStream extends HandlesWmqStream {
+		@Override
+		protected MQMessage getActivityDataFromMessage(MQMessage mqMsg) throws Exception {
+			MQMessage copy = new MQMessage();
+			copy.messageId = mqMsg.messageId;
+			return copy;
+		}
+
+		@Override
+		protected boolean isMessageReusable() {
+			return true;
+		}
+	}
+
 	@Test
 	public void testRB() {
 		String keyModule = "WmqStream.stripped.wmq";
@@ -23,6 +23,11 @@ import java.util.Date;
 
 import org.junit.Test;
 
+import com.ibm.mq.constants.MQConstants;
+import com.ibm.mq.headers.pcf.MQCFGR;
+import com.ibm.mq.headers.pcf.MQCFIN;
+import com.ibm.mq.headers.pcf.PCFMessage;
+import com.ibm.mq.headers.pcf.PCFParameter;
 import com.jkoolcloud.tnt4j.sink.DefaultEventSinkFactory;
 import com.jkoolcloud.tnt4j.streams.parsers.MessageType;
 
@@ -112,4 +117,32 @@ public class WmqUtilsTest {
 		assertTrue(payload.length == 222);
 
 	}
+
+	@Test
+	public void testParametersIndex() throws Exception {
+		PCFMessage msg = new PCFMessage(MQConstants.MQCMD_ACTIVITY_TRACE);
+		msg.addParameter(MQConstants.MQCACF_APPL_NAME, "APPL_NAME"); // NON-NLS
+		for (int i = 0; i < 3; i++) {
+			MQCFGR trace = new MQCFGR();
+			trace.setParameter(MQConstants.MQGACF_ACTIVITY_TRACE);
+			trace.addParameter(new MQCFIN(MQConstants.MQIACF_OPERATION_ID, MQConstants.MQXF_PUT));
+			trace.addParameter(new MQCFIN(MQConstants.MQIACF_REASON_CODE, i));
+			msg.addParameter(trace);
+		}
+
+		PCFParametersIndex index = new PCFParametersIndex(msg);
+		assertEquals(1, index.getParameters(msg, MQConstants.MQCACF_APPL_NAME).length);
+		assertEquals(0, index.getParameters(msg, MQConstants.MQIACF_REASON_CODE).length);
+
+		PCFParameter[] traces = index.getParameters(msg, MQConstants.MQGACF_ACTIVITY_TRACE);
+		assertArrayEquals(WmqUtils.getParameters(msg, MQConstants.MQGACF_ACTIVITY_TRACE), traces);
+		for (int i = 0; i < traces.length; i++) {
+			PCFParameter[] rc = index.getParameters((MQCFGR) traces[i], MQConstants.MQIACF_REASON_CODE);
+			assertEquals(1, rc.length);
+			assertEquals(i, ((MQCFIN) rc[0]).getIntValue());
+		}
+
+		assertEquals(MQConstants.MQIACF_REASON_CODE, (int) WmqUtils.getParamId("MQIACF_REASON_CODE")); // NON-NLS
+		assertEquals(1024, (int) WmqUtils.getParamId("1024")); // NON-NLS
+	}
 }
@@ -107,7 +107,7 @@ public class CastIronWsStream extends WsStream {
 		SOAPElement sessionIdElem = soapFactory.createElement("sessionId", "sec", // NON-NLS
 				"http://www.approuter.com/schemas/2008/1/security"); // NON-NLS
 
-		String cachedToken = String.valueOf(StreamsCache.getValue(tokenCacheKey));
+		String cachedToken = String.valueOf(StreamsCache.getValue(getName(), tokenCacheKey));
 		logger().log(OpLevel.DEBUG, StreamsResources.getBundle(WsStreamConstants.RESOURCE_BUNDLE_NAME),
 				"CastIronStream.adding.req.header", sessionIdElem.getLocalName(), cachedToken);
 		sessionIdElem.setTextContent(cachedToken);
@@ -135,7 +135,7 @@ public class CastIronWsStream extends WsStream {
 				}
 
 				login(scenario.getLoginStep());
-				String cachedToken = String.valueOf(StreamsCache.getValue(tokenCacheKey));
+				String cachedToken = String.valueOf(StreamsCache.getValue(getName(), tokenCacheKey));
 				throw new RuntimeException(StreamsResources.getStringFormatted(WsStreamConstants.RESOURCE_BUNDLE_NAME,
 						"CastIronStream.logged.in.after.fault", scenario.getName(), cachedToken));
 			} finally {
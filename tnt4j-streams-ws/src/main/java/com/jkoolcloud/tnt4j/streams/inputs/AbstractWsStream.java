@@ -685,14 +685,14 @@ public abstract class AbstractWsStream<RQ, RS> extends AbstractBufferedStream<Ws
 	 * @return variable resolved value
 	 *
 	 * @see #getReqContextProperty(String, com.jkoolcloud.tnt4j.streams.inputs.AbstractWsStream.DataFillContext)
-	 * @see com.jkoolcloud.tnt4j.streams.utils.StreamsCache#getValue(String)
+	 * @see com.jkoolcloud.tnt4j.streams.utils.StreamsCache#getValue(String, String)
 	 * @see #getProperty(String)
 	 * @see #evaluateExpr(String)
 	 */
 	protected Object getVariableValue(String varName, DataFillContext context) {
 		Object rValue = getReqContextProperty(varName, context);
 		if (rValue == null) {
-			rValue = StreamsCache.getValue(varName);
+			rValue = StreamsCache.getValue(getName(), varName);
 		}
 		if (rValue == null) {
 			rValue = getProperty(varName);